@@ -36,10 +36,10 @@ import android.os.Build;
 import android.os.Build.VERSION_CODES;
 import android.os.Bundle;
 import android.os.Handler;
-import android.util.Log;
 import android.view.KeyEvent;
 import android.view.Menu;
 import android.view.View;
+import android.view.ViewTreeObserver;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.EditText;
 import android.widget.TextView;
@@ -52,6 +52,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.app.AppCompatDelegate;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.content.ContextCompat;
+import androidx.core.os.ConfigurationCompat;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.fragment.app.Fragment;
 import androidx.fragment.app.FragmentManager;
@@ -65,16 +66,11 @@ import androidx.preference.PreferenceManager;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 import com.google.android.material.snackbar.Snackbar;
 import info.guardianproject.netcipher.proxy.OrbotHelper;
-import java.security.NoSuchAlgorithmException;
-import java.security.Security;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLEngine;
-import org.conscrypt.Conscrypt;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.behavior.BottomAppBarRefreshScrollBehavior;
@@ -83,6 +79,7 @@ import xyz.zedler.patrick.grocy.databinding.ActivityMainBinding;
 import xyz.zedler.patrick.grocy.fragment.BaseFragment;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.CompatibilityBottomSheet;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.StartupHelper;
 import xyz.zedler.patrick.grocy.model.Language;
 import xyz.zedler.patrick.grocy.repository.MainRepository;
 import xyz.zedler.patrick.grocy.util.ClickUtil;
@@ -92,10 +89,12 @@ import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.APPEARANCE;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.NETWORK;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
 import xyz.zedler.patrick.grocy.util.LocaleUtil;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NetUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.RestartUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
+import xyz.zedler.patrick.grocy.web.HassIngressSessionManager;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -118,10 +117,13 @@ public class MainActivity extends AppCompatActivity {
   @Override
   protected void onCreate(Bundle savedInstanceState) {
 
+    StartupHelper.mark("activity create");
     sharedPrefs = PreferenceManager.getDefaultSharedPreferences(this);
     debug = PrefsUtil.isDebuggingEnabled(sharedPrefs);
+    LogUtil.setLogcatEnabled(debug);
 
-    insertConscrypt();
+    // Conscrypt, request queue and database are not needed for the first frame
+    StartupHelper.startBackgroundInit(getApplication(), debug);
 
     // DARK MODE
 
@@ -137,13 +139,17 @@ public class MainActivity extends AppCompatActivity {
     // base
     Resources resBase = getBaseContext().getResources();
     Configuration configBase = resBase.getConfiguration();
-    configBase.setLocale(userLocale);
-    resBase.updateConfiguration(configBase, resBase.getDisplayMetrics());
+    if (!userLocale.equals(ConfigurationCompat.getLocales(configBase).get(0))) {
+      configBase.setLocale(userLocale);
+      resBase.updateConfiguration(configBase, resBase.getDisplayMetrics());
+    }
     // app
     Resources resApp = getApplicationContext().getResources();
     Configuration configApp = resApp.getConfiguration();
-    configApp.setLocale(userLocale);
-    resApp.updateConfiguration(configApp, getResources().getDisplayMetrics());
+    if (!userLocale.equals(ConfigurationCompat.getLocales(configApp).get(0))) {
+      configApp.setLocale(userLocale);
+      resApp.updateConfiguration(configApp, getResources().getDisplayMetrics());
+    }
     // set localized demo instance
     String serverUrl = sharedPrefs.getString(Constants.PREF.SERVER_URL, null);
     if (serverUrl != null && serverUrl.contains("demo.grocy.info")
@@ -202,6 +208,17 @@ public class MainActivity extends AppCompatActivity {
 
     binding = ActivityMainBinding.inflate(getLayoutInflater());
     setContentView(binding.getRoot());
+    StartupHelper.mark("content view");
+    binding.getRoot().getViewTreeObserver().addOnPreDrawListener(
+        new ViewTreeObserver.OnPreDrawListener() {
+          @Override
+          public boolean onPreDraw() {
+            binding.getRoot().getViewTreeObserver().removeOnPreDrawListener(this);
+            StartupHelper.mark("first frame");
+            return true;
+          }
+        }
+    );
 
     fragmentManager = getSupportFragmentManager();
 
@@ -267,12 +284,19 @@ public class MainActivity extends AppCompatActivity {
       showBottomSheet(new CompatibilityBottomSheet(), bundle);
     };
     if (!isServerUrlEmpty()) {
-      ConfigUtil.loadInfo(
+      // the cached info is used right away, the server is only asked again in the background
+      binding.getRoot().post(onSuccessConfigLoad);
+      String cachedVersion = sharedPrefs.getString(Constants.PREF.GROCY_VERSION, null);
+      ConfigUtil.revalidateInfo(
           new DownloadHelper(this, TAG),
           grocyApi,
           sharedPrefs,
-          onSuccessConfigLoad,
-          null
+          () -> {
+            String version = sharedPrefs.getString(Constants.PREF.GROCY_VERSION, null);
+            if (!Objects.equals(version, cachedVersion)) {
+              onSuccessConfigLoad.run();
+            }
+          }
       );
     }
   }
@@ -513,7 +537,7 @@ public class MainActivity extends AppCompatActivity {
     String tag = bottomSheet.toString();
     bottomSheet.show(fragmentManager, tag);
     if (debug) {
-      Log.i(TAG, "showBottomSheet: " + bottomSheet);
+      LogUtil.i(TAG, "showBottomSheet: " + bottomSheet);
     }
   }
 
@@ -580,7 +604,11 @@ public class MainActivity extends AppCompatActivity {
     editPrefs.remove(Constants.PREF.DB_LAST_TIME_PRODUCTS_AVERAGE_PRICE);
     editPrefs.remove(Constants.PREF.DB_LAST_TIME_PRODUCT_BARCODES);
     editPrefs.remove(Constants.PREF.DB_LAST_TIME_VOLATILE);
-    editPrefs.remove(Constants.PREF.DB_LAST_TIME_VOLATILE_MISSING);
+    editPrefs.remove(Constants.PREF.OVERVIEW_AGGREGATES);
+    editPrefs.remove(Constants.PREF.CONFIG_HASH_SYSTEM_CONFIG);
+    editPrefs.remove(Constants.PREF.CONFIG_HASH_USER_SETTINGS);
+    editPrefs.remove(Constants.PREF.CONFIG_HASH_SYSTEM_INFO);
+    editPrefs.remove(Constants.PREF.CONFIG_LAST_CHECK_TIME);
 
     editPrefs.remove(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY);
     editPrefs.remove(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY_TIME);
@@ -591,6 +619,7 @@ public class MainActivity extends AppCompatActivity {
     editPrefs.remove(Constants.PREF.SHOPPING_LIST_LAST_ID);
     editPrefs.remove(Constants.PREF.GROCY_VERSION);
     editPrefs.apply();
+    HassIngressSessionManager.getInstance(this).reset();
     new Handler().postDelayed(() -> RestartUtil.restartApp(this), 1000);
   }
 
@@ -629,7 +658,7 @@ public class MainActivity extends AppCompatActivity {
       }
     } else {
       if (debug) {
-        Log.i(TAG, "replaceFabIcon: not replaced, tags are identical");
+        LogUtil.i(TAG, "replaceFabIcon: not replaced, tags are identical");
       }
     }
   }
@@ -661,7 +690,7 @@ public class MainActivity extends AppCompatActivity {
     if (Build.VERSION.SDK_INT >= 28) {
       getWindow().setNavigationBarDividerColor(ContextCompat.getColor(this, color));
     } else if (debug) {
-      Log.i(TAG, "setNavBarDividerColor: activity is null or SDK < 28");
+      LogUtil.i(TAG, "setNavBarDividerColor: activity is null or SDK < 28");
     }
   }
 
@@ -705,28 +734,4 @@ public class MainActivity extends AppCompatActivity {
     }
     super.applyOverrideConfiguration(overrideConfiguration);
   }
-
-  private void insertConscrypt() {
-    Security.insertProviderAt(Conscrypt.newProvider(), 1);
-
-    try {
-      Conscrypt.Version version = Conscrypt.version();
-      if (debug) {
-        Log.i(TAG, "insertConscrypt: Using Conscrypt/" + version.major() + "."
-            + version.minor() + "." + version.patch() + " for TLS");
-      }
-      SSLEngine engine = SSLContext.getDefault().createSSLEngine();
-      if (debug) {
-        Log.i(TAG, "Enabled protocols: "
-            + Arrays.toString(engine.getEnabledProtocols()) + " }");
-      }
-      if (debug) {
-        Log.i(TAG, "Enabled ciphers: "
-            + Arrays.toString(engine.getEnabledCipherSuites()) + " }");
-      }
-    } catch (NoSuchAlgorithmException e) {
-      Log.e(TAG, "insertConscrypt: NoSuchAlgorithmException");
-      Log.e(TAG, e.getMessage() != null ? e.getMessage() : e.toString());
-    }
-  }
 }
\ No newline at end of file
@@ -33,19 +33,34 @@ import androidx.appcompat.app.AppCompatDelegate;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.preference.PreferenceManager;
 import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.helper.StartupHelper;
+import xyz.zedler.patrick.grocy.repository.OverviewStartRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.APPEARANCE;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class SplashActivity extends AppCompatActivity {
 
   public void onCreate(Bundle bundle) {
+    StartupHelper.mark("splash create");
     SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(this);
     int theme = sharedPrefs.getInt(APPEARANCE.THEME, SETTINGS_DEFAULT.APPEARANCE.THEME);
     AppCompatDelegate.setDefaultNightMode(theme);
 
     super.onCreate(bundle);
 
+    // let the database open and the start page data load while the splash screen is shown
+    boolean debug = PrefsUtil.isDebuggingEnabled(sharedPrefs);
+    LogUtil.setLogcatEnabled(debug);
+    StartupHelper.startBackgroundInit(getApplication(), debug);
+    String serverUrl = sharedPrefs.getString(Constants.PREF.SERVER_URL, null);
+    if (sharedPrefs.getBoolean(Constants.PREF.INTRO_SHOWN, false)
+        && serverUrl != null && !serverUrl.isEmpty()) {
+      OverviewStartRepository.prefetch(getApplication());
+    }
+
     if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
       startMainActivity();
       return;
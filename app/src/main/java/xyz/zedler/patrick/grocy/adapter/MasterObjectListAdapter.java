@@ -32,6 +32,7 @@ import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Set;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.databinding.RowFilterChipsBinding;
@@ -49,19 +50,22 @@ public class MasterObjectListAdapter extends
   private final MasterObjectListAdapterListener listener;
   private final String entity;
   private final HorizontalFilterBarMulti horizontalFilterBarMulti;
+  private final Set<Integer> selectedIds;
 
   public MasterObjectListAdapter(
       Context context,
       String entity,
       ArrayList<Object> objects,
       MasterObjectListAdapterListener listener,
-      HorizontalFilterBarMulti horizontalFilterBarMulti
+      HorizontalFilterBarMulti horizontalFilterBarMulti,
+      Set<Integer> selectedIds
   ) {
     this.context = context;
     this.objects = new ArrayList<>(objects);
     this.listener = listener;
     this.entity = entity;
     this.horizontalFilterBarMulti = horizontalFilterBarMulti;
+    this.selectedIds = selectedIds;
   }
 
   @Override
@@ -183,9 +187,30 @@ public class MasterObjectListAdapter extends
     holder.textViewName.setText(ObjectUtil.getObjectName(object, entity));
 
     // CONTAINER
-    holder.linearLayoutItemContainer.setOnClickListener(
-        view -> listener.onItemRowClicked(object)
+    boolean isSelected = selectedIds.contains(ObjectUtil.getObjectId(object, entity));
+    holder.linearLayoutItemContainer.setBackgroundResource(
+        isSelected ? R.drawable.bg_list_item_selected : R.drawable.bg_list_item
     );
+    holder.linearLayoutItemContainer.setOnClickListener(view -> {
+      if (selectedIds.isEmpty()) {
+        listener.onItemRowClicked(object);
+      } else {
+        listener.onItemRowSelectionToggled(object);
+      }
+    });
+    if (entity.equals(GrocyApi.ENTITY.PRODUCTS)) { // bulk editing is only for products
+      holder.linearLayoutItemContainer.setOnLongClickListener(view -> {
+        listener.onItemRowSelectionToggled(object);
+        return true;
+      });
+    } else {
+      holder.linearLayoutItemContainer.setOnLongClickListener(null);
+    }
+  }
+
+  public void notifySelectionChanged() {
+    int offset = entity.equals(GrocyApi.ENTITY.PRODUCTS) ? 1 : 0;
+    notifyItemRangeChanged(offset, objects.size());
   }
 
   public void updateData(ArrayList<Object> newObjects) {
@@ -289,5 +314,7 @@ public class MasterObjectListAdapter extends
   public interface MasterObjectListAdapterListener {
 
     void onItemRowClicked(Object object);
+
+    void onItemRowSelectionToggled(Object object);
   }
 }
@@ -27,6 +27,7 @@ import android.widget.ArrayAdapter;
 import android.widget.Filter;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -40,12 +41,23 @@ public class MatchProductsArrayAdapter extends ArrayAdapter<Product> {
   final int resource;
   final List<Product> items;
   final HashMap<String, Product> tempItems;
+  final TopMatchListener topMatchListener;
 
   public MatchProductsArrayAdapter(Context context, int resource, List<Product> items) {
+    this(context, resource, items, null);
+  }
+
+  public MatchProductsArrayAdapter(
+      Context context,
+      int resource,
+      List<Product> items,
+      @Nullable TopMatchListener topMatchListener
+  ) {
     super(context, resource, items);
     this.context = context;
     this.resource = resource;
     this.items = items;
+    this.topMatchListener = topMatchListener;
     tempItems = new HashMap<>(); // this makes the difference.
     for (Product product : items) {
       tempItems.put(product.getName().toLowerCase(), product);
@@ -119,6 +131,19 @@ public class MatchProductsArrayAdapter extends ArrayAdapter<Product> {
           notifyDataSetChanged();
         }
       }
+      if (topMatchListener != null && constraint != null) {
+        topMatchListener.onTopMatch(
+            constraint.toString(), results.count > 0 ? filterList.get(0) : null
+        );
+      }
     }
   };
+
+  public interface TopMatchListener {
+
+    /**
+     * Called with the best matching product for the input after each filtering, null if none.
+     */
+    void onTopMatch(String input, @Nullable Product product);
+  }
 }
@@ -0,0 +1,138 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.adapter;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.model.PendingPurchase;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.QuantityUnit;
+import xyz.zedler.patrick.grocy.util.NumUtil;
+import xyz.zedler.patrick.grocy.util.PluralUtil;
+import xyz.zedler.patrick.grocy.view.ActionButton;
+
+public class ScanBatchItemAdapter extends RecyclerView.Adapter<ScanBatchItemAdapter.ViewHolder> {
+
+  private final Context context;
+  private final List<PendingPurchase> purchases;
+  private final HashMap<Integer, Product> productHashMap;
+  private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
+  private final PluralUtil pluralUtil;
+  private final ScanBatchItemAdapterListener listener;
+
+  public ScanBatchItemAdapter(
+      Context context,
+      List<PendingPurchase> purchases,
+      HashMap<Integer, Product> productHashMap,
+      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+      ScanBatchItemAdapterListener listener
+  ) {
+    this.context = context;
+    this.purchases = new ArrayList<>(purchases);
+    this.productHashMap = productHashMap;
+    this.quantityUnitHashMap = quantityUnitHashMap;
+    this.pluralUtil = new PluralUtil(context);
+    this.listener = listener;
+  }
+
+  public static class ViewHolder extends RecyclerView.ViewHolder {
+
+    private final TextView name;
+    private final TextView subtitle;
+    private final ActionButton remove;
+
+    public ViewHolder(View view) {
+      super(view);
+
+      name = view.findViewById(R.id.text_scan_batch_item_name);
+      subtitle = view.findViewById(R.id.text_scan_batch_item_subtitle);
+      remove = view.findViewById(R.id.button_scan_batch_item_remove);
+    }
+  }
+
+  @NonNull
+  @Override
+  public ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+    return new ViewHolder(
+        LayoutInflater.from(parent.getContext()).inflate(
+            R.layout.row_scan_batch_item,
+            parent,
+            false
+        )
+    );
+  }
+
+  @Override
+  public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
+    PendingPurchase purchase = purchases.get(holder.getAdapterPosition());
+    Product product = purchase.getProductId() != null && productHashMap != null
+        ? productHashMap.get(purchase.getProductId()) : null;
+
+    holder.name.setText(product != null ? product.getName() : null);
+
+    double amount = NumUtil.toDouble(purchase.getAmount());
+    QuantityUnit quantityUnit = product != null && quantityUnitHashMap != null
+        ? quantityUnitHashMap.get(product.getQuIdStockInt()) : null;
+    String subtitle = context.getString(
+        R.string.subtitle_amount,
+        NumUtil.trim(amount),
+        pluralUtil.getQuantityUnitPlural(quantityUnit, amount)
+    );
+    if (NumUtil.isStringDouble(purchase.getPrice())) {
+      subtitle += ", " + NumUtil.trimPrice(NumUtil.toDouble(purchase.getPrice()));
+    }
+    if (purchase.isUploadStarted()) {
+      subtitle += "\n" + context.getString(R.string.msg_scan_batch_upload_started);
+    }
+    holder.subtitle.setText(subtitle);
+
+    holder.remove.setOnClickListener(v -> {
+      holder.remove.startIconAnimation();
+      listener.onItemRemoveClicked(purchase);
+    });
+  }
+
+  @SuppressLint("NotifyDataSetChanged")
+  public void updateData(List<PendingPurchase> purchasesNew) {
+    purchases.clear();
+    purchases.addAll(purchasesNew);
+    notifyDataSetChanged();
+  }
+
+  @Override
+  public int getItemCount() {
+    return purchases.size();
+  }
+
+  public interface ScanBatchItemAdapterListener {
+
+    void onItemRemoveClicked(PendingPurchase purchase);
+  }
+}
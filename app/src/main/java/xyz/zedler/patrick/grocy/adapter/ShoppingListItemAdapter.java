@@ -22,19 +22,26 @@ package xyz.zedler.patrick.grocy.adapter;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.Paint;
+import android.graphics.Typeface;
 import android.text.Html;
 import android.text.Spanned;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Objects;
+import java.util.HashSet;
+import java.util.Set;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingListBottomNotesBinding;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingListGroupBinding;
@@ -49,7 +56,9 @@ import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.ShoppingListBottomNotes;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.ShoppingListItemViewState;
 import xyz.zedler.patrick.grocy.model.Store;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
@@ -61,15 +70,15 @@ public class ShoppingListItemAdapter extends
   private final static String TAG = ShoppingListItemAdapter.class.getSimpleName();
 
   private final ArrayList<GroupedListItem> groupedListItems;
-  private final HashMap<Integer, Product> productHashMap;
-  private final HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
-  private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private final HashMap<Integer, Double> shoppingListItemAmountsHashMap;
-  private final ArrayList<Integer> missingProductIds;
+  // aligned with groupedListItems, null for headers and notes
+  private final ArrayList<ShoppingListItemViewState> viewStates;
   private final ShoppingListItemAdapterListener listener;
   private final PluralUtil pluralUtil;
-  private String groupingMode;
-  private String extraField;
+  private final Typeface fontMedium;
+  private final Typeface fontBook;
+  private final int colorSecondary;
+  private final int colorMissing;
+  private Disposable updateDisposable;
 
   public ShoppingListItemAdapter(
       Context context,
@@ -87,18 +96,19 @@ public class ShoppingListItemAdapter extends
       String groupingMode,
       String extraField
   ) {
-    this.productHashMap = new HashMap<>(productHashMap);
-    this.productLastPurchasedHashMap = new HashMap<>(productLastPurchasedHashMap);
-    this.quantityUnitHashMap = new HashMap<>(quantityUnitHashMap);
-    this.shoppingListItemAmountsHashMap = new HashMap<>(shoppingListItemAmountsHashMap);
-    this.missingProductIds = new ArrayList<>(missingProductIds);
     this.listener = listener;
     this.pluralUtil = new PluralUtil(context);
-    this.groupingMode = groupingMode;
-    this.extraField = extraField;
+    this.fontMedium = ResourcesCompat.getFont(context, R.font.jost_medium);
+    this.fontBook = ResourcesCompat.getFont(context, R.font.jost_book);
+    this.colorSecondary = ContextCompat.getColor(context, R.color.on_background_secondary);
+    this.colorMissing = ContextCompat.getColor(context, R.color.retro_blue_fg);
+    // first list is prepared synchronously so that the layout animation has items to show
     this.groupedListItems = getGroupedListItems(context, shoppingListItems,
         productGroupHashMap, productHashMap, productNamesHashMap, storeHashMap,
         shoppingListNotes, groupingMode);
+    this.viewStates = getViewStates(context, groupedListItems, productHashMap,
+        productLastPurchasedHashMap, quantityUnitHashMap, shoppingListItemAmountsHashMap,
+        new HashSet<>(missingProductIds), extraField);
   }
 
   static ArrayList<GroupedListItem> getGroupedListItems(
@@ -215,6 +225,87 @@ public class ShoppingListItemAdapter extends
     }
   }
 
+  private ArrayList<ShoppingListItemViewState> getViewStates(
+      Context context,
+      ArrayList<GroupedListItem> groupedListItems,
+      HashMap<Integer, Product> productHashMap,
+      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
+      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+      HashMap<Integer, Double> shoppingListItemAmountsHashMap,
+      Set<Integer> missingProductIds,
+      String extraField
+  ) {
+    ArrayList<ShoppingListItemViewState> viewStates = new ArrayList<>(groupedListItems.size());
+    for (GroupedListItem groupedListItem : groupedListItems) {
+      if (!(groupedListItem instanceof ShoppingListItem)) {
+        viewStates.add(null);
+        continue;
+      }
+      ShoppingListItem item = (ShoppingListItem) groupedListItem;
+      Product product = item.hasProduct() ? productHashMap.get(item.getProductIdInt()) : null;
+      Double amountInQuUnit = shoppingListItemAmountsHashMap.get(item.getId());
+
+      String extraFieldText = null;
+      if (extraField.equals(FilterChipLiveDataShoppingListExtraField.EXTRA_FIELD_LAST_PRICE_UNIT)
+          || extraField.equals(FilterChipLiveDataShoppingListExtraField.EXTRA_FIELD_LAST_PRICE_TOTAL)
+      ) {
+        ProductLastPurchased p = product != null
+            ? productLastPurchasedHashMap.get(product.getId()) : null;
+        if (p != null && p.getPrice() != null && !p.getPrice().isEmpty()) {
+          if (extraField
+              .equals(FilterChipLiveDataShoppingListExtraField.EXTRA_FIELD_LAST_PRICE_TOTAL)) {
+            double amount = amountInQuUnit != null ? amountInQuUnit : item.getAmountDouble();
+            extraFieldText = NumUtil.isStringDouble(p.getPrice())
+                ? NumUtil.trimPrice(NumUtil.toDouble(p.getPrice()) * amount) : p.getPrice();
+          } else {
+            extraFieldText = NumUtil.isStringDouble(p.getPrice())
+                ? NumUtil.trimPrice(NumUtil.toDouble(p.getPrice())) : p.getPrice();
+          }
+        }
+      }
+
+      String note = item.getNote() != null ? item.getNote().trim() : null;
+      viewStates.add(new ShoppingListItemViewState(
+          item.getId(),
+          product != null ? product.getName() : null,
+          getAmountText(context, item, product, quantityUnitHashMap, amountInQuUnit, pluralUtil),
+          item.hasProduct() && missingProductIds.contains(item.getProductIdInt()),
+          note != null && !note.isEmpty() ? note : null,
+          !item.isUndone(),
+          extraFieldText
+      ));
+    }
+    return viewStates;
+  }
+
+  private static String getAmountText(
+      Context context,
+      ShoppingListItem item,
+      Product product,
+      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+      Double amountInQuUnit,
+      PluralUtil pluralUtil
+  ) {
+    if (product == null) {
+      return NumUtil.trim(item.getAmountDouble());
+    }
+    double amount;
+    QuantityUnit quantityUnit;
+    if (amountInQuUnit != null) {
+      amount = amountInQuUnit;
+      quantityUnit = quantityUnitHashMap.get(item.getQuIdInt());
+    } else {
+      amount = item.getAmountDouble();
+      quantityUnit = quantityUnitHashMap.get(product.getQuIdStockInt());
+    }
+    String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, amount);
+    if (quStr != null) {
+      return context.getString(R.string.subtitle_amount, NumUtil.trim(amount), quStr);
+    } else {
+      return NumUtil.trim(amount);
+    }
+  }
+
   public static class ViewHolder extends RecyclerView.ViewHolder {
 
     public ViewHolder(View view) {
@@ -318,166 +409,41 @@ public class ShoppingListItemAdapter extends
       return;
     }
 
-    ShoppingListItem item = (ShoppingListItem) groupedListItem;
+    ShoppingListItemViewState viewState = viewStates.get(viewHolder.getAdapterPosition());
     RowShoppingListItemBinding binding = ((ShoppingListItemViewHolder) viewHolder).binding;
+    float alpha = viewState.isDone() ? 0.6f : 1.0f;
 
     // NAME
 
-    Product product = null;
-    if (item.hasProduct()) {
-      product = productHashMap.get(item.getProductIdInt());
-    }
-
-    if (product != null) {
-      binding.name.setText(product.getName());
-      binding.name.setVisibility(View.VISIBLE);
-    } else {
-      binding.name.setText(null);
-      binding.name.setVisibility(View.GONE);
-    }
-    if (item.isUndone()) {
-      binding.name.setPaintFlags(
-          binding.name.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG)
-      );
-      binding.name.setAlpha(1.0f);
-    } else {
-      binding.name.setPaintFlags(
-          binding.name.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG
-      );
-      binding.name.setAlpha(0.6f);
-    }
-
-    // NOTE AS NAME
-
-    if (binding.name.getVisibility() == View.VISIBLE) {
-      binding.noteAsName.setVisibility(View.GONE);
-      binding.noteAsName.setText(null);
-    }
+    boolean hasName = viewState.getName() != null;
+    binding.name.setText(viewState.getName());
+    binding.name.setVisibility(hasName ? View.VISIBLE : View.GONE);
+    setStrikeThrough(binding.name, viewState.isDone());
+    binding.name.setAlpha(alpha);
 
     // AMOUNT
 
-    Double amountInQuUnit = shoppingListItemAmountsHashMap.get(item.getId());
-    if (product != null && amountInQuUnit != null) {
-      QuantityUnit quantityUnit = quantityUnitHashMap.get(item.getQuIdInt());
-      String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, amountInQuUnit);
-      if (quStr != null) {
-        binding.amount.setText(
-            binding.amount.getContext()
-                .getString(R.string.subtitle_amount, NumUtil.trim(amountInQuUnit), quStr)
-        );
-      } else {
-        binding.amount.setText(NumUtil.trim(amountInQuUnit));
-      }
-    } else if (product != null) {
-      QuantityUnit quantityUnit = quantityUnitHashMap.get(product.getQuIdStockInt());
-      String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, item.getAmountDouble());
-      if (quStr != null) {
-        binding.amount.setText(
-            binding.amount.getContext()
-                .getString(R.string.subtitle_amount, NumUtil.trim(item.getAmountDouble()), quStr)
-        );
-      } else {
-        binding.amount.setText(NumUtil.trim(item.getAmountDouble()));
-      }
-    } else {
-      binding.amount.setText(NumUtil.trim(item.getAmountDouble()));
-    }
-
-    if (item.hasProduct() && missingProductIds.contains(item.getProductIdInt())) {
-      binding.amount.setTypeface(
-          ResourcesCompat.getFont(binding.amount.getContext(), R.font.jost_medium)
-      );
-      binding.amount.setTextColor(
-          ContextCompat.getColor(binding.amount.getContext(), R.color.retro_blue_fg)
-      );
-    } else {
-      binding.amount.setTypeface(
-          ResourcesCompat.getFont(binding.amount.getContext(), R.font.jost_book)
-      );
-      binding.amount.setTextColor(
-          ContextCompat.getColor(binding.amount.getContext(), R.color.on_background_secondary)
-      );
-    }
-    if (item.isUndone()) {
-      binding.amount.setPaintFlags(
-          binding.amount.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG)
-      );
-      binding.amount.setAlpha(1.0f);
-    } else {
-      binding.amount.setPaintFlags(
-          binding.amount.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG
-      );
-      binding.amount.setAlpha(0.6f);
-    }
+    binding.amount.setText(viewState.getAmountText());
+    binding.amount.setTypeface(viewState.isMissing() ? fontMedium : fontBook);
+    binding.amount.setTextColor(viewState.isMissing() ? colorMissing : colorSecondary);
+    setStrikeThrough(binding.amount, viewState.isDone());
+    binding.amount.setAlpha(alpha);
 
     // NOTE
 
-    if (item.getNote() != null && !item.getNote().trim().isEmpty()) {
-      if (binding.name.getVisibility() == View.VISIBLE) {
-        binding.note.setVisibility(View.VISIBLE);
-        binding.note.setText(item.getNote().trim());
-      } else {
-        binding.noteAsName.setVisibility(View.VISIBLE);
-        binding.noteAsName.setText(item.getNote().trim());
-        binding.note.setVisibility(View.GONE);
-        binding.note.setText(null);
-      }
-    } else {
-      if (binding.name.getVisibility() == View.VISIBLE) {
-        binding.note.setVisibility(View.GONE);
-        binding.note.setText(null);
-      }
-    }
-    if (binding.noteAsName.getVisibility() == View.VISIBLE) {
-      if (item.isUndone()) {
-        binding.noteAsName.setPaintFlags(
-            binding.noteAsName.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG)
-        );
-        binding.noteAsName.setAlpha(1.0f);
-      } else {
-        binding.noteAsName.setPaintFlags(
-            binding.noteAsName.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG
-        );
-        binding.noteAsName.setAlpha(0.6f);
-      }
-    } else {
-      if (item.isUndone()) {
-        binding.note.setPaintFlags(
-            binding.note.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG)
-        );
-        binding.note.setAlpha(1.0f);
-      } else {
-        binding.note.setPaintFlags(
-            binding.note.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG
-        );
-        binding.note.setAlpha(0.6f);
-      }
-    }
-
-    if (extraField.equals(FilterChipLiveDataShoppingListExtraField.EXTRA_FIELD_LAST_PRICE_UNIT)
-        || extraField.equals(FilterChipLiveDataShoppingListExtraField.EXTRA_FIELD_LAST_PRICE_TOTAL)
-    ) {
-      ProductLastPurchased p = product != null
-          ? productLastPurchasedHashMap.get(product.getId()) : null;
-      if (p != null && p.getPrice() != null && !p.getPrice().isEmpty()) {
-        String price;
-        if (extraField
-            .equals(FilterChipLiveDataShoppingListExtraField.EXTRA_FIELD_LAST_PRICE_TOTAL)) {
-          double amount = amountInQuUnit != null ? amountInQuUnit : item.getAmountDouble();
-          price = NumUtil.isStringDouble(p.getPrice())
-              ? NumUtil.trimPrice(NumUtil.toDouble(p.getPrice()) * amount) : p.getPrice();
-        } else {
-          price = NumUtil.isStringDouble(p.getPrice())
-              ? NumUtil.trimPrice(NumUtil.toDouble(p.getPrice())) : p.getPrice();
-        }
-        binding.extraField.setText(price);
-        binding.extraField.setVisibility(View.VISIBLE);
-      } else {
-        binding.extraField.setVisibility(View.GONE);
-      }
-    } else {
-      binding.extraField.setVisibility(View.GONE);
-    }
+    TextView noteView = hasName ? binding.note : binding.noteAsName;
+    TextView unusedNoteView = hasName ? binding.noteAsName : binding.note;
+    noteView.setText(viewState.getNote());
+    noteView.setVisibility(viewState.getNote() != null ? View.VISIBLE : View.GONE);
+    setStrikeThrough(noteView, viewState.isDone());
+    noteView.setAlpha(alpha);
+    unusedNoteView.setText(null);
+    unusedNoteView.setVisibility(View.GONE);
+
+    binding.extraField.setText(viewState.getExtraFieldText());
+    binding.extraField.setVisibility(
+        viewState.getExtraFieldText() != null ? View.VISIBLE : View.GONE
+    );
 
     // CONTAINER
 
@@ -487,6 +453,21 @@ public class ShoppingListItemAdapter extends
 
   }
 
+  private static void setStrikeThrough(TextView textView, boolean strikeThrough) {
+    if (strikeThrough) {
+      textView.setPaintFlags(textView.getPaintFlags() | Paint.STRIKE_THRU_TEXT_FLAG);
+    } else {
+      textView.setPaintFlags(textView.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG));
+    }
+  }
+
+  @Override
+  public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+    if (updateDisposable != null) {
+      updateDisposable.dispose();
+    }
+  }
+
   @Override
   public int getItemCount() {
     return groupedListItems.size();
@@ -543,30 +524,8 @@ public class ShoppingListItemAdapter extends
 
     // AMOUNT
 
-    Double amountInQuUnit = shoppingListItemAmountsHashMap.get(item.getId());
-    if (product != null && amountInQuUnit != null) {
-      QuantityUnit quantityUnit = quantityUnitHashMap.get(item.getQuIdInt());
-      String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, amountInQuUnit);
-      if (quStr != null) {
-        binding.amount.setText(
-            context.getString(R.string.subtitle_amount, NumUtil.trim(amountInQuUnit), quStr)
-        );
-      } else {
-        binding.amount.setText(NumUtil.trim(amountInQuUnit));
-      }
-    } else if (product != null) {
-      QuantityUnit quantityUnit = quantityUnitHashMap.get(product.getQuIdStockInt());
-      String quStr = pluralUtil.getQuantityUnitPlural(quantityUnit, item.getAmountDouble());
-      if (quStr != null) {
-        binding.amount.setText(
-            context.getString(R.string.subtitle_amount, NumUtil.trim(item.getAmountDouble()), quStr)
-        );
-      } else {
-        binding.amount.setText(NumUtil.trim(item.getAmountDouble()));
-      }
-    } else {
-      binding.amount.setText(NumUtil.trim(item.getAmountDouble()));
-    }
+    binding.amount.setText(getAmountText(context, item, product, quantityUnitHashMap,
+        shoppingListItemAmountsHashMap.get(item.getId()), pluralUtil));
 
     binding.amount.setTypeface(
         ResourcesCompat.getFont(context, R.font.jost_book)
@@ -623,6 +582,10 @@ public class ShoppingListItemAdapter extends
     }
   }
 
+  /**
+   * Groups the items, builds the row view states and diffs them against the displayed list in
+   * the background. A newer update discards the result of one which is still in progress.
+   */
   public void updateData(
       Context context,
       ArrayList<ShoppingListItem> shoppingListItems,
@@ -638,98 +601,69 @@ public class ShoppingListItemAdapter extends
       String groupingMode,
       String extraField
   ) {
-    ArrayList<GroupedListItem> newGroupedListItems = getGroupedListItems(context, shoppingListItems,
-        productGroupHashMap, productHashMap, productNamesHashMap, storeHashMap,
-        shoppingListNotes, groupingMode);
-    ShoppingListItemAdapter.DiffCallback diffCallback = new ShoppingListItemAdapter.DiffCallback(
-        this.groupedListItems,
-        newGroupedListItems,
-        this.productHashMap,
-        productHashMap,
-        this.productLastPurchasedHashMap,
-        productLastPurchasedHashMap,
-        this.quantityUnitHashMap,
-        quantityUnitHashMap,
-        this.shoppingListItemAmountsHashMap,
-        shoppingListItemAmountsHashMap,
-        this.missingProductIds,
-        missingProductIds,
-        this.groupingMode,
-        groupingMode,
-        this.extraField,
-        extraField
-    );
-    DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(diffCallback);
-    this.groupedListItems.clear();
-    this.groupedListItems.addAll(newGroupedListItems);
-    this.productHashMap.clear();
-    this.productHashMap.putAll(productHashMap);
-    this.quantityUnitHashMap.clear();
-    this.quantityUnitHashMap.putAll(quantityUnitHashMap);
-    this.productLastPurchasedHashMap.clear();
-    this.productLastPurchasedHashMap.putAll(productLastPurchasedHashMap);
-    this.shoppingListItemAmountsHashMap.clear();
-    this.shoppingListItemAmountsHashMap.putAll(shoppingListItemAmountsHashMap);
-    this.missingProductIds.clear();
-    this.missingProductIds.addAll(missingProductIds);
-    this.groupingMode = groupingMode;
-    this.extraField = extraField;
-    diffResult.dispatchUpdatesTo(this);
+    if (updateDisposable != null) {
+      updateDisposable.dispose();
+    }
+    ArrayList<ShoppingListItem> items = new ArrayList<>(shoppingListItems);
+    Set<Integer> missingProductIdsSet = new HashSet<>(missingProductIds);
+    ArrayList<GroupedListItem> oldItems = new ArrayList<>(groupedListItems);
+    ArrayList<ShoppingListItemViewState> oldViewStates = new ArrayList<>(viewStates);
+    updateDisposable = Single.fromCallable(() -> {
+      ArrayList<GroupedListItem> newItems = getGroupedListItems(context, items,
+          productGroupHashMap, productHashMap, productNamesHashMap, storeHashMap,
+          shoppingListNotes, groupingMode);
+      ArrayList<ShoppingListItemViewState> newViewStates = getViewStates(context, newItems,
+          productHashMap, productLastPurchasedHashMap, quantityUnitHashMap,
+          shoppingListItemAmountsHashMap, missingProductIdsSet, extraField);
+      DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(
+          new DiffCallback(oldItems, newItems, oldViewStates, newViewStates)
+      );
+      return new PreparedList(newItems, newViewStates, diffResult);
+    }).subscribeOn(Schedulers.computation())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(preparedList -> {
+          groupedListItems.clear();
+          groupedListItems.addAll(preparedList.items);
+          viewStates.clear();
+          viewStates.addAll(preparedList.viewStates);
+          preparedList.diffResult.dispatchUpdatesTo(this);
+        }, throwable -> LogUtil.e(TAG, "updateData: " + throwable));
+  }
+
+  private static class PreparedList {
+
+    final ArrayList<GroupedListItem> items;
+    final ArrayList<ShoppingListItemViewState> viewStates;
+    final DiffUtil.DiffResult diffResult;
+
+    PreparedList(
+        ArrayList<GroupedListItem> items,
+        ArrayList<ShoppingListItemViewState> viewStates,
+        DiffUtil.DiffResult diffResult
+    ) {
+      this.items = items;
+      this.viewStates = viewStates;
+      this.diffResult = diffResult;
+    }
   }
 
   static class DiffCallback extends DiffUtil.Callback {
 
     ArrayList<GroupedListItem> oldItems;
     ArrayList<GroupedListItem> newItems;
-    HashMap<Integer, Product> productHashMapOld;
-    HashMap<Integer, Product> productHashMapNew;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew;
-    HashMap<Integer, QuantityUnit> quantityUnitHashMapOld;
-    HashMap<Integer, QuantityUnit> quantityUnitHashMapNew;
-    HashMap<Integer, Double> shoppingListItemAmountsHashMapOld;
-    HashMap<Integer, Double> shoppingListItemAmountsHashMapNew;
-    ArrayList<Integer> missingProductIdsOld;
-    ArrayList<Integer> missingProductIdsNew;
-    String groupingModeOld;
-    String groupingModeNew;
-    String extraFieldOld;
-    String extraFieldNew;
+    ArrayList<ShoppingListItemViewState> oldViewStates;
+    ArrayList<ShoppingListItemViewState> newViewStates;
 
     public DiffCallback(
         ArrayList<GroupedListItem> oldItems,
         ArrayList<GroupedListItem> newItems,
-        HashMap<Integer, Product> productHashMapOld,
-        HashMap<Integer, Product> productHashMapNew,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew,
-        HashMap<Integer, QuantityUnit> quantityUnitHashMapOld,
-        HashMap<Integer, QuantityUnit> quantityUnitHashMapNew,
-        HashMap<Integer, Double> shoppingListItemAmountsHashMapOld,
-        HashMap<Integer, Double> shoppingListItemAmountsHashMapNew,
-        ArrayList<Integer> missingProductIdsOld,
-        ArrayList<Integer> missingProductIdsNew,
-        String groupingModeOld,
-        String groupingModeNew,
-        String extraFieldOld,
-        String extraFieldNew
+        ArrayList<ShoppingListItemViewState> oldViewStates,
+        ArrayList<ShoppingListItemViewState> newViewStates
     ) {
       this.oldItems = oldItems;
       this.newItems = newItems;
-      this.productHashMapOld = productHashMapOld;
-      this.productHashMapNew = productHashMapNew;
-      this.productLastPurchasedHashMapOld = productLastPurchasedHashMapOld;
-      this.productLastPurchasedHashMapNew = productLastPurchasedHashMapNew;
-      this.quantityUnitHashMapOld = quantityUnitHashMapOld;
-      this.quantityUnitHashMapNew = quantityUnitHashMapNew;
-      this.shoppingListItemAmountsHashMapOld = shoppingListItemAmountsHashMapOld;
-      this.shoppingListItemAmountsHashMapNew = shoppingListItemAmountsHashMapNew;
-      this.missingProductIdsOld = missingProductIdsOld;
-      this.missingProductIdsNew = missingProductIdsNew;
-      this.groupingModeOld = groupingModeOld;
-      this.groupingModeNew = groupingModeNew;
-      this.extraFieldOld = extraFieldOld;
-      this.extraFieldNew = extraFieldNew;
+      this.oldViewStates = oldViewStates;
+      this.newViewStates = newViewStates;
     }
 
     @Override
@@ -764,66 +698,13 @@ public class ShoppingListItemAdapter extends
       if (oldItemType != newItemType) {
         return false;
       }
-      if (!groupingModeOld.equals(groupingModeNew) || !extraFieldOld.equals(extraFieldNew)) {
-        return false;
-      }
       if (oldItemType == GroupedListItem.TYPE_ENTRY) {
-        ShoppingListItem newItem = (ShoppingListItem) newItems.get(newItemPos);
-        ShoppingListItem oldItem = (ShoppingListItem) oldItems.get(oldItemPos);
+        ShoppingListItemViewState oldViewState = oldViewStates.get(oldItemPos);
+        ShoppingListItemViewState newViewState = newViewStates.get(newItemPos);
         if (!compareContent) {
-          return newItem.getId() == oldItem.getId();
+          return newViewState.getId() == oldViewState.getId();
         }
-
-        Integer productIdOld =
-            NumUtil.isStringInt(oldItem.getProductId()) ? Integer.parseInt(oldItem.getProductId())
-                : null;
-        Product productOld = productIdOld != null ? productHashMapOld.get(productIdOld) : null;
-
-        Integer productIdNew =
-            NumUtil.isStringInt(newItem.getProductId()) ? Integer.parseInt(newItem.getProductId())
-                : null;
-        Product productNew = productIdNew != null ? productHashMapNew.get(productIdNew) : null;
-
-        Integer quIdOld =
-            NumUtil.isStringInt(oldItem.getQuId()) ? Integer.parseInt(oldItem.getQuId()) : null;
-        QuantityUnit quOld = quIdOld != null ? quantityUnitHashMapOld.get(quIdOld) : null;
-
-        Integer quIdNew =
-            NumUtil.isStringInt(newItem.getQuId()) ? Integer.parseInt(newItem.getQuId()) : null;
-        QuantityUnit quNew = quIdNew != null ? quantityUnitHashMapNew.get(quIdNew) : null;
-
-        Double amountOld = shoppingListItemAmountsHashMapOld.get(oldItem.getId());
-        Double amountNew = shoppingListItemAmountsHashMapNew.get(newItem.getId());
-
-        Boolean missingOld =
-            productIdOld != null ? missingProductIdsOld.contains(productIdOld) : null;
-        Boolean missingNew =
-            productIdNew != null ? missingProductIdsNew.contains(productIdNew) : null;
-
-        if (extraFieldNew.equals(FilterChipLiveDataShoppingListExtraField.EXTRA_FIELD_LAST_PRICE_UNIT)
-            || extraFieldNew.equals(FilterChipLiveDataShoppingListExtraField.EXTRA_FIELD_LAST_PRICE_TOTAL)) {
-          ProductLastPurchased purchasedOld = productIdOld != null
-              ? productLastPurchasedHashMapOld.get(productIdOld) : null;
-          ProductLastPurchased purchasedNew = productIdNew != null
-              ? productLastPurchasedHashMapNew.get(productIdNew) : null;
-          if (purchasedOld == null && purchasedNew != null
-              || purchasedOld != null && purchasedNew != null && !purchasedOld.equals(purchasedNew)) {
-            return false;
-          }
-        }
-
-        if (productOld == null && productNew != null
-            || productOld != null && productNew != null && productOld.getId() != productNew.getId()
-            || quOld == null && quNew != null
-            || quOld != null && quNew != null && quOld.getId() != quNew.getId()
-            || !Objects.equals(amountOld, amountNew)
-            || missingOld == null && missingNew != null
-            || missingOld != null && missingNew != null && missingOld != missingNew
-        ) {
-          return false;
-        }
-
-        return newItem.equals(oldItem);
+        return newViewState.equals(oldViewState);
       } else if (oldItemType == GroupedListItem.TYPE_HEADER) {
         GroupHeader newGroup = (GroupHeader) newItems.get(newItemPos);
         GroupHeader oldGroup = (GroupHeader) oldItems.get(oldItemPos);
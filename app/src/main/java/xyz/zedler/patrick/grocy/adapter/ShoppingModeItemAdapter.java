@@ -31,11 +31,13 @@ import android.view.ViewGroup;
 import android.widget.LinearLayout;
 import android.widget.LinearLayout.LayoutParams;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.ListUpdateCallback;
 import androidx.recyclerview.widget.RecyclerView;
+import com.android.volley.toolbox.ImageLoader.ImageContainer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Objects;
@@ -57,6 +59,7 @@ import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
 import xyz.zedler.patrick.grocy.util.TextUtil;
 import xyz.zedler.patrick.grocy.util.UnitUtil;
+import xyz.zedler.patrick.grocy.web.ProductPictureLoader;
 
 public class ShoppingModeItemAdapter extends
     RecyclerView.Adapter<ShoppingModeItemAdapter.ViewHolder> {
@@ -69,6 +72,7 @@ public class ShoppingModeItemAdapter extends
   private final ArrayList<Integer> missingProductIds;
   private final ShoppingModeItemClickListener listener;
   private final PluralUtil pluralUtil;
+  private final ProductPictureLoader pictureLoader;
   private String groupingMode;
   private final boolean useSmallerFonts;
   private final boolean showProductDescription;
@@ -102,6 +106,7 @@ public class ShoppingModeItemAdapter extends
     this.showProductDescription = showProductDescription;
     this.showDoneItems = showDoneItems;
     this.pluralUtil = new PluralUtil(context);
+    this.pictureLoader = ProductPictureLoader.getInstance(context);
     this.groupingMode = groupingMode;
     this.groupedListItems = getGroupedListItems(context, shoppingListItems,
         productGroupHashMap, productHashMap, productNamesHashMap, storeHashMap,
@@ -222,6 +227,7 @@ public class ShoppingModeItemAdapter extends
   public static class ShoppingItemViewHolder extends ViewHolder {
 
     private final RowShoppingItemBinding binding;
+    private ImageContainer pictureContainer;
 
     public ShoppingItemViewHolder(RowShoppingItemBinding binding) {
       super(binding.getRoot());
@@ -328,7 +334,8 @@ public class ShoppingModeItemAdapter extends
     }
 
     ShoppingListItem item = (ShoppingListItem) groupedListItem;
-    RowShoppingItemBinding binding = ((ShoppingItemViewHolder) viewHolder).binding;
+    ShoppingItemViewHolder holder = (ShoppingItemViewHolder) viewHolder;
+    RowShoppingItemBinding binding = holder.binding;
 
     if (useSmallerFonts) {
       int px4 = UnitUtil.dpToPx(binding.name.getContext(), 4f);
@@ -365,6 +372,14 @@ public class ShoppingModeItemAdapter extends
       binding.name.setText(null);
       binding.name.setVisibility(View.GONE);
     }
+
+    // PICTURE
+
+    holder.pictureContainer = pictureLoader.loadThumbnail(
+        binding.imagePicture,
+        product != null ? product.getPictureFileName() : null,
+        holder.pictureContainer
+    );
     if (item.isUndone()) {
       binding.name.setPaintFlags(binding.name.getPaintFlags() & (~Paint.STRIKE_THRU_TEXT_FLAG));
     } else {
@@ -472,6 +487,7 @@ public class ShoppingModeItemAdapter extends
     }
 
     binding.containerRow.setAlpha(item.getDoneInt() == 1 ? 0.4f : 1);
+    binding.imagePicture.setAlpha(item.getDoneInt() == 1 ? 0.4f : 1);
 
     // CONTAINER
 
@@ -653,6 +669,25 @@ public class ShoppingModeItemAdapter extends
     return groupedListItems.size();
   }
 
+  @Override
+  public void onViewRecycled(@NonNull ViewHolder holder) {
+    if (holder instanceof ShoppingItemViewHolder
+        && ((ShoppingItemViewHolder) holder).pictureContainer != null) {
+      ((ShoppingItemViewHolder) holder).pictureContainer.cancelRequest();
+    }
+  }
+
+  @Nullable
+  public String getPictureFileName(int position) {
+    GroupedListItem groupedListItem = groupedListItems.get(position);
+    if (!(groupedListItem instanceof ShoppingListItem)
+        || !((ShoppingListItem) groupedListItem).hasProduct()) {
+      return null;
+    }
+    Product product = productHashMap.get(((ShoppingListItem) groupedListItem).getProductIdInt());
+    return product != null ? product.getPictureFileName() : null;
+  }
+
   public interface ShoppingModeItemClickListener {
 
     void onItemRowClicked(GroupedListItem groupedListItem);
@@ -21,17 +21,30 @@ package xyz.zedler.patrick.grocy.adapter;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.graphics.Typeface;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.ColorRes;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
+import com.android.volley.toolbox.ImageLoader.ImageContainer;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.functions.Function;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.databinding.RowShoppingListGroupBinding;
 import xyz.zedler.patrick.grocy.databinding.RowStockItemBinding;
@@ -46,47 +59,63 @@ import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.StockItem;
+import xyz.zedler.patrick.grocy.model.StockItemViewState;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
-import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
+import xyz.zedler.patrick.grocy.web.ProductPictureLoader;
 
 public class StockOverviewItemAdapter extends
     RecyclerView.Adapter<StockOverviewItemAdapter.ViewHolder> {
 
   private final static String TAG = StockOverviewItemAdapter.class.getSimpleName();
 
+  private final static int PAGE_SIZE = 50;
+  // pages before and after the bound row which are loaded in advance
+  private final static int PREFETCH_PAGES = 1;
+  // loaded pages further away from the bound row are dropped again
+  private final static int KEEP_PAGES = 2;
+
   private final ArrayList<GroupedListItem> groupedListItems;
-  private final ArrayList<String> shoppingListItemsProductIds;
-  private final HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private final HashMap<Integer, String> productAveragePriceHashMap;
-  private final HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
+  // aligned with groupedListItems, null for headers
+  private final ArrayList<StockItemViewState> viewStates;
   private final PluralUtil pluralUtil;
-  private final ArrayList<Integer> missingItemsProductIds;
   private final StockOverviewItemAdapterListener listener;
   private final boolean showDateTracking;
   private final boolean shoppingListFeatureEnabled;
   private final int daysExpiringSoon;
-  private String sortMode;
-  private boolean sortAscending;
-  private String groupingMode;
-  private String extraField;
   private final DateUtil dateUtil;
+  private final ProductPictureLoader pictureLoader;
   private final String currency;
+  private final Typeface fontMedium;
+  private final Typeface fontBook;
+  private final int colorSecondary;
+  private final int colorMissing;
+  private Disposable updateDisposable;
+
+  // paged mode, only used if pageLoader is not null
+  private PageLoader pageLoader;
+  private Function<StockItem, StockItemViewState> pageViewStateFactory;
+  private int pagedItemCount;
+  private int pageGeneration;
+  private final HashMap<Integer, Page> pages = new HashMap<>();
+  private final HashSet<Integer> loadingPages = new HashSet<>();
+  private final CompositeDisposable pageDisposables = new CompositeDisposable();
 
   public StockOverviewItemAdapter(
       Context context,
       ArrayList<StockItem> stockItems,
-      ArrayList<String> shoppingListItemsProductIds,
+      Set<Integer> shoppingListItemsProductIds,
       HashMap<Integer, QuantityUnit> quantityUnitHashMap,
       HashMap<Integer, String> productAveragePriceHashMap,
       HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
       HashMap<Integer, ProductGroup> productGroupHashMap,
       HashMap<Integer, Product> productHashMap,
       HashMap<Integer, Location> locationHashMap,
-      ArrayList<Integer> missingItemsProductIds,
+      Set<Integer> missingItemsProductIds,
       StockOverviewItemAdapterListener listener,
       boolean showDateTracking,
       boolean shoppingListFeatureEnabled,
@@ -97,25 +126,25 @@ public class StockOverviewItemAdapter extends
       String groupingMode,
       String extraField
   ) {
-    this.shoppingListItemsProductIds = new ArrayList<>(shoppingListItemsProductIds);
-    this.quantityUnitHashMap = new HashMap<>(quantityUnitHashMap);
-    this.productAveragePriceHashMap = new HashMap<>(productAveragePriceHashMap);
-    this.productLastPurchasedHashMap = new HashMap<>(productLastPurchasedHashMap);
     this.pluralUtil = new PluralUtil(context);
-    this.missingItemsProductIds = new ArrayList<>(missingItemsProductIds);
     this.listener = listener;
     this.showDateTracking = showDateTracking;
     this.shoppingListFeatureEnabled = shoppingListFeatureEnabled;
     this.daysExpiringSoon = daysExpiringSoon;
     this.currency = currency;
     this.dateUtil = new DateUtil(context);
-    this.sortMode = sortMode;
-    this.sortAscending = sortAscending;
-    this.groupingMode = groupingMode;
-    this.extraField = extraField;
+    this.pictureLoader = ProductPictureLoader.getInstance(context);
+    this.fontMedium = ResourcesCompat.getFont(context, R.font.jost_medium);
+    this.fontBook = ResourcesCompat.getFont(context, R.font.jost_book);
+    this.colorSecondary = ContextCompat.getColor(context, R.color.on_background_secondary);
+    this.colorMissing = ContextCompat.getColor(context, R.color.retro_blue_fg);
+    // first list is prepared synchronously so that the layout animation has items to show
     this.groupedListItems = getGroupedListItems(context, stockItems,
         productGroupHashMap, productHashMap, locationHashMap, currency, dateUtil, sortMode,
         sortAscending, groupingMode);
+    this.viewStates = getViewStates(context, groupedListItems, shoppingListItemsProductIds,
+        quantityUnitHashMap, productAveragePriceHashMap, productLastPurchasedHashMap,
+        missingItemsProductIds, sortMode, extraField);
   }
 
   static ArrayList<GroupedListItem> getGroupedListItems(
@@ -231,6 +260,109 @@ public class StockOverviewItemAdapter extends
     }
   }
 
+  private ArrayList<StockItemViewState> getViewStates(
+      Context context,
+      ArrayList<GroupedListItem> groupedListItems,
+      Set<Integer> shoppingListItemsProductIds,
+      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+      HashMap<Integer, String> productAveragePriceHashMap,
+      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
+      Set<Integer> missingItemsProductIds,
+      String sortMode,
+      String extraField
+  ) {
+    ArrayList<StockItemViewState> viewStates = new ArrayList<>(groupedListItems.size());
+    for (GroupedListItem groupedListItem : groupedListItems) {
+      if (!(groupedListItem instanceof StockItem)) {
+        viewStates.add(null);
+        continue;
+      }
+      viewStates.add(getViewState(context, (StockItem) groupedListItem,
+          shoppingListItemsProductIds, quantityUnitHashMap, productAveragePriceHashMap,
+          productLastPurchasedHashMap, missingItemsProductIds, sortMode, extraField));
+    }
+    return viewStates;
+  }
+
+  private StockItemViewState getViewState(
+      Context context,
+      StockItem stockItem,
+      Set<Integer> shoppingListItemsProductIds,
+      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+      HashMap<Integer, String> productAveragePriceHashMap,
+      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
+      Set<Integer> missingItemsProductIds,
+      String sortMode,
+      String extraField
+  ) {
+    Product product = stockItem.getProduct();
+
+    QuantityUnit quantityUnit = quantityUnitHashMap.get(product.getQuIdStockInt());
+    String amountText = AmountUtil.getStockAmountInfo(context, pluralUtil, stockItem, quantityUnit);
+
+    int bestBeforeEpochDay = stockItem.getBestBeforeEpochDay();
+    boolean hasDate = bestBeforeEpochDay != DateUtil.NO_EPOCH_DAY;
+    int days = hasDate ? DateUtil.getDaysFromNow(bestBeforeEpochDay) : 0;
+    String daysText = null;
+    @ColorRes int daysColor = 0;
+    if (showDateTracking && hasDate && (sortMode.equals(FilterChipLiveDataStockSort.SORT_DUE_DATE)
+        || days <= daysExpiringSoon && bestBeforeEpochDay != DateUtil.NEVER_OVERDUE_EPOCH_DAY)
+    ) {
+      daysText = dateUtil.getHumanForDaysFromNow(bestBeforeEpochDay);
+      if (days <= daysExpiringSoon) {
+        if (days >= 0) {
+          daysColor = R.color.retro_yellow_fg;
+        } else if (stockItem.getDueTypeInt() == StockItem.DUE_TYPE_BEST_BEFORE) {
+          daysColor = R.color.retro_dirt_fg;
+        } else {
+          daysColor = R.color.retro_red_fg;
+        }
+      }
+    }
+
+    String extraFieldText = null;
+    switch (extraField) {
+      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_VALUE:
+        if (NumUtil.isStringDouble(stockItem.getValue())) {
+          extraFieldText = NumUtil.trimPrice(NumUtil.toDouble(stockItem.getValue()));
+        }
+        break;
+      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_CALORIES_UNIT:
+        if (NumUtil.isStringDouble(product.getCalories())) {
+          extraFieldText = product.getCalories();
+        }
+        break;
+      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_CALORIES_TOTAL:
+        if (NumUtil.isStringDouble(product.getCalories())) {
+          extraFieldText = NumUtil.trim(
+              Double.parseDouble(product.getCalories()) * stockItem.getAmountDouble()
+          );
+        }
+        break;
+      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_AVERAGE_PRICE:
+        extraFieldText = productAveragePriceHashMap.get(stockItem.getProductId());
+        break;
+      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_LAST_PRICE:
+        ProductLastPurchased p = productLastPurchasedHashMap.get(stockItem.getProductId());
+        if (p != null && NumUtil.isStringDouble(p.getPrice())) {
+          extraFieldText = NumUtil.trimPrice(NumUtil.toDouble(p.getPrice()));
+        }
+        break;
+    }
+
+    return new StockItemViewState(
+        stockItem.getProductId(),
+        product.getName(),
+        product.getPictureFileName(),
+        shoppingListFeatureEnabled && shoppingListItemsProductIds.contains(product.getId()),
+        amountText,
+        missingItemsProductIds.contains(stockItem.getProductId()),
+        daysText,
+        daysColor,
+        extraFieldText
+    );
+  }
+
   public static class ViewHolder extends RecyclerView.ViewHolder {
 
     public ViewHolder(View view) {
@@ -241,6 +373,7 @@ public class StockOverviewItemAdapter extends
   public static class StockItemViewHolder extends ViewHolder {
 
     private final RowStockItemBinding binding;
+    private ImageContainer pictureContainer;
 
     public StockItemViewHolder(RowStockItemBinding binding) {
       super(binding.getRoot());
@@ -260,6 +393,9 @@ public class StockOverviewItemAdapter extends
 
   @Override
   public int getItemViewType(int position) {
+    if (pageLoader != null) {
+      return GroupedListItem.TYPE_ENTRY;
+    }
     return GroupedListItem.getType(
         groupedListItems.get(position),
         GroupedListItem.CONTEXT_STOCK_OVERVIEW
@@ -290,173 +426,132 @@ public class StockOverviewItemAdapter extends
   @Override
   public void onBindViewHolder(@NonNull final ViewHolder viewHolder, int positionDoNotUse) {
 
-    GroupedListItem groupedListItem = groupedListItems.get(viewHolder.getAdapterPosition());
-
-    int type = getItemViewType(viewHolder.getAdapterPosition());
-    if (type == GroupedListItem.TYPE_HEADER) {
-      GroupViewHolder holder = (GroupViewHolder) viewHolder;
-      if (((GroupHeader) groupedListItem).getDisplayDivider() == 1) {
-        holder.binding.divider.setVisibility(View.VISIBLE);
-      } else {
-        holder.binding.divider.setVisibility(View.GONE);
+    int position = viewHolder.getAdapterPosition();
+    StockItem stockItem;
+    StockItemViewState viewState;
+    if (pageLoader != null) {
+      loadPagesAround(position);
+      Page page = pages.get(position / PAGE_SIZE);
+      int index = position % PAGE_SIZE;
+      boolean isLoaded = page != null && index < page.items.size();
+      stockItem = isLoaded ? page.items.get(index) : null;
+      viewState = isLoaded ? page.viewStates.get(index) : null;
+    } else {
+      GroupedListItem groupedListItem = groupedListItems.get(position);
+      if (getItemViewType(position) == GroupedListItem.TYPE_HEADER) {
+        GroupViewHolder holder = (GroupViewHolder) viewHolder;
+        if (((GroupHeader) groupedListItem).getDisplayDivider() == 1) {
+          holder.binding.divider.setVisibility(View.VISIBLE);
+        } else {
+          holder.binding.divider.setVisibility(View.GONE);
+        }
+        holder.binding.name.setText(((GroupHeader) groupedListItem).getGroupName());
+        return;
       }
-      holder.binding.name.setText(((GroupHeader) groupedListItem).getGroupName());
-      return;
+      stockItem = (StockItem) groupedListItem;
+      viewState = viewStates.get(position);
     }
 
-    StockItem stockItem = (StockItem) groupedListItem;
     StockItemViewHolder holder = (StockItemViewHolder) viewHolder;
+    Context context = holder.binding.textAmount.getContext();
 
-    // NAME
-
-    holder.binding.textName.setText(stockItem.getProduct().getName());
-
-    // IS ON SHOPPING LIST
-
-    if (shoppingListItemsProductIds.contains(String.valueOf(stockItem.getProduct().getId()))
-        && shoppingListFeatureEnabled) {
-      holder.binding.viewOnShoppingList.setVisibility(View.VISIBLE);
-    } else {
+    if (viewState == null) { // row of a page which is not loaded yet
+      holder.binding.textName.setText(null);
+      holder.pictureContainer = pictureLoader.loadThumbnail(
+          holder.binding.imagePicture, null, holder.pictureContainer
+      );
       holder.binding.viewOnShoppingList.setVisibility(View.GONE);
+      holder.binding.textAmount.setText(null);
+      holder.binding.linearDays.setVisibility(View.GONE);
+      holder.binding.extraField.setVisibility(View.GONE);
+      holder.binding.linearContainer.setOnClickListener(null);
+      return;
     }
 
-    Context context = holder.binding.textAmount.getContext();
-
-    // AMOUNT
+    holder.binding.textName.setText(viewState.getName());
 
-    QuantityUnit quantityUnit = quantityUnitHashMap.get(stockItem.getProduct().getQuIdStockInt());
-    holder.binding.textAmount.setText(
-        AmountUtil.getStockAmountInfo(context, pluralUtil, stockItem, quantityUnit)
+    holder.pictureContainer = pictureLoader.loadThumbnail(
+        holder.binding.imagePicture,
+        viewState.getPictureFileName(),
+        holder.pictureContainer
     );
-    if (missingItemsProductIds.contains(stockItem.getProductId())) {
-      holder.binding.textAmount.setTypeface(
-          ResourcesCompat.getFont(context, R.font.jost_medium)
-      );
-      holder.binding.textAmount.setTextColor(
-          ContextCompat.getColor(context, R.color.retro_blue_fg)
-      );
-    } else {
-      holder.binding.textAmount.setTypeface(
-          ResourcesCompat.getFont(context, R.font.jost_book)
-      );
-      holder.binding.textAmount.setTextColor(
-          ContextCompat.getColor(context, R.color.on_background_secondary)
-      );
-    }
-
-    // BEST BEFORE
 
-    String date = stockItem.getBestBeforeDate();
-    String days = null;
-    boolean colorDays = false;
-    if (date != null) {
-      days = String.valueOf(DateUtil.getDaysFromNow(date));
-    }
+    holder.binding.viewOnShoppingList.setVisibility(
+        viewState.isOnShoppingList() ? View.VISIBLE : View.GONE
+    );
 
-    if (!showDateTracking) {
-      holder.binding.linearDays.setVisibility(View.GONE);
-    } else if (days != null && (sortMode.equals(FilterChipLiveDataStockSort.SORT_DUE_DATE)
-        || Integer.parseInt(days) <= daysExpiringSoon
-        && !date.equals(Constants.DATE.NEVER_OVERDUE))
-    ) {
-      holder.binding.linearDays.setVisibility(View.VISIBLE);
-      holder.binding.textDays.setText(new DateUtil(context).getHumanForDaysFromNow(date));
-      if (Integer.parseInt(days) <= daysExpiringSoon) {
-        colorDays = true;
-      }
-    } else {
-      holder.binding.linearDays.setVisibility(View.GONE);
-      holder.binding.textDays.setText(null);
-    }
+    holder.binding.textAmount.setText(viewState.getAmountText());
+    holder.binding.textAmount.setTypeface(viewState.isMissing() ? fontMedium : fontBook);
+    holder.binding.textAmount.setTextColor(viewState.isMissing() ? colorMissing : colorSecondary);
 
-    if (colorDays) {
-      holder.binding.textDays.setTypeface(
-          ResourcesCompat.getFont(context, R.font.jost_medium)
-      );
-      @ColorRes int color;
-      if (Integer.parseInt(days) >= 0) {
-        color = R.color.retro_yellow_fg;
-      } else if (stockItem.getDueTypeInt() == StockItem.DUE_TYPE_BEST_BEFORE) {
-        color = R.color.retro_dirt_fg;
-      } else {
-        color = R.color.retro_red_fg;
-      }
-      holder.binding.textDays.setTextColor(ContextCompat.getColor(context, color));
-    } else {
-      holder.binding.textDays.setTypeface(
-          ResourcesCompat.getFont(context, R.font.jost_book)
-      );
+    holder.binding.linearDays.setVisibility(
+        viewState.getDaysText() != null ? View.VISIBLE : View.GONE
+    );
+    holder.binding.textDays.setText(viewState.getDaysText());
+    if (viewState.getDaysColor() != 0) {
+      holder.binding.textDays.setTypeface(fontMedium);
       holder.binding.textDays.setTextColor(
-          ContextCompat.getColor(context, R.color.on_background_secondary)
+          ContextCompat.getColor(context, viewState.getDaysColor())
       );
+    } else {
+      holder.binding.textDays.setTypeface(fontBook);
+      holder.binding.textDays.setTextColor(colorSecondary);
     }
 
-    switch (extraField) {
-      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_VALUE:
-        if (NumUtil.isStringDouble(stockItem.getValue())) {
-          holder.binding.extraField.setText(NumUtil.trimPrice(NumUtil.toDouble(stockItem.getValue())));
-          holder.binding.extraField.setVisibility(View.VISIBLE);
-        } else {
-          holder.binding.extraField.setVisibility(View.GONE);
-        }
-        break;
-      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_CALORIES_UNIT:
-        if (NumUtil.isStringDouble(stockItem.getProduct().getCalories())) {
-          holder.binding.extraField.setText(stockItem.getProduct().getCalories());
-          holder.binding.extraField.setVisibility(View.VISIBLE);
-        } else {
-          holder.binding.extraField.setVisibility(View.GONE);
-        }
-        break;
-      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_CALORIES_TOTAL:
-        if (NumUtil.isStringDouble(stockItem.getProduct().getCalories())) {
-          holder.binding.extraField.setText(
-                  NumUtil.trim(Double.parseDouble(stockItem.getProduct().getCalories())
-                          * stockItem.getAmountDouble())
-          );
-          holder.binding.extraField.setVisibility(View.VISIBLE);
-        } else {
-          holder.binding.extraField.setVisibility(View.GONE);
-        }
-        break;
-      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_AVERAGE_PRICE:
-        if (productAveragePriceHashMap.get(stockItem.getProductId()) != null) {
-          holder.binding.extraField.setText(
-              productAveragePriceHashMap.get(stockItem.getProductId())
-          );
-          holder.binding.extraField.setVisibility(View.VISIBLE);
-        } else {
-          holder.binding.extraField.setVisibility(View.GONE);
-        }
-        break;
-      case FilterChipLiveDataStockExtraField.EXTRA_FIELD_LAST_PRICE:
-        ProductLastPurchased p = productLastPurchasedHashMap.get(stockItem.getProductId());
-        if (p != null && NumUtil.isStringDouble(p.getPrice())) {
-          holder.binding.extraField.setText(NumUtil.trimPrice(NumUtil.toDouble(p.getPrice())));
-          holder.binding.extraField.setVisibility(View.VISIBLE);
-        } else {
-          holder.binding.extraField.setVisibility(View.GONE);
-        }
-        break;
-      default:
-        holder.binding.extraField.setVisibility(View.GONE);
-        break;
-    }
-
-    // CONTAINER
+    holder.binding.extraField.setText(viewState.getExtraFieldText());
+    holder.binding.extraField.setVisibility(
+        viewState.getExtraFieldText() != null ? View.VISIBLE : View.GONE
+    );
 
     holder.binding.linearContainer.setOnClickListener(
         view -> listener.onItemRowClicked(stockItem)
     );
   }
 
+  @Override
+  public void onViewRecycled(@NonNull ViewHolder holder) {
+    if (holder instanceof StockItemViewHolder
+        && ((StockItemViewHolder) holder).pictureContainer != null) {
+      ((StockItemViewHolder) holder).pictureContainer.cancelRequest();
+    }
+  }
+
+  @Override
+  public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+    if (updateDisposable != null) {
+      updateDisposable.dispose();
+    }
+    pageDisposables.clear();
+    loadingPages.clear();
+  }
+
   @Override
   public int getItemCount() {
-    return groupedListItems.size();
+    return pageLoader != null ? pagedItemCount : groupedListItems.size();
   }
 
-  public ArrayList<GroupedListItem> getGroupedListItems() {
-    return groupedListItems;
+  @Nullable
+  public StockItem getStockItem(int position) {
+    if (pageLoader != null) {
+      Page page = pages.get(position / PAGE_SIZE);
+      int index = position % PAGE_SIZE;
+      return page != null && index < page.items.size() ? page.items.get(index) : null;
+    }
+    if (position < 0 || position >= groupedListItems.size()) {
+      return null;
+    }
+    GroupedListItem groupedListItem = groupedListItems.get(position);
+    return groupedListItem instanceof StockItem ? (StockItem) groupedListItem : null;
+  }
+
+  @Nullable
+  public String getPictureFileName(int position) {
+    StockItem stockItem = getStockItem(position);
+    if (stockItem == null) {
+      return null;
+    }
+    Product product = stockItem.getProduct();
+    return product != null ? product.getPictureFileName() : null;
   }
 
   public interface StockOverviewItemAdapterListener {
@@ -464,132 +559,216 @@ public class StockOverviewItemAdapter extends
     void onItemRowClicked(StockItem stockItem);
   }
 
+  public interface PageLoader {
+
+    Single<List<StockItem>> loadPage(int offset, int limit);
+  }
+
+  /**
+   * Shows a list with the given number of stock items, whose rows are loaded page by page with
+   * the loader while they are bound. Only the pages around the bound rows are kept. Pages of the
+   * previous data stay visible until they are reloaded, so that a refresh does not flicker.
+   */
+  public void updatePagedData(
+      Context context,
+      int itemCount,
+      PageLoader pageLoader,
+      Set<Integer> shoppingListItemsProductIds,
+      HashMap<Integer, QuantityUnit> quantityUnitHashMap,
+      HashMap<Integer, String> productAveragePriceHashMap,
+      HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
+      Set<Integer> missingItemsProductIds,
+      String sortMode,
+      String extraField
+  ) {
+    if (updateDisposable != null) {
+      updateDisposable.dispose();
+    }
+    if (this.pageLoader == null) {
+      pages.clear();
+    }
+    groupedListItems.clear();
+    viewStates.clear();
+    this.pageLoader = pageLoader;
+    this.pageViewStateFactory = stockItem -> stockItem.getProduct() != null
+        ? getViewState(context, stockItem, shoppingListItemsProductIds, quantityUnitHashMap,
+        productAveragePriceHashMap, productLastPurchasedHashMap, missingItemsProductIds,
+        sortMode, extraField)
+        : null;
+    pagedItemCount = itemCount;
+    pageGeneration++;
+    pageDisposables.clear();
+    loadingPages.clear();
+
+    int pageCount = (itemCount + PAGE_SIZE - 1) / PAGE_SIZE;
+    Iterator<Integer> iterator = pages.keySet().iterator();
+    while (iterator.hasNext()) {
+      int page = iterator.next();
+      if (page >= pageCount) {
+        iterator.remove();
+      }
+    }
+    for (int page : new ArrayList<>(pages.keySet())) {
+      loadPage(page);
+    }
+    notifyDataSetChanged();
+  }
+
+  private void loadPagesAround(int position) {
+    int currentPage = position / PAGE_SIZE;
+    int lastPage = (pagedItemCount - 1) / PAGE_SIZE;
+    int firstPage = Math.max(0, currentPage - PREFETCH_PAGES);
+    for (int page = firstPage; page <= Math.min(lastPage, currentPage + PREFETCH_PAGES); page++) {
+      if (!pages.containsKey(page)) {
+        loadPage(page);
+      }
+    }
+    Iterator<Integer> iterator = pages.keySet().iterator();
+    while (iterator.hasNext()) {
+      if (Math.abs(iterator.next() - currentPage) > KEEP_PAGES) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private void loadPage(int page) {
+    if (!loadingPages.add(page)) {
+      return;
+    }
+    int generation = pageGeneration;
+    Function<StockItem, StockItemViewState> viewStateFactory = pageViewStateFactory;
+    pageDisposables.add(pageLoader.loadPage(page * PAGE_SIZE, PAGE_SIZE)
+        .map(items -> {
+          ArrayList<StockItemViewState> pageViewStates = new ArrayList<>(items.size());
+          for (StockItem item : items) {
+            pageViewStates.add(viewStateFactory.apply(item));
+          }
+          return new Page(new ArrayList<>(items), pageViewStates);
+        })
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(loadedPage -> {
+          if (generation != pageGeneration) {
+            return;
+          }
+          loadingPages.remove(page);
+          pages.put(page, loadedPage);
+          int start = page * PAGE_SIZE;
+          int count = Math.min(PAGE_SIZE, pagedItemCount - start);
+          if (count > 0) {
+            notifyItemRangeChanged(start, count);
+          }
+        }, throwable -> {
+          if (generation == pageGeneration) {
+            loadingPages.remove(page);
+          }
+          LogUtil.e(TAG, "loadPage: " + throwable);
+        }));
+  }
+
+  private static class Page {
+
+    final ArrayList<StockItem> items;
+    // aligned with items, null for items without product
+    final ArrayList<StockItemViewState> viewStates;
+
+    Page(ArrayList<StockItem> items, ArrayList<StockItemViewState> viewStates) {
+      this.items = items;
+      this.viewStates = viewStates;
+    }
+  }
+
+  /**
+   * Groups the items, builds the row view states and diffs them against the displayed list in
+   * the background. A newer update discards the result of one which is still in progress.
+   */
   public void updateData(
       Context context,
       ArrayList<StockItem> newList,
-      ArrayList<String> shoppingListItemsProductIds,
+      Set<Integer> shoppingListItemsProductIds,
       HashMap<Integer, QuantityUnit> quantityUnitHashMap,
       HashMap<Integer, String> productAveragePriceHashMap,
       HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap,
       HashMap<Integer, ProductGroup> productGroupHashMap,
       HashMap<Integer, Product> productHashMap,
       HashMap<Integer, Location> locationHashMap,
-      ArrayList<Integer> missingItemsProductIds,
+      Set<Integer> missingItemsProductIds,
       String sortMode,
       boolean sortAscending,
       String groupingMode,
       String extraField
   ) {
-    ArrayList<GroupedListItem> newGroupedListItems = getGroupedListItems(context, newList,
-        productGroupHashMap, productHashMap, locationHashMap, this.currency, this.dateUtil,
-        sortMode, sortAscending, groupingMode);
-    StockOverviewItemAdapter.DiffCallback diffCallback = new StockOverviewItemAdapter.DiffCallback(
-        this.groupedListItems,
-        newGroupedListItems,
-        this.shoppingListItemsProductIds,
-        shoppingListItemsProductIds,
-        this.quantityUnitHashMap,
-        quantityUnitHashMap,
-        this.productAveragePriceHashMap,
-        productAveragePriceHashMap,
-        this.productLastPurchasedHashMap,
-        productLastPurchasedHashMap,
-        this.missingItemsProductIds,
-        missingItemsProductIds,
-        this.sortMode,
-        sortMode,
-        this.sortAscending,
-        sortAscending,
-        this.groupingMode,
-        groupingMode,
-        this.extraField,
-        extraField
-    );
-    DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(diffCallback);
-    this.groupedListItems.clear();
-    this.groupedListItems.addAll(newGroupedListItems);
-    this.shoppingListItemsProductIds.clear();
-    this.shoppingListItemsProductIds.addAll(shoppingListItemsProductIds);
-    this.quantityUnitHashMap.clear();
-    this.quantityUnitHashMap.putAll(quantityUnitHashMap);
-    this.productAveragePriceHashMap.clear();
-    this.productAveragePriceHashMap.putAll(productAveragePriceHashMap);
-    this.productLastPurchasedHashMap.clear();
-    this.productLastPurchasedHashMap.putAll(productLastPurchasedHashMap);
-    this.missingItemsProductIds.clear();
-    this.missingItemsProductIds.addAll(missingItemsProductIds);
-    this.sortMode = sortMode;
-    this.sortAscending = sortAscending;
-    this.groupingMode = groupingMode;
-    this.extraField = extraField;
-    diffResult.dispatchUpdatesTo(this);
+    if (updateDisposable != null) {
+      updateDisposable.dispose();
+    }
+    ArrayList<StockItem> stockItems = new ArrayList<>(newList);
+    ArrayList<GroupedListItem> oldItems = new ArrayList<>(groupedListItems);
+    ArrayList<StockItemViewState> oldViewStates = new ArrayList<>(viewStates);
+    updateDisposable = Single.fromCallable(() -> {
+      ArrayList<GroupedListItem> newItems = getGroupedListItems(context, stockItems,
+          productGroupHashMap, productHashMap, locationHashMap, currency, dateUtil,
+          sortMode, sortAscending, groupingMode);
+      ArrayList<StockItemViewState> newViewStates = getViewStates(context, newItems,
+          shoppingListItemsProductIds, quantityUnitHashMap, productAveragePriceHashMap,
+          productLastPurchasedHashMap, missingItemsProductIds, sortMode, extraField);
+      DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(
+          new DiffCallback(oldItems, newItems, oldViewStates, newViewStates)
+      );
+      return new PreparedList(newItems, newViewStates, diffResult);
+    }).subscribeOn(Schedulers.computation())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(preparedList -> {
+          groupedListItems.clear();
+          groupedListItems.addAll(preparedList.items);
+          viewStates.clear();
+          viewStates.addAll(preparedList.viewStates);
+          if (pageLoader != null) { // diff was calculated against the empty list of paged mode
+            pageLoader = null;
+            pageGeneration++;
+            pageDisposables.clear();
+            loadingPages.clear();
+            pages.clear();
+            notifyDataSetChanged();
+            return;
+          }
+          preparedList.diffResult.dispatchUpdatesTo(this);
+        }, throwable -> LogUtil.e(TAG, "updateData: " + throwable));
+  }
+
+  private static class PreparedList {
+
+    final ArrayList<GroupedListItem> items;
+    final ArrayList<StockItemViewState> viewStates;
+    final DiffUtil.DiffResult diffResult;
+
+    PreparedList(
+        ArrayList<GroupedListItem> items,
+        ArrayList<StockItemViewState> viewStates,
+        DiffUtil.DiffResult diffResult
+    ) {
+      this.items = items;
+      this.viewStates = viewStates;
+      this.diffResult = diffResult;
+    }
   }
 
   static class DiffCallback extends DiffUtil.Callback {
 
     ArrayList<GroupedListItem> oldItems;
     ArrayList<GroupedListItem> newItems;
-    ArrayList<String> shoppingListItemsProductIdsOld;
-    ArrayList<String> shoppingListItemsProductIdsNew;
-    HashMap<Integer, QuantityUnit> quantityUnitHashMapOld;
-    HashMap<Integer, QuantityUnit> quantityUnitHashMapNew;
-    HashMap<Integer, String> productAveragePriceHashMapOld;
-    HashMap<Integer, String> productAveragePriceHashMapNew;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld;
-    HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew;
-    ArrayList<Integer> missingProductIdsOld;
-    ArrayList<Integer> missingProductIdsNew;
-    String sortModeOld;
-    String sortModeNew;
-    boolean sortAscendingOld;
-    boolean sortAscendingNew;
-    String groupingModeOld;
-    String groupingModeNew;
-    String extraFieldOld;
-    String extraFieldNew;
+    ArrayList<StockItemViewState> oldViewStates;
+    ArrayList<StockItemViewState> newViewStates;
 
     public DiffCallback(
         ArrayList<GroupedListItem> oldItems,
         ArrayList<GroupedListItem> newItems,
-        ArrayList<String> shoppingListItemsProductIdsOld,
-        ArrayList<String> shoppingListItemsProductIdsNew,
-        HashMap<Integer, QuantityUnit> quantityUnitHashMapOld,
-        HashMap<Integer, QuantityUnit> quantityUnitHashMapNew,
-        HashMap<Integer, String> productAveragePriceHashMapOld,
-        HashMap<Integer, String> productAveragePriceHashMapNew,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapOld,
-        HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMapNew,
-        ArrayList<Integer> missingProductIdsOld,
-        ArrayList<Integer> missingProductIdsNew,
-        String sortModeOld,
-        String sortModeNew,
-        boolean sortAscendingOld,
-        boolean sortAscendingNew,
-        String groupingModeOld,
-        String groupingModeNew,
-        String extraFieldOld,
-        String extraFieldNew
+        ArrayList<StockItemViewState> oldViewStates,
+        ArrayList<StockItemViewState> newViewStates
     ) {
-      this.newItems = newItems;
       this.oldItems = oldItems;
-      this.shoppingListItemsProductIdsOld = shoppingListItemsProductIdsOld;
-      this.shoppingListItemsProductIdsNew = shoppingListItemsProductIdsNew;
-      this.quantityUnitHashMapOld = quantityUnitHashMapOld;
-      this.quantityUnitHashMapNew = quantityUnitHashMapNew;
-      this.productAveragePriceHashMapOld = productAveragePriceHashMapOld;
-      this.productAveragePriceHashMapNew = productAveragePriceHashMapNew;
-      this.productLastPurchasedHashMapOld = productLastPurchasedHashMapOld;
-      this.productLastPurchasedHashMapNew = productLastPurchasedHashMapNew;
-      this.missingProductIdsOld = missingProductIdsOld;
-      this.missingProductIdsNew = missingProductIdsNew;
-      this.sortModeOld = sortModeOld;
-      this.sortModeNew = sortModeNew;
-      this.sortAscendingOld = sortAscendingOld;
-      this.sortAscendingNew = sortAscendingNew;
-      this.groupingModeOld = groupingModeOld;
-      this.groupingModeNew = groupingModeNew;
-      this.extraFieldOld = extraFieldOld;
-      this.extraFieldNew = extraFieldNew;
+      this.newItems = newItems;
+      this.oldViewStates = oldViewStates;
+      this.newViewStates = newViewStates;
     }
 
     @Override
@@ -624,64 +803,13 @@ public class StockOverviewItemAdapter extends
       if (oldItemType != newItemType) {
         return false;
       }
-      if (!sortModeOld.equals(sortModeNew)) {
-        return false;
-      }
-      if (sortAscendingOld != sortAscendingNew) {
-        return false;
-      }
-      if (!groupingModeOld.equals(groupingModeNew) || !extraFieldOld.equals(extraFieldNew)) {
-        return false;
-      }
       if (oldItemType == GroupedListItem.TYPE_ENTRY) {
-        StockItem newItem = (StockItem) newItems.get(newItemPos);
-        StockItem oldItem = (StockItem) oldItems.get(oldItemPos);
+        StockItemViewState oldViewState = oldViewStates.get(oldItemPos);
+        StockItemViewState newViewState = newViewStates.get(newItemPos);
         if (!compareContent) {
-          return newItem.getProductId() == oldItem.getProductId();
-        }
-        if (!newItem.getProduct().equals(oldItem.getProduct())) {
-          return false;
-        }
-        QuantityUnit quOld = quantityUnitHashMapOld.get(oldItem.getProduct().getQuIdStockInt());
-        QuantityUnit quNew = quantityUnitHashMapNew.get(newItem.getProduct().getQuIdStockInt());
-        if (quOld == null && quNew != null
-            || quOld != null && quNew != null && quOld.getId() != quNew.getId()
-        ) {
-          return false;
-        }
-
-        boolean isOnShoppingListOld = shoppingListItemsProductIdsOld
-            .contains(String.valueOf(oldItem.getProduct().getId()));
-        boolean isOnShoppingListNew = shoppingListItemsProductIdsNew
-            .contains(String.valueOf(newItem.getProduct().getId()));
-        if (isOnShoppingListNew != isOnShoppingListOld) {
-          return false;
-        }
-
-        if (extraFieldNew.equals(FilterChipLiveDataStockExtraField.EXTRA_FIELD_AVERAGE_PRICE)) {
-          String priceOld = productAveragePriceHashMapOld.get(oldItem.getProductId());
-          String priceNew = productAveragePriceHashMapNew.get(newItem.getProductId());
-          if (priceOld == null && priceNew != null
-              || priceOld != null && priceNew != null && !priceOld.equals(priceNew)) {
-            return false;
-          }
-        } else if (extraFieldNew.equals(FilterChipLiveDataStockExtraField.EXTRA_FIELD_LAST_PRICE)) {
-          ProductLastPurchased purchasedOld = productLastPurchasedHashMapOld
-              .get(oldItem.getProductId());
-          ProductLastPurchased purchasedNew = productLastPurchasedHashMapNew
-              .get(newItem.getProductId());
-          if (purchasedOld == null && purchasedNew != null
-              || purchasedOld != null && purchasedNew != null && !purchasedOld.equals(purchasedNew)) {
-            return false;
-          }
-        }
-
-        boolean missingOld = missingProductIdsOld.contains(oldItem.getProductId());
-        boolean missingNew = missingProductIdsNew.contains(newItem.getProductId());
-        if (missingOld != missingNew) {
-          return false;
+          return newViewState.getProductId() == oldViewState.getProductId();
         }
-        return newItem.equals(oldItem);
+        return newViewState.equals(oldViewState);
       } else {
         GroupHeader newGroup = (GroupHeader) newItems.get(newItemPos);
         GroupHeader oldGroup = (GroupHeader) oldItems.get(oldItemPos);
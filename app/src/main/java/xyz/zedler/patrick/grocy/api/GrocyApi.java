@@ -21,11 +21,10 @@ package xyz.zedler.patrick.grocy.api;
 
 import android.app.Application;
 import android.content.SharedPreferences;
+import android.util.Base64;
 import androidx.preference.PreferenceManager;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.util.Constants;
-import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.STOCK;
-import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
 
 public class GrocyApi {
 
@@ -180,18 +179,6 @@ public class GrocyApi {
     return getUrl("/stock/products/" + productId + "/entries?include_sub_products=true");
   }
 
-  /**
-   * Returns all products which are currently in stock incl. the next due date per product
-   */
-  public String getStockVolatile() {
-    return getUrl(
-        "/stock/volatile", "due_soon_days=" + sharedPrefs.getString(
-            STOCK.DUE_SOON_DAYS,
-            SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS
-        )
-    );
-  }
-
   /**
    * Returns the price history of the given product
    */
@@ -282,4 +269,18 @@ public class GrocyApi {
   public String undoTask(int taskId) {
     return getUrl("/tasks/" + taskId + "/undo");
   }
+
+  // FILES
+
+  /**
+   * Returns the picture of a product, resized by the server to fit into the given size
+   */
+  public String getProductPicture(String fileName, int maxWidth, int maxHeight) {
+    return getUrl(
+        "/files/productpictures/" + Base64.encodeToString(fileName.getBytes(), Base64.NO_WRAP),
+        "force_serve_as=picture",
+        "best_fit_width=" + maxWidth,
+        "best_fit_height=" + maxHeight
+    );
+  }
 }
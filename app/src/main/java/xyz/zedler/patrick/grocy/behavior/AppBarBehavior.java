@@ -21,9 +21,9 @@ package xyz.zedler.patrick.grocy.behavior;
 
 import android.app.Activity;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.View;
 import androidx.annotation.NonNull;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class AppBarBehavior {
@@ -74,7 +74,7 @@ public class AppBarBehavior {
           viewPrimary.animate().alpha(1).setDuration(ANIM_DURATION / 2).start();
         }).start();
     if (debug) {
-      Log.i(TAG, "switch to primary layout");
+      LogUtil.i(TAG, "switch to primary layout");
     }
   }
 
@@ -93,7 +93,7 @@ public class AppBarBehavior {
           viewSecondary.animate().alpha(1).setDuration(ANIM_DURATION / 2).start();
         }).start();
     if (debug) {
-      Log.i(TAG, "switch to secondary layout");
+      LogUtil.i(TAG, "switch to secondary layout");
     }
   }
 
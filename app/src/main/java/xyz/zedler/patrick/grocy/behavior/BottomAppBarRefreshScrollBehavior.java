@@ -25,7 +25,6 @@ import android.animation.TimeInterpolator;
 import android.animation.ValueAnimator;
 import android.app.Activity;
 import android.os.Build;
-import android.util.Log;
 import android.view.View;
 import android.view.ViewPropertyAnimator;
 import androidx.annotation.IdRes;
@@ -38,6 +37,7 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.activity.MainActivity;
 import xyz.zedler.patrick.grocy.bottomappbar.CustomBottomAppBar;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.UnitUtil;
 
 public class BottomAppBarRefreshScrollBehavior {
@@ -68,7 +68,7 @@ public class BottomAppBarRefreshScrollBehavior {
   public BottomAppBarRefreshScrollBehavior(Activity activity) {
     this.activity = activity;
     if (activity == null) {
-      Log.e(TAG, "constructor: activity is null!");
+      LogUtil.e(TAG, "constructor: activity is null!");
       return;
     }
     topScrollLimit = UnitUtil.dpToPx(activity, 100);
@@ -109,7 +109,7 @@ public class BottomAppBarRefreshScrollBehavior {
   public void setUpScroll(@IdRes int nestedScrollViewId) {
     if (activity == null) {
       if (DEBUG) {
-        Log.e(TAG, "setUpScroll: activity is null!");
+        LogUtil.e(TAG, "setUpScroll: activity is null!");
       }
       return;
     }
@@ -150,7 +150,7 @@ public class BottomAppBarRefreshScrollBehavior {
       }
     }
     if (DEBUG) {
-      Log.i(TAG, "setUpScroll with ScrollView");
+      LogUtil.i(TAG, "setUpScroll with ScrollView");
     }
   }
 
@@ -193,7 +193,7 @@ public class BottomAppBarRefreshScrollBehavior {
   private NestedScrollView.OnScrollChangeListener onScrollChangeListener() {
     return (NestedScrollView v, int scrollX, int scrollY, int oldScrollX, int oldScrollY) -> {
       if (DEBUG) {
-        Log.i(
+        LogUtil.i(
             TAG,
             "onScrollChangeListener: newY = " + scrollY + ", oldY = " + oldScrollY
         );
@@ -241,14 +241,14 @@ public class BottomAppBarRefreshScrollBehavior {
     if (bottomAppBar != null) {
       if (bottomAppBar.isOrWillBeShown()) {
         if (DEBUG) {
-          Log.i(TAG, "onTopScroll: bottomAppBar already shown");
+          LogUtil.i(TAG, "onTopScroll: bottomAppBar already shown");
         }
         return;
       }
       bottomAppBar.show();
       onChangeBottomAppBarVisibility(true, "onTopScroll");
     } else if (DEBUG) {
-      Log.e(TAG, "onTopScroll: bottomAppBar is null!");
+      LogUtil.e(TAG, "onTopScroll: bottomAppBar is null!");
     }
   }
 
@@ -262,10 +262,10 @@ public class BottomAppBarRefreshScrollBehavior {
       bottomAppBar.show();
       onChangeBottomAppBarVisibility(true, "onScrollUp");
     } else if (DEBUG) {
-      Log.e(TAG, "onScrollUp: bottomAppBar is null!");
+      LogUtil.e(TAG, "onScrollUp: bottomAppBar is null!");
     }
     if (DEBUG) {
-      Log.i(TAG, "onScrollUp: UP");
+      LogUtil.i(TAG, "onScrollUp: UP");
     }
   }
 
@@ -292,10 +292,10 @@ public class BottomAppBarRefreshScrollBehavior {
         }
       }
     } else if (DEBUG) {
-      Log.e(TAG, "onScrollDown: bottomAppBar is null!");
+      LogUtil.e(TAG, "onScrollDown: bottomAppBar is null!");
     }
     if (DEBUG) {
-      Log.i(TAG, "onScrollDown: DOWN");
+      LogUtil.i(TAG, "onScrollDown: DOWN");
     }
   }
 
@@ -310,10 +310,10 @@ public class BottomAppBarRefreshScrollBehavior {
         onChangeBottomAppBarVisibility(true, "setHideOnScroll");
       }
     } else if (DEBUG) {
-      Log.e(TAG, "setHideOnScroll: bottomAppBar is null!");
+      LogUtil.e(TAG, "setHideOnScroll: bottomAppBar is null!");
     }
     if (DEBUG) {
-      Log.i(TAG, "setHideOnScroll(" + hide + ")");
+      LogUtil.i(TAG, "setHideOnScroll(" + hide + ")");
     }
   }
 
@@ -333,7 +333,7 @@ public class BottomAppBarRefreshScrollBehavior {
     if (activity != null) {
       if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
         if (DEBUG) {
-          Log.i(TAG, "onChangeBottomAppBarVisibility: SDK below 29");
+          LogUtil.i(TAG, "onChangeBottomAppBarVisibility: SDK below 29");
         }
         return;
       }
@@ -352,7 +352,7 @@ public class BottomAppBarRefreshScrollBehavior {
         );
         valueAnimator.setDuration(200).start();
       } else if (DEBUG) {
-        Log.i(TAG, "onHideBottomAppBar: current and target identical");
+        LogUtil.i(TAG, "onHideBottomAppBar: current and target identical");
       }
       int navBarCurrentColor = activity.getWindow().getNavigationBarColor();
       int navBarTargetColor = ContextCompat.getColor(
@@ -370,14 +370,14 @@ public class BottomAppBarRefreshScrollBehavior {
         valueAnimator.setStartDelay(visible ? 0 : 100);
         valueAnimator.setDuration(visible ? 70 : 100).start();
       } else if (DEBUG) {
-        Log.i(
+        LogUtil.i(
             TAG, "onChangeBottomBarVisibility("
                 + origin
                 + "): current and target identical"
         );
       }
     } else if (DEBUG) {
-      Log.e(TAG, "onChangeBottomBarVisibility("
+      LogUtil.e(TAG, "onChangeBottomBarVisibility("
           + origin
           + "): activity is null!"
       );
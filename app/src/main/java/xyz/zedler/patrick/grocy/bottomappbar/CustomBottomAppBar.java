@@ -27,7 +27,6 @@ import android.content.Context;
 import android.graphics.drawable.Drawable;
 import android.os.Handler;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -41,6 +40,7 @@ import com.google.android.material.animation.AnimationUtils;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import java.util.List;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.UnitUtil;
 
 public class CustomBottomAppBar extends BottomAppBar {
@@ -168,7 +168,7 @@ public class CustomBottomAppBar extends BottomAppBar {
             animateMenu(getMenu().size() - 1, null);
             break;
           default:
-            Log.e(TAG, "changeMenu: wrong argument: " + position);
+            LogUtil.e(TAG, "changeMenu: wrong argument: " + position);
         }
       }, ICON_ANIM_DURATION);
     } else {
@@ -201,7 +201,7 @@ public class CustomBottomAppBar extends BottomAppBar {
             animateMenu(getMenu().size() - 1, onChanged);
             break;
           default:
-            Log.e(TAG, "changeMenu: wrong argument: " + position);
+            LogUtil.e(TAG, "changeMenu: wrong argument: " + position);
         }
       }, ICON_ANIM_DURATION);
     } else {
@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.MissingItem;
@@ -33,6 +34,9 @@ public interface MissingItemDao {
   @Query("SELECT * FROM missing_item_table")
   Single<List<MissingItem>> getMissingItems();
 
+  @Query("SELECT * FROM missing_item_table")
+  Flowable<List<MissingItem>> getMissingItemsFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertMissingItems(List<MissingItem> missingItems);
 
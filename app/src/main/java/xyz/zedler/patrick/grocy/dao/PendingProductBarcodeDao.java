@@ -41,9 +41,16 @@ public interface PendingProductBarcodeDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Single<Long> insertProductBarcode(PendingProductBarcode productBarcode);
 
+    @Query("UPDATE pending_product_barcode_table SET product_id = :productId "
+        + "WHERE pending_product_id = :pendingProductId")
+    Single<Integer> setProductIdOfPendingProduct(int pendingProductId, String productId);
+
     @Delete
     Single<Integer> deleteProductBarcode(PendingProductBarcode productBarcode);
 
+    @Query("DELETE FROM pending_product_barcode_table WHERE id = :id")
+    Single<Integer> deleteProductBarcode(int id);
+
     @Query("DELETE FROM pending_product_barcode_table")
     Single<Integer> deleteProductBarcodes();
 
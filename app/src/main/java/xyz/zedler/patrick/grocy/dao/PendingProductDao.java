@@ -44,6 +44,9 @@ public interface PendingProductDao {
     @Delete
     Single<Integer> deletePendingProduct(PendingProduct product);
 
+    @Query("DELETE FROM pending_product_table WHERE id = :id")
+    Single<Integer> deletePendingProduct(int id);
+
     @Query("DELETE FROM pending_product_table")
     Single<Integer> deletePendingProducts();
 
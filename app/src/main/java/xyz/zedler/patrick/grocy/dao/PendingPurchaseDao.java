@@ -38,6 +38,17 @@ public interface PendingPurchaseDao {
     @Query("SELECT * FROM pending_purchase_table")
     Single<List<PendingPurchase>> getPendingPurchases();
 
+    @Query("SELECT * FROM pending_purchase_table "
+        + "WHERE product_id IS NOT NULL AND pending_product_id = 0")
+    Single<List<PendingPurchase>> getPendingPurchasesOfProducts();
+
+    @Query("UPDATE pending_purchase_table SET product_id = :productId "
+        + "WHERE pending_product_id = :pendingProductId")
+    Single<Integer> setProductIdOfPendingProduct(int pendingProductId, int productId);
+
+    @Query("UPDATE pending_purchase_table SET upload_started = 1 WHERE id = :id")
+    Single<Integer> setUploadStarted(int id);
+
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     Single<Long> insertPendingPurchase(PendingPurchase pendingPurchase);
 
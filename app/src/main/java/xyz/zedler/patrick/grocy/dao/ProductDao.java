@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.Product;
@@ -33,6 +34,9 @@ public interface ProductDao {
   @Query("SELECT * FROM product_table")
   Single<List<Product>> getProducts();
 
+  @Query("SELECT * FROM product_table")
+  Flowable<List<Product>> getProductsFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertProducts(List<Product> products);
 
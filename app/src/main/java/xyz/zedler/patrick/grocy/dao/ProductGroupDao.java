@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
@@ -33,6 +34,9 @@ public interface ProductGroupDao {
   @Query("SELECT * FROM product_group_table")
   Single<List<ProductGroup>> getProductGroups();
 
+  @Query("SELECT * FROM product_group_table")
+  Flowable<List<ProductGroup>> getProductGroupsFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertProductGroups(List<ProductGroup> productGroups);
 
@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
@@ -33,6 +34,9 @@ public interface ProductLastPurchasedDao {
   @Query("SELECT * FROM product_last_purchased_table")
   Single<List<ProductLastPurchased>> getProductsLastPurchased();
 
+  @Query("SELECT * FROM product_last_purchased_table")
+  Flowable<List<ProductLastPurchased>> getProductsLastPurchasedFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertProductsLastPurchased(List<ProductLastPurchased> productsLastPurchased);
 
@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
@@ -33,6 +34,9 @@ public interface QuantityUnitConversionDao {
   @Query("SELECT * FROM quantity_unit_conversion_table")
   Single<List<QuantityUnitConversion>> getConversions();
 
+  @Query("SELECT * FROM quantity_unit_conversion_table")
+  Flowable<List<QuantityUnitConversion>> getConversionsFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertConversions(List<QuantityUnitConversion> quantityUnitConversions);
 
@@ -24,6 +24,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
@@ -37,6 +38,9 @@ public interface ShoppingListDao {
   @Query("SELECT * FROM shopping_list_table")
   Single<List<ShoppingList>> getShoppingLists();
 
+  @Query("SELECT * FROM shopping_list_table")
+  Flowable<List<ShoppingList>> getShoppingListsFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertShoppingLists(List<ShoppingList> shoppingLists);
 
@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
@@ -33,6 +34,9 @@ public interface ShoppingListItemDao {
   @Query("SELECT * FROM shopping_list_item_table")
   Single<List<ShoppingListItem>> getShoppingListItems();
 
+  @Query("SELECT * FROM shopping_list_item_table")
+  Flowable<List<ShoppingListItem>> getShoppingListItemsFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertShoppingListItems(List<ShoppingListItem> shoppingListItems);
 
@@ -48,4 +52,7 @@ public interface ShoppingListItemDao {
   @Query("DELETE FROM shopping_list_item_table")
   Single<Integer> deleteShoppingListItems();
 
+  @Query("DELETE FROM shopping_list_item_table WHERE id IN (:ids)")
+  Single<Integer> deleteShoppingListItems(List<Integer> ids);
+
 }
@@ -33,6 +33,34 @@ public interface StockItemDao {
   @Query("SELECT * FROM stock_item_table")
   Single<List<StockItem>> getStockItems();
 
+  // pages of the unfiltered stock overview, ordered along the name and due date indices
+
+  @Query("SELECT stock_item_table.* FROM stock_item_table "
+      + "INNER JOIN product_table ON product_table.id = stock_item_table.product_id "
+      + "WHERE product_table.hide_on_stock_overview IS NOT '1' "
+      + "ORDER BY product_table.name ASC, product_table.id ASC LIMIT :limit OFFSET :offset")
+  Single<List<StockItem>> getVisibleStockItemsByNameAsc(int offset, int limit);
+
+  @Query("SELECT stock_item_table.* FROM stock_item_table "
+      + "INNER JOIN product_table ON product_table.id = stock_item_table.product_id "
+      + "WHERE product_table.hide_on_stock_overview IS NOT '1' "
+      + "ORDER BY product_table.name DESC, product_table.id DESC LIMIT :limit OFFSET :offset")
+  Single<List<StockItem>> getVisibleStockItemsByNameDesc(int offset, int limit);
+
+  @Query("SELECT stock_item_table.* FROM stock_item_table "
+      + "INNER JOIN product_table ON product_table.id = stock_item_table.product_id "
+      + "WHERE product_table.hide_on_stock_overview IS NOT '1' "
+      + "ORDER BY stock_item_table.best_before_date ASC, stock_item_table.product_id ASC "
+      + "LIMIT :limit OFFSET :offset")
+  Single<List<StockItem>> getVisibleStockItemsByDueDateAsc(int offset, int limit);
+
+  @Query("SELECT stock_item_table.* FROM stock_item_table "
+      + "INNER JOIN product_table ON product_table.id = stock_item_table.product_id "
+      + "WHERE product_table.hide_on_stock_overview IS NOT '1' "
+      + "ORDER BY stock_item_table.best_before_date DESC, stock_item_table.product_id DESC "
+      + "LIMIT :limit OFFSET :offset")
+  Single<List<StockItem>> getVisibleStockItemsByDueDateDesc(int offset, int limit);
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertStockItems(List<StockItem> stockItems);
 
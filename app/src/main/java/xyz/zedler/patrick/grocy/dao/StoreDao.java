@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.Store;
@@ -33,6 +34,9 @@ public interface StoreDao {
   @Query("SELECT * FROM store_table")
   Single<List<Store>> getStores();
 
+  @Query("SELECT * FROM store_table")
+  Flowable<List<Store>> getStoresFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertStores(List<Store> stores);
 
@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.TaskCategory;
@@ -33,6 +34,9 @@ public interface TaskCategoryDao {
   @Query("SELECT * FROM task_category_table")
   Single<List<TaskCategory>> getTaskCategories();
 
+  @Query("SELECT * FROM task_category_table")
+  Flowable<List<TaskCategory>> getTaskCategoriesFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertCategories(List<TaskCategory> taskGroups);
 
@@ -23,6 +23,7 @@ import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import java.util.List;
 import xyz.zedler.patrick.grocy.model.Task;
@@ -33,6 +34,9 @@ public interface TaskDao {
   @Query("SELECT * FROM task_table")
   Single<List<Task>> getTasks();
 
+  @Query("SELECT * FROM task_table")
+  Flowable<List<Task>> getTasksFlowable();
+
   @Insert(onConflict = OnConflictStrategy.REPLACE)
   Single<List<Long>> insertTasks(List<Task> tasks);
 
@@ -20,9 +20,15 @@
 package xyz.zedler.patrick.grocy.database;
 
 import android.content.Context;
+import android.os.SystemClock;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import java.util.concurrent.atomic.AtomicLong;
+import xyz.zedler.patrick.grocy.dao.BarcodeLookupDao;
+import xyz.zedler.patrick.grocy.dao.CachedProductDetailsDao;
 import xyz.zedler.patrick.grocy.dao.LocationDao;
 import xyz.zedler.patrick.grocy.dao.MissingItemDao;
 import xyz.zedler.patrick.grocy.dao.PendingProductBarcodeDao;
@@ -42,6 +48,8 @@ import xyz.zedler.patrick.grocy.dao.StockLocationDao;
 import xyz.zedler.patrick.grocy.dao.StoreDao;
 import xyz.zedler.patrick.grocy.dao.TaskCategoryDao;
 import xyz.zedler.patrick.grocy.dao.TaskDao;
+import xyz.zedler.patrick.grocy.model.BarcodeLookup;
+import xyz.zedler.patrick.grocy.model.CachedProductDetails;
 import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.model.MissingItem;
 import xyz.zedler.patrick.grocy.model.PendingProduct;
@@ -82,14 +90,25 @@ import xyz.zedler.patrick.grocy.model.TaskCategory;
         ProductAveragePrice.class,
         PendingProduct.class,
         PendingProductBarcode.class,
-        PendingPurchase.class
+        PendingPurchase.class,
+        BarcodeLookup.class,
+        CachedProductDetails.class
     },
-    version = 27
+    version = 32
 )
 public abstract class AppDatabase extends RoomDatabase {
 
   private static AppDatabase INSTANCE;
 
+  private final static int SNAPSHOT_ATTEMPTS = 3;
+  private final static long SNAPSHOT_WAIT_MS = 2000;
+
+  private final AtomicLong syncGeneration = new AtomicLong(0);
+  private final Object commitLock = new Object();
+  // changed at start and end of every commit, like a sequence lock, guarded by commitLock
+  private long commitSequence = 0;
+  private int activeCommits = 0;
+
   public abstract ShoppingListDao shoppingListDao();
 
   public abstract ShoppingListItemDao shoppingListItemDao();
@@ -128,17 +147,112 @@ public abstract class AppDatabase extends RoomDatabase {
 
   public abstract PendingPurchaseDao pendingPurchaseDao();
 
-  public static AppDatabase getAppDatabase(Context context) {
+  public abstract BarcodeLookupDao barcodeLookupDao();
+
+  public abstract CachedProductDetailsDao cachedProductDetailsDao();
+
+  public static synchronized AppDatabase getAppDatabase(Context context) {
     if (INSTANCE == null) {
       INSTANCE = Room.databaseBuilder(
           context.getApplicationContext(),
           AppDatabase.class,
           "app_database"
-      ).fallbackToDestructiveMigration().build();
+      ).fallbackToDestructiveMigration()
+          .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING) // reads don't wait for sync writes
+          .build();
     }
     return INSTANCE;
   }
 
+  /**
+   * Number of sync generations which were committed since the database was opened.
+   */
+  public long getSyncGeneration() {
+    return syncGeneration.get();
+  }
+
+  void onSyncGenerationCommitted() {
+    syncGeneration.incrementAndGet();
+  }
+
+  void onCommitStarted() {
+    synchronized (commitLock) {
+      activeCommits++;
+      commitSequence++;
+    }
+  }
+
+  void onCommitFinished() {
+    synchronized (commitLock) {
+      commitSequence++;
+      activeCommits--;
+      commitLock.notifyAll();
+    }
+  }
+
+  /**
+   * Runs a write which is not part of a {@link SyncGeneration} as one commit for
+   * {@link #readSnapshot(Single)}. Every write to a table which is read with a snapshot has to
+   * go through this or through a sync generation, other writes are not detected by snapshots.
+   */
+  public <T> Single<T> trackCommit(Single<T> write) {
+    return Single.defer(() -> {
+      onCommitStarted();
+      return write.doFinally(this::onCommitFinished);
+    });
+  }
+
+  public Completable trackCommit(Completable write) {
+    return Completable.defer(() -> {
+      onCommitStarted();
+      return write.doFinally(this::onCommitFinished);
+    });
+  }
+
+  /**
+   * Runs the reads of the given single so that they all see the same state of the tables,
+   * as long as all writers of the read tables use a sync generation or
+   * {@link #trackCommit(Single)}. The reads run without a transaction on the reader connections
+   * of WAL mode, so they don't take the write lock. While a commit is running, they wait for
+   * its end. If a commit started or finished during the reads, they are repeated, and only after
+   * some failed attempts or a long running commit they run in a transaction.
+   */
+  public <T> Single<T> readSnapshot(Single<T> reads) {
+    return Single.fromCallable(() -> {
+      for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+        long sequence = awaitCommits();
+        if (sequence == -1) {
+          break;
+        }
+        T result = reads.blockingGet();
+        synchronized (commitLock) {
+          if (sequence == commitSequence) {
+            return result;
+          }
+        }
+      }
+      return runInTransaction(reads::blockingGet);
+    });
+  }
+
+  /**
+   * Returns the commit sequence after all running commits have finished, or -1 if they are
+   * still running after the wait time.
+   */
+  private long awaitCommits() throws InterruptedException {
+    synchronized (commitLock) {
+      long deadline = SystemClock.uptimeMillis() + SNAPSHOT_WAIT_MS;
+      while (activeCommits > 0) {
+        long remaining = deadline - SystemClock.uptimeMillis();
+        if (remaining <= 0) {
+          return -1;
+        }
+        commitLock.wait(remaining);
+      }
+      return commitSequence;
+    }
+  }
+
   public static void destroyInstance() {
     INSTANCE = null;
   }
@@ -0,0 +1,148 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.database;
+
+import android.content.SharedPreferences;
+import androidx.annotation.Nullable;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+
+/**
+ * Collects the table writes of one sync and applies all of them in a single transaction, so
+ * that readers never see an empty or half written table. The db-changed-time prefs of the
+ * written tables are only stored after the transaction was committed.
+ */
+public class SyncGeneration {
+
+  private final static String TAG = SyncGeneration.class.getSimpleName();
+  private final static int INSERT_CHUNK_SIZE = 250;
+
+  private final AppDatabase appDatabase;
+  private final SharedPreferences sharedPrefs;
+  private final ArrayList<Write> writes;
+  private final HashMap<String, String> prefs;
+
+  public SyncGeneration(AppDatabase appDatabase, @Nullable SharedPreferences sharedPrefs) {
+    this.appDatabase = appDatabase;
+    this.sharedPrefs = sharedPrefs;
+    writes = new ArrayList<>();
+    prefs = new HashMap<>();
+  }
+
+  public synchronized SyncGeneration stage(Write write) {
+    writes.add(write);
+    return this;
+  }
+
+  public synchronized SyncGeneration stage(Write write, String prefKey, String prefValue) {
+    writes.add(write);
+    prefs.put(prefKey, prefValue);
+    return this;
+  }
+
+  public synchronized boolean isEmpty() {
+    return writes.isEmpty();
+  }
+
+  public synchronized void clear() {
+    writes.clear();
+    prefs.clear();
+  }
+
+  /**
+   * Commits all staged writes in one transaction on a background thread and calls the listener
+   * on the main thread afterwards, also if the transaction failed.
+   */
+  public void commit(@Nullable Runnable onCommitted) {
+    ArrayList<Write> writes;
+    HashMap<String, String> prefs;
+    synchronized (this) {
+      writes = new ArrayList<>(this.writes);
+      prefs = new HashMap<>(this.prefs);
+      clear();
+    }
+    if (writes.isEmpty()) {
+      if (onCommitted != null) {
+        onCommitted.run();
+      }
+      return;
+    }
+    Completable.fromAction(() -> {
+      appDatabase.onCommitStarted();
+      try {
+        appDatabase.runInTransaction(() -> {
+          for (Write write : writes) {
+            write.write();
+          }
+        });
+      } finally {
+        appDatabase.onCommitFinished();
+      }
+    })
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doOnComplete(() -> {
+          appDatabase.onSyncGenerationCommitted();
+          if (sharedPrefs != null && !prefs.isEmpty()) {
+            SharedPreferences.Editor editor = sharedPrefs.edit();
+            for (Map.Entry<String, String> pref : prefs.entrySet()) {
+              editor.putString(pref.getKey(), pref.getValue());
+            }
+            editor.apply();
+          }
+        })
+        .doOnError(throwable -> LogUtil.e(TAG, "commit: " + throwable))
+        .onErrorComplete()
+        .doFinally(() -> {
+          if (onCommitted != null) {
+            onCommitted.run();
+          }
+        })
+        .subscribe();
+  }
+
+  public static <T> Write replace(Single<?> delete, Insert<T> insert, List<T> items) {
+    return () -> {
+      delete.blockingGet();
+      // chunks keep the statement cache warm and the memory of one insert call bounded
+      for (int i = 0; i < items.size(); i += INSERT_CHUNK_SIZE) {
+        insert.insert(items.subList(i, Math.min(i + INSERT_CHUNK_SIZE, items.size())))
+            .blockingGet();
+      }
+    };
+  }
+
+  public interface Write {
+
+    void write();
+  }
+
+  public interface Insert<T> {
+
+    Single<?> insert(List<T> items);
+  }
+}
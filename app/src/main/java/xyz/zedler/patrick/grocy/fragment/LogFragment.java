@@ -19,32 +19,41 @@
 
 package xyz.zedler.patrick.grocy.fragment;
 
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.os.Handler;
+import android.util.Log;
 import android.view.LayoutInflater;
+import android.view.Menu;
 import android.view.MenuItem;
+import android.view.SubMenu;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.List;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.activity.MainActivity;
 import xyz.zedler.patrick.grocy.databinding.FragmentLogBinding;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.FeedbackBottomSheet;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 
 public class LogFragment extends BaseFragment {
 
   private final static String TAG = LogFragment.class.getSimpleName();
 
+  private final static int GROUP_TAGS = 1;
+
   private FragmentLogBinding binding;
   private MainActivity activity;
+  private Disposable loadDisposable;
   private boolean showInfo = false;
+  private String tag = null;
 
   @Override
   public View onCreateView(
@@ -59,6 +68,9 @@ public class LogFragment extends BaseFragment {
   @Override
   public void onDestroyView() {
     super.onDestroyView();
+    if (loadDisposable != null) {
+      loadDisposable.dispose();
+    }
     binding = null;
   }
 
@@ -84,78 +96,62 @@ public class LogFragment extends BaseFragment {
     } else if (savedInstanceState != null && savedInstanceState.containsKey("show_info")) {
       showInfo = savedInstanceState.getBoolean("show_info");
     }
+    if (savedInstanceState != null) {
+      tag = savedInstanceState.getString("tag");
+    }
 
-    new Handler().postDelayed(
-        () -> new loadAsyncTask(
-            getLogcatCommand(),
-            log -> binding.textLog.setText(log)
-        ).execute(),
-        300
-    );
+    new Handler().postDelayed(this::loadLog, 300);
   }
 
   @Override
   public void onSaveInstanceState(@NonNull Bundle outState) {
     outState.putBoolean("show_info", showInfo);
+    outState.putString("tag", tag);
     super.onSaveInstanceState(outState);
   }
 
-  private static class loadAsyncTask extends AsyncTask<Void, Void, String> {
-
-    private final String logcatCommand;
-    private final LogLoadedListener listener;
-
-    loadAsyncTask(String logcatCommand, LogLoadedListener listener) {
-      this.logcatCommand = logcatCommand;
-      this.listener = listener;
+  private void loadLog() {
+    if (binding == null) {
+      return;
     }
-
-    @Override
-    protected final String doInBackground(Void... params) {
+    if (loadDisposable != null) {
+      loadDisposable.dispose();
+    }
+    int minLevel = showInfo ? Log.INFO : Log.ERROR;
+    String tag = this.tag;
+    loadDisposable = Single.fromCallable(() -> {
       StringBuilder log = new StringBuilder();
-      try {
-        Process process = Runtime.getRuntime().exec(logcatCommand);
-        BufferedReader bufferedReader = new BufferedReader(
-            new InputStreamReader(process.getInputStream())
-        );
-        String line;
-        while ((line = bufferedReader.readLine()) != null) {
-          log.append(line).append('\n');
+      for (LogUtil.Entry entry : LogUtil.getEntries(minLevel, tag)) {
+        if (log.length() > 0) {
+          log.append('\n');
         }
-        if (log.length() > 0) log.deleteCharAt(log.length() - 1);
-      } catch (IOException ignored) {
+        log.append(entry);
       }
       return log.toString();
-    }
-
-    @Override
-    protected void onPostExecute(String log) {
-      if (listener != null) {
-        listener.onLogLoaded(log);
-      }
-    }
-
-    private interface LogLoadedListener {
-
-      void onLogLoaded(String log);
-    }
+    }).subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(log -> {
+          if (binding != null) {
+            binding.textLog.setText(log);
+          }
+        }, throwable -> LogUtil.e(TAG, "loadLog: " + throwable));
   }
 
-  private String getLogcatCommand() {
-    return "logcat -d " +
-        (showInfo ? "*:I " : "*:E ") +
-        (showInfo ? "-t 150 " : "-t 300 ") +
-        "AdrenoGLES:S " +
-        "ActivityThread:S " +
-        "RenderThread:S " +
-        "Gralloc3:S " +
-        "OpenGLRenderer:S " +
-        "Choreographer:S ";
+  private void fillTagMenu(SubMenu menu) {
+    menu.clear();
+    menu.add(GROUP_TAGS, 0, Menu.NONE, R.string.setting_log_all_tags)
+        .setChecked(tag == null);
+    List<String> tags = LogUtil.getTags();
+    for (int i = 0; i < tags.size(); i++) {
+      menu.add(GROUP_TAGS, i + 1, Menu.NONE, tags.get(i))
+          .setChecked(tags.get(i).equals(tag));
+    }
+    menu.setGroupCheckable(GROUP_TAGS, true, true);
   }
 
   private boolean onMenuItemClick(MenuItem item) {
     if (item.getItemId() == R.id.action_refresh) {
-      new loadAsyncTask(getLogcatCommand(), log -> binding.textLog.setText(log)).execute();
+      loadLog();
       return true;
     } else if (item.getItemId() == R.id.action_feedback) {
       activity.showBottomSheet(new FeedbackBottomSheet(), null);
@@ -167,13 +163,20 @@ public class LogFragment extends BaseFragment {
         item.getSubMenu().findItem(R.id.action_error_logs).setChecked(true);
       }
       return true;
+    } else if (item.getItemId() == R.id.action_log_tag) {
+      fillTagMenu(item.getSubMenu());
+      return true;
+    } else if (item.getGroupId() == GROUP_TAGS) {
+      tag = item.getItemId() == 0 ? null : String.valueOf(item.getTitle());
+      loadLog();
+      return true;
     } else if (item.getItemId() == R.id.action_error_logs) {
       showInfo = false;
-      new loadAsyncTask(getLogcatCommand(), log -> binding.textLog.setText(log)).execute();
+      loadLog();
       return true;
     } else if (item.getItemId() == R.id.action_info_logs) {
       showInfo = true;
-      new loadAsyncTask(getLogcatCommand(), log -> binding.textLog.setText(log)).execute();
+      loadLog();
       return true;
     }
     return false;
@@ -24,7 +24,6 @@ import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.os.Handler;
 import android.text.Editable;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
@@ -48,6 +47,7 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.MasterDeleteBottomShe
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
@@ -382,7 +382,7 @@ public class MasterLocationFragment extends BaseFragment {
       jsonObject.put("is_freezer", binding.checkboxMasterLocationFreezer.isChecked());
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "saveLocation: " + e);
+        LogUtil.e(TAG, "saveLocation: " + e);
       }
     }
     if (editLocation != null) {
@@ -393,7 +393,7 @@ public class MasterLocationFragment extends BaseFragment {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveLocation: " + error);
+              LogUtil.e(TAG, "saveLocation: " + error);
             }
           }
       );
@@ -405,7 +405,7 @@ public class MasterLocationFragment extends BaseFragment {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveLocation: " + error);
+              LogUtil.e(TAG, "saveLocation: " + error);
             }
           }
       );
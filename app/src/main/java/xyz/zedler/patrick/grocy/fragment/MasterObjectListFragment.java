@@ -77,8 +77,10 @@ public class MasterObjectListFragment extends BaseFragment
   private InfoFullscreenHelper infoFullscreenHelper;
   private FragmentMasterObjectListBinding binding;
   private MasterObjectListViewModel viewModel;
+  private boolean isSelectionMenuShown;
 
   private String entity;
+  private int title;
 
   @Override
   public View onCreateView(
@@ -90,7 +92,6 @@ public class MasterObjectListFragment extends BaseFragment
     binding = FragmentMasterObjectListBinding.inflate(
         inflater, container, false
     );
-    int title;
     switch (entity) {
       case GrocyApi.ENTITY.PRODUCTS:
         title = R.string.property_products;
@@ -195,12 +196,29 @@ public class MasterObjectListFragment extends BaseFragment
             entity,
             objects,
             this,
-            viewModel.getHorizontalFilterBarMulti()
+            viewModel.getHorizontalFilterBarMulti(),
+            viewModel.getSelectedIds()
         ));
         binding.recycler.scheduleLayoutAnimation();
       }
     });
 
+    viewModel.getSelectedCountLive().observe(getViewLifecycleOwner(), count -> {
+      if (count > 0) {
+        binding.title.setText(getResources().getQuantityString(
+            R.plurals.title_selected, count, count
+        ));
+      } else {
+        binding.title.setText(title);
+      }
+      if (binding.recycler.getAdapter() instanceof MasterObjectListAdapter) {
+        ((MasterObjectListAdapter) binding.recycler.getAdapter()).notifySelectionChanged();
+      }
+      if ((count > 0) != isSelectionMenuShown) {
+        updateUI();
+      }
+    });
+
     viewModel.getEventHandler().observeEvent(getViewLifecycleOwner(), event -> {
       if (event.getType() == Event.SNACKBAR_MESSAGE) {
         SnackbarMessage msg = (SnackbarMessage) event;
@@ -280,6 +298,15 @@ public class MasterObjectListFragment extends BaseFragment
   private void updateUI() {
     activity.getScrollBehavior().setUpScroll(binding.recycler);
     activity.getScrollBehavior().setHideOnScroll(true);
+    isSelectionMenuShown = viewModel.isSelectionActive();
+    if (isSelectionMenuShown) {
+      activity.updateBottomAppBar(
+          Constants.FAB.POSITION.GONE,
+          R.menu.menu_master_products_selection,
+          this::setUpSelectionMenu
+      );
+      return;
+    }
     activity.updateBottomAppBar(
         Constants.FAB.POSITION.CENTER,
         !entity.equals(GrocyApi.ENTITY.PRODUCTS)
@@ -385,6 +412,63 @@ public class MasterObjectListFragment extends BaseFragment
     }
   }
 
+  private void setUpSelectionMenu() {
+    activity.getBottomMenu().findItem(R.id.action_bulk_location)
+        .setOnMenuItemClickListener(item -> {
+          viewModel.showBulkLocationsBottomSheet();
+          return true;
+        });
+    activity.getBottomMenu().findItem(R.id.action_bulk_product_group)
+        .setOnMenuItemClickListener(item -> {
+          viewModel.showBulkProductGroupsBottomSheet();
+          return true;
+        });
+    activity.getBottomMenu().findItem(R.id.action_bulk_quantity_unit)
+        .setOnMenuItemClickListener(item -> {
+          viewModel.showBulkQuantityUnitsBottomSheet();
+          return true;
+        });
+    activity.getBottomMenu().findItem(R.id.action_select_all)
+        .setOnMenuItemClickListener(item -> {
+          viewModel.selectAllDisplayed();
+          return true;
+        });
+    activity.getBottomMenu().findItem(R.id.action_clear_selection)
+        .setOnMenuItemClickListener(item -> {
+          viewModel.clearSelection();
+          return true;
+        });
+  }
+
+  @Override
+  public void onItemRowSelectionToggled(Object object) {
+    viewModel.toggleSelected(object);
+  }
+
+  @Override
+  public void selectLocation(Location location) {
+    viewModel.setLocationOfSelected(location);
+  }
+
+  @Override
+  public void selectProductGroup(ProductGroup productGroup) {
+    viewModel.setProductGroupOfSelected(productGroup);
+  }
+
+  @Override
+  public void selectQuantityUnit(QuantityUnit quantityUnit) {
+    viewModel.setQuantityUnitOfSelected(quantityUnit);
+  }
+
+  @Override
+  public boolean onBackPressed() {
+    if (viewModel.isSelectionActive()) {
+      viewModel.clearSelection();
+      return true;
+    }
+    return false;
+  }
+
   @Override
   public void onItemRowClicked(Object object) {
     if (clickUtil.isDisabled()) {
@@ -24,7 +24,6 @@ import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.os.Handler;
 import android.text.Editable;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
@@ -48,6 +47,7 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.MasterDeleteBottomShe
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
@@ -365,7 +365,7 @@ public class MasterProductGroupFragment extends BaseFragment {
       );
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "saveProductGroup: " + e);
+        LogUtil.e(TAG, "saveProductGroup: " + e);
       }
     }
     if (editProductGroup != null) {
@@ -379,7 +379,7 @@ public class MasterProductGroupFragment extends BaseFragment {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveProductGroup: " + error);
+              LogUtil.e(TAG, "saveProductGroup: " + error);
             }
           }
       );
@@ -391,7 +391,7 @@ public class MasterProductGroupFragment extends BaseFragment {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveProductGroup: " + error);
+              LogUtil.e(TAG, "saveProductGroup: " + error);
             }
           }
       );
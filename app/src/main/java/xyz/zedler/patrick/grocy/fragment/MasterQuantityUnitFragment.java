@@ -24,7 +24,6 @@ import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.os.Handler;
 import android.text.Editable;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
@@ -48,6 +47,7 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.MasterDeleteBottomShe
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
@@ -398,7 +398,7 @@ public class MasterQuantityUnitFragment extends BaseFragment {
       );
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "saveQuantityUnit: " + e);
+        LogUtil.e(TAG, "saveQuantityUnit: " + e);
       }
     }
     if (editQuantityUnit != null) {
@@ -409,7 +409,7 @@ public class MasterQuantityUnitFragment extends BaseFragment {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveQuantityUnit: " + error);
+              LogUtil.e(TAG, "saveQuantityUnit: " + error);
             }
           }
       );
@@ -421,7 +421,7 @@ public class MasterQuantityUnitFragment extends BaseFragment {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveQuantityUnit: " + error);
+              LogUtil.e(TAG, "saveQuantityUnit: " + error);
             }
           }
       );
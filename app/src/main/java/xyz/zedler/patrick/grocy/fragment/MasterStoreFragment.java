@@ -23,7 +23,6 @@ import android.annotation.SuppressLint;
 import android.os.Bundle;
 import android.os.Handler;
 import android.text.Editable;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
 import android.view.View;
@@ -47,6 +46,7 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.MasterDeleteBottomShe
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
@@ -355,7 +355,7 @@ public class MasterStoreFragment extends BaseFragment {
       );
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "saveStore: " + e);
+        LogUtil.e(TAG, "saveStore: " + e);
       }
     }
     if (editStore != null) {
@@ -366,7 +366,7 @@ public class MasterStoreFragment extends BaseFragment {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveStore: " + error);
+              LogUtil.e(TAG, "saveStore: " + error);
             }
           }
       );
@@ -378,7 +378,7 @@ public class MasterStoreFragment extends BaseFragment {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveStore: " + error);
+              LogUtil.e(TAG, "saveStore: " + error);
             }
           }
       );
@@ -74,6 +74,12 @@ public class OverviewStartFragment extends BaseFragment {
     }
   }
 
+  @Override
+  public void onResume() {
+    super.onResume();
+    viewModel.checkDayChanged();
+  }
+
   @Override
   public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
     activity = (MainActivity) requireActivity();
@@ -42,6 +42,7 @@ import xyz.zedler.patrick.grocy.model.PendingProduct;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.util.ClickUtil;
+import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.ARGUMENT;
 import xyz.zedler.patrick.grocy.util.Constants.FAB.POSITION;
 import xyz.zedler.patrick.grocy.viewmodel.PendingPurchasesViewModel;
@@ -146,10 +147,17 @@ public class PendingPurchasesFragment extends BaseFragment
     activity.getScrollBehavior().setUpScroll(binding.scroll);
     activity.getScrollBehavior().setHideOnScroll(true);
     activity.updateBottomAppBar(
-        POSITION.GONE,
+        POSITION.CENTER,
         R.menu.menu_empty,
         (OnMenuItemClickListener) null
     );
+    activity.updateFab(
+        R.drawable.ic_round_backup,
+        R.string.action_upload,
+        Constants.FAB.TAG.UPLOAD,
+        savedInstanceState == null,
+        () -> viewModel.uploadPendingData()
+    );
   }
 
   public void clearInputFocus() {
@@ -185,6 +193,7 @@ public class PendingPurchasesFragment extends BaseFragment
       return;
     }
     viewModel.setOfflineLive(!online);
+    viewModel.onConnectivityChanged(online);
     viewModel.downloadData();
   }
 
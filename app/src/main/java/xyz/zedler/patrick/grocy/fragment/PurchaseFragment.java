@@ -36,6 +36,7 @@ import xyz.zedler.patrick.grocy.adapter.ShoppingListItemAdapter;
 import xyz.zedler.patrick.grocy.databinding.FragmentPurchaseBinding;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductOverviewBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductOverviewBottomSheetArgs;
+import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ScanBatchBottomSheet;
 import xyz.zedler.patrick.grocy.helper.InfoFullscreenHelper;
 import xyz.zedler.patrick.grocy.model.BottomSheetEvent;
 import xyz.zedler.patrick.grocy.model.Event;
@@ -247,7 +248,10 @@ public class PurchaseFragment extends BaseFragment implements BarcodeListener {
         Constants.FAB.TAG.PURCHASE,
         animated,
         () -> {
-          if (viewModel.isQuickModeEnabled()
+          if (viewModel.isScanBatchModeEnabled()
+              && viewModel.getFormData().getProductDetailsLive().getValue() == null) {
+            activity.showBottomSheet(new ScanBatchBottomSheet());
+          } else if (viewModel.isQuickModeEnabled()
               && viewModel.getFormData().isCurrentProductFlowNotInterrupted()) {
             focusNextInvalidView();
           } else if (!viewModel.getFormData().isProductNameValid()) {
@@ -284,12 +288,17 @@ public class PurchaseFragment extends BaseFragment implements BarcodeListener {
   @Override
   public void onBarcodeRecognized(String rawValue) {
     clearInputFocus();
-    if (!viewModel.isQuickModeEnabled()) {
+    if (!viewModel.isQuickModeEnabled() && !viewModel.isScanBatchModeEnabled()) {
       viewModel.getFormData().toggleScannerVisibility();
     }
     viewModel.onBarcodeRecognized(rawValue);
   }
 
+  @Override
+  public void updateConnectivity(boolean isOnline) {
+    viewModel.onConnectivityChanged(isOnline);
+  }
+
   public void toggleTorch() {
     embeddedFragmentScanner.toggleTorch();
   }
@@ -455,6 +464,9 @@ public class PurchaseFragment extends BaseFragment implements BarcodeListener {
               .toBundle()
       );
       return true;
+    } else if (item.getItemId() == R.id.action_scan_batch) {
+      viewModel.toggleScanBatchMode();
+      return true;
     } else if (item.getItemId() == R.id.action_clear_form) {
       clearInputFocus();
       viewModel.getFormData().clearForm();
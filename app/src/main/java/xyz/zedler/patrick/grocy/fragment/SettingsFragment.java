@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.fragment;
 import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.os.Handler;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -43,6 +42,7 @@ import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.util.ClickUtil;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.viewmodel.SettingsViewModel;
 
@@ -326,7 +326,7 @@ public class SettingsFragment extends BaseFragment {
       body.put("value", isChecked);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "updatePrefBoolean: " + e);
+        LogUtil.e(TAG, "updatePrefBoolean: " + e);
       }
     }
     viewModel.getDownloadHelper().put(
@@ -398,7 +398,7 @@ public class SettingsFragment extends BaseFragment {
           body.put("value", ((Location) value).getId());
         } catch (JSONException e) {
           if (debug) {
-            Log.e(TAG, "setValue: " + e);
+            LogUtil.e(TAG, "setValue: " + e);
           }
         }
         viewModel.getDownloadHelper().put(
@@ -413,7 +413,7 @@ public class SettingsFragment extends BaseFragment {
           body.put("value", ((ProductGroup) value).getId());
         } catch (JSONException e) {
           if (debug) {
-            Log.e(TAG, "setValue: " + e);
+            LogUtil.e(TAG, "setValue: " + e);
           }
         }
         viewModel.getDownloadHelper().put(
@@ -428,7 +428,7 @@ public class SettingsFragment extends BaseFragment {
           body.put("value", ((QuantityUnit) value).getId());
         } catch (JSONException e) {
           if (debug) {
-            Log.e(TAG, "setValue: " + e);
+            LogUtil.e(TAG, "setValue: " + e);
           }
         }
         viewModel.getDownloadHelper().put(
@@ -443,7 +443,7 @@ public class SettingsFragment extends BaseFragment {
           body.put("value", Integer.parseInt((String) value));
         } catch (JSONException e) {
           if (debug) {
-            Log.e(TAG, "setValue: " + e);
+            LogUtil.e(TAG, "setValue: " + e);
           }
         }
         viewModel.getDownloadHelper().put(
@@ -462,7 +462,7 @@ public class SettingsFragment extends BaseFragment {
 
   private void showVolleyError(VolleyError error) {
     if (debug) {
-      Log.e(TAG, "showVolleyError: " + error.getLocalizedMessage());
+      LogUtil.e(TAG, "showVolleyError: " + error.getLocalizedMessage());
     }
     if (error.networkResponse == null) {
       activity.showMessage(R.string.error_network);
@@ -23,7 +23,6 @@ import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.os.Handler;
 import android.text.Spanned;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -34,8 +33,6 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
-import java.util.Timer;
-import java.util.TimerTask;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.activity.MainActivity;
 import xyz.zedler.patrick.grocy.adapter.ShoppingModeItemAdapter;
@@ -54,13 +51,16 @@ import xyz.zedler.patrick.grocy.util.ClickUtil;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.SHOPPING_MODE;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.viewmodel.ShoppingModeViewModel;
+import xyz.zedler.patrick.grocy.web.ProductPictureLoader;
 
 public class ShoppingModeFragment extends BaseFragment implements
     ShoppingModeItemAdapter.ShoppingModeItemClickListener {
 
   private final static String TAG = ShoppingModeFragment.class.getSimpleName();
+  private final static int MAX_POLL_BACKOFF_FACTOR = 8;
 
   private MainActivity activity;
   private SharedPreferences sharedPrefs;
@@ -68,9 +68,9 @@ public class ShoppingModeFragment extends BaseFragment implements
   private ClickUtil clickUtil;
   private FragmentShoppingModeBinding binding;
   private InfoFullscreenHelper infoFullscreenHelper;
-  private Timer timer;
-  private TimerTask timerTask;
   private Handler handler;
+  private int updateIntervalSeconds;
+  private int pollIntervalSeconds;
 
   private boolean debug = false;
 
@@ -125,6 +125,12 @@ public class ShoppingModeFragment extends BaseFragment implements
         new LinearLayoutManager(activity, LinearLayoutManager.VERTICAL, false)
     );
     binding.recycler.setAdapter(new ShoppingPlaceholderAdapter());
+    binding.recycler.addOnScrollListener(new ProductPictureLoader.PrefetchScrollListener(
+        activity,
+        position -> binding.recycler.getAdapter() instanceof ShoppingModeItemAdapter
+            ? ((ShoppingModeItemAdapter) binding.recycler.getAdapter()).getPictureFileName(position)
+            : null
+    ));
 
     viewModel.getIsLoadingLive().observe(getViewLifecycleOwner(), state -> {
       if (!state) {
@@ -232,24 +238,22 @@ public class ShoppingModeFragment extends BaseFragment implements
   @Override
   public void onPause() {
     super.onPause();
-    if (timer != null) {
-      timer.cancel();
-    }
+    handler.removeCallbacks(pollRunnable);
   }
 
   @Override
   public void onResume() {
     super.onResume();
-    int seconds = sharedPrefs.getInt(
+    updateIntervalSeconds = sharedPrefs.getInt(
         Constants.SETTINGS.SHOPPING_MODE.UPDATE_INTERVAL,
         Constants.SETTINGS_DEFAULT.SHOPPING_MODE.UPDATE_INTERVAL
     );
-    if (seconds == 0) {
+    if (updateIntervalSeconds == 0) {
       return;
     }
-    timer = new Timer();
-    initTimerTask();
-    timer.schedule(timerTask, 2000, seconds * 1000L);
+    pollIntervalSeconds = updateIntervalSeconds;
+    handler.removeCallbacks(pollRunnable);
+    handler.postDelayed(pollRunnable, 2000);
   }
 
   private void updateUI() {
@@ -282,6 +286,7 @@ public class ShoppingModeFragment extends BaseFragment implements
 
   public void toggleDoneStatus(ShoppingListItem shoppingListItem) {
     viewModel.toggleDoneStatus(shoppingListItem);
+    resetPollInterval();
   }
 
   @Override
@@ -356,19 +361,35 @@ public class ShoppingModeFragment extends BaseFragment implements
     return !sharedPrefs.getBoolean(Constants.PREF.FEATURE_MULTIPLE_SHOPPING_LISTS, true);
   }
 
-  private void initTimerTask() {
-    if (timerTask != null) {
-      timerTask.cancel();
-    }
-    timerTask = new TimerTask() {
-      @Override
-      public void run() {
-        if (debug) {
-          Log.i(TAG, "auto sync shopping list (but may skip download)");
-        }
-        handler.post(() -> viewModel.downloadData());
+  private final Runnable pollRunnable = new Runnable() {
+    @Override
+    public void run() {
+      if (debug) {
+        LogUtil.i(TAG, "auto sync shopping list (but may skip download)");
       }
-    };
+      viewModel.refreshShoppingListItems(changed -> {
+        if (!isResumed() || updateIntervalSeconds == 0) {
+          return;
+        }
+        // poll less often while the list stays unchanged, back to normal as soon as it changes
+        pollIntervalSeconds = changed ? updateIntervalSeconds : Math.min(
+            pollIntervalSeconds * 2, updateIntervalSeconds * MAX_POLL_BACKOFF_FACTOR
+        );
+        handler.removeCallbacks(this);
+        handler.postDelayed(this, pollIntervalSeconds * 1000L);
+      });
+    }
+  };
+
+  private void resetPollInterval() {
+    if (updateIntervalSeconds == 0 || pollIntervalSeconds == updateIntervalSeconds) {
+      return;
+    }
+    pollIntervalSeconds = updateIntervalSeconds;
+    if (isResumed()) {
+      handler.removeCallbacks(pollRunnable);
+      handler.postDelayed(pollRunnable, pollIntervalSeconds * 1000L);
+    }
   }
 
   private void keepScreenOnIfNecessary(boolean keepOn) {
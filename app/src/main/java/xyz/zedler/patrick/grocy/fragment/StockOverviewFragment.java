@@ -54,6 +54,7 @@ import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
 import xyz.zedler.patrick.grocy.viewmodel.StockOverviewViewModel;
+import xyz.zedler.patrick.grocy.web.ProductPictureLoader;
 
 public class StockOverviewFragment extends BaseFragment implements
     StockOverviewItemAdapter.StockOverviewItemAdapterListener,
@@ -127,6 +128,12 @@ public class StockOverviewFragment extends BaseFragment implements
         new LinearLayoutManager(activity, LinearLayoutManager.VERTICAL, false)
     );
     binding.recycler.setAdapter(new StockPlaceholderAdapter());
+    binding.recycler.addOnScrollListener(new ProductPictureLoader.PrefetchScrollListener(
+        activity,
+        position -> binding.recycler.getAdapter() instanceof StockOverviewItemAdapter
+            ? ((StockOverviewItemAdapter) binding.recycler.getAdapter()).getPictureFileName(position)
+            : null
+    ));
 
     if (savedInstanceState == null) {
       binding.recycler.scrollToPosition(0);
@@ -191,6 +198,54 @@ public class StockOverviewFragment extends BaseFragment implements
       }
     });
 
+    viewModel.getPagedStockItemCountLive().observe(getViewLifecycleOwner(), itemCount -> {
+      if (itemCount == null) return;
+      StockOverviewItemAdapter adapter;
+      boolean isNewAdapter = false;
+      if (binding.recycler.getAdapter() instanceof StockOverviewItemAdapter) {
+        adapter = (StockOverviewItemAdapter) binding.recycler.getAdapter();
+      } else {
+        adapter = new StockOverviewItemAdapter(
+            requireContext(),
+            new ArrayList<>(),
+            viewModel.getShoppingListItemsProductIds(),
+            viewModel.getQuantityUnitHashMap(),
+            viewModel.getProductAveragePriceHashMap(),
+            viewModel.getProductLastPurchasedHashMap(),
+            viewModel.getProductGroupHashMap(),
+            viewModel.getProductHashMap(),
+            viewModel.getLocationHashMap(),
+            viewModel.getProductIdsMissingStockItems(),
+            this,
+            viewModel.isFeatureEnabled(PREF.FEATURE_STOCK_BBD_TRACKING),
+            viewModel.isFeatureEnabled(PREF.FEATURE_SHOPPING_LIST),
+            viewModel.getDaysExpriringSoon(),
+            viewModel.getCurrency(),
+            viewModel.getSortMode(),
+            viewModel.isSortAscending(),
+            viewModel.getGroupingMode(),
+            viewModel.getExtraField()
+        );
+        isNewAdapter = true;
+      }
+      adapter.updatePagedData(
+          requireContext(),
+          itemCount,
+          viewModel::getStockItemsPage,
+          viewModel.getShoppingListItemsProductIds(),
+          viewModel.getQuantityUnitHashMap(),
+          viewModel.getProductAveragePriceHashMap(),
+          viewModel.getProductLastPurchasedHashMap(),
+          viewModel.getProductIdsMissingStockItems(),
+          viewModel.getSortMode(),
+          viewModel.getExtraField()
+      );
+      if (isNewAdapter) {
+        binding.recycler.setAdapter(adapter);
+        binding.recycler.scheduleLayoutAnimation();
+      }
+    });
+
     embeddedFragmentScanner.setScannerVisibilityLive(viewModel.getScannerVisibilityLive());
 
     viewModel.getEventHandler().observeEvent(getViewLifecycleOwner(), event -> {
@@ -214,25 +269,19 @@ public class StockOverviewFragment extends BaseFragment implements
         ) {
           if (viewHolder.getItemViewType() != GroupedListItem.TYPE_ENTRY) return;
           if (!(binding.recycler.getAdapter() instanceof StockOverviewItemAdapter)) return;
-          int position = viewHolder.getAdapterPosition();
-          ArrayList<GroupedListItem> groupedListItems =
-              ((StockOverviewItemAdapter) binding.recycler.getAdapter()).getGroupedListItems();
-          if (groupedListItems == null || position < 0
-              || position >= groupedListItems.size()) {
-            return;
-          }
-          GroupedListItem item = groupedListItems.get(position);
-          if (!(item instanceof StockItem)) {
+          StockOverviewItemAdapter adapter =
+              (StockOverviewItemAdapter) binding.recycler.getAdapter();
+          StockItem stockItem = adapter.getStockItem(viewHolder.getAdapterPosition());
+          if (stockItem == null || stockItem.getProduct() == null) {
             return;
           }
-          StockItem stockItem = (StockItem) item;
           if (stockItem.getAmountAggregatedDouble() > 0
               && stockItem.getProduct().getEnableTareWeightHandlingInt() == 0
           ) {
             underlayButtons.add(new SwipeBehavior.UnderlayButton(
                 R.drawable.ic_round_consume_product,
                 pos -> {
-                  if (pos >= groupedListItems.size()) {
+                  if (pos >= adapter.getItemCount()) {
                     return;
                   }
                   swipeBehavior.recoverLatestSwipedItem();
@@ -251,7 +300,7 @@ public class StockOverviewFragment extends BaseFragment implements
             underlayButtons.add(new SwipeBehavior.UnderlayButton(
                 R.drawable.ic_round_open,
                 pos -> {
-                  if (pos >= groupedListItems.size()) {
+                  if (pos >= adapter.getItemCount()) {
                     return;
                   }
                   swipeBehavior.recoverLatestSwipedItem();
@@ -313,6 +362,7 @@ public class StockOverviewFragment extends BaseFragment implements
   public void onResume() {
     super.onResume();
     embeddedFragmentScanner.onResume();
+    viewModel.checkDayChanged();
   }
 
   @Override
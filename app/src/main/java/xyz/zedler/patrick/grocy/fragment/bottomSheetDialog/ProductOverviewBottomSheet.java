@@ -31,6 +31,7 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
 import android.view.animation.DecelerateInterpolator;
+import android.widget.ImageView.ScaleType;
 import android.widget.LinearLayout;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -65,7 +66,9 @@ import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.TextUtil;
+import xyz.zedler.patrick.grocy.util.UnitUtil;
 import xyz.zedler.patrick.grocy.view.BezierCurveChart;
+import xyz.zedler.patrick.grocy.web.ProductPictureLoader;
 
 public class ProductOverviewBottomSheet extends BaseBottomSheet {
 
@@ -227,6 +230,17 @@ public class ProductOverviewBottomSheet extends BaseBottomSheet {
       view.findViewById(R.id.container_chips).setVisibility(View.GONE);
     }
 
+    // PICTURE
+
+    ProductPictureLoader.getInstance(activity).load(
+        binding.imagePicture,
+        product.getPictureFileName(),
+        getResources().getDisplayMetrics().widthPixels,
+        UnitUtil.dpToPx(activity, 160),
+        ScaleType.FIT_CENTER,
+        null
+    );
+
     // DESCRIPTION
 
     Spanned description = product.getDescription() != null
@@ -0,0 +1,123 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.fragment.bottomSheetDialog;
+
+import android.app.Dialog;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.DefaultItemAnimator;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.google.android.material.bottomsheet.BottomSheetDialog;
+import com.google.android.material.button.MaterialButton;
+import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.activity.MainActivity;
+import xyz.zedler.patrick.grocy.adapter.ScanBatchItemAdapter;
+import xyz.zedler.patrick.grocy.fragment.PurchaseFragment;
+import xyz.zedler.patrick.grocy.model.PendingPurchase;
+import xyz.zedler.patrick.grocy.viewmodel.PurchaseViewModel;
+
+public class ScanBatchBottomSheet extends BaseBottomSheet
+    implements ScanBatchItemAdapter.ScanBatchItemAdapterListener {
+
+  private final static String TAG = ScanBatchBottomSheet.class.getSimpleName();
+
+  private PurchaseViewModel viewModel;
+
+  @NonNull
+  @Override
+  public Dialog onCreateDialog(Bundle savedInstanceState) {
+    return new BottomSheetDialog(requireContext(), R.style.Theme_Grocy_BottomSheetDialog);
+  }
+
+  @Override
+  public View onCreateView(
+      @NonNull LayoutInflater inflater,
+      ViewGroup container,
+      Bundle savedInstanceState
+  ) {
+    View view = inflater.inflate(
+        R.layout.fragment_bottomsheet_list_selection, container, false
+    );
+
+    MainActivity activity = (MainActivity) requireActivity();
+    if (!(activity.getCurrentFragment() instanceof PurchaseFragment)) {
+      dismiss();
+      return view;
+    }
+    viewModel = new ViewModelProvider(activity.getCurrentFragment())
+        .get(PurchaseViewModel.class);
+
+    TextView textViewTitle = view.findViewById(R.id.text_list_selection_title);
+    textViewTitle.setText(R.string.title_scan_batch);
+    TextView textViewDescription = view.findViewById(R.id.text_list_selection_description);
+    textViewDescription.setText(R.string.msg_scan_batch_empty);
+
+    MaterialButton buttonPurchase = view.findViewById(R.id.button_list_selection_discard);
+    buttonPurchase.setText(R.string.action_purchase_all_items);
+    buttonPurchase.setOnClickListener(v -> {
+      viewModel.purchaseScanBatch();
+      dismiss();
+    });
+
+    RecyclerView recyclerView = view.findViewById(R.id.recycler_list_selection);
+    recyclerView.setLayoutManager(
+        new LinearLayoutManager(activity, LinearLayoutManager.VERTICAL, false)
+    );
+    recyclerView.setItemAnimator(new DefaultItemAnimator());
+
+    viewModel.getScanBatchLive().observe(getViewLifecycleOwner(), purchases -> {
+      if (purchases == null) {
+        return;
+      }
+      textViewDescription.setVisibility(purchases.isEmpty() ? View.VISIBLE : View.GONE);
+      buttonPurchase.setVisibility(purchases.isEmpty() ? View.GONE : View.VISIBLE);
+      if (recyclerView.getAdapter() instanceof ScanBatchItemAdapter) {
+        ((ScanBatchItemAdapter) recyclerView.getAdapter()).updateData(purchases);
+      } else {
+        recyclerView.setAdapter(new ScanBatchItemAdapter(
+            activity,
+            purchases,
+            viewModel.getProductHashMap(),
+            viewModel.getQuantityUnitHashMap(),
+            this
+        ));
+      }
+    });
+
+    return view;
+  }
+
+  @Override
+  public void onItemRemoveClicked(PendingPurchase purchase) {
+    viewModel.removeFromScanBatch(purchase);
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return TAG;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.fragment.bottomSheetDialog;
+
+import android.app.Dialog;
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.lifecycle.ViewModelProvider;
+import com.google.android.material.bottomsheet.BottomSheetDialog;
+import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.activity.MainActivity;
+import xyz.zedler.patrick.grocy.fragment.PurchaseFragment;
+import xyz.zedler.patrick.grocy.viewmodel.PurchaseViewModel;
+
+public class ScanBatchResendBottomSheet extends BaseBottomSheet {
+
+  private final static String TAG = ScanBatchResendBottomSheet.class.getSimpleName();
+
+  @NonNull
+  @Override
+  public Dialog onCreateDialog(Bundle savedInstanceState) {
+    return new BottomSheetDialog(requireContext(), R.style.Theme_Grocy_BottomSheetDialog);
+  }
+
+  @Override
+  public View onCreateView(
+      @NonNull LayoutInflater inflater,
+      ViewGroup container,
+      Bundle savedInstanceState
+  ) {
+    View view = inflater.inflate(
+        R.layout.fragment_bottomsheet_scan_batch_resend, container, false
+    );
+
+    MainActivity activity = (MainActivity) requireActivity();
+    if (!(activity.getCurrentFragment() instanceof PurchaseFragment)) {
+      dismiss();
+      return view;
+    }
+    PurchaseViewModel viewModel = new ViewModelProvider(activity.getCurrentFragment())
+        .get(PurchaseViewModel.class);
+
+    int count = viewModel.getUncertainScanBatchItems().size();
+    TextView textView = view.findViewById(R.id.text_scan_batch_resend_question);
+    textView.setText(getResources().getQuantityString(
+        R.plurals.msg_scan_batch_resend, count, count
+    ));
+
+    view.findViewById(R.id.button_scan_batch_resend_purchase).setOnClickListener(v -> {
+      viewModel.resendUncertainScanBatchItems();
+      dismiss();
+    });
+
+    view.findViewById(R.id.button_scan_batch_resend_cancel).setOnClickListener(v -> dismiss());
+
+    return view;
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return TAG;
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import androidx.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import xyz.zedler.patrick.grocy.model.PendingProduct;
+import xyz.zedler.patrick.grocy.model.PendingProductBarcode;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.ProductBarcode;
+import xyz.zedler.patrick.grocy.util.NumUtil;
+
+/**
+ * Resolves scanned barcodes and grocycode product ids to products with hash lookups. Numeric
+ * barcodes are additionally indexed without leading zeros, so that e.g. the UPC-A, EAN-13 and
+ * GTIN-14 form of the same code are found regardless of which form was stored.
+ */
+public class BarcodeIndexHelper {
+
+  private final HashMap<String, ProductBarcode> barcodes;
+  private final HashMap<String, ProductBarcode> normalizedBarcodes;
+  private final HashMap<Integer, Product> products;
+  private final HashMap<Integer, PendingProduct> pendingProducts;
+
+  public BarcodeIndexHelper() {
+    barcodes = new HashMap<>();
+    normalizedBarcodes = new HashMap<>();
+    products = new HashMap<>();
+    pendingProducts = new HashMap<>();
+  }
+
+  public void setProducts(@Nullable List<Product> products) {
+    this.products.clear();
+    if (products == null) {
+      return;
+    }
+    for (Product product : products) {
+      this.products.put(product.getId(), product);
+    }
+  }
+
+  public void setPendingProducts(@Nullable List<PendingProduct> pendingProducts) {
+    this.pendingProducts.clear();
+    if (pendingProducts == null) {
+      return;
+    }
+    for (PendingProduct pendingProduct : pendingProducts) {
+      this.pendingProducts.put(pendingProduct.getId(), pendingProduct);
+    }
+  }
+
+  /**
+   * Rebuilds the barcode index. Pending barcodes should be passed after the server barcodes,
+   * they win if a code exists in both lists.
+   */
+  public void setBarcodes(
+      @Nullable List<ProductBarcode> barcodes,
+      @Nullable List<PendingProductBarcode> pendingBarcodes
+  ) {
+    this.barcodes.clear();
+    normalizedBarcodes.clear();
+    if (barcodes != null) {
+      for (ProductBarcode barcode : barcodes) {
+        addBarcode(barcode);
+      }
+    }
+    if (pendingBarcodes != null) {
+      for (PendingProductBarcode barcode : pendingBarcodes) {
+        addBarcode(barcode);
+      }
+    }
+  }
+
+  public void setBarcodes(@Nullable List<ProductBarcode> barcodes) {
+    setBarcodes(barcodes, null);
+  }
+
+  public void addBarcode(ProductBarcode barcode) {
+    String code = barcode.getBarcode();
+    if (code == null || code.isEmpty()) {
+      return;
+    }
+    barcodes.put(code, barcode);
+    String normalized = normalize(code);
+    if (normalized != null) {
+      normalizedBarcodes.put(normalized, barcode);
+    }
+  }
+
+  @Nullable
+  public ProductBarcode getBarcode(@Nullable String code) {
+    if (code == null) {
+      return null;
+    }
+    code = code.trim();
+    ProductBarcode barcode = barcodes.get(code);
+    if (barcode != null) {
+      return barcode;
+    }
+    String normalized = normalize(code);
+    return normalized != null ? normalizedBarcodes.get(normalized) : null;
+  }
+
+  @Nullable
+  public Product getProduct(int productId) {
+    return products.get(productId);
+  }
+
+  /**
+   * Returns the pending product for pending barcodes, otherwise the product from the server.
+   * Pending barcodes whose pending product was already uploaded have the id of the created
+   * product, they are resolved through the products from the server.
+   */
+  @Nullable
+  public Product getProduct(@Nullable ProductBarcode barcode) {
+    if (barcode == null) {
+      return null;
+    } else if (barcode instanceof PendingProductBarcode
+        && NumUtil.isStringInt(barcode.getProductId())) {
+      return products.get(Integer.parseInt(barcode.getProductId()));
+    } else if (barcode instanceof PendingProductBarcode) {
+      return pendingProducts.get(barcode.getProductIdInt());
+    } else {
+      return products.get(barcode.getProductIdInt());
+    }
+  }
+
+  @Nullable
+  public Product getProductFromBarcode(@Nullable String code) {
+    return getProduct(getBarcode(code));
+  }
+
+  @Nullable
+  public PendingProduct getPendingProduct(int pendingProductId) {
+    return pendingProducts.get(pendingProductId);
+  }
+
+  /**
+   * EAN-8, UPC-A, EAN-13 and GTIN-14 are all embedded in the 14 digit GTIN with leading zeros,
+   * so the numeric value without leading zeros identifies the article in every form.
+   */
+  @Nullable
+  public static String normalize(String code) {
+    int length = code.length();
+    if (length < 8 || length > 14) {
+      return null;
+    }
+    int start = -1;
+    for (int i = 0; i < length; i++) {
+      char c = code.charAt(i);
+      if (c < '0' || c > '9') {
+        return null;
+      } else if (start == -1 && c != '0') {
+        start = i;
+      }
+    }
+    return start == -1 ? null : code.substring(start);
+  }
+}
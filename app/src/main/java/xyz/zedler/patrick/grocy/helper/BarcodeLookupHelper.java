@@ -0,0 +1,236 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.app.Application;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.android.volley.VolleyError;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.Arrays;
+import java.util.List;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnStringResponseListener;
+import xyz.zedler.patrick.grocy.model.BarcodeLookup;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+
+/**
+ * Looks up product names of unknown barcodes. All online databases are queried at the same
+ * time and the first name wins. Results are cached in the database, barcodes which are unknown
+ * everywhere only for a short time because they could be added to the databases soon.
+ */
+public class BarcodeLookupHelper {
+
+  private final static String TAG = BarcodeLookupHelper.class.getSimpleName();
+
+  private final static long TTL_NAME_MS = 30L * 24 * 60 * 60 * 1000;
+  private final static long TTL_NOT_FOUND_MS = 24L * 60 * 60 * 1000;
+
+  private final AppDatabase appDatabase;
+  private final List<Source> sources;
+  private final boolean debug;
+  private Lookup currentLookup;
+
+  public BarcodeLookupHelper(Application application, DownloadHelper dlHelper, boolean debug) {
+    this(application, debug, Arrays.asList(
+        new Source(BarcodeLookup.SOURCE_OPEN_FOOD_FACTS, dlHelper::getOpenFoodFactsProductName),
+        new Source(BarcodeLookup.SOURCE_OPEN_BEAUTY_FACTS, dlHelper::getOpenBeautyFactsProductName)
+    ));
+  }
+
+  /**
+   * The sources can be replaced, e.g. with a local stand-in for the online databases.
+   */
+  public BarcodeLookupHelper(Application application, boolean debug, List<Source> sources) {
+    this.appDatabase = AppDatabase.getAppDatabase(application);
+    this.sources = sources;
+    this.debug = debug;
+  }
+
+  public void lookupProductName(@NonNull String barcode, @NonNull LookupListener listener) {
+    cancel();
+    Lookup lookup = new Lookup(barcode, listener);
+    currentLookup = lookup;
+    appDatabase.barcodeLookupDao().getBarcodeLookups(barcode)
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doOnSuccess(barcodeLookups -> {
+          BarcodeLookup cached = !barcodeLookups.isEmpty() ? barcodeLookups.get(0) : null;
+          if (cached != null && isFresh(cached)) {
+            if (debug) {
+              LogUtil.i(TAG, "lookupProductName: cached: " + cached);
+            }
+            lookup.finish(cached.hasName() ? cached.getName() : null, cached.getSource());
+          } else {
+            lookup.start();
+          }
+        })
+        .doOnError(throwable -> {
+          if (debug) {
+            LogUtil.e(TAG, "lookupProductName: " + throwable);
+          }
+          lookup.start();
+        })
+        .onErrorComplete()
+        .subscribe();
+  }
+
+  /**
+   * The listener of the current lookup won't be called anymore.
+   */
+  public void cancel() {
+    if (currentLookup != null) {
+      currentLookup.isCancelled = true;
+      currentLookup = null;
+    }
+  }
+
+  private static boolean isFresh(BarcodeLookup lookup) {
+    long age = System.currentTimeMillis() - lookup.getTimestamp();
+    return age >= 0 && age < (lookup.hasName() ? TTL_NAME_MS : TTL_NOT_FOUND_MS);
+  }
+
+  private void storeResult(String barcode, @Nullable String name, int source) {
+    long now = System.currentTimeMillis();
+    appDatabase.barcodeLookupDao().insertBarcodeLookup(
+            new BarcodeLookup(barcode, name, source, now)
+        ).flatMap(id -> appDatabase.barcodeLookupDao()
+            .deleteBarcodeLookupsOlderThan(now - TTL_NAME_MS))
+        .subscribeOn(Schedulers.io())
+        .doOnError(throwable -> {
+          if (debug) {
+            LogUtil.e(TAG, "storeResult: " + throwable);
+          }
+        })
+        .onErrorComplete()
+        .subscribe();
+  }
+
+  private class Lookup {
+
+    private final String barcode;
+    private final LookupListener listener;
+    private int pendingSources;
+    private int failedSources;
+    private boolean isFinished;
+    private boolean isCancelled;
+
+    Lookup(String barcode, LookupListener listener) {
+      this.barcode = barcode;
+      this.listener = listener;
+    }
+
+    void start() {
+      if (isCancelled) {
+        return;
+      }
+      pendingSources = sources.size();
+      if (pendingSources == 0) {
+        finish(null, BarcodeLookup.SOURCE_NONE);
+        return;
+      }
+      for (Source source : sources) {
+        source.fetcher.getProductName(
+            barcode,
+            name -> onSourceResponse(source, name),
+            error -> onSourceError(source, error)
+        );
+      }
+    }
+
+    private void onSourceResponse(Source source, @Nullable String name) {
+      pendingSources--;
+      if (isFinished) {
+        return;
+      }
+      if (name != null && !name.isEmpty()) {
+        storeResult(barcode, name, source.id);
+        finish(name, source.id);
+      } else if (pendingSources == 0) {
+        onAllSourcesDone();
+      }
+    }
+
+    private void onSourceError(Source source, VolleyError error) {
+      pendingSources--;
+      failedSources++;
+      if (debug) {
+        LogUtil.e(TAG, "onSourceError: " + source.id + ": " + error);
+      }
+      if (!isFinished && pendingSources == 0) {
+        onAllSourcesDone();
+      }
+    }
+
+    private void onAllSourcesDone() {
+      if (failedSources == sources.size()) {
+        isFinished = true;
+        if (!isCancelled) {
+          listener.onError();
+        }
+        return;
+      }
+      if (failedSources == 0) {
+        // only cache "not found" if every database really answered
+        storeResult(barcode, null, BarcodeLookup.SOURCE_NONE);
+      }
+      finish(null, BarcodeLookup.SOURCE_NONE);
+    }
+
+    void finish(@Nullable String name, int source) {
+      isFinished = true;
+      if (!isCancelled) {
+        listener.onResult(name, source);
+      }
+    }
+  }
+
+  public static class Source {
+
+    private final int id;
+    private final ProductNameFetcher fetcher;
+
+    public Source(int id, ProductNameFetcher fetcher) {
+      this.id = id;
+      this.fetcher = fetcher;
+    }
+  }
+
+  public interface ProductNameFetcher {
+
+    void getProductName(
+        String barcode,
+        OnStringResponseListener successListener,
+        OnErrorListener errorListener
+    );
+  }
+
+  public interface LookupListener {
+
+    /**
+     * Name is null if no database knows the barcode.
+     */
+    void onResult(@Nullable String name, int source);
+
+    void onError();
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+
+package xyz.zedler.patrick.grocy.helper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+
+/**
+ * Writes the same change to many objects of one entity. Grocy only updates the fields which are
+ * in the body of a PUT request, so every object gets a small request with the changed fields
+ * instead of its full JSON. The requests are pipelined: up to MAX_IN_FLIGHT are running at the
+ * same time and the next one starts as soon as one finishes. A failed request does not stop the
+ * batch, the ids of all failed objects are reported together when the batch is finished.
+ */
+public class BulkEditHelper {
+
+  private final static String TAG = BulkEditHelper.class.getSimpleName();
+
+  private final static int MAX_IN_FLIGHT = 4;
+
+  private final DownloadHelper dlHelper;
+  private final GrocyApi grocyApi;
+  private final boolean debug;
+  private Batch currentBatch;
+
+  public BulkEditHelper(DownloadHelper dlHelper, GrocyApi grocyApi, boolean debug) {
+    this.dlHelper = dlHelper;
+    this.grocyApi = grocyApi;
+    this.debug = debug;
+  }
+
+  public void edit(
+      String entity,
+      List<Integer> objectIds,
+      JSONObject changes,
+      BulkEditListener listener
+  ) {
+    HashMap<Integer, JSONObject> changesById = new HashMap<>();
+    for (int objectId : objectIds) {
+      changesById.put(objectId, changes);
+    }
+    edit(entity, changesById, listener);
+  }
+
+  /**
+   * Like {@link #edit(String, List, JSONObject, BulkEditListener)}, but every object can get
+   * different values, e.g. a factor which depends on the object.
+   */
+  public void edit(
+      String entity,
+      Map<Integer, JSONObject> changesById,
+      BulkEditListener listener
+  ) {
+    cancel();
+    currentBatch = new Batch(entity, new HashMap<>(changesById), listener);
+    currentBatch.dispatch();
+  }
+
+  public boolean isRunning() {
+    return currentBatch != null;
+  }
+
+  /**
+   * Requests which are already sent can't be taken back, only the remaining ones are not sent
+   * and the listener is not called anymore.
+   */
+  public void cancel() {
+    if (currentBatch != null) {
+      currentBatch.cancelled = true;
+      currentBatch = null;
+    }
+  }
+
+  private class Batch {
+
+    private final String entity;
+    private final List<Integer> objectIds;
+    private final Map<Integer, JSONObject> changesById;
+    private final BulkEditListener listener;
+    private final List<Integer> editedIds;
+    private final List<Integer> failedIds;
+    private int nextIndex;
+    private int inFlight;
+    private boolean cancelled;
+
+    Batch(
+        String entity,
+        Map<Integer, JSONObject> changesById,
+        BulkEditListener listener
+    ) {
+      this.entity = entity;
+      this.objectIds = new ArrayList<>(changesById.keySet());
+      this.changesById = changesById;
+      this.listener = listener;
+      editedIds = new ArrayList<>();
+      failedIds = new ArrayList<>();
+    }
+
+    void dispatch() {
+      while (!cancelled && inFlight < MAX_IN_FLIGHT && nextIndex < objectIds.size()) {
+        int objectId = objectIds.get(nextIndex++);
+        inFlight++;
+        dlHelper.put(
+            grocyApi.getObject(entity, objectId),
+            changesById.get(objectId),
+            response -> onWritten(objectId, true),
+            error -> {
+              if (debug) {
+                LogUtil.e(TAG, "edit %s %d: %s", entity, objectId, String.valueOf(error));
+              }
+              onWritten(objectId, false);
+            }
+        );
+      }
+      if (objectIds.isEmpty()) {
+        finish();
+      }
+    }
+
+    private void onWritten(int objectId, boolean success) {
+      inFlight--;
+      if (cancelled) {
+        return;
+      }
+      if (success) {
+        editedIds.add(objectId);
+      } else {
+        failedIds.add(objectId);
+      }
+      if (nextIndex < objectIds.size()) {
+        dispatch();
+      } else if (inFlight == 0) {
+        finish();
+      }
+    }
+
+    private void finish() {
+      if (debug) {
+        LogUtil.i(
+            TAG, "edit %s: %d edited, %d failed", entity, editedIds.size(), failedIds.size()
+        );
+      }
+      if (currentBatch == this) {
+        currentBatch = null;
+      }
+      listener.onFinished(editedIds, failedIds);
+    }
+  }
+
+  public interface BulkEditListener {
+
+    void onFinished(List<Integer> editedIds, List<Integer> failedIds);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.os.Handler;
+import android.os.Looper;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.functions.Consumer;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.BitSet;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+
+/**
+ * Observes Room tables and only re-reads the tables which were written. Changes which arrive in
+ * the same main loop iteration (e.g. from one sync transaction) are reported with one callback,
+ * which is not called before every observed table was read once.
+ */
+public class DatabaseObserverHelper {
+
+  private final static String TAG = DatabaseObserverHelper.class.getSimpleName();
+
+  private final CompositeDisposable disposables;
+  private final Handler handler;
+  private final BitSet loadedTables;
+  private final Runnable changedRunnable;
+  private Runnable onChangedListener;
+  private int tableCount;
+  private boolean isChangePending;
+
+  public DatabaseObserverHelper() {
+    disposables = new CompositeDisposable();
+    handler = new Handler(Looper.getMainLooper());
+    loadedTables = new BitSet();
+    changedRunnable = () -> {
+      isChangePending = false;
+      if (onChangedListener != null) {
+        onChangedListener.run();
+      }
+    };
+    tableCount = 0;
+  }
+
+  /**
+   * The consumer receives the new table content on the main thread.
+   */
+  public <T> DatabaseObserverHelper observe(Flowable<T> table, Consumer<T> onTableChanged) {
+    int index = tableCount++;
+    disposables.add(table
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .subscribe(
+            content -> {
+              onTableChanged.accept(content);
+              loadedTables.set(index);
+              postChanged();
+            },
+            throwable -> LogUtil.e(TAG, "observe: " + throwable)
+        ));
+    return this;
+  }
+
+  public DatabaseObserverHelper setOnChangedListener(Runnable onChangedListener) {
+    this.onChangedListener = onChangedListener;
+    return this;
+  }
+
+  public boolean isObserving() {
+    return tableCount > 0;
+  }
+
+  public void dispose() {
+    disposables.clear();
+    handler.removeCallbacks(changedRunnable);
+    loadedTables.clear();
+    tableCount = 0;
+    isChangePending = false;
+  }
+
+  private void postChanged() {
+    if (isChangePending || loadedTables.cardinality() < tableCount) {
+      return;
+    }
+    isChangePending = true;
+    handler.post(changedRunnable);
+  }
+}
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.helper;
 import android.app.Activity;
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 import androidx.preference.PreferenceManager;
@@ -33,7 +32,6 @@ import com.android.volley.VolleyError;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
-import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -49,8 +47,8 @@ import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
 import xyz.zedler.patrick.grocy.api.OpenBeautyFactsApi;
 import xyz.zedler.patrick.grocy.api.OpenFoodFactsApi;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.database.SyncGeneration;
 import xyz.zedler.patrick.grocy.model.Location;
-import xyz.zedler.patrick.grocy.model.MissingItem;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductAveragePrice;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
@@ -69,11 +67,12 @@ import xyz.zedler.patrick.grocy.model.Task;
 import xyz.zedler.patrick.grocy.model.TaskCategory;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
-import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.web.CustomJsonArrayRequest;
 import xyz.zedler.patrick.grocy.web.CustomJsonObjectRequest;
 import xyz.zedler.patrick.grocy.web.CustomStringRequest;
+import xyz.zedler.patrick.grocy.web.HassIngressSessionManager;
 import xyz.zedler.patrick.grocy.web.RequestQueueSingleton;
 
 public class DownloadHelper {
@@ -85,10 +84,10 @@ public class DownloadHelper {
   private final String uuidHelper;
   private final OnLoadingListener onLoadingListener;
   private final SharedPreferences sharedPrefs;
-  private final DateUtil dateUtil;
   private final AppDatabase appDatabase;
 
   private final ArrayList<Queue> queueArrayList;
+  private final HashMap<String, SyncGeneration> syncGenerations;
   private final String tag;
   private final String apiKey;
   private final String hassServerUrl;
@@ -106,7 +105,6 @@ public class DownloadHelper {
     this.tag = tag;
     sharedPrefs = PreferenceManager.getDefaultSharedPreferences(application);
     debug = PrefsUtil.isDebuggingEnabled(sharedPrefs);
-    dateUtil = new DateUtil(application);
     appDatabase = AppDatabase.getAppDatabase(application.getApplicationContext());
     gson = new Gson();
     requestQueue = RequestQueueSingleton.getInstance(application).getRequestQueue();
@@ -122,6 +120,7 @@ public class DownloadHelper {
     );
     uuidHelper = UUID.randomUUID().toString();
     queueArrayList = new ArrayList<>();
+    syncGenerations = new HashMap<>();
     loadingRequests = 0;
     this.onLoadingListener = onLoadingListener;
     timeoutSeconds = sharedPrefs.getInt(
@@ -144,7 +143,6 @@ public class DownloadHelper {
     sharedPrefs = PreferenceManager.getDefaultSharedPreferences(application);
     debug = PrefsUtil.isDebuggingEnabled(sharedPrefs);
     gson = new Gson();
-    dateUtil = new DateUtil(application);
     appDatabase = AppDatabase.getAppDatabase(application.getApplicationContext());
     RequestQueueSingleton.getInstance(application).newRequestQueue();
     requestQueue = RequestQueueSingleton.getInstance(application).getRequestQueue();
@@ -154,6 +152,7 @@ public class DownloadHelper {
     this.hassLongLivedAccessToken = hassLongLivedAccessToken;
     uuidHelper = UUID.randomUUID().toString();
     queueArrayList = new ArrayList<>();
+    syncGenerations = new HashMap<>();
     loadingRequests = 0;
     this.onLoadingListener = onLoadingListener;
     timeoutSeconds = sharedPrefs.getInt(
@@ -198,21 +197,21 @@ public class DownloadHelper {
       OnStringResponseListener onResponse,
       OnErrorListener onError
   ) {
-    validateHassIngressSessionIfNecessary(sessionKey -> {
+    sendWithSession((sessionKey, errorListener) -> {
       CustomStringRequest request = new CustomStringRequest(
           Request.Method.GET,
           url,
           apiKey,
           sessionKey,
           onResponse::onResponse,
-          onError::onError,
+          errorListener::onError,
           this::onRequestFinished,
           timeoutSeconds,
           tag
       );
       onRequestLoading();
       requestQueue.add(request);
-    });
+    }, onError);
   }
 
   // for requests without loading progress (set noLoadingProgress=true)
@@ -223,14 +222,14 @@ public class DownloadHelper {
       OnErrorListener onError,
       boolean noLoadingProgress
   ) {
-    validateHassIngressSessionIfNecessary(sessionKey -> {
+    sendWithSession((sessionKey, errorListener) -> {
       CustomStringRequest request = new CustomStringRequest(
           Request.Method.GET,
           url,
           apiKey,
           sessionKey,
           onResponse::onResponse,
-          onError::onError,
+          errorListener::onError,
           this::onRequestFinished,
           timeoutSeconds,
           tag,
@@ -241,7 +240,7 @@ public class DownloadHelper {
         onRequestLoading();
       }
       requestQueue.add(request);
-    });
+    }, onError);
   }
 
   // for single requests without a queue
@@ -260,14 +259,14 @@ public class DownloadHelper {
       OnErrorListener onError,
       String userAgent
   ) {
-    validateHassIngressSessionIfNecessary(sessionKey -> {
+    sendWithSession((sessionKey, errorListener) -> {
       CustomStringRequest request = new CustomStringRequest(
           Request.Method.GET,
           url,
           apiKey,
           sessionKey,
           onResponse::onResponse,
-          onError::onError,
+          errorListener::onError,
           this::onRequestFinished,
           timeoutSeconds,
           uuidHelper,
@@ -275,7 +274,7 @@ public class DownloadHelper {
       );
       onRequestLoading();
       requestQueue.add(request);
-    });
+    }, onError);
   }
 
   public void post(
@@ -284,7 +283,7 @@ public class DownloadHelper {
       OnJSONResponseListener onResponse,
       OnErrorListener onError
   ) {
-    validateHassIngressSessionIfNecessary(sessionKey -> {
+    sendWithSession((sessionKey, errorListener) -> {
       CustomJsonObjectRequest request = new CustomJsonObjectRequest(
           Request.Method.POST,
           url,
@@ -292,14 +291,14 @@ public class DownloadHelper {
           sessionKey,
           json,
           onResponse::onResponse,
-          onError::onError,
+          errorListener::onError,
           this::onRequestFinished,
           timeoutSeconds,
           uuidHelper
       );
       onRequestLoading();
       requestQueue.add(request);
-    });
+    }, onError);
   }
 
   public void postWithArray(
@@ -308,7 +307,7 @@ public class DownloadHelper {
       OnJSONArrayResponseListener onResponse,
       OnErrorListener onError
   ) {
-    validateHassIngressSessionIfNecessary(sessionKey -> {
+    sendWithSession((sessionKey, errorListener) -> {
       CustomJsonArrayRequest request = new CustomJsonArrayRequest(
           Request.Method.POST,
           url,
@@ -316,32 +315,32 @@ public class DownloadHelper {
           sessionKey,
           json,
           onResponse::onResponse,
-          onError::onError,
+          errorListener::onError,
           this::onRequestFinished,
           timeoutSeconds,
           uuidHelper
       );
       onRequestLoading();
       requestQueue.add(request);
-    });
+    }, onError);
   }
 
   public void post(String url, OnStringResponseListener onResponse, OnErrorListener onError) {
-    validateHassIngressSessionIfNecessary(sessionKey -> {
+    sendWithSession((sessionKey, errorListener) -> {
       CustomStringRequest request = new CustomStringRequest(
           Request.Method.POST,
           url,
           apiKey,
           sessionKey,
           onResponse::onResponse,
-          onError::onError,
+          errorListener::onError,
           this::onRequestFinished,
           timeoutSeconds,
           uuidHelper
       );
       onRequestLoading();
       requestQueue.add(request);
-    });
+    }, onError);
   }
 
   public void postHassIngress(
@@ -370,7 +369,7 @@ public class DownloadHelper {
       OnJSONResponseListener onResponse,
       OnErrorListener onError
   ) {
-    validateHassIngressSessionIfNecessary(sessionKey -> {
+    sendWithSession((sessionKey, errorListener) -> {
       CustomJsonObjectRequest request = new CustomJsonObjectRequest(
           Request.Method.PUT,
           url,
@@ -378,14 +377,14 @@ public class DownloadHelper {
           sessionKey,
           json,
           onResponse::onResponse,
-          onError::onError,
+          errorListener::onError,
           this::onRequestFinished,
           timeoutSeconds,
           uuidHelper
       );
       onRequestLoading();
       requestQueue.add(request);
-    });
+    }, onError);
   }
 
   public void delete(
@@ -394,21 +393,21 @@ public class DownloadHelper {
       OnStringResponseListener onResponse,
       OnErrorListener onError
   ) {
-    validateHassIngressSessionIfNecessary(sessionKey -> {
+    sendWithSession((sessionKey, errorListener) -> {
       CustomStringRequest request = new CustomStringRequest(
           Request.Method.DELETE,
           url,
           apiKey,
           sessionKey,
           onResponse::onResponse,
-          onError::onError,
+          errorListener::onError,
           this::onRequestFinished,
           timeoutSeconds,
           tag
       );
       onRequestLoading();
       requestQueue.add(request);
-    });
+    }, onError);
   }
 
   public void delete(
@@ -437,9 +436,7 @@ public class DownloadHelper {
               Type type = new TypeToken<List<ProductGroup>>() {
               }.getType();
               ArrayList<ProductGroup> productGroups = new Gson().fromJson(response, type);
-              if (debug) {
-                Log.i(tag, "download ProductGroups: " + productGroups);
-              }
+              LogUtil.i(tag, "download ProductGroups: %d items", productGroups.size());
               if (onResponseListener != null) {
                 onResponseListener.onResponse(productGroups);
               }
@@ -482,24 +479,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<ProductGroup>>() {
                 }.getType();
                 ArrayList<ProductGroup> productGroups = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download ProductGroups: " + productGroups);
-                }
-                Single.concat(
-                    appDatabase.productGroupDao().deleteProductGroups(),
-                    appDatabase.productGroupDao().insertProductGroups(productGroups)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_PRODUCT_GROUPS, dbChangedTime).apply();
+                LogUtil.i(tag, "download ProductGroups: %d items", productGroups.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.productGroupDao().deleteProductGroups(),
+                        appDatabase.productGroupDao()::insertProductGroups,
+                        productGroups
+                    ),
+                    Constants.PREF.DB_LAST_TIME_PRODUCT_GROUPS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(productGroups);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -511,7 +507,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped ProductGroups download");
+        LogUtil.i(tag, "downloadData: skipped ProductGroups download");
       }
       return null;
     }
@@ -535,9 +531,7 @@ public class DownloadHelper {
               Type type = new TypeToken<List<QuantityUnit>>() {
               }.getType();
               ArrayList<QuantityUnit> quantityUnits = new Gson().fromJson(response, type);
-              if (debug) {
-                Log.i(tag, "download QuantityUnits: " + quantityUnits);
-              }
+              LogUtil.i(tag, "download QuantityUnits: %d items", quantityUnits.size());
               if (onResponseListener != null) {
                 onResponseListener.onResponse(quantityUnits);
               }
@@ -580,24 +574,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<QuantityUnit>>() {
                 }.getType();
                 ArrayList<QuantityUnit> quantityUnits = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download QuantityUnits: " + quantityUnits);
-                }
-                Single.concat(
-                    appDatabase.quantityUnitDao().deleteQuantityUnits(),
-                    appDatabase.quantityUnitDao().insertQuantityUnits(quantityUnits)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_QUANTITY_UNITS, dbChangedTime).apply();
+                LogUtil.i(tag, "download QuantityUnits: %d items", quantityUnits.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.quantityUnitDao().deleteQuantityUnits(),
+                        appDatabase.quantityUnitDao()::insertQuantityUnits,
+                        quantityUnits
+                    ),
+                    Constants.PREF.DB_LAST_TIME_QUANTITY_UNITS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(quantityUnits);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -609,7 +602,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped QuantityUnits download");
+        LogUtil.i(tag, "downloadData: skipped QuantityUnits download");
       }
       return null;
     }
@@ -638,25 +631,23 @@ public class DownloadHelper {
                 }.getType();
                 ArrayList<QuantityUnitConversion> conversions
                     = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download QuantityUnitConversions: "
-                      + conversions);
-                }
-                Single.concat(
-                    appDatabase.quantityUnitConversionDao().deleteConversions(),
-                    appDatabase.quantityUnitConversionDao().insertConversions(conversions)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_QUANTITY_UNIT_CONVERSIONS, dbChangedTime).apply();
+                LogUtil.i(tag, "download QuantityUnitConversions: %d items", conversions.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.quantityUnitConversionDao().deleteConversions(),
+                        appDatabase.quantityUnitConversionDao()::insertConversions,
+                        conversions
+                    ),
+                    Constants.PREF.DB_LAST_TIME_QUANTITY_UNIT_CONVERSIONS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(conversions);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -668,7 +659,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped QuantityUnitConversions download");
+        LogUtil.i(tag, "downloadData: skipped QuantityUnitConversions download");
       }
       return null;
     }
@@ -692,9 +683,7 @@ public class DownloadHelper {
               Type type = new TypeToken<List<Location>>() {
               }.getType();
               ArrayList<Location> locations = gson.fromJson(response, type);
-              if (debug) {
-                Log.i(tag, "download Locations: " + locations);
-              }
+              LogUtil.i(tag, "download Locations: %d items", locations.size());
               if (onResponseListener != null) {
                 onResponseListener.onResponse(locations);
               }
@@ -737,24 +726,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<Location>>() {
                 }.getType();
                 ArrayList<Location> locations = gson.fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download Locations: " + locations);
-                }
-                Single.concat(
-                    appDatabase.locationDao().deleteLocations(),
-                    appDatabase.locationDao().insertLocations(locations)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_LOCATIONS, dbChangedTime).apply();
+                LogUtil.i(tag, "download Locations: %d items", locations.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.locationDao().deleteLocations(),
+                        appDatabase.locationDao()::insertLocations,
+                        locations
+                    ),
+                    Constants.PREF.DB_LAST_TIME_LOCATIONS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(locations);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -766,7 +754,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped Locations download");
+        LogUtil.i(tag, "downloadData: skipped Locations download");
       }
       return null;
     }
@@ -794,24 +782,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<StockLocation>>() {
                 }.getType();
                 ArrayList<StockLocation> locations = gson.fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download StockCurrentLocations: " + locations);
-                }
-                Single.concat(
-                    appDatabase.stockLocationDao().deleteStockLocations(),
-                    appDatabase.stockLocationDao().insertStockLocations(locations)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_STOCK_LOCATIONS, dbChangedTime).apply();
+                LogUtil.i(tag, "download StockCurrentLocations: %d items", locations.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.stockLocationDao().deleteStockLocations(),
+                        appDatabase.stockLocationDao()::insertStockLocations,
+                        locations
+                    ),
+                    Constants.PREF.DB_LAST_TIME_STOCK_LOCATIONS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(locations);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -823,7 +810,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped StockCurrentLocations download");
+        LogUtil.i(tag, "downloadData: skipped StockCurrentLocations download");
       }
       return null;
     }
@@ -851,24 +838,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<Product>>() {
                 }.getType();
                 ArrayList<Product> products = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download Products: " + products);
-                }
-                Single.concat(
-                    appDatabase.productDao().deleteProducts(),
-                    appDatabase.productDao().insertProducts(products)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_PRODUCTS, dbChangedTime).apply();
+                LogUtil.i(tag, "download Products: %d items", products.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.productDao().deleteProducts(),
+                        appDatabase.productDao()::insertProducts,
+                        products
+                    ),
+                    Constants.PREF.DB_LAST_TIME_PRODUCTS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(products);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -880,7 +866,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped Products download");
+        LogUtil.i(tag, "downloadData: skipped Products download");
       }
       return null;
     }
@@ -910,24 +896,26 @@ public class DownloadHelper {
                 }.getType();
                 ArrayList<ProductLastPurchased> productsLastPurchased = new Gson().fromJson(response, type);
                 if (debug) {
-                  Log.i(tag, "download ProductsLastPurchased: " + productsLastPurchased);
+                  LogUtil.i(
+                      tag, "download ProductsLastPurchased: %d items", productsLastPurchased.size()
+                  );
                 }
-                Single.concat(
-                    appDatabase.productLastPurchasedDao().deleteProductsLastPurchased(),
-                    appDatabase.productLastPurchasedDao()
-                        .insertProductsLastPurchased(productsLastPurchased)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(PREF.DB_LAST_TIME_PRODUCTS_LAST_PURCHASED, dbChangedTime).apply();
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.productLastPurchasedDao().deleteProductsLastPurchased(),
+                        appDatabase.productLastPurchasedDao()::insertProductsLastPurchased,
+                        productsLastPurchased
+                    ),
+                    PREF.DB_LAST_TIME_PRODUCTS_LAST_PURCHASED,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(productsLastPurchased);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (isOptional) {
@@ -946,7 +934,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped ProductsLastPurchased download");
+        LogUtil.i(tag, "downloadData: skipped ProductsLastPurchased download");
       }
       return null;
     }
@@ -976,24 +964,26 @@ public class DownloadHelper {
                 }.getType();
                 ArrayList<ProductAveragePrice> productsAveragePrice = new Gson().fromJson(response, type);
                 if (debug) {
-                  Log.i(tag, "download ProductsAveragePrice: " + productsAveragePrice);
+                  LogUtil.i(
+                      tag, "download ProductsAveragePrice: %d items", productsAveragePrice.size()
+                  );
                 }
-                Single.concat(
-                    appDatabase.productAveragePriceDao().deleteProductsAveragePrice(),
-                    appDatabase.productAveragePriceDao()
-                        .insertProductsAveragePrice(productsAveragePrice)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(PREF.DB_LAST_TIME_PRODUCTS_AVERAGE_PRICE, dbChangedTime).apply();
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.productAveragePriceDao().deleteProductsAveragePrice(),
+                        appDatabase.productAveragePriceDao()::insertProductsAveragePrice,
+                        productsAveragePrice
+                    ),
+                    PREF.DB_LAST_TIME_PRODUCTS_AVERAGE_PRICE,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(productsAveragePrice);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (isOptional) {
@@ -1012,7 +1002,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped ProductsAveragePrice download");
+        LogUtil.i(tag, "downloadData: skipped ProductsAveragePrice download");
       }
       return null;
     }
@@ -1041,24 +1031,23 @@ public class DownloadHelper {
                 }.getType();
                 ArrayList<ProductBarcode> barcodes
                     = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download Barcodes: " + barcodes);
-                }
-                Single.concat(
-                    appDatabase.productBarcodeDao().deleteProductBarcodes(),
-                    appDatabase.productBarcodeDao().insertProductBarcodes(barcodes)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_PRODUCT_BARCODES, dbChangedTime).apply();
+                LogUtil.i(tag, "download Barcodes: %d items", barcodes.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.productBarcodeDao().deleteProductBarcodes(),
+                        appDatabase.productBarcodeDao()::insertProductBarcodes,
+                        barcodes
+                    ),
+                    Constants.PREF.DB_LAST_TIME_PRODUCT_BARCODES,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(barcodes);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -1070,7 +1059,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped ProductsBarcodes download");
+        LogUtil.i(tag, "downloadData: skipped ProductsBarcodes download");
       }
       return null;
     }
@@ -1093,7 +1082,7 @@ public class DownloadHelper {
             jsonObject,
             response -> {
               if (debug) {
-                Log.i(tag, "added ProductBarcode");
+                LogUtil.i(tag, "added ProductBarcode");
               }
               if (onResponseListener != null) {
                 onResponseListener.onResponse();
@@ -1137,9 +1126,7 @@ public class DownloadHelper {
               }.getType();
               ArrayList<ProductBarcode> barcodes
                   = new Gson().fromJson(response, type);
-              if (debug) {
-                Log.i(tag, "download filtered Barcodes: " + barcodes);
-              }
+              LogUtil.i(tag, "download filtered Barcodes: %d items", barcodes.size());
               if (onResponseListener != null) {
                 ProductBarcode barcode = !barcodes.isEmpty()
                     ? barcodes.get(0) : null; // take first object
@@ -1180,9 +1167,7 @@ public class DownloadHelper {
               Type type = new TypeToken<List<StockItem>>() {
               }.getType();
               ArrayList<StockItem> stockItems = gson.fromJson(response, type);
-              if (debug) {
-                Log.i(tag, "download StockItems: " + stockItems);
-              }
+              LogUtil.i(tag, "download StockItems: %d items", stockItems.size());
               if (onResponseListener != null) {
                 onResponseListener.onResponse(stockItems);
               }
@@ -1222,191 +1207,7 @@ public class DownloadHelper {
       return getStockItems(newOnResponseListener, null);
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped StockItems download");
-      }
-      return null;
-    }
-  }
-
-  public QueueItem getVolatile(
-      OnVolatileResponseListener onResponseListener,
-      OnErrorListener onErrorListener
-  ) {
-    return new QueueItem() {
-      @Override
-      public void perform(
-          @Nullable OnStringResponseListener responseListener,
-          @Nullable OnErrorListener errorListener,
-          @Nullable String uuid
-      ) {
-        get(
-            grocyApi.getStockVolatile(),
-            uuid,
-            response -> {
-              if (debug) {
-                Log.i(tag, "download Volatile: success");
-              }
-              ArrayList<StockItem> dueItems = new ArrayList<>();
-              ArrayList<StockItem> overdueItems = new ArrayList<>();
-              ArrayList<StockItem> expiredItems = new ArrayList<>();
-              ArrayList<MissingItem> missingItems = new ArrayList<>();
-              try {
-                JSONObject jsonObject = new JSONObject(response);
-                // Parse first part of volatile array: expiring products
-                dueItems = gson.fromJson(
-                    jsonObject.getJSONArray("due_products").toString(),
-                    new TypeToken<List<StockItem>>() {
-                    }.getType()
-                );
-                if (debug) {
-                  Log.i(tag, "download Volatile: due = " + dueItems);
-                }
-                // Parse second part of volatile array: overdue products
-                overdueItems = gson.fromJson(
-                    jsonObject.getJSONArray("overdue_products").toString(),
-                    new TypeToken<List<StockItem>>() {
-                    }.getType()
-                );
-                if (debug) {
-                  Log.i(tag, "download Volatile: overdue = " + overdueItems);
-                }
-                // Parse third part of volatile array: expired products
-                expiredItems = gson.fromJson(
-                    jsonObject.getJSONArray("expired_products").toString(),
-                    new TypeToken<List<StockItem>>() {
-                    }.getType()
-                );
-                if (debug) {
-                  Log.i(tag, "download Volatile: expired = " + overdueItems);
-                }
-                // Parse fourth part of volatile array: missing products
-                missingItems = gson.fromJson(
-                    jsonObject.getJSONArray("missing_products").toString(),
-                    new TypeToken<List<MissingItem>>() {
-                    }.getType()
-                );
-                if (debug) {
-                  Log.i(tag, "download Volatile: missing = " + missingItems);
-                }
-              } catch (JSONException e) {
-                if (debug) {
-                  Log.e(tag, "download Volatile: " + e);
-                }
-              }
-              if (onResponseListener != null) {
-                onResponseListener.onResponse(dueItems, overdueItems,
-                    expiredItems, missingItems);
-              }
-              if (responseListener != null) {
-                responseListener.onResponse(response);
-              }
-            },
-            error -> {
-              if (onErrorListener != null) {
-                onErrorListener.onError(error);
-              }
-              if (errorListener != null) {
-                errorListener.onError(error);
-              }
-            }
-        );
-      }
-    };
-  }
-
-  public QueueItem updateVolatile(
-      String dbChangedTime,
-      OnVolatileResponseListener onResponseListener
-  ) {
-    OnVolatileResponseListener newOnResponseListener = (due, overdue, expired, missing) -> {
-      SharedPreferences.Editor editPrefs = sharedPrefs.edit();
-      editPrefs.putString(
-          Constants.PREF.DB_LAST_TIME_VOLATILE, dbChangedTime
-      );
-      editPrefs.apply();
-      onResponseListener.onResponse(due, overdue, expired, missing);
-    };
-    String lastTime = sharedPrefs.getString(  // get last offline db-changed-time value
-        Constants.PREF.DB_LAST_TIME_VOLATILE, null
-    );
-    if (lastTime == null || !lastTime.equals(dbChangedTime)) {
-      return getVolatile(newOnResponseListener, null);
-    } else {
-      if (debug) {
-        Log.i(tag, "downloadData: skipped Volatile download");
-      }
-      return null;
-    }
-  }
-
-  public QueueItem updateMissingItems(
-      String dbChangedTime,
-      OnMissingItemsResponseListener onResponseListener
-  ) {
-    String lastTime = sharedPrefs.getString(  // get last offline db-changed-time value
-        Constants.PREF.DB_LAST_TIME_VOLATILE_MISSING, null
-    );
-    if (lastTime == null || !lastTime.equals(dbChangedTime)) {
-      return new QueueItem() {
-        @Override
-        public void perform(
-            @Nullable OnStringResponseListener responseListener,
-            @Nullable OnErrorListener errorListener,
-            @Nullable String uuid
-        ) {
-          get(
-              grocyApi.getStockVolatile(),
-              uuid,
-              response -> {
-                if (debug) {
-                  Log.i(tag, "download Volatile (only missing): success");
-                }
-                ArrayList<MissingItem> missingItems = new ArrayList<>();
-                try {
-                  JSONObject jsonObject = new JSONObject(response);
-                  // Parse fourth part of volatile array: missing products
-                  missingItems = gson.fromJson(
-                      jsonObject.getJSONArray("missing_products").toString(),
-                      new TypeToken<List<MissingItem>>() {
-                      }.getType()
-                  );
-                  if (debug) {
-                    Log.i(tag, "download Volatile (only missing): missing = " + missingItems);
-                  }
-
-                } catch (JSONException e) {
-                  if (debug) {
-                    Log.e(tag, "download Volatile (only missing): " + e);
-                  }
-                }
-                ArrayList<MissingItem> finalMissingItems = missingItems;
-                Single.concat(
-                    appDatabase.missingItemDao().deleteMissingItems(),
-                    appDatabase.missingItemDao().insertMissingItems(missingItems)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_VOLATILE_MISSING, dbChangedTime).apply();
-                      onResponseListener.onResponse(finalMissingItems);
-                      if (responseListener != null) {
-                        responseListener.onResponse(response);
-                      }
-                    })
-                    .subscribe();
-              },
-              error -> {
-                if (errorListener != null) {
-                  errorListener.onError(error);
-                }
-              }
-          );
-        }
-      };
-    } else {
-      if (debug) {
-        Log.i(tag, "downloadData: skipped MissingItems download");
+        LogUtil.i(tag, "downloadData: skipped StockItems download");
       }
       return null;
     }
@@ -1431,9 +1232,7 @@ public class DownloadHelper {
               Type type = new TypeToken<ProductDetails>() {
               }.getType();
               ProductDetails productDetails = new Gson().fromJson(response, type);
-              if (debug) {
-                Log.i(tag, "download ProductDetails: " + productDetails);
-              }
+              LogUtil.i(tag, "download ProductDetails: product %d", productId);
               if (onResponseListener != null) {
                 onResponseListener.onResponse(productDetails);
               }
@@ -1480,9 +1279,7 @@ public class DownloadHelper {
               Type type = new TypeToken<ArrayList<StockLocation>>() {
               }.getType();
               ArrayList<StockLocation> stockLocations = new Gson().fromJson(response, type);
-              if (debug) {
-                Log.i(tag, "download StockLocations: " + stockLocations);
-              }
+              LogUtil.i(tag, "download StockLocations: %d items", stockLocations.size());
               if (onResponseListener != null) {
                 onResponseListener.onResponse(stockLocations);
               }
@@ -1529,9 +1326,7 @@ public class DownloadHelper {
               Type type = new TypeToken<ArrayList<StockEntry>>() {
               }.getType();
               ArrayList<StockEntry> stockEntries = new Gson().fromJson(response, type);
-              if (debug) {
-                Log.i(tag, "download StockEntries: " + stockEntries);
-              }
+              LogUtil.i(tag, "download StockEntries: %d items", stockEntries.size());
               if (onResponseListener != null) {
                 onResponseListener.onResponse(stockEntries);
               }
@@ -1581,24 +1376,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<ShoppingListItem>>() {
                 }.getType();
                 ArrayList<ShoppingListItem> shoppingListItems = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download ShoppingListItems: " + shoppingListItems);
-                }
-                Single.concat(
-                    appDatabase.shoppingListItemDao().deleteShoppingListItems(),
-                    appDatabase.shoppingListItemDao().insertShoppingListItems(shoppingListItems)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, dbChangedTime).apply();
+                LogUtil.i(tag, "download ShoppingListItems: %d items", shoppingListItems.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.shoppingListItemDao().deleteShoppingListItems(),
+                        appDatabase.shoppingListItemDao()::insertShoppingListItems,
+                        shoppingListItems
+                    ),
+                    Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(shoppingListItems);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -1610,7 +1404,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped ShoppingListItems download");
+        LogUtil.i(tag, "downloadData: skipped ShoppingListItems download");
       }
       return null;
     }
@@ -1638,9 +1432,7 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<ShoppingListItem>>() {
                 }.getType();
                 ArrayList<ShoppingListItem> shoppingListItems = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download ShoppingListItems: " + shoppingListItems);
-                }
+                LogUtil.i(tag, "download ShoppingListItems: %d items", shoppingListItems.size());
                 ArrayList<ShoppingListItem> itemsToSync = new ArrayList<>();
                 HashMap<Integer, ShoppingListItem> serverItemsHashMap = new HashMap<>();
                 for (ShoppingListItem s : shoppingListItems) {
@@ -1665,20 +1457,26 @@ public class DownloadHelper {
                         }
                       }
                     })
-                    .doFinally(() -> {
-                      appDatabase.shoppingListItemDao().deleteAll();
-                      appDatabase.shoppingListItemDao().insertAll(shoppingListItems);
-                    })
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, dbChangedTime).apply();
-                      onResponseListener.onResponse(shoppingListItems, itemsToSync, serverItemsHashMap);
-                      if (responseListener != null) {
-                        responseListener.onResponse(response);
-                      }
-                    })
+                    .doFinally(() -> stageSync(
+                        uuid,
+                        SyncGeneration.replace(
+                            appDatabase.shoppingListItemDao().deleteShoppingListItems(),
+                            appDatabase.shoppingListItemDao()::insertShoppingListItems,
+                            shoppingListItems
+                        ),
+                        Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS,
+                        dbChangedTime,
+                        () -> {
+                          onResponseListener.onResponse(
+                              shoppingListItems, itemsToSync, serverItemsHashMap
+                          );
+                          if (responseListener != null) {
+                            responseListener.onResponse(response);
+                          }
+                        }
+                    ))
                     .subscribe();
               },
               error -> {
@@ -1691,7 +1489,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped ShoppingListItems download");
+        LogUtil.i(tag, "downloadData: skipped ShoppingListItems download");
       }
       return null;
     }
@@ -1719,24 +1517,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<ShoppingList>>() {
                 }.getType();
                 ArrayList<ShoppingList> shoppingLists = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download ShoppingLists: " + shoppingLists);
-                }
-                Single.concat(
-                    appDatabase.shoppingListDao().deleteShoppingLists(),
-                    appDatabase.shoppingListDao().insertShoppingLists(shoppingLists)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(PREF.DB_LAST_TIME_SHOPPING_LISTS, dbChangedTime).apply();
+                LogUtil.i(tag, "download ShoppingLists: %d items", shoppingLists.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.shoppingListDao().deleteShoppingLists(),
+                        appDatabase.shoppingListDao()::insertShoppingLists,
+                        shoppingLists
+                    ),
+                    PREF.DB_LAST_TIME_SHOPPING_LISTS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(shoppingLists);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -1748,7 +1545,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped ShoppingLists download");
+        LogUtil.i(tag, "downloadData: skipped ShoppingLists download");
       }
       return null;
     }
@@ -1776,24 +1573,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<Store>>() {
                 }.getType();
                 ArrayList<Store> stores = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download Stores: " + stores);
-                }
-                Single.concat(
-                    appDatabase.storeDao().deleteStores(),
-                    appDatabase.storeDao().insertStores(stores)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_STORES, dbChangedTime).apply();
+                LogUtil.i(tag, "download Stores: %d items", stores.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.storeDao().deleteStores(),
+                        appDatabase.storeDao()::insertStores,
+                        stores
+                    ),
+                    Constants.PREF.DB_LAST_TIME_STORES,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(stores);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -1805,7 +1601,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped Stores download");
+        LogUtil.i(tag, "downloadData: skipped Stores download");
       }
       return null;
     }
@@ -1869,7 +1665,7 @@ public class DownloadHelper {
             uuid,
             response -> {
               if (debug) {
-                Log.i(tag, "delete ShoppingListItem: " + itemId);
+                LogUtil.i(tag, "delete ShoppingListItem: " + itemId);
               }
               if (onResponseListener != null) {
                 onResponseListener.onResponse(response);
@@ -1917,24 +1713,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<Task>>() {
                 }.getType();
                 ArrayList<Task> tasks = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download Tasks: " + tasks);
-                }
-                Single.concat(
-                    appDatabase.taskDao().deleteTasks(),
-                    appDatabase.taskDao().insertTasks(tasks)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_TASKS, dbChangedTime).apply();
+                LogUtil.i(tag, "download Tasks: %d items", tasks.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.taskDao().deleteTasks(),
+                        appDatabase.taskDao()::insertTasks,
+                        tasks
+                    ),
+                    Constants.PREF.DB_LAST_TIME_TASKS,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(tasks);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -1946,7 +1741,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped Tasks download");
+        LogUtil.i(tag, "downloadData: skipped Tasks download");
       }
       return null;
     }
@@ -1974,24 +1769,23 @@ public class DownloadHelper {
                 Type type = new TypeToken<List<TaskCategory>>() {
                 }.getType();
                 ArrayList<TaskCategory> taskCategories = new Gson().fromJson(response, type);
-                if (debug) {
-                  Log.i(tag, "download Task categories: " + taskCategories);
-                }
-                Single.concat(
-                    appDatabase.taskCategoryDao().deleteCategories(),
-                    appDatabase.taskCategoryDao().insertCategories(taskCategories)
-                )
-                    .subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .doFinally(() -> {
-                      sharedPrefs.edit()
-                          .putString(Constants.PREF.DB_LAST_TIME_TASK_CATEGORIES, dbChangedTime).apply();
+                LogUtil.i(tag, "download Task categories: %d items", taskCategories.size());
+                stageSync(
+                    uuid,
+                    SyncGeneration.replace(
+                        appDatabase.taskCategoryDao().deleteCategories(),
+                        appDatabase.taskCategoryDao()::insertCategories,
+                        taskCategories
+                    ),
+                    Constants.PREF.DB_LAST_TIME_TASK_CATEGORIES,
+                    dbChangedTime,
+                    () -> {
                       onResponseListener.onResponse(taskCategories);
                       if (responseListener != null) {
                         responseListener.onResponse(response);
                       }
-                    })
-                    .subscribe();
+                    }
+                );
               },
               error -> {
                 if (errorListener != null) {
@@ -2003,7 +1797,7 @@ public class DownloadHelper {
       };
     } else {
       if (debug) {
-        Log.i(tag, "downloadData: skipped TaskCategories download");
+        LogUtil.i(tag, "downloadData: skipped TaskCategories download");
       }
       return null;
     }
@@ -2025,7 +1819,7 @@ public class DownloadHelper {
             uuid,
             response -> {
               if (debug) {
-                Log.i(tag, "get systemInfo: " + response);
+                LogUtil.i(tag, "get systemInfo: " + response);
               }
               if (onResponseListener != null) {
                 onResponseListener.onResponse(response);
@@ -2061,7 +1855,7 @@ public class DownloadHelper {
             onResponseListener.onResponse(dateStr);
           } catch (JSONException e) {
             if (debug) {
-              Log.e(tag, "getTimeDbChanged: " + e);
+              LogUtil.e(tag, "getTimeDbChanged: " + e);
             }
             onErrorListener.onError();
           }
@@ -2106,7 +1900,7 @@ public class DownloadHelper {
           String language = application.getResources().getConfiguration().locale.getLanguage();
           String country = application.getResources().getConfiguration().locale.getCountry();
           String both = language + "_" + country;
-          if(debug) Log.i(tag, "getOpenFoodFactsProductName: locale = " + both);
+          if(debug) LogUtil.i(tag, "getOpenFoodFactsProductName: locale = " + both);
           try {
             JSONObject jsonObject = new JSONObject(response);
             JSONObject product = jsonObject.getJSONObject("product");
@@ -2118,14 +1912,14 @@ public class DownloadHelper {
               name = product.optString("product_name");
             }
             successListener.onResponse(name);
-            if(debug) Log.i(tag, "getOpenFoodFactsProductName: OpenFoodFacts = " + name);
+            if(debug) LogUtil.i(tag, "getOpenFoodFactsProductName: OpenFoodFacts = " + name);
           } catch (JSONException e) {
-            if(debug) Log.e(tag, "getOpenFoodFactsProductName: " + e);
+            if(debug) LogUtil.e(tag, "getOpenFoodFactsProductName: " + e);
             successListener.onResponse(null);
           }
         },
         error -> {
-          if(debug) Log.e(tag, "getOpenFoodFactsProductName: can't get OpenFoodFacts product");
+          if(debug) LogUtil.e(tag, "getOpenFoodFactsProductName: can't get OpenFoodFacts product");
           errorListener.onError(error);
         },
         OpenFoodFactsApi.getUserAgent(application)
@@ -2143,7 +1937,7 @@ public class DownloadHelper {
           String language = application.getResources().getConfiguration().locale.getLanguage();
           String country = application.getResources().getConfiguration().locale.getCountry();
           String both = language + "_" + country;
-          if(debug) Log.i(tag, "getOpenBeautyFactsProductName: locale = " + both);
+          if(debug) LogUtil.i(tag, "getOpenBeautyFactsProductName: locale = " + both);
           try {
             JSONObject jsonObject = new JSONObject(response);
             JSONObject product = jsonObject.getJSONObject("product");
@@ -2155,14 +1949,14 @@ public class DownloadHelper {
               name = product.optString("product_name");
             }
             successListener.onResponse(name);
-            if(debug) Log.i(tag, "getOpenBeautyFactsProductName: OpenBeautyFacts = " + name);
+            if(debug) LogUtil.i(tag, "getOpenBeautyFactsProductName: OpenBeautyFacts = " + name);
           } catch (JSONException e) {
-            if(debug) Log.e(tag, "getOpenBeautyFactsProductName: " + e);
+            if(debug) LogUtil.e(tag, "getOpenBeautyFactsProductName: " + e);
             successListener.onResponse(null);
           }
         },
         error -> {
-          if(debug) Log.e(tag, "getOpenBeautyFactsProductName: can't get OpenBeautyFacts product");
+          if(debug) LogUtil.e(tag, "getOpenBeautyFactsProductName: can't get OpenBeautyFacts product");
           errorListener.onError(error);
         },
         OpenBeautyFactsApi.getUserAgent(application)
@@ -2185,12 +1979,7 @@ public class DownloadHelper {
             url,
             uuid,
             response -> {
-              if (debug) {
-                Log.i(
-                    tag,
-                    "download StringData from " + url + " : " + response
-                );
-              }
+              LogUtil.i(tag, "download StringData from %s: %d chars", url, response.length());
               if (onResponseListener != null) {
                 onResponseListener.onResponse(response);
               }
@@ -2200,7 +1989,7 @@ public class DownloadHelper {
             },
             error -> {
               if (debug) {
-                Log.e(tag, "download StringData: " + error);
+                LogUtil.e(tag, "download StringData: " + error);
               }
               if (onErrorListener != null) {
                 onErrorListener.onError(error);
@@ -2227,19 +2016,38 @@ public class DownloadHelper {
             boolean isOk = response.get("result").equals("ok");
             onResponseListener.onResponse(isOk ? (String) response.get("result") : null);
           } catch (JSONException e) {
-            Log.e(tag,
+            LogUtil.e(tag,
                 "checkHassLongLivedToken (/api/hassio/ingress/session): JSONException:");
             e.printStackTrace();
             onResponseListener.onResponse(null);
           }
         },
         error -> {
-          Log.e(tag, "checkHassLongLivedToken (/api/hassio/ingress/session): error: " + error);
+          LogUtil.e(tag, "checkHassLongLivedToken (/api/hassio/ingress/session): error: " + error);
           onResponseListener.onResponse(null);
         }
     );
   }
 
+  /**
+   * Sends a request with the ingress session key. The stored key can already be dropped by Home
+   * Assistant although it is not older than the time which the session manager trusts it, so if
+   * an ingress request is rejected, the session is dropped and the request is sent once more
+   * with a new session.
+   */
+  private void sendWithSession(SessionRequest sessionRequest, OnErrorListener onError) {
+    validateHassIngressSessionIfNecessary(sessionKey -> sessionRequest.send(sessionKey, error -> {
+      if (sessionKey == null || !(error instanceof AuthFailureError)) {
+        onError.onError(error);
+        return;
+      }
+      HassIngressSessionManager.getInstance(application).invalidateSession(sessionKey);
+      validateHassIngressSessionIfNecessary(
+          newSessionKey -> sessionRequest.send(newSessionKey, onError)
+      );
+    }));
+  }
+
   public void validateHassIngressSessionIfNecessary(OnStringResponseListener onFinishedListener) {
     validateHassIngressSessionIfNecessary(onFinishedListener, onFinishedListener);
   }
@@ -2253,81 +2061,36 @@ public class DownloadHelper {
       return;
     }
 
-    String sessionKey = sharedPrefs
-        .getString(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY, null);
-    String sessionKeyTimeStr = sharedPrefs
-        .getString(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY_TIME, null);
-
-    if (sessionKey != null && dateUtil.isTimeLessThanOneMinuteAway(sessionKeyTimeStr)) {
-      onSuccessListener.onResponse(sessionKey);
-      return;
-    }
-
-    homeAssistantSessionAuth(sessionKey, onSuccessListener, onErrorListener);
+    HassIngressSessionManager.getInstance(application).getSessionKey(
+        hassServerUrl,
+        hassLongLivedAccessToken,
+        timeoutSeconds,
+        onSuccessListener::onResponse,
+        onErrorListener::onResponse
+    );
   }
 
-  private void homeAssistantSessionAuth(
-      String sessionOld,
-      OnStringResponseListener onSuccessListener,
-      OnStringResponseListener onErrorListener
+  /**
+   * Stages the write in the sync generation of the queue which performs the item, the queue
+   * commits all writes at once when it is empty. Items which were performed without a queue
+   * are committed right away.
+   */
+  private void stageSync(
+      @Nullable String uuid,
+      SyncGeneration.Write write,
+      String prefKey,
+      String dbChangedTime,
+      Runnable onStaged
   ) {
-    String hassUrlExtension;
-    JSONObject jsonObject = null;
-    if (sessionOld != null) {
-      hassUrlExtension = "/api/hassio/ingress/validate_session";
-      try {
-        jsonObject = new JSONObject();
-        jsonObject.put("session", sessionOld);
-      } catch (JSONException e) {
-        Log.e(tag, "homeAssistantSessionAuth: JSONException1:");
-        e.printStackTrace();
-      }
+    SyncGeneration syncGeneration = uuid != null ? syncGenerations.get(uuid) : null;
+    if (syncGeneration != null) {
+      syncGeneration.stage(write, prefKey, dbChangedTime);
+      onStaged.run();
     } else {
-      hassUrlExtension = "/api/hassio/ingress/session";
+      new SyncGeneration(appDatabase, sharedPrefs)
+          .stage(write, prefKey, dbChangedTime)
+          .commit(onStaged);
     }
-
-    postHassIngress(
-        hassServerUrl + hassUrlExtension,
-        jsonObject,
-        response -> {
-          try {
-            boolean isOk = response.get("result").equals("ok");
-            JSONObject data = isOk && response.has("data") ? response.getJSONObject("data") : null;
-            String session = data != null && data.has("session") ? data.getString("session") : null;
-            if (session != null) {
-              sharedPrefs.edit().putString(
-                  Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY,
-                  session
-              ).putString(
-                  Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY_TIME,
-                  dateUtil.getCurrentDateWithTimeStr()
-              ).apply();
-              onSuccessListener.onResponse(session);
-            } else if (isOk && sessionOld != null) {
-              sharedPrefs.edit().putString(
-                  Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY_TIME,
-                  dateUtil.getCurrentDateWithTimeStr()
-              ).apply();
-              onSuccessListener.onResponse(sessionOld);
-            } else {
-              Log.e(tag, "homeAssistantSessionAuth: " + hassUrlExtension + ": bad response: " + response);
-              onErrorListener.onResponse(null);
-            }
-          } catch (JSONException e) {
-            Log.e(tag, "homeAssistantSessionAuth: " + hassUrlExtension + ": JSONException2: ");
-            e.printStackTrace();
-            onErrorListener.onResponse(null);
-          }
-        },
-        error -> {
-          Log.e(tag, "homeAssistantSessionAuth: " + hassUrlExtension + ": error: " + error);
-          if (sessionOld != null && error instanceof AuthFailureError) {
-            homeAssistantSessionAuth(null, onSuccessListener, onErrorListener);
-            return;
-          }
-          onErrorListener.onResponse(null);
-        }
-    );
   }
 
   public class Queue {
@@ -2336,6 +2099,8 @@ public class DownloadHelper {
     private final OnQueueEmptyListener onQueueEmptyListener;
     private final OnErrorListener onErrorListener;
     private final String uuidQueue;
+    private final SyncGeneration syncGeneration;
+    private OnQueueCommitListener onQueueCommitListener;
     private int queueSize;
     private boolean isRunning;
 
@@ -2344,6 +2109,7 @@ public class DownloadHelper {
       this.onErrorListener = onErrorListener;
       queueItems = new ArrayList<>();
       uuidQueue = UUID.randomUUID().toString();
+      syncGeneration = new SyncGeneration(appDatabase, sharedPrefs);
       queueSize = 0;
       isRunning = false;
     }
@@ -2359,6 +2125,16 @@ public class DownloadHelper {
       return this;
     }
 
+    /**
+     * The listener is called after all responses were received, before the staged writes are
+     * committed. Writes which are derived from the downloaded data can be staged there, so that
+     * they are committed in the same transaction.
+     */
+    public Queue setOnQueueCommitListener(OnQueueCommitListener onQueueCommitListener) {
+      this.onQueueCommitListener = onQueueCommitListener;
+      return this;
+    }
+
     public void start() {
       if (isRunning) {
         return;
@@ -2371,6 +2147,7 @@ public class DownloadHelper {
         }
         return;
       }
+      syncGenerations.put(uuidQueue, syncGeneration);
       while (!queueItems.isEmpty()) {
         QueueItem queueItem = queueItems.remove(0);
         queueItem.perform(response -> {
@@ -2379,10 +2156,16 @@ public class DownloadHelper {
             return;
           }
           isRunning = false;
-          if (onQueueEmptyListener != null) {
-            onQueueEmptyListener.execute();
-          }
           reset(false);
+          if (onQueueCommitListener != null) {
+            onQueueCommitListener.beforeCommit(syncGeneration);
+          }
+          // listeners read the database, so they have to wait for the commit
+          syncGeneration.commit(() -> {
+            if (onQueueEmptyListener != null) {
+              onQueueEmptyListener.execute();
+            }
+          });
         }, error -> {
           isRunning = false;
           if (onErrorListener != null) {
@@ -2407,6 +2190,11 @@ public class DownloadHelper {
       }
       queueItems.clear();
       queueSize = 0;
+      // writes staged before are still committed by start, later ones are committed directly
+      syncGenerations.remove(uuidQueue);
+      if (cancelAll) {
+        syncGeneration.clear(); // a generation is written completely or not at all
+      }
     }
   }
 
@@ -2506,21 +2294,6 @@ public class DownloadHelper {
     void onResponse(ArrayList<StockItem> stockItems);
   }
 
-  public interface OnVolatileResponseListener {
-
-    void onResponse(
-        ArrayList<StockItem> due,
-        ArrayList<StockItem> overdue,
-        ArrayList<StockItem> expired,
-        ArrayList<MissingItem> missing
-    );
-  }
-
-  public interface OnMissingItemsResponseListener {
-
-    void onResponse(ArrayList<MissingItem> missingItems);
-  }
-
   public interface OnProductDetailsResponseListener {
 
     void onResponse(ProductDetails productDetails);
@@ -2605,6 +2378,16 @@ public class DownloadHelper {
     void execute();
   }
 
+  private interface SessionRequest {
+
+    void send(@Nullable String sessionKey, OnErrorListener onError);
+  }
+
+  public interface OnQueueCommitListener {
+
+    void beforeCommit(SyncGeneration syncGeneration);
+  }
+
   public interface OnLoadingListener {
 
     void onLoadingChanged(boolean isLoading);
@@ -0,0 +1,258 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.content.SharedPreferences;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import java.util.HashSet;
+import java.util.List;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper.StockStatus;
+import xyz.zedler.patrick.grocy.model.MissingItem;
+import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.util.Constants.PREF;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+
+/**
+ * Keeps the counters of the overview start page. Every source of data only updates the counters
+ * which depend on it, and the last counters are stored in the preferences, so that the page can
+ * be displayed before the database was loaded.
+ */
+public class OverviewAggregateHelper {
+
+  private final static String TAG = OverviewAggregateHelper.class.getSimpleName();
+
+  private final SharedPreferences sharedPrefs;
+  private final Gson gson;
+  private Aggregates aggregates;
+  private String storedJson;
+  private HashSet<Integer> shoppingListProductIds;
+  private HashSet<Integer> missingProductIds;
+
+  public OverviewAggregateHelper(SharedPreferences sharedPrefs) {
+    this.sharedPrefs = sharedPrefs;
+    this.gson = new Gson();
+    storedJson = sharedPrefs.getString(PREF.OVERVIEW_AGGREGATES, null);
+    if (storedJson != null) {
+      try {
+        aggregates = gson.fromJson(storedJson, Aggregates.class);
+      } catch (JsonSyntaxException e) {
+        LogUtil.e(TAG, "OverviewAggregateHelper: " + e);
+      }
+    }
+    if (aggregates == null) {
+      aggregates = new Aggregates();
+    }
+  }
+
+  /**
+   * Counters of the last session until the data of this session was evaluated.
+   */
+  @NonNull
+  public Aggregates getAggregates() {
+    return aggregates;
+  }
+
+  @NonNull
+  public Aggregates onStockStatusChanged(@NonNull StockStatus status) {
+    Aggregates changed = withDueStatus(status);
+    changed.inStockCount = status.getInStockCount();
+    changed.stockValue = status.getStockValue();
+    changed.missingCount = status.getMissingCount();
+    missingProductIds = new HashSet<>();
+    for (MissingItem missingItem : status.getMissingItems()) {
+      missingProductIds.add(missingItem.getId());
+    }
+    changed.missingOnShoppingListCount = getMissingOnShoppingListCount();
+    return publish(changed);
+  }
+
+  /**
+   * Only for a status which was evaluated with {@link StockStatusHelper#updateDueStatus(List)}.
+   */
+  @NonNull
+  public Aggregates onDueStatusChanged(@NonNull StockStatus status) {
+    return publish(withDueStatus(status));
+  }
+
+  private Aggregates withDueStatus(@NonNull StockStatus status) {
+    Aggregates changed = aggregates.copy();
+    changed.dueCount = status.getDueCount();
+    changed.overdueCount = status.getOverdueCount();
+    changed.expiredCount = status.getExpiredCount();
+    changed.dueSoonDays = status.getDueSoonDays();
+    return changed;
+  }
+
+  @NonNull
+  public Aggregates onShoppingListItemsChanged(@Nullable List<ShoppingListItem> items) {
+    if (items == null) {
+      return aggregates;
+    }
+    shoppingListProductIds = new HashSet<>();
+    for (ShoppingListItem item : items) {
+      if (item.hasProduct()) {
+        shoppingListProductIds.add(item.getProductIdInt());
+      }
+    }
+    Aggregates changed = aggregates.copy();
+    changed.shoppingListItemCount = items.size();
+    changed.missingOnShoppingListCount = getMissingOnShoppingListCount();
+    return publish(changed);
+  }
+
+  @NonNull
+  public Aggregates onShoppingListsChanged(@Nullable List<?> shoppingLists) {
+    if (shoppingLists == null) {
+      return aggregates;
+    }
+    Aggregates changed = aggregates.copy();
+    changed.shoppingListCount = shoppingLists.size();
+    return publish(changed);
+  }
+
+  @NonNull
+  public Aggregates onProductsChanged(@Nullable List<?> products) {
+    if (products == null) {
+      return aggregates;
+    }
+    Aggregates changed = aggregates.copy();
+    changed.productCount = products.size();
+    return publish(changed);
+  }
+
+  @Nullable
+  private Integer getMissingOnShoppingListCount() {
+    if (missingProductIds == null) {
+      return aggregates.missingOnShoppingListCount;
+    }
+    if (shoppingListProductIds == null) {
+      return 0;
+    }
+    HashSet<Integer> smaller = missingProductIds;
+    HashSet<Integer> larger = shoppingListProductIds;
+    if (smaller.size() > larger.size()) {
+      smaller = shoppingListProductIds;
+      larger = missingProductIds;
+    }
+    int count = 0;
+    for (Integer productId : smaller) {
+      if (larger.contains(productId)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private Aggregates publish(Aggregates changed) {
+    aggregates = changed;
+    String json = gson.toJson(changed);
+    if (!json.equals(storedJson)) {
+      storedJson = json;
+      sharedPrefs.edit().putString(PREF.OVERVIEW_AGGREGATES, json).apply();
+    }
+    return changed;
+  }
+
+  /**
+   * Counters which are null have not been evaluated yet.
+   */
+  public static class Aggregates {
+
+    private Integer inStockCount;
+    private double stockValue;
+    private int dueCount;
+    private int overdueCount;
+    private int expiredCount;
+    private int missingCount;
+    private Integer missingOnShoppingListCount;
+    private int dueSoonDays;
+    private Integer shoppingListItemCount;
+    private Integer shoppingListCount;
+    private Integer productCount;
+
+    Aggregates copy() {
+      Aggregates copy = new Aggregates();
+      copy.inStockCount = inStockCount;
+      copy.stockValue = stockValue;
+      copy.dueCount = dueCount;
+      copy.overdueCount = overdueCount;
+      copy.expiredCount = expiredCount;
+      copy.missingCount = missingCount;
+      copy.missingOnShoppingListCount = missingOnShoppingListCount;
+      copy.dueSoonDays = dueSoonDays;
+      copy.shoppingListItemCount = shoppingListItemCount;
+      copy.shoppingListCount = shoppingListCount;
+      copy.productCount = productCount;
+      return copy;
+    }
+
+    @Nullable
+    public Integer getInStockCount() {
+      return inStockCount;
+    }
+
+    public double getStockValue() {
+      return stockValue;
+    }
+
+    public int getDueCount() {
+      return dueCount;
+    }
+
+    public int getOverdueCount() {
+      return overdueCount;
+    }
+
+    public int getExpiredCount() {
+      return expiredCount;
+    }
+
+    public int getMissingCount() {
+      return missingCount;
+    }
+
+    @Nullable
+    public Integer getMissingOnShoppingListCount() {
+      return missingOnShoppingListCount;
+    }
+
+    public int getDueSoonDays() {
+      return dueSoonDays;
+    }
+
+    @Nullable
+    public Integer getShoppingListItemCount() {
+      return shoppingListItemCount;
+    }
+
+    public boolean hasMultipleShoppingLists() {
+      return shoppingListCount == null || shoppingListCount > 1;
+    }
+
+    @Nullable
+    public Integer getProductCount() {
+      return productCount;
+    }
+  }
+}
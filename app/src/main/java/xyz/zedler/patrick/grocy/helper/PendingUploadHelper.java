@@ -0,0 +1,591 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.app.Application;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import androidx.preference.PreferenceManager;
+import com.android.volley.NetworkError;
+import com.android.volley.ParseError;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnErrorListener;
+import xyz.zedler.patrick.grocy.model.PendingProduct;
+import xyz.zedler.patrick.grocy.model.PendingProductBarcode;
+import xyz.zedler.patrick.grocy.model.PendingPurchase;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.ProductBarcode;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+import xyz.zedler.patrick.grocy.util.NumUtil;
+
+/**
+ * Uploads stored pending data with a few requests in flight at the same time. A pending product
+ * is created on the server first (or found by its name if that already happened), then its
+ * barcodes and purchases are uploaded. The server id of the product is written to the barcodes
+ * and purchases in the same transaction which deletes the pending product, and every barcode
+ * and purchase is deleted as soon as the server confirmed it, so an interrupted upload can be
+ * continued later without creating anything twice. Without connection the upload pauses until
+ * {@link #onConnectivityChanged(boolean)} reports that the device is online again.
+ */
+public class PendingUploadHelper {
+
+  private final static String TAG = PendingUploadHelper.class.getSimpleName();
+
+  private final static int MAX_PARALLEL_REQUESTS = 4;
+  private final static int MAX_ATTEMPTS = 3;
+  private final static int RETRY_DELAY_MS = 2000;
+
+  private final DownloadHelper dlHelper;
+  private final GrocyApi grocyApi;
+  private final AppDatabase appDatabase;
+  private final SharedPreferences sharedPrefs;
+  private final Handler handler;
+  private final boolean debug;
+  private final ArrayDeque<Step> queue;
+  private UploadListener listener;
+  private int runningSteps;
+  private int delayedRetries;
+  private int uploadedCount;
+  private int failedCount;
+  private boolean isLoading;
+  private boolean isPaused;
+
+  public PendingUploadHelper(Application application, DownloadHelper dlHelper, boolean debug) {
+    this.dlHelper = dlHelper;
+    this.grocyApi = new GrocyApi(application);
+    this.appDatabase = AppDatabase.getAppDatabase(application);
+    this.sharedPrefs = PreferenceManager.getDefaultSharedPreferences(application);
+    this.handler = new Handler(Looper.getMainLooper());
+    this.debug = debug;
+    queue = new ArrayDeque<>();
+  }
+
+  /**
+   * The purchases must reference products from the server. Purchases of an earlier upload which
+   * was interrupted after the request was sent are counted as failed, unless resendStarted is
+   * set because the user confirmed that they were not booked.
+   */
+  public void uploadPurchases(
+      List<PendingPurchase> purchases,
+      boolean resendStarted,
+      @NonNull UploadListener listener
+  ) {
+    if (isUploading()) {
+      return;
+    }
+    failedCount = 0;
+    List<Step> steps = new ArrayList<>();
+    for (PendingPurchase purchase : purchases) {
+      if (purchase.isUploadStarted() && !resendStarted) {
+        failedCount++;
+      } else {
+        steps.add(new PurchaseStep(purchase));
+      }
+    }
+    start(steps, listener);
+  }
+
+  /**
+   * Uploads all pending products with their barcodes and purchases. Purchases of an earlier
+   * upload which was interrupted after the request was sent are not uploaded again and counted
+   * as failed.
+   */
+  public void uploadPendingData(@NonNull UploadListener listener) {
+    if (isUploading()) {
+      return;
+    }
+    isLoading = true;
+    appDatabase.readSnapshot(Single.zip(
+            appDatabase.pendingProductDao().getPendingProducts(),
+            appDatabase.pendingProductBarcodeDao().getProductBarcodes(),
+            appDatabase.pendingPurchaseDao().getPendingPurchases(),
+            PendingData::new
+        ))
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doOnSuccess(data -> {
+          isLoading = false;
+          failedCount = 0;
+          start(getSteps(data), listener);
+        })
+        .doOnError(throwable -> {
+          isLoading = false;
+          if (debug) {
+            LogUtil.e(TAG, "uploadPendingData: " + throwable);
+          }
+          listener.onFinished(0, 0);
+        })
+        .onErrorComplete()
+        .subscribe();
+  }
+
+  public boolean isUploading() {
+    return isLoading || !queue.isEmpty() || runningSteps > 0 || delayedRetries > 0;
+  }
+
+  public void onConnectivityChanged(boolean isOnline) {
+    if (isOnline && isPaused) {
+      isPaused = false;
+      uploadNext();
+    }
+  }
+
+  public void cancel() {
+    handler.removeCallbacksAndMessages(null);
+    queue.clear();
+    delayedRetries = 0;
+    listener = null;
+  }
+
+  private List<Step> getSteps(PendingData data) {
+    HashMap<Integer, List<PendingProductBarcode>> barcodes = new HashMap<>();
+    HashMap<Integer, List<PendingPurchase>> purchases = new HashMap<>();
+    List<Step> steps = new ArrayList<>();
+    for (PendingProductBarcode barcode : data.barcodes) {
+      if (NumUtil.isStringInt(barcode.getProductId())) { // product was already created
+        steps.add(new BarcodeStep(barcode));
+      } else {
+        getList(barcodes, barcode.getPendingProductId()).add(barcode);
+      }
+    }
+    for (PendingPurchase purchase : data.purchases) {
+      if (purchase.getPendingProductId() == 0) {
+        continue; // purchases of the scan batch are only uploaded by the user
+      } else if (purchase.isUploadStarted()) {
+        failedCount++;
+      } else if (purchase.getProductId() != null) {
+        steps.add(new PurchaseStep(purchase));
+      } else {
+        getList(purchases, purchase.getPendingProductId()).add(purchase);
+      }
+    }
+    for (PendingProduct pendingProduct : data.pendingProducts) {
+      steps.add(new ProductStep(
+          pendingProduct,
+          getList(barcodes, pendingProduct.getId()),
+          getList(purchases, pendingProduct.getId())
+      ));
+    }
+    return steps;
+  }
+
+  private static <T> List<T> getList(HashMap<Integer, List<T>> hashMap, int key) {
+    List<T> list = hashMap.get(key);
+    if (list == null) {
+      list = new ArrayList<>();
+      hashMap.put(key, list);
+    }
+    return list;
+  }
+
+  private void start(List<Step> steps, UploadListener listener) {
+    this.listener = listener;
+    queue.clear();
+    queue.addAll(steps);
+    uploadedCount = 0;
+    isPaused = false;
+    uploadNext();
+  }
+
+  private void uploadNext() {
+    while (!isPaused && runningSteps < MAX_PARALLEL_REQUESTS && !queue.isEmpty()) {
+      execute(queue.poll());
+    }
+    if (!isUploading() && listener != null) {
+      UploadListener listener = this.listener;
+      this.listener = null;
+      listener.onFinished(uploadedCount, failedCount);
+    }
+  }
+
+  private void execute(Step step) {
+    runningSteps++;
+    step.run(() -> {
+      runningSteps--;
+      uploadNext();
+    }, error -> {
+      runningSteps--;
+      onStepError(step, error);
+      uploadNext();
+    });
+  }
+
+  private void onStepError(Step step, VolleyError error) {
+    if (debug) {
+      LogUtil.e(TAG, "onStepError: " + step + ": " + error);
+    }
+    boolean notSent = error instanceof NetworkError
+        && (error.getCause() instanceof UnknownHostException
+        || error.getCause() instanceof ConnectException);
+    if (!step.isIdempotent() && !notSent && (error instanceof TimeoutError
+        || error instanceof NetworkError
+        || error.networkResponse != null && error.networkResponse.statusCode >= 500)) {
+      // the server could have booked it already, so the user has to decide
+      failedCount += step.getItemCount();
+    } else if (error instanceof NetworkError) { // no connection
+      isPaused = true;
+      queue.addFirst(step);
+    } else if (error instanceof ParseError
+        || error.networkResponse != null && error.networkResponse.statusCode < 500) {
+      failedCount += step.getItemCount(); // rejected by the server, a retry would fail again
+    } else {
+      step.attempts++;
+      if (step.attempts >= MAX_ATTEMPTS) {
+        failedCount += step.getItemCount();
+        return;
+      }
+      delayedRetries++;
+      handler.postDelayed(() -> {
+        delayedRetries--;
+        queue.add(step);
+        uploadNext();
+      }, (long) RETRY_DELAY_MS * step.attempts);
+    }
+  }
+
+  private static int getFirstObjectId(String response) throws JSONException {
+    JSONArray array = new JSONArray(response);
+    return array.length() > 0 ? array.getJSONObject(0).getInt("id") : -1;
+  }
+
+  private void delete(Completable delete, String name) {
+    appDatabase.trackCommit(delete).subscribeOn(Schedulers.io())
+        .doOnError(throwable -> LogUtil.e(TAG, name + ": delete: " + throwable))
+        .onErrorComplete()
+        .subscribe();
+  }
+
+  private abstract static class Step {
+
+    int attempts;
+
+    /**
+     * Must call exactly one of the listeners on the main thread.
+     */
+    abstract void run(Runnable onSuccess, OnErrorListener onError);
+
+    /**
+     * Whether the step can be repeated without changing the result, e.g. after a timeout.
+     */
+    abstract boolean isIdempotent();
+
+    /**
+     * Number of items which are not uploaded if this step fails.
+     */
+    int getItemCount() {
+      return 1;
+    }
+  }
+
+  private class ProductStep extends Step {
+
+    private final PendingProduct pendingProduct;
+    private final List<PendingProductBarcode> barcodes;
+    private final List<PendingPurchase> purchases;
+
+    ProductStep(
+        PendingProduct pendingProduct,
+        List<PendingProductBarcode> barcodes,
+        List<PendingPurchase> purchases
+    ) {
+      this.pendingProduct = pendingProduct;
+      this.barcodes = barcodes;
+      this.purchases = purchases;
+    }
+
+    @Override
+    void run(Runnable onSuccess, OnErrorListener onError) {
+      // the product could have been created by an upload which was interrupted before the
+      // pending product was replaced, names are unique in grocy
+      dlHelper.get(
+          grocyApi.getObjectsEqualValue(
+              ENTITY.PRODUCTS, "name", Uri.encode(pendingProduct.getName())
+          ),
+          response -> {
+            int productId;
+            try {
+              productId = getFirstObjectId(response);
+            } catch (JSONException e) {
+              onError.onError(new ParseError(e));
+              return;
+            }
+            if (productId != -1) {
+              replacePendingProduct(productId, onSuccess, onError);
+            } else {
+              createProduct(onSuccess, onError);
+            }
+          },
+          onError::onError
+      );
+    }
+
+    private void createProduct(Runnable onSuccess, OnErrorListener onError) {
+      Product product = new Product(sharedPrefs);
+      product.setName(pendingProduct.getName());
+      dlHelper.post(
+          grocyApi.getObjects(ENTITY.PRODUCTS),
+          product.getJsonFromProduct(debug, TAG),
+          response -> {
+            int productId = response.optInt("created_object_id", -1);
+            if (productId == -1) {
+              onError.onError(new ParseError());
+              return;
+            }
+            replacePendingProduct(productId, onSuccess, onError);
+          },
+          onError::onError
+      );
+    }
+
+    private void replacePendingProduct(
+        int productId,
+        Runnable onSuccess,
+        OnErrorListener onError
+    ) {
+      int pendingProductId = pendingProduct.getId();
+      Runnable replace = () -> {
+        appDatabase.pendingPurchaseDao()
+            .setProductIdOfPendingProduct(pendingProductId, productId).blockingGet();
+        appDatabase.pendingProductBarcodeDao()
+            .setProductIdOfPendingProduct(pendingProductId, String.valueOf(productId))
+            .blockingGet();
+        appDatabase.pendingProductDao().deletePendingProduct(pendingProductId).blockingGet();
+      };
+      appDatabase.trackCommit(Completable.fromAction(() -> appDatabase.runInTransaction(replace)))
+          .subscribeOn(Schedulers.io())
+          .observeOn(AndroidSchedulers.mainThread())
+          .doOnComplete(() -> {
+            for (PendingProductBarcode barcode : barcodes) {
+              barcode.setProductIdInt(productId);
+              queue.add(new BarcodeStep(barcode));
+            }
+            for (PendingPurchase purchase : purchases) {
+              purchase.setProductId(productId);
+              queue.add(new PurchaseStep(purchase));
+            }
+            onSuccess.run();
+          })
+          .doOnError(throwable -> onError.onError(new VolleyError(throwable)))
+          .onErrorComplete()
+          .subscribe();
+    }
+
+    @Override
+    boolean isIdempotent() {
+      return true;
+    }
+
+    @Override
+    int getItemCount() {
+      return 1 + barcodes.size() + purchases.size();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+      return "ProductStep(" + pendingProduct.getName() + ")";
+    }
+  }
+
+  private class BarcodeStep extends Step {
+
+    private final PendingProductBarcode pendingBarcode;
+
+    BarcodeStep(PendingProductBarcode pendingBarcode) {
+      this.pendingBarcode = pendingBarcode;
+    }
+
+    @Override
+    void run(Runnable onSuccess, OnErrorListener onError) {
+      dlHelper.get(
+          grocyApi.getObjectsEqualValue(
+              ENTITY.PRODUCT_BARCODES, "barcode", Uri.encode(pendingBarcode.getBarcode())
+          ),
+          response -> {
+            try {
+              if (getFirstObjectId(response) != -1) { // already uploaded
+                onUploaded(onSuccess);
+                return;
+              }
+            } catch (JSONException e) {
+              onError.onError(new ParseError(e));
+              return;
+            }
+            ProductBarcode barcode = new ProductBarcode();
+            barcode.setProductId(pendingBarcode.getProductId());
+            barcode.setBarcode(pendingBarcode.getBarcode());
+            barcode.setQuId(pendingBarcode.getQuId());
+            barcode.setAmount(pendingBarcode.getAmount());
+            barcode.setStoreId(pendingBarcode.getStoreId());
+            barcode.setLastPrice(pendingBarcode.getLastPrice());
+            dlHelper.post(
+                grocyApi.getObjects(ENTITY.PRODUCT_BARCODES),
+                barcode.getJsonFromProductBarcode(debug, TAG),
+                created -> onUploaded(onSuccess),
+                onError::onError
+            );
+          },
+          onError::onError
+      );
+    }
+
+    private void onUploaded(Runnable onSuccess) {
+      delete(
+          appDatabase.pendingProductBarcodeDao().deleteProductBarcode(pendingBarcode.getId())
+              .ignoreElement(),
+          toString()
+      );
+      onSuccess.run();
+    }
+
+    @Override
+    boolean isIdempotent() {
+      return true;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+      return "BarcodeStep(" + pendingBarcode.getBarcode() + ")";
+    }
+  }
+
+  private class PurchaseStep extends Step {
+
+    private final PendingPurchase purchase;
+
+    PurchaseStep(PendingPurchase purchase) {
+      this.purchase = purchase;
+    }
+
+    @Override
+    void run(Runnable onSuccess, OnErrorListener onError) {
+      appDatabase.trackCommit(appDatabase.pendingPurchaseDao().setUploadStarted(purchase.getId()))
+          .subscribeOn(Schedulers.io())
+          .observeOn(AndroidSchedulers.mainThread())
+          .doOnSuccess(count -> {
+            purchase.setUploadStarted(true);
+            dlHelper.postWithArray(
+                grocyApi.purchaseProduct(purchase.getProductId()),
+                getPurchaseJson(purchase),
+                response -> {
+                  uploadedCount++;
+                  ProductDetailsCacheHelper.invalidate(appDatabase, purchase.getProductId());
+                  delete(
+                      appDatabase.pendingPurchaseDao().deletePendingPurchase(purchase.getId())
+                          .ignoreElement(),
+                      toString()
+                  );
+                  if (listener != null) {
+                    listener.onUploaded(purchase);
+                  }
+                  onSuccess.run();
+                },
+                onError::onError
+            );
+          })
+          .doOnError(throwable -> onError.onError(new VolleyError(throwable)))
+          .onErrorComplete()
+          .subscribe();
+    }
+
+    @Override
+    boolean isIdempotent() {
+      return false;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+      return "PurchaseStep(" + purchase.getProductId() + ", " + purchase.getAmount() + ")";
+    }
+  }
+
+  private JSONObject getPurchaseJson(PendingPurchase purchase) {
+    JSONObject json = new JSONObject();
+    try {
+      json.put("amount", purchase.getAmount());
+      if (NumUtil.isStringDouble(purchase.getPrice())) {
+        json.put("price", purchase.getPrice());
+      }
+      if (purchase.getPurchasedDate() != null) {
+        json.put("purchased_date", purchase.getPurchasedDate());
+      }
+      if (purchase.getBestBeforeDate() != null) {
+        json.put("best_before_date", purchase.getBestBeforeDate());
+      }
+      if (NumUtil.isStringInt(purchase.getStoreId())) {
+        json.put("shopping_location_id", purchase.getStoreId());
+      }
+      if (NumUtil.isStringInt(purchase.getLocationId())) {
+        json.put("location_id", purchase.getLocationId());
+      }
+    } catch (JSONException e) {
+      if (debug) {
+        LogUtil.e(TAG, "getPurchaseJson: " + e);
+      }
+    }
+    return json;
+  }
+
+  private static class PendingData {
+
+    private final List<PendingProduct> pendingProducts;
+    private final List<PendingProductBarcode> barcodes;
+    private final List<PendingPurchase> purchases;
+
+    PendingData(
+        List<PendingProduct> pendingProducts,
+        List<PendingProductBarcode> barcodes,
+        List<PendingPurchase> purchases
+    ) {
+      this.pendingProducts = pendingProducts;
+      this.barcodes = barcodes;
+      this.purchases = purchases;
+    }
+  }
+
+  public interface UploadListener {
+
+    void onUploaded(PendingPurchase purchase);
+
+    void onFinished(int uploadedCount, int failedCount);
+  }
+}
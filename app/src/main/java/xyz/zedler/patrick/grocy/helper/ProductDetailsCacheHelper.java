@@ -0,0 +1,555 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.model.CachedProductDetails;
+import xyz.zedler.patrick.grocy.model.ProductDetails;
+import xyz.zedler.patrick.grocy.model.StockEntry;
+import xyz.zedler.patrick.grocy.model.StockLocation;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+
+/**
+ * Loads the product details of a product, optionally with its stock locations and entries.
+ * The last known details are passed to the listener first, then they are revalidated with the
+ * server and passed again if they changed. Cached details are deleted when a stock transaction
+ * of the product succeeded.
+ *
+ * Details of a product which will probably be selected soon can be prefetched, then they are
+ * served without revalidation if they are selected shortly after.
+ */
+public class ProductDetailsCacheHelper {
+
+  private final static String TAG = ProductDetailsCacheHelper.class.getSimpleName();
+
+  private final static long TTL_MS = 7L * 24 * 60 * 60 * 1000;
+  private final static long FRESH_MS = 60 * 1000;
+  private final static long PREFETCH_DELAY_MS = 400;
+  private final static int PREFETCH_BUDGET = 15;
+
+  // elapsed realtime of the last invalidation per product, guarded by itself
+  private final static HashMap<Integer, Long> invalidationTimes = new HashMap<>();
+
+  private final Application application;
+  private final AppDatabase appDatabase;
+  private final DownloadHelper dlHelper;
+  private final Handler handler;
+  private final Gson gson;
+  private final boolean debug;
+  private Load currentLoad;
+  private DownloadHelper prefetchDlHelper;
+  private Prefetch currentPrefetch;
+  private int prefetchBudget = PREFETCH_BUDGET;
+
+  public ProductDetailsCacheHelper(
+      Application application,
+      DownloadHelper dlHelper,
+      boolean debug
+  ) {
+    this.application = application;
+    this.appDatabase = AppDatabase.getAppDatabase(application);
+    this.dlHelper = dlHelper;
+    this.handler = new Handler(Looper.getMainLooper());
+    this.gson = new Gson();
+    this.debug = debug;
+  }
+
+  /**
+   * @param withStock whether the stock locations and stock entries are needed, too
+   */
+  public void load(int productId, boolean withStock, @NonNull DetailsListener listener) {
+    cancel();
+    Load load = new Load(productId, withStock, listener);
+    currentLoad = load;
+    Prefetch prefetch = currentPrefetch;
+    if (prefetch != null && prefetch.isRunning() && prefetch.covers(productId, withStock)) {
+      // the prefetch of exactly this product is already on its way
+      prefetch.waitingLoad = load;
+      return;
+    }
+    cancelPrefetch();
+    appDatabase.cachedProductDetailsDao().getCachedProductDetails(productId)
+        .map(cachedList -> {
+          List<Details> details = new ArrayList<>();
+          if (!cachedList.isEmpty() && isUsable(cachedList.get(0), withStock)) {
+            details.add(fromCache(cachedList.get(0)));
+          }
+          return details;
+        })
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doOnSuccess(details -> {
+          if (!details.isEmpty()) {
+            load.onDetails(details.get(0), true);
+            if (details.get(0).isFresh()) {
+              return;
+            }
+          }
+          load.revalidate();
+        })
+        .doOnError(throwable -> {
+          if (debug) {
+            LogUtil.e(TAG, "load: " + throwable);
+          }
+          load.revalidate();
+        })
+        .onErrorComplete()
+        .subscribe();
+  }
+
+  /**
+   * The listener of the current load won't be called anymore.
+   */
+  public void cancel() {
+    if (currentLoad != null) {
+      currentLoad.isCancelled = true;
+      currentLoad = null;
+    }
+  }
+
+  /**
+   * Downloads and caches the details of a product which will probably be selected soon, e.g. the
+   * best match of the product name input. The download starts after a short delay and replaces
+   * the prefetch of another product. Only a limited number of prefetches is downloaded per
+   * helper, details which are still fresh in the cache are not downloaded again.
+   */
+  public void prefetch(int productId, boolean withStock) {
+    if (currentPrefetch != null && currentPrefetch.covers(productId, withStock)) {
+      return;
+    }
+    cancelPrefetch();
+    if (prefetchBudget <= 0) {
+      return;
+    }
+    Prefetch prefetch = new Prefetch(productId, withStock);
+    currentPrefetch = prefetch;
+    handler.postDelayed(prefetch, PREFETCH_DELAY_MS);
+  }
+
+  public void cancelPrefetch() {
+    if (currentPrefetch != null) {
+      currentPrefetch.cancel();
+      currentPrefetch = null;
+    }
+  }
+
+  /**
+   * Cancels the prefetches, must be called when the owner is cleared.
+   */
+  public void destroy() {
+    cancel();
+    cancelPrefetch();
+    if (prefetchDlHelper != null) {
+      prefetchDlHelper.destroy();
+    }
+  }
+
+  /**
+   * Deletes the cached details of the product, must be called after each successful stock
+   * transaction of it. Revalidations which were started before won't store their result.
+   */
+  public static void invalidate(Application application, int productId) {
+    invalidate(AppDatabase.getAppDatabase(application), productId);
+  }
+
+  public static void invalidate(AppDatabase appDatabase, int productId) {
+    long time = SystemClock.elapsedRealtime();
+    Completable.fromAction(() -> {
+      synchronized (invalidationTimes) {
+        invalidationTimes.put(productId, time);
+        appDatabase.cachedProductDetailsDao().deleteCachedProductDetails(productId).blockingGet();
+      }
+    }).subscribeOn(Schedulers.io())
+        .onErrorComplete()
+        .subscribe();
+  }
+
+  public static void invalidate(Application application, List<Integer> productIds) {
+    AppDatabase appDatabase = AppDatabase.getAppDatabase(application);
+    long time = SystemClock.elapsedRealtime();
+    Completable.fromAction(() -> {
+      synchronized (invalidationTimes) {
+        for (int productId : productIds) {
+          invalidationTimes.put(productId, time);
+        }
+        // chunked because of the limit of bound variables in older SQLite versions
+        for (int i = 0; i < productIds.size(); i += 500) {
+          appDatabase.cachedProductDetailsDao().deleteCachedProductDetailsOfProducts(
+              productIds.subList(i, Math.min(i + 500, productIds.size()))
+          ).blockingGet();
+        }
+      }
+    }).subscribeOn(Schedulers.io())
+        .onErrorComplete()
+        .subscribe();
+  }
+
+  private void store(Details details, long loadStartTime) {
+    long now = System.currentTimeMillis();
+    CachedProductDetails cached = new CachedProductDetails(
+        details.productId,
+        details.productDetailsJson,
+        details.stockLocationsJson,
+        details.stockEntriesJson,
+        now
+    );
+    Completable.fromAction(() -> {
+      synchronized (invalidationTimes) {
+        Long invalidationTime = invalidationTimes.get(details.productId);
+        if (invalidationTime != null && invalidationTime >= loadStartTime) {
+          return;
+        }
+        appDatabase.cachedProductDetailsDao().insertCachedProductDetails(cached).blockingGet();
+      }
+      appDatabase.cachedProductDetailsDao().deleteCachedProductDetailsOlderThan(now - TTL_MS)
+          .blockingGet();
+    }).subscribeOn(Schedulers.io())
+        .doOnError(throwable -> {
+          if (debug) {
+            LogUtil.e(TAG, "store: " + throwable);
+          }
+        })
+        .onErrorComplete()
+        .subscribe();
+  }
+
+  private static boolean isFresh(long timestamp) {
+    long age = System.currentTimeMillis() - timestamp;
+    return age >= 0 && age < FRESH_MS;
+  }
+
+  private static boolean isUsable(CachedProductDetails cached, boolean withStock) {
+    long age = System.currentTimeMillis() - cached.getTimestamp();
+    if (age < 0 || age >= TTL_MS || cached.getProductDetails() == null) {
+      return false;
+    }
+    return !withStock || cached.getStockLocations() != null && cached.getStockEntries() != null;
+  }
+
+  private Details fromCache(CachedProductDetails cached) {
+    ProductDetails productDetails = gson.fromJson(
+        cached.getProductDetails(), ProductDetails.class
+    );
+    ArrayList<StockLocation> stockLocations = null;
+    ArrayList<StockEntry> stockEntries = null;
+    if (cached.getStockLocations() != null) {
+      stockLocations = gson.fromJson(
+          cached.getStockLocations(), new TypeToken<ArrayList<StockLocation>>() {}.getType()
+      );
+    }
+    if (cached.getStockEntries() != null) {
+      stockEntries = gson.fromJson(
+          cached.getStockEntries(), new TypeToken<ArrayList<StockEntry>>() {}.getType()
+      );
+    }
+    return new Details(
+        cached.getProductId(),
+        productDetails,
+        stockLocations,
+        stockEntries,
+        cached.getProductDetails(),
+        cached.getStockLocations(),
+        cached.getStockEntries(),
+        cached.getTimestamp()
+    );
+  }
+
+  private Details fromDownload(
+      int productId,
+      ProductDetails productDetails,
+      @Nullable ArrayList<StockLocation> stockLocations,
+      @Nullable ArrayList<StockEntry> stockEntries
+  ) {
+    return new Details(
+        productId,
+        productDetails,
+        stockLocations,
+        stockEntries,
+        gson.toJson(productDetails),
+        stockLocations != null ? gson.toJson(stockLocations) : null,
+        stockEntries != null ? gson.toJson(stockEntries) : null,
+        System.currentTimeMillis()
+    );
+  }
+
+  private class Prefetch implements Runnable {
+
+    private final int productId;
+    private final boolean withStock;
+    private final long startTime;
+    private DownloadHelper.Queue queue;
+    private boolean isCancelled;
+    private Load waitingLoad;
+
+    private ProductDetails productDetails;
+    private ArrayList<StockLocation> stockLocations;
+    private ArrayList<StockEntry> stockEntries;
+
+    Prefetch(int productId, boolean withStock) {
+      this.productId = productId;
+      this.withStock = withStock;
+      this.startTime = SystemClock.elapsedRealtime();
+    }
+
+    boolean covers(int productId, boolean withStock) {
+      return this.productId == productId && (this.withStock || !withStock);
+    }
+
+    boolean isRunning() {
+      return queue != null && !isCancelled;
+    }
+
+    @Override
+    public void run() {
+      if (isCancelled) {
+        return;
+      }
+      appDatabase.cachedProductDetailsDao().getCachedProductDetails(productId)
+          .subscribeOn(Schedulers.io())
+          .observeOn(AndroidSchedulers.mainThread())
+          .doOnSuccess(cachedList -> {
+            CachedProductDetails cached = !cachedList.isEmpty() ? cachedList.get(0) : null;
+            if (cached != null && isUsable(cached, withStock) && isFresh(cached.getTimestamp())) {
+              finish();
+            } else {
+              download();
+            }
+          })
+          .onErrorComplete()
+          .subscribe();
+    }
+
+    private void download() {
+      if (isCancelled || prefetchBudget <= 0) {
+        finish();
+        return;
+      }
+      prefetchBudget--;
+      LogUtil.i(TAG, "prefetch: product %d, %d left", productId, prefetchBudget);
+      if (prefetchDlHelper == null) {
+        // a prefetch should not show the loading indicator of the form
+        prefetchDlHelper = new DownloadHelper(application, TAG, null);
+      }
+      queue = prefetchDlHelper.newQueue(this::onDownloaded, error -> {
+        if (debug) {
+          LogUtil.e(TAG, "prefetch: " + error);
+        }
+        Load load = waitingLoad;
+        finish();
+        if (load != null) {
+          load.revalidate();
+        }
+      });
+      queue.append(prefetchDlHelper.getProductDetails(
+          productId, details -> productDetails = details
+      ));
+      if (withStock) {
+        queue.append(
+            prefetchDlHelper.getStockLocations(productId, locations -> stockLocations = locations),
+            prefetchDlHelper.getStockEntries(productId, entries -> stockEntries = entries)
+        );
+      }
+      queue.start();
+    }
+
+    private void onDownloaded() {
+      Load load = waitingLoad;
+      finish();
+      if (productDetails == null) {
+        if (load != null) {
+          load.revalidate();
+        }
+        return;
+      }
+      Details details = fromDownload(productId, productDetails, stockLocations, stockEntries);
+      store(details, startTime);
+      if (load != null) {
+        load.onDetails(details, false);
+      }
+    }
+
+    private void finish() {
+      isCancelled = true;
+      if (currentPrefetch == this) {
+        currentPrefetch = null;
+      }
+    }
+
+    void cancel() {
+      isCancelled = true;
+      handler.removeCallbacks(this);
+      if (queue != null) {
+        queue.reset(true);
+      }
+      Load load = waitingLoad;
+      waitingLoad = null;
+      if (load != null) {
+        load.revalidate();
+      }
+    }
+  }
+
+  private class Load {
+
+    private final int productId;
+    private final boolean withStock;
+    private final DetailsListener listener;
+    private final long startTime;
+    private Details delivered;
+    private boolean isCancelled;
+
+    private ProductDetails productDetails;
+    private ArrayList<StockLocation> stockLocations;
+    private ArrayList<StockEntry> stockEntries;
+
+    Load(int productId, boolean withStock, DetailsListener listener) {
+      this.productId = productId;
+      this.withStock = withStock;
+      this.listener = listener;
+      this.startTime = SystemClock.elapsedRealtime();
+    }
+
+    void revalidate() {
+      if (isCancelled) {
+        return;
+      }
+      DownloadHelper.Queue queue = dlHelper.newQueue(this::onRevalidated, error -> {
+        if (debug) {
+          LogUtil.e(TAG, "revalidate: " + error);
+        }
+        // the cached details stay in use if the server is not reachable
+        if (!isCancelled && delivered == null) {
+          listener.onError();
+        }
+      });
+      queue.append(dlHelper.getProductDetails(productId, details -> productDetails = details));
+      if (withStock) {
+        queue.append(
+            dlHelper.getStockLocations(productId, locations -> stockLocations = locations),
+            dlHelper.getStockEntries(productId, entries -> stockEntries = entries)
+        );
+      }
+      queue.start();
+    }
+
+    private void onRevalidated() {
+      if (productDetails == null) {
+        return;
+      }
+      Details details = fromDownload(productId, productDetails, stockLocations, stockEntries);
+      store(details, startTime);
+      onDetails(details, false);
+    }
+
+    void onDetails(Details details, boolean isCached) {
+      if (isCancelled) {
+        return;
+      }
+      if (delivered == null) {
+        delivered = details;
+        listener.onDetails(details, false);
+      } else if (!isCached && !delivered.isSameAs(details)) {
+        LogUtil.i(TAG, "onDetails: cached details of product %d changed", productId);
+        delivered = details;
+        listener.onDetails(details, true);
+      }
+    }
+  }
+
+  public static class Details {
+
+    private final int productId;
+    private final ProductDetails productDetails;
+    private final ArrayList<StockLocation> stockLocations;
+    private final ArrayList<StockEntry> stockEntries;
+    private final String productDetailsJson;
+    private final String stockLocationsJson;
+    private final String stockEntriesJson;
+    private final long timestamp;
+
+    Details(
+        int productId,
+        ProductDetails productDetails,
+        @Nullable ArrayList<StockLocation> stockLocations,
+        @Nullable ArrayList<StockEntry> stockEntries,
+        String productDetailsJson,
+        @Nullable String stockLocationsJson,
+        @Nullable String stockEntriesJson,
+        long timestamp
+    ) {
+      this.productId = productId;
+      this.productDetails = productDetails;
+      this.stockLocations = stockLocations;
+      this.stockEntries = stockEntries;
+      this.productDetailsJson = productDetailsJson;
+      this.stockLocationsJson = stockLocationsJson;
+      this.stockEntriesJson = stockEntriesJson;
+      this.timestamp = timestamp;
+    }
+
+    public ProductDetails getProductDetails() {
+      return productDetails;
+    }
+
+    public ArrayList<StockLocation> getStockLocations() {
+      return stockLocations;
+    }
+
+    public ArrayList<StockEntry> getStockEntries() {
+      return stockEntries;
+    }
+
+    boolean isFresh() {
+      return ProductDetailsCacheHelper.isFresh(timestamp);
+    }
+
+    boolean isSameAs(Details other) {
+      return productDetailsJson.equals(other.productDetailsJson)
+          && Objects.equals(stockLocationsJson, other.stockLocationsJson)
+          && Objects.equals(stockEntriesJson, other.stockEntriesJson);
+    }
+  }
+
+  public interface DetailsListener {
+
+    /**
+     * Called with the cached details if there are any, otherwise with the downloaded ones.
+     * Called again with isRevalidation set if the downloaded details differ from the cached.
+     */
+    void onDetails(Details details, boolean isRevalidation);
+
+    void onError();
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import androidx.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.QuantityUnit;
+import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
+
+/**
+ * Resolves the factors of all quantity units which can be converted to the stock unit of a
+ * product, also over several conversions. Product specific conversions win over default
+ * conversions (without product) between the same units. The factors of a product are computed
+ * once per data version and then looked up by unit id.
+ */
+public class QuantityUnitConversionHelper {
+
+  private final HashMap<Integer, QuantityUnit> quantityUnits;
+  private final List<QuantityUnitConversion> defaultConversions;
+  private final HashMap<Integer, List<QuantityUnitConversion>> productConversions;
+  private final HashMap<Integer, ProductFactors> factorsCache;
+
+  public QuantityUnitConversionHelper() {
+    quantityUnits = new HashMap<>();
+    defaultConversions = new ArrayList<>();
+    productConversions = new HashMap<>();
+    factorsCache = new HashMap<>();
+  }
+
+  public void setQuantityUnits(@Nullable List<QuantityUnit> quantityUnits) {
+    this.quantityUnits.clear();
+    if (quantityUnits != null) {
+      for (QuantityUnit quantityUnit : quantityUnits) {
+        this.quantityUnits.put(quantityUnit.getId(), quantityUnit);
+      }
+    }
+    factorsCache.clear();
+  }
+
+  public void setConversions(@Nullable List<QuantityUnitConversion> conversions) {
+    defaultConversions.clear();
+    productConversions.clear();
+    if (conversions != null) {
+      for (QuantityUnitConversion conversion : conversions) {
+        if (conversion.getFactor() <= 0) {
+          continue;
+        }
+        if (conversion.getProductId() == 0) {
+          defaultConversions.add(conversion);
+          continue;
+        }
+        List<QuantityUnitConversion> list = productConversions.get(conversion.getProductId());
+        if (list == null) {
+          list = new ArrayList<>();
+          productConversions.put(conversion.getProductId(), list);
+        }
+        list.add(conversion);
+      }
+    }
+    factorsCache.clear();
+  }
+
+  @Nullable
+  public QuantityUnit getQuantityUnit(int id) {
+    return quantityUnits.get(id);
+  }
+
+  /**
+   * Returns how many stock units one unit of the given quantity unit is, or null if the unit
+   * can't be converted to the stock unit of the product.
+   */
+  @Nullable
+  public Double getFactorToStock(Product product, int quId) {
+    return getFactors(product).toStock.get(quId);
+  }
+
+  /**
+   * Returns the factors in the form which the form data classes expect: -1 for the stock unit,
+   * the stock amount of one purchase unit for the purchase unit and the amount of the unit in one
+   * stock unit for all other units. Null if the stock or purchase unit is unknown.
+   */
+  @Nullable
+  public HashMap<QuantityUnit, Double> getUnitFactors(Product product) {
+    QuantityUnit stock = quantityUnits.get(product.getQuIdStockInt());
+    QuantityUnit purchase = quantityUnits.get(product.getQuIdPurchaseInt());
+    if (stock == null || purchase == null) {
+      return null;
+    }
+    HashMap<QuantityUnit, Double> unitFactors = new HashMap<>();
+    for (Map.Entry<Integer, Double> entry : getFactors(product).toStock.entrySet()) {
+      QuantityUnit unit = quantityUnits.get(entry.getKey());
+      if (unit == null) {
+        continue;
+      }
+      if (unit.getId() == stock.getId()) {
+        unitFactors.put(unit, (double) -1);
+      } else if (unit.getId() == purchase.getId()) {
+        unitFactors.put(unit, entry.getValue());
+      } else {
+        unitFactors.put(unit, 1 / entry.getValue());
+      }
+    }
+    if (!unitFactors.containsKey(purchase)) {
+      unitFactors.put(purchase, product.getQuFactorPurchaseToStockDouble());
+    }
+    return unitFactors;
+  }
+
+  private ProductFactors getFactors(Product product) {
+    ProductFactors factors = factorsCache.get(product.getId());
+    if (factors == null || !factors.isFor(product)) {
+      factors = computeFactors(product);
+      factorsCache.put(product.getId(), factors);
+    }
+    return factors;
+  }
+
+  private ProductFactors computeFactors(Product product) {
+    int stockId = product.getQuIdStockInt();
+    int purchaseId = product.getQuIdPurchaseInt();
+    double purchaseFactor = product.getQuFactorPurchaseToStockDouble();
+
+    // edges in both directions, product conversions replace default ones of the same units
+    HashMap<Long, Edge> edges = new HashMap<>();
+    for (QuantityUnitConversion conversion : defaultConversions) {
+      putEdge(edges, conversion.getFromQuId(), conversion.getToQuId(), conversion.getFactor());
+    }
+    List<QuantityUnitConversion> conversions = productConversions.get(product.getId());
+    if (conversions != null) {
+      for (QuantityUnitConversion conversion : conversions) {
+        putEdge(edges, conversion.getFromQuId(), conversion.getToQuId(), conversion.getFactor());
+      }
+    }
+    if (purchaseId != stockId && purchaseFactor > 0) {
+      putEdge(edges, purchaseId, stockId, purchaseFactor);
+    }
+    HashMap<Integer, List<Edge>> adjacency = new HashMap<>();
+    for (Edge edge : edges.values()) {
+      addAdjacent(adjacency, edge.fromId, edge);
+      addAdjacent(adjacency, edge.toId, edge);
+    }
+
+    // breadth-first, so the shortest conversion path determines the factor
+    HashMap<Integer, Double> toStock = new HashMap<>();
+    toStock.put(stockId, 1d);
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    queue.add(stockId);
+    while (!queue.isEmpty()) {
+      int quId = queue.poll();
+      double factor = toStock.get(quId);
+      List<Edge> adjacent = adjacency.get(quId);
+      if (adjacent == null) {
+        continue;
+      }
+      for (Edge edge : adjacent) {
+        // one "from" unit is factor "to" units
+        int otherId = edge.fromId == quId ? edge.toId : edge.fromId;
+        if (toStock.containsKey(otherId)) {
+          continue;
+        }
+        toStock.put(otherId, edge.fromId == quId ? factor / edge.factor : factor * edge.factor);
+        queue.add(otherId);
+      }
+    }
+    return new ProductFactors(stockId, purchaseId, purchaseFactor, toStock);
+  }
+
+  private static void putEdge(HashMap<Long, Edge> edges, int fromId, int toId, double factor) {
+    if (fromId == toId) {
+      return;
+    }
+    long key = ((long) Math.min(fromId, toId) << 32) | (Math.max(fromId, toId) & 0xffffffffL);
+    edges.put(key, new Edge(fromId, toId, factor));
+  }
+
+  private static void addAdjacent(HashMap<Integer, List<Edge>> adjacency, int quId, Edge edge) {
+    List<Edge> list = adjacency.get(quId);
+    if (list == null) {
+      list = new ArrayList<>();
+      adjacency.put(quId, list);
+    }
+    list.add(edge);
+  }
+
+  private static class Edge {
+
+    private final int fromId;
+    private final int toId;
+    private final double factor;
+
+    Edge(int fromId, int toId, double factor) {
+      this.fromId = fromId;
+      this.toId = toId;
+      this.factor = factor;
+    }
+  }
+
+  private static class ProductFactors {
+
+    private final int stockId;
+    private final int purchaseId;
+    private final double purchaseFactor;
+    private final HashMap<Integer, Double> toStock;
+
+    ProductFactors(
+        int stockId,
+        int purchaseId,
+        double purchaseFactor,
+        HashMap<Integer, Double> toStock
+    ) {
+      this.stockId = stockId;
+      this.purchaseId = purchaseId;
+      this.purchaseFactor = purchaseFactor;
+      this.toStock = toStock;
+    }
+
+    boolean isFor(Product product) {
+      return stockId == product.getQuIdStockInt()
+          && purchaseId == product.getQuIdPurchaseInt()
+          && purchaseFactor == product.getQuFactorPurchaseToStockDouble();
+    }
+  }
+}
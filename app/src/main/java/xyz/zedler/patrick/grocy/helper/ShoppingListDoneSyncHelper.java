@@ -0,0 +1,265 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.app.Application;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceManager;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.json.JSONException;
+import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+
+/**
+ * Write-behind buffer for the done status of shopping list items. A toggle is written to the
+ * database immediately with doneSynced holding the status on the server, so the UI can update
+ * at once and the sync in downloadData uploads the change later if the app is closed before.
+ * All toggles within a short window are uploaded together, only the latest status of an item is
+ * sent and an item which was toggled back to its status on the server is not sent at all.
+ * Failed uploads are retried with backoff and paused while the device is offline.
+ */
+public class ShoppingListDoneSyncHelper {
+
+  private final static String TAG = ShoppingListDoneSyncHelper.class.getSimpleName();
+
+  private final static int FLUSH_DELAY_MS = 1500;
+  private final static int MAX_ATTEMPTS = 4;
+  private final static int RETRY_DELAY_MS = 2000;
+
+  private final DownloadHelper dlHelper;
+  private final AppDatabase appDatabase;
+  private final SharedPreferences sharedPrefs;
+  private final Handler handler;
+  private final boolean debug;
+  private final HashMap<Integer, ShoppingListItem> bufferedItems;
+  private final HashMap<Integer, ShoppingListItem> sendingItems;
+  private final Runnable flushRunnable;
+  private DoneSyncListener listener;
+  private int attempts;
+  private boolean isFlushScheduled;
+  private boolean isOffline;
+
+  public ShoppingListDoneSyncHelper(Application application, boolean debug) {
+    // own instance, so that the buffer can still be flushed after the view model was cleared
+    this.dlHelper = new DownloadHelper(application, TAG, null);
+    this.appDatabase = AppDatabase.getAppDatabase(application);
+    this.sharedPrefs = PreferenceManager.getDefaultSharedPreferences(application);
+    this.handler = new Handler(Looper.getMainLooper());
+    this.debug = debug;
+    bufferedItems = new HashMap<>();
+    sendingItems = new HashMap<>();
+    flushRunnable = () -> {
+      isFlushScheduled = false;
+      flush();
+    };
+  }
+
+  public void setListener(@Nullable DoneSyncListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Toggles the done status, persists it and schedules the upload. A pending toggle of the item
+   * is the base instead of the given item, because the displayed item can be older if the item
+   * was tapped again before the list was updated.
+   *
+   * @return the toggled item which should be displayed immediately
+   */
+  public ShoppingListItem toggleDoneStatus(ShoppingListItem listItem) {
+    ShoppingListItem pendingItem = bufferedItems.get(listItem.getId());
+    if (pendingItem == null) {
+      pendingItem = sendingItems.get(listItem.getId());
+    }
+    ShoppingListItem item = (pendingItem != null ? pendingItem : listItem).getClone();
+    if (item.getDoneSynced() == -1) {
+      item.setDoneSynced(item.getDoneInt());
+    }
+    item.setDone(item.getDoneInt() == 0 ? 1 : 0);
+
+    bufferedItems.put(item.getId(), item);
+    persist(item);
+    sharedPrefs.edit()
+        .putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, null).apply();
+
+    attempts = 0;
+    scheduleFlush(FLUSH_DELAY_MS);
+    return item;
+  }
+
+  public boolean hasPendingToggle(int itemId) {
+    return bufferedItems.containsKey(itemId) || sendingItems.containsKey(itemId);
+  }
+
+  public void onConnectivityChanged(boolean isOnline) {
+    boolean wasOffline = isOffline;
+    isOffline = !isOnline;
+    if (isOnline && wasOffline && !bufferedItems.isEmpty()) {
+      attempts = 0;
+      scheduleFlush(0);
+    }
+  }
+
+  /**
+   * Uploads the buffered toggles without waiting for the end of the window, e.g. when the
+   * screen is left.
+   */
+  public void flushNow() {
+    handler.removeCallbacks(flushRunnable);
+    isFlushScheduled = false;
+    flush();
+  }
+
+  private void scheduleFlush(long delayMs) {
+    if (isFlushScheduled) {
+      return;
+    }
+    isFlushScheduled = true;
+    handler.postDelayed(flushRunnable, delayMs);
+  }
+
+  private void flush() {
+    if (isOffline || bufferedItems.isEmpty() || !sendingItems.isEmpty()) {
+      return;  // the end of the running upload flushes again
+    }
+    ArrayList<ShoppingListItem> unchangedItems = new ArrayList<>();
+    for (ShoppingListItem item : new ArrayList<>(bufferedItems.values())) {
+      bufferedItems.remove(item.getId());
+      if (item.getDoneInt() == item.getDoneSynced()) {
+        item.setDoneSynced(-1);  // toggled back before it was uploaded
+        unchangedItems.add(item);
+      } else {
+        sendingItems.put(item.getId(), item);
+      }
+    }
+    if (!unchangedItems.isEmpty()) {
+      persist(unchangedItems);
+    }
+    if (sendingItems.isEmpty()) {
+      return;
+    }
+    if (debug) {
+      LogUtil.i(TAG, "flush: uploading " + sendingItems.size() + " items");
+    }
+    attempts++;
+    ArrayList<ShoppingListItem> syncedItems = new ArrayList<>();
+    ArrayList<ShoppingListItem> failedItems = new ArrayList<>();
+    for (ShoppingListItem item : new ArrayList<>(sendingItems.values())) {
+      JSONObject body = new JSONObject();
+      try {
+        body.put("done", item.getDoneInt());
+      } catch (JSONException e) {
+        if (debug) {
+          LogUtil.e(TAG, "flush: " + e);
+        }
+      }
+      dlHelper.editShoppingListItem(
+          item.getId(),
+          body,
+          response -> onItemUploaded(item, true, syncedItems, failedItems),
+          error -> {
+            if (debug) {
+              LogUtil.e(TAG, "flush: " + item.getId() + ": " + error);
+            }
+            onItemUploaded(item, false, syncedItems, failedItems);
+          }
+      ).perform(dlHelper.getUuid());
+    }
+  }
+
+  private void onItemUploaded(
+      ShoppingListItem item,
+      boolean success,
+      List<ShoppingListItem> syncedItems,
+      List<ShoppingListItem> failedItems
+  ) {
+    (success ? syncedItems : failedItems).add(item);
+    if (syncedItems.size() + failedItems.size() < sendingItems.size()) {
+      return;
+    }
+    sendingItems.clear();
+
+    ArrayList<ShoppingListItem> itemsToPersist = new ArrayList<>();
+    for (ShoppingListItem synced : syncedItems) {
+      ShoppingListItem newerItem = bufferedItems.get(synced.getId());
+      if (newerItem != null) {  // toggled again during the upload
+        newerItem.setDoneSynced(synced.getDoneInt());
+      } else {
+        synced.setDoneSynced(-1);
+        itemsToPersist.add(synced);
+      }
+    }
+    if (!itemsToPersist.isEmpty()) {
+      persist(itemsToPersist);
+    }
+    for (ShoppingListItem failed : failedItems) {
+      if (!bufferedItems.containsKey(failed.getId())) {
+        bufferedItems.put(failed.getId(), failed);
+      }
+    }
+
+    if (failedItems.isEmpty()) {
+      attempts = 0;
+      if (listener != null && !itemsToPersist.isEmpty()) {
+        listener.onSynced(itemsToPersist);
+      }
+      if (!bufferedItems.isEmpty()) {
+        scheduleFlush(FLUSH_DELAY_MS);
+      }
+    } else if (attempts < MAX_ATTEMPTS) {
+      scheduleFlush((long) RETRY_DELAY_MS << (attempts - 1));
+    } else {
+      // the toggles stay in the database and are uploaded with the next full sync
+      attempts = 0;
+      bufferedItems.clear();
+      if (listener != null) {
+        listener.onSyncFailed();
+      }
+    }
+  }
+
+  // single thread, so that the writes of one item are applied in the order of the toggles
+  private void persist(ShoppingListItem item) {
+    appDatabase.trackCommit(appDatabase.shoppingListItemDao().insertShoppingListItems(item))
+        .subscribeOn(Schedulers.single())
+        .subscribe();
+  }
+
+  private void persist(List<ShoppingListItem> items) {
+    appDatabase.trackCommit(appDatabase.shoppingListItemDao().insertShoppingListItems(items))
+        .subscribeOn(Schedulers.single())
+        .subscribe();
+  }
+
+  public interface DoneSyncListener {
+
+    void onSynced(List<ShoppingListItem> syncedItems);
+
+    void onSyncFailed();
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.app.Application;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import java.security.NoSuchAlgorithmException;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import org.conscrypt.Conscrypt;
+import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+import xyz.zedler.patrick.grocy.web.RequestQueueSingleton;
+
+/**
+ * Runs the initialization which is not needed for the first frame in the background and records
+ * how long the phases of the app start took, relative to the start of the process.
+ */
+public class StartupHelper {
+
+  private final static String TAG = StartupHelper.class.getSimpleName();
+
+  private static final long classLoadTime = SystemClock.elapsedRealtime();
+  private static final CountDownLatch securityProviderLatch = new CountDownLatch(1);
+  private static final ArrayList<Phase> phases = new ArrayList<>();
+  private static boolean isStarted = false;
+  private static boolean debug = false;
+
+  /**
+   * Installs Conscrypt, creates the request queue and opens the database on a background thread.
+   * Only the first call per process has an effect.
+   */
+  public static synchronized void startBackgroundInit(Application application, boolean debug) {
+    if (isStarted) {
+      return;
+    }
+    isStarted = true;
+    StartupHelper.debug = debug;
+    Completable.fromAction(() -> {
+      insertConscrypt();
+      securityProviderLatch.countDown();
+      mark("conscrypt");
+
+      RequestQueueSingleton.getInstance(application);
+      mark("request queue");
+
+      AppDatabase.getAppDatabase(application).getOpenHelper().getWritableDatabase();
+      mark("database open");
+    }).subscribeOn(Schedulers.io())
+        .subscribe(() -> {}, throwable -> {
+          securityProviderLatch.countDown();
+          LogUtil.e(TAG, "startBackgroundInit: " + throwable);
+        });
+  }
+
+  /**
+   * Blocks until Conscrypt is installed, must be called before TLS sockets are created. Returns
+   * immediately if the background initialization was never started, e.g. in a widget process.
+   */
+  public static void awaitSecurityProvider() {
+    synchronized (StartupHelper.class) {
+      if (!isStarted) {
+        return;
+      }
+    }
+    try {
+      securityProviderLatch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public static void mark(@NonNull String phase) {
+    long time = SystemClock.elapsedRealtime() - getStartTime();
+    synchronized (phases) {
+      phases.add(new Phase(phase, Thread.currentThread().getName(), time));
+    }
+    if (debug) {
+      LogUtil.i(TAG, "mark: " + phase + " after " + time + " ms");
+    }
+  }
+
+  /**
+   * One line per recorded phase, in the order they were reached.
+   */
+  @NonNull
+  public static String getTrace() {
+    StringBuilder builder = new StringBuilder();
+    synchronized (phases) {
+      for (Phase phase : phases) {
+        if (builder.length() > 0) {
+          builder.append('\n');
+        }
+        builder.append(String.format(
+            Locale.ENGLISH, "%5d ms  %s (%s)", phase.time, phase.name, phase.thread
+        ));
+      }
+    }
+    return builder.toString();
+  }
+
+  private static long getStartTime() {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+      return Process.getStartElapsedRealtime();
+    }
+    return classLoadTime;
+  }
+
+  private static void insertConscrypt() {
+    Security.insertProviderAt(Conscrypt.newProvider(), 1);
+    if (!debug) {
+      return;
+    }
+    try {
+      Conscrypt.Version version = Conscrypt.version();
+      LogUtil.i(TAG, "insertConscrypt: Using Conscrypt/" + version.major() + "."
+          + version.minor() + "." + version.patch() + " for TLS");
+      SSLEngine engine = SSLContext.getDefault().createSSLEngine();
+      LogUtil.i(TAG, "Enabled protocols: "
+          + Arrays.toString(engine.getEnabledProtocols()) + " }");
+      LogUtil.i(TAG, "Enabled ciphers: "
+          + Arrays.toString(engine.getEnabledCipherSuites()) + " }");
+    } catch (NoSuchAlgorithmException e) {
+      LogUtil.e(TAG, "insertConscrypt: NoSuchAlgorithmException");
+      LogUtil.e(TAG, e.getMessage() != null ? e.getMessage() : e.toString());
+    }
+  }
+
+  private static class Phase {
+
+    private final String name;
+    private final String thread;
+    private final long time;
+
+    Phase(String name, String thread, long time) {
+      this.name = name;
+      this.thread = thread;
+      this.time = time;
+    }
+  }
+}
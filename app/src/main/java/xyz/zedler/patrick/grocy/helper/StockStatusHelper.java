@@ -0,0 +1,286 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.helper;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.NonNull;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import xyz.zedler.patrick.grocy.model.MissingItem;
+import xyz.zedler.patrick.grocy.model.Product;
+import xyz.zedler.patrick.grocy.model.StockItem;
+import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.STOCK;
+import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.NumUtil;
+
+/**
+ * Computes the due, overdue, expired and missing status of stock items on the device, with the
+ * same rules as the /stock/volatile endpoint of the server.
+ */
+public class StockStatusHelper {
+
+  private final SharedPreferences sharedPrefs;
+  private final Handler handler;
+  private Runnable midnightRunnable;
+  private Runnable onDayChanged;
+  private int statusEpochDay = DateUtil.NO_EPOCH_DAY;
+  private String dueSoonDaysString;
+  private int dueSoonDays;
+
+  public StockStatusHelper(SharedPreferences sharedPrefs) {
+    this.sharedPrefs = sharedPrefs;
+    this.handler = new Handler(Looper.getMainLooper());
+  }
+
+  /**
+   * The setting is stored as string, it is only parsed again after it was changed.
+   */
+  public int getDueSoonDays() {
+    String days = sharedPrefs.getString(STOCK.DUE_SOON_DAYS, SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS);
+    if (days != null && days.equals(dueSoonDaysString)) {
+      return dueSoonDays;
+    }
+    if (NumUtil.isStringInt(days)) {
+      dueSoonDays = Integer.parseInt(days);
+    } else {
+      dueSoonDays = Integer.parseInt(SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS);
+    }
+    dueSoonDaysString = days;
+    return dueSoonDays;
+  }
+
+  /**
+   * Updates all status flags of the given stock items and appends stock items for missing
+   * products which are not in stock at all. Stock items which were appended by an earlier
+   * evaluation are replaced.
+   */
+  public StockStatus updateStatus(
+      @NonNull List<StockItem> stockItems,
+      @NonNull HashMap<Integer, Product> productHashMap
+  ) {
+    Iterator<StockItem> iterator = stockItems.iterator();
+    while (iterator.hasNext()) {
+      StockItem stockItem = iterator.next();
+      if (stockItem.isItemMissing() && !stockItem.isItemMissingAndPartlyInStock()) {
+        iterator.remove();
+      }
+    }
+
+    HashMap<Integer, StockItem> stockItemHashMap = new HashMap<>();
+    for (StockItem stockItem : stockItems) {
+      stockItemHashMap.put(stockItem.getProductId(), stockItem);
+      stockItem.setItemMissing(false);
+      stockItem.setItemMissingAndPartlyInStock(false);
+    }
+
+    ArrayList<MissingItem> missingItems = new ArrayList<>();
+    for (Product product : productHashMap.values()) {
+      double minStockAmount = product.getMinStockAmountDouble();
+      if (!product.isActive() || minStockAmount <= 0) {
+        continue;
+      }
+      StockItem stockItem = stockItemHashMap.get(product.getId());
+      double amount = 0;
+      if (stockItem != null) {
+        boolean aggregated = product.getAccumulateSubProductsMinStockAmountBoolean();
+        amount = aggregated ? stockItem.getAmountAggregatedDouble() : stockItem.getAmountDouble();
+        if (product.getTreatOpenedAsOutOfStockBoolean()) {
+          amount -= aggregated
+              ? stockItem.getAmountOpenedAggregatedDouble()
+              : stockItem.getAmountOpenedDouble();
+        }
+      }
+      if (amount >= minStockAmount) {
+        continue;
+      }
+      boolean partlyInStock = stockItem != null && stockItem.getAmountDouble() > 0;
+
+      MissingItem missingItem = new MissingItem();
+      missingItem.setId(product.getId());
+      missingItem.setName(product.getName());
+      missingItem.setAmountMissing(NumUtil.trim(minStockAmount - amount));
+      missingItem.setIsPartlyInStock(partlyInStock ? "1" : "0");
+      missingItems.add(missingItem);
+
+      if (stockItem == null) {
+        stockItem = new StockItem(product);
+        stockItems.add(stockItem);
+      }
+      stockItem.setItemMissing(true);
+      stockItem.setItemMissingAndPartlyInStock(partlyInStock);
+    }
+
+    StockStatus status = updateDueStatus(stockItems);
+    status.missingItems = missingItems;
+    return status;
+  }
+
+  /**
+   * Only updates the flags which depend on the current date, e.g. after midnight.
+   */
+  public StockStatus updateDueStatus(@NonNull List<StockItem> stockItems) {
+    int today = DateUtil.getEpochDayToday();
+    statusEpochDay = today;
+    return evaluateDueStatus(stockItems, getDueSoonDays(), today);
+  }
+
+  /**
+   * Updates the due flags of stock items which were read from the database, where they can be
+   * from an earlier day. Unlike {@link #updateDueStatus(List)}, this does not count as an
+   * evaluation for {@link #checkDayChanged()}, so it can be used for single pages on any thread.
+   */
+  public static void updateDueFlags(@NonNull List<StockItem> stockItems, int dueSoonDays) {
+    evaluateDueStatus(stockItems, dueSoonDays, DateUtil.getEpochDayToday());
+  }
+
+  private static StockStatus evaluateDueStatus(
+      @NonNull List<StockItem> stockItems,
+      int dueSoonDays,
+      int today
+  ) {
+    StockStatus status = new StockStatus();
+    status.dueSoonDays = dueSoonDays;
+    for (StockItem stockItem : stockItems) {
+      stockItem.setItemDue(false);
+      stockItem.setItemOverdue(false);
+      stockItem.setItemExpired(false);
+      if (stockItem.isItemMissing()) {
+        status.missingCount++;
+        if (!stockItem.isItemMissingAndPartlyInStock()) {
+          continue;
+        }
+      }
+      status.inStockCount++;
+      status.stockValue += stockItem.getValueDouble();
+      int bestBeforeEpochDay = stockItem.getBestBeforeEpochDay();
+      if (bestBeforeEpochDay == DateUtil.NO_EPOCH_DAY
+          || bestBeforeEpochDay == DateUtil.NEVER_OVERDUE_EPOCH_DAY) {
+        continue;
+      }
+      int days = bestBeforeEpochDay - today;
+      if (days >= 0 && days <= dueSoonDays) {
+        stockItem.setItemDue(true);
+        status.dueCount++;
+      } else if (days < 0 && stockItem.getDueTypeInt() == StockItem.DUE_TYPE_EXPIRATION) {
+        stockItem.setItemExpired(true);
+        status.expiredCount++;
+      } else if (days < 0) {
+        stockItem.setItemOverdue(true);
+        status.overdueCount++;
+      }
+    }
+    return status;
+  }
+
+  /**
+   * Runs the given runnable on the main thread if the date has changed since the last status
+   * evaluation, until {@link #cancelMidnightUpdates()} is called. The delayed check at midnight
+   * does not run while the device is in doze, so {@link #checkDayChanged()} has to be called
+   * too when the screen comes back to the foreground.
+   */
+  public void scheduleMidnightUpdates(Runnable onDayChanged) {
+    cancelMidnightUpdates();
+    this.onDayChanged = onDayChanged;
+    midnightRunnable = () -> {
+      checkDayChanged();
+      handler.postDelayed(midnightRunnable, getMillisUntilMidnight());
+    };
+    handler.postDelayed(midnightRunnable, getMillisUntilMidnight());
+  }
+
+  public void checkDayChanged() {
+    if (onDayChanged != null && statusEpochDay != DateUtil.NO_EPOCH_DAY
+        && statusEpochDay != DateUtil.getEpochDayToday()) {
+      onDayChanged.run();
+    }
+  }
+
+  public void cancelMidnightUpdates() {
+    if (midnightRunnable != null) {
+      handler.removeCallbacks(midnightRunnable);
+      midnightRunnable = null;
+    }
+    onDayChanged = null;
+  }
+
+  private static long getMillisUntilMidnight() {
+    Calendar midnight = Calendar.getInstance();
+    midnight.add(Calendar.DAY_OF_MONTH, 1);
+    midnight.set(Calendar.HOUR_OF_DAY, 0);
+    midnight.set(Calendar.MINUTE, 0);
+    midnight.set(Calendar.SECOND, 1); // be sure that the date has changed
+    midnight.set(Calendar.MILLISECOND, 0);
+    return midnight.getTimeInMillis() - System.currentTimeMillis();
+  }
+
+  public static class StockStatus {
+
+    private int dueCount;
+    private int overdueCount;
+    private int expiredCount;
+    private int missingCount;
+    private int inStockCount;
+    private double stockValue;
+    private int dueSoonDays;
+    private ArrayList<MissingItem> missingItems;
+
+    public int getDueCount() {
+      return dueCount;
+    }
+
+    public int getOverdueCount() {
+      return overdueCount;
+    }
+
+    public int getExpiredCount() {
+      return expiredCount;
+    }
+
+    public int getMissingCount() {
+      return missingCount;
+    }
+
+    /**
+     * Number of products which are in stock, missing products which are not in stock at all
+     * are not counted.
+     */
+    public int getInStockCount() {
+      return inStockCount;
+    }
+
+    public double getStockValue() {
+      return stockValue;
+    }
+
+    public int getDueSoonDays() {
+      return dueSoonDays;
+    }
+
+    public ArrayList<MissingItem> getMissingItems() {
+      return missingItems;
+    }
+  }
+}
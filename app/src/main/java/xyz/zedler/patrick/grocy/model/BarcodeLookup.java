@@ -0,0 +1,102 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Cached result of a product name lookup in the online product databases. A row without name
+ * means that no database knows the barcode.
+ */
+@Entity(tableName = "barcode_lookup_table")
+public class BarcodeLookup {
+
+  public final static int SOURCE_NONE = 0;
+  public final static int SOURCE_OPEN_FOOD_FACTS = 1;
+  public final static int SOURCE_OPEN_BEAUTY_FACTS = 2;
+
+  @PrimaryKey
+  @NonNull
+  @ColumnInfo(name = "barcode")
+  private String barcode;
+
+  @ColumnInfo(name = "name")
+  private String name;
+
+  @ColumnInfo(name = "source")
+  private int source;
+
+  @ColumnInfo(name = "timestamp")
+  private long timestamp;
+
+  public BarcodeLookup(@NonNull String barcode, @Nullable String name, int source, long timestamp) {
+    this.barcode = barcode;
+    this.name = name;
+    this.source = source;
+    this.timestamp = timestamp;
+  }
+
+  @NonNull
+  public String getBarcode() {
+    return barcode;
+  }
+
+  public void setBarcode(@NonNull String barcode) {
+    this.barcode = barcode;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public int getSource() {
+    return source;
+  }
+
+  public void setSource(int source) {
+    this.source = source;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  public boolean hasName() {
+    return name != null && !name.isEmpty();
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return "BarcodeLookup(" + barcode + ", " + name + ", " + source + ")";
+  }
+}
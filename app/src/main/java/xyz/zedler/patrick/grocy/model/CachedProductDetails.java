@@ -0,0 +1,103 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.model;
+
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Last known product details of a product as JSON, optionally with its stock locations and
+ * stock entries, so forms can be filled before the server answered.
+ */
+@Entity(tableName = "cached_product_details_table")
+public class CachedProductDetails {
+
+  @PrimaryKey
+  @ColumnInfo(name = "product_id")
+  private int productId;
+
+  @ColumnInfo(name = "product_details")
+  private String productDetails;
+
+  @ColumnInfo(name = "stock_locations")
+  private String stockLocations;
+
+  @ColumnInfo(name = "stock_entries")
+  private String stockEntries;
+
+  @ColumnInfo(name = "timestamp")
+  private long timestamp;
+
+  public CachedProductDetails(
+      int productId,
+      String productDetails,
+      @Nullable String stockLocations,
+      @Nullable String stockEntries,
+      long timestamp
+  ) {
+    this.productId = productId;
+    this.productDetails = productDetails;
+    this.stockLocations = stockLocations;
+    this.stockEntries = stockEntries;
+    this.timestamp = timestamp;
+  }
+
+  public int getProductId() {
+    return productId;
+  }
+
+  public void setProductId(int productId) {
+    this.productId = productId;
+  }
+
+  public String getProductDetails() {
+    return productDetails;
+  }
+
+  public void setProductDetails(String productDetails) {
+    this.productDetails = productDetails;
+  }
+
+  public String getStockLocations() {
+    return stockLocations;
+  }
+
+  public void setStockLocations(String stockLocations) {
+    this.stockLocations = stockLocations;
+  }
+
+  public String getStockEntries() {
+    return stockEntries;
+  }
+
+  public void setStockEntries(String stockEntries) {
+    this.stockEntries = stockEntries;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+  }
+}
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.model;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Handler;
-import android.util.Log;
 import android.widget.ImageView;
 import androidx.annotation.StringRes;
 import androidx.lifecycle.LiveData;
@@ -39,6 +38,7 @@ import xyz.zedler.patrick.grocy.fragment.ConsumeFragmentArgs;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
@@ -598,7 +598,7 @@ public class FormDataConsume {
       }
     } catch (JSONException e) {
       if (isDebuggingEnabled()) {
-        Log.e(TAG, "getFilledJSONObject: " + e);
+        LogUtil.e(TAG, "getFilledJSONObject: " + e);
       }
     }
     return json;
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.model;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Handler;
-import android.util.Log;
 import android.widget.ImageView;
 import androidx.annotation.StringRes;
 import androidx.lifecycle.LiveData;
@@ -41,6 +40,7 @@ import xyz.zedler.patrick.grocy.fragment.PurchaseFragmentArgs;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
 import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.ViewUtil;
@@ -830,7 +830,7 @@ public class FormDataPurchase {
       }
     } catch (JSONException e) {
       if (isDebuggingEnabled()) {
-        Log.e(TAG, "getFilledJSONObject: " + e);
+        LogUtil.e(TAG, "getFilledJSONObject: " + e);
       }
     }
     return json;
@@ -37,6 +37,10 @@ public class PendingPurchase {
     @ColumnInfo(name = "pending_product_id")
     private int pendingProductId;
 
+    // set for purchases of products from the server, e.g. from the scan batch
+    @ColumnInfo(name = "product_id")
+    private Integer productId;
+
     @ColumnInfo(name = "amount")
     private String amount;
 
@@ -55,6 +59,10 @@ public class PendingPurchase {
     @ColumnInfo(name = "location_id")
     private String locationId;
 
+    // set before the request is sent, the purchase may be booked if it is still pending
+    @ColumnInfo(name = "upload_started")
+    private boolean uploadStarted;
+
     public PendingPurchase() {
     }
 
@@ -74,6 +82,14 @@ public class PendingPurchase {
         this.pendingProductId = pendingProductId;
     }
 
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+
     public String getAmount() {
         return amount;
     }
@@ -122,6 +138,14 @@ public class PendingPurchase {
         this.locationId = locationId;
     }
 
+    public boolean isUploadStarted() {
+        return uploadStarted;
+    }
+
+    public void setUploadStarted(boolean uploadStarted) {
+        this.uploadStarted = uploadStarted;
+    }
+
     @NonNull
     @Override
     public String toString() {
@@ -22,11 +22,11 @@ package xyz.zedler.patrick.grocy.model;
 import android.content.SharedPreferences;
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import com.google.gson.annotations.SerializedName;
 import java.util.ArrayList;
@@ -37,9 +37,10 @@ import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.STOCK;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 
-@Entity(tableName = "product_table")
+@Entity(tableName = "product_table", indices = {@Index("name")})
 public class Product implements Parcelable {
 
   @PrimaryKey
@@ -47,7 +48,7 @@ public class Product implements Parcelable {
   @SerializedName("id")
   private int id;
 
-  @ColumnInfo(name = "name")
+  @ColumnInfo(name = "name", collate = ColumnInfo.NOCASE)
   @SerializedName("name")
   private String name;
 
@@ -644,7 +645,7 @@ public class Product implements Parcelable {
       json.put("hide_on_stock_overview", hideOnStock);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "getJsonFromProduct: " + e);
+        LogUtil.e(TAG, "getJsonFromProduct: " + e);
       }
     }
     return json;
@@ -673,19 +674,6 @@ public class Product implements Parcelable {
     return null;
   }
 
-  public static Product getProductFromBarcode(
-      List<Product> products,
-      List<ProductBarcode> barcodes,
-      String barcode
-  ) {
-    for (ProductBarcode code : barcodes) {
-      if (code.getBarcode().equals(barcode)) {
-        return getProductFromId(products, code.getProductIdInt());
-      }
-    }
-    return null;
-  }
-
   public static ArrayList<Product> getActiveProductsOnly(List<Product> allProducts) {
     ArrayList<Product> activeProductsOnly = new ArrayList<>();
     for (Product product : allProducts) {
@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.model;
 
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
@@ -31,6 +30,7 @@ import com.google.gson.annotations.SerializedName;
 import java.util.Objects;
 import org.json.JSONException;
 import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 
 @Entity(tableName = "product_barcode_table")
@@ -283,7 +283,7 @@ public class ProductBarcode implements Parcelable {
       json.put("note", note);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "getJsonFromProductBarcode: " + e);
+        LogUtil.e(TAG, "getJsonFromProductBarcode: " + e);
       }
     }
     return json;
@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.model;
 
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
@@ -36,6 +35,7 @@ import org.json.JSONObject;
 
 import java.util.Objects;
 
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 
 @Entity(tableName = "product_last_purchased_table")
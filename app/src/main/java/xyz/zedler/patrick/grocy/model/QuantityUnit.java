@@ -160,7 +160,7 @@ public class QuantityUnit implements Parcelable {
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, name, description, namePlural, pluralForms);
+    return id; // consistent with equals, but without hashing all strings for map lookups
   }
 
   @NonNull
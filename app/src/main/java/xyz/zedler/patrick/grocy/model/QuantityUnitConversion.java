@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.model;
 
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
@@ -31,6 +30,7 @@ import com.google.gson.annotations.SerializedName;
 import java.util.Objects;
 import org.json.JSONException;
 import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 
 @Entity(tableName = "quantity_unit_conversion_table")
 public class QuantityUnitConversion implements Parcelable {
@@ -181,7 +181,7 @@ public class QuantityUnitConversion implements Parcelable {
       json.put("factor", conversion.getFactor());
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "getJsonFromProductBarcode: " + e);
+        LogUtil.e(TAG, "getJsonFromProductBarcode: " + e);
       }
     }
     return json;
@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.model;
 
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
@@ -30,6 +29,7 @@ import com.google.gson.annotations.SerializedName;
 import java.util.Objects;
 import org.json.JSONException;
 import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 
 @Entity(tableName = "shopping_list_item_table")
@@ -323,7 +323,7 @@ public class ShoppingListItem extends GroupedListItem implements Parcelable {
       json.put("note", note);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "getJsonFromShoppingListItem: " + e);
+        LogUtil.e(TAG, "getJsonFromShoppingListItem: " + e);
       }
     }
     return json;
@@ -0,0 +1,120 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+
+package xyz.zedler.patrick.grocy.model;
+
+import androidx.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Everything a shopping list row displays, formatted while the list is prepared so that
+ * binding only has to assign the values.
+ */
+public class ShoppingListItemViewState {
+
+  private final int id;
+  private final String name;
+  private final String amountText;
+  private final boolean missing;
+  private final String note;
+  private final boolean done;
+  private final String extraFieldText;
+
+  public ShoppingListItemViewState(
+      int id,
+      @Nullable String name,
+      String amountText,
+      boolean missing,
+      @Nullable String note,
+      boolean done,
+      @Nullable String extraFieldText
+  ) {
+    this.id = id;
+    this.name = name;
+    this.amountText = amountText;
+    this.missing = missing;
+    this.note = note;
+    this.done = done;
+    this.extraFieldText = extraFieldText;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Null if the item has no product, then the note is displayed as name.
+   */
+  @Nullable
+  public String getName() {
+    return name;
+  }
+
+  public String getAmountText() {
+    return amountText;
+  }
+
+  public boolean isMissing() {
+    return missing;
+  }
+
+  /**
+   * Trimmed note, null if empty.
+   */
+  @Nullable
+  public String getNote() {
+    return note;
+  }
+
+  public boolean isDone() {
+    return done;
+  }
+
+  /**
+   * Null if the extra field should not be displayed.
+   */
+  @Nullable
+  public String getExtraFieldText() {
+    return extraFieldText;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ShoppingListItemViewState that = (ShoppingListItemViewState) o;
+    return id == that.id
+        && missing == that.missing
+        && done == that.done
+        && Objects.equals(name, that.name)
+        && Objects.equals(amountText, that.amountText)
+        && Objects.equals(note, that.note)
+        && Objects.equals(extraFieldText, that.extraFieldText);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, name, amountText, missing, note, done, extraFieldText);
+  }
+}
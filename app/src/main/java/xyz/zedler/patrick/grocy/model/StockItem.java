@@ -25,12 +25,14 @@ import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import com.google.gson.annotations.SerializedName;
 import java.util.Objects;
+import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 
-@Entity(tableName = "stock_item_table")
+@Entity(tableName = "stock_item_table", indices = {@Index("best_before_date")})
 public class StockItem extends GroupedListItem implements Parcelable {
 
   public static int DUE_TYPE_BEST_BEFORE = 1;
@@ -92,6 +94,12 @@ public class StockItem extends GroupedListItem implements Parcelable {
   @ColumnInfo(name = "item_missing_partly_in_stock")
   private boolean itemMissingAndPartlyInStock = false;
 
+  @Ignore
+  private transient int bestBeforeEpochDay;
+
+  @Ignore
+  private transient volatile boolean isBestBeforeEpochDayParsed;
+
   public StockItem() {
   }
 
@@ -109,6 +117,19 @@ public class StockItem extends GroupedListItem implements Parcelable {
     this.product = productDetails.getProduct();
   }
 
+  @Ignore
+  public StockItem(Product product) {  // for products which are not in stock
+    this.amount = "0";
+    this.amountAggregated = "0";
+    this.value = "0";
+    this.amountOpened = "0";
+    this.amountOpenedAggregated = "0";
+    this.isAggregatedAmount = "0";
+    this.dueType = product.getDueDateType();
+    this.productId = product.getId();
+    this.product = product;
+  }
+
   @Ignore
   private StockItem(Parcel parcel) {
     amount = parcel.readString();
@@ -170,6 +191,17 @@ public class StockItem extends GroupedListItem implements Parcelable {
     return bestBeforeDate;
   }
 
+  /**
+   * The best before date as epoch day, parsed only once, or {@link DateUtil#NO_EPOCH_DAY}.
+   */
+  public int getBestBeforeEpochDay() {
+    if (!isBestBeforeEpochDayParsed) {
+      bestBeforeEpochDay = DateUtil.getEpochDay(bestBeforeDate);
+      isBestBeforeEpochDayParsed = true;
+    }
+    return bestBeforeEpochDay;
+  }
+
   public double getAmountOpenedAggregatedDouble() {
     if (amountOpenedAggregated == null || amountOpenedAggregated.isEmpty()) {
       return 0;
@@ -224,6 +256,7 @@ public class StockItem extends GroupedListItem implements Parcelable {
 
   public void setBestBeforeDate(String bestBeforeDate) {
     this.bestBeforeDate = bestBeforeDate;
+    isBestBeforeEpochDayParsed = false;
   }
 
   public void setAmountOpened(String amountOpened) {
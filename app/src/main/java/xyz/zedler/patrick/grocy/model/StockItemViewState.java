@@ -0,0 +1,139 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+
+package xyz.zedler.patrick.grocy.model;
+
+import androidx.annotation.ColorRes;
+import androidx.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Everything a stock overview row displays, formatted while the list is prepared so that
+ * binding only has to assign the values.
+ */
+public class StockItemViewState {
+
+  private final int productId;
+  private final String name;
+  private final String pictureFileName;
+  private final boolean onShoppingList;
+  private final String amountText;
+  private final boolean missing;
+  private final String daysText;
+  @ColorRes private final int daysColor;
+  private final String extraFieldText;
+
+  public StockItemViewState(
+      int productId,
+      String name,
+      @Nullable String pictureFileName,
+      boolean onShoppingList,
+      String amountText,
+      boolean missing,
+      @Nullable String daysText,
+      @ColorRes int daysColor,
+      @Nullable String extraFieldText
+  ) {
+    this.productId = productId;
+    this.name = name;
+    this.pictureFileName = pictureFileName;
+    this.onShoppingList = onShoppingList;
+    this.amountText = amountText;
+    this.missing = missing;
+    this.daysText = daysText;
+    this.daysColor = daysColor;
+    this.extraFieldText = extraFieldText;
+  }
+
+  public int getProductId() {
+    return productId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Nullable
+  public String getPictureFileName() {
+    return pictureFileName;
+  }
+
+  public boolean isOnShoppingList() {
+    return onShoppingList;
+  }
+
+  public String getAmountText() {
+    return amountText;
+  }
+
+  public boolean isMissing() {
+    return missing;
+  }
+
+  /**
+   * Null if the due date should not be displayed.
+   */
+  @Nullable
+  public String getDaysText() {
+    return daysText;
+  }
+
+  /**
+   * 0 if the due date is not highlighted.
+   */
+  @ColorRes
+  public int getDaysColor() {
+    return daysColor;
+  }
+
+  /**
+   * Null if the extra field should not be displayed.
+   */
+  @Nullable
+  public String getExtraFieldText() {
+    return extraFieldText;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    StockItemViewState that = (StockItemViewState) o;
+    return productId == that.productId
+        && onShoppingList == that.onShoppingList
+        && missing == that.missing
+        && daysColor == that.daysColor
+        && Objects.equals(name, that.name)
+        && Objects.equals(pictureFileName, that.pictureFileName)
+        && Objects.equals(amountText, that.amountText)
+        && Objects.equals(daysText, that.daysText)
+        && Objects.equals(extraFieldText, that.extraFieldText);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(productId, name, pictureFileName, onShoppingList, amountText, missing,
+        daysText, daysColor, extraFieldText);
+  }
+}
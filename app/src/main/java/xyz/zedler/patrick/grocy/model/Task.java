@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.model;
 
 import android.os.Parcel;
 import android.os.Parcelable;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
@@ -32,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Objects;
 import org.json.JSONException;
 import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 
 @Entity(tableName = "task_table")
 public class Task implements Parcelable {
@@ -203,7 +203,7 @@ public class Task implements Parcelable {
       json.put("category_id", categoryId);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "getJsonFromTask: " + e);
+        LogUtil.e(TAG, "getJsonFromTask: " + e);
       }
     }
     return json;
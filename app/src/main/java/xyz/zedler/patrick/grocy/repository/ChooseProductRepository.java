@@ -80,7 +80,7 @@ public class ChooseProductRepository {
           CreatePendingProductListener successListener,
           Runnable errorListener
   ) {
-    appDatabase.pendingProductDao().insertPendingProduct(pendingProduct)
+    appDatabase.trackCommit(appDatabase.pendingProductDao().insertPendingProduct(pendingProduct))
             .subscribeOn(Schedulers.io())
             .observeOn(AndroidSchedulers.mainThread())
             .doOnSuccess(successListener::onSuccess)
@@ -29,6 +29,7 @@ import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
+import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.Store;
 
 public class MasterObjectListRepository {
@@ -50,19 +51,22 @@ public class MasterObjectListRepository {
     private final List<Store> stores;
     private final List<Location> locations;
     private final List<QuantityUnit> quantityUnits;
+    private final List<QuantityUnitConversion> quantityUnitConversions;
 
     public MasterObjectData(
         List<Product> products,
         List<ProductGroup> productGroups,
         List<Store> stores,
         List<Location> locations,
-        List<QuantityUnit> quantityUnits
+        List<QuantityUnit> quantityUnits,
+        List<QuantityUnitConversion> quantityUnitConversions
     ) {
       this.products = products;
       this.productGroups = productGroups;
       this.stores = stores;
       this.locations = locations;
       this.quantityUnits = quantityUnits;
+      this.quantityUnitConversions = quantityUnitConversions;
     }
 
     public List<Product> getProducts() {
@@ -84,6 +88,10 @@ public class MasterObjectListRepository {
     public List<QuantityUnit> getQuantityUnits() {
       return quantityUnits;
     }
+
+    public List<QuantityUnitConversion> getQuantityUnitConversions() {
+      return quantityUnitConversions;
+    }
   }
 
   public void loadFromDatabase(DataListener listener) {
@@ -94,6 +102,7 @@ public class MasterObjectListRepository {
             appDatabase.storeDao().getStores(),
             appDatabase.locationDao().getLocations(),
             appDatabase.quantityUnitDao().getQuantityUnits(),
+            appDatabase.quantityUnitConversionDao().getConversions(),
             MasterObjectData::new
         )
         .subscribeOn(Schedulers.io())
@@ -101,4 +110,13 @@ public class MasterObjectListRepository {
         .doOnSuccess(listener::actionFinished)
         .subscribe();
   }
+
+  public void updateProducts(List<Product> products, Runnable onFinished) {
+    appDatabase.trackCommit(appDatabase.productDao().insertProducts(products))
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doFinally(onFinished::run)
+        .onErrorComplete()
+        .subscribe();
+  }
 }
@@ -20,18 +20,32 @@
 package xyz.zedler.patrick.grocy.repository;
 
 import android.app.Application;
+import android.os.SystemClock;
+import androidx.annotation.Nullable;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.database.SyncGeneration;
+import xyz.zedler.patrick.grocy.helper.StartupHelper;
+import xyz.zedler.patrick.grocy.model.MissingItem;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.StockItem;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 
 public class OverviewStartRepository {
 
+  private final static String TAG = OverviewStartRepository.class.getSimpleName();
+  private final static long PREFETCH_MAX_AGE_MS = 10000;
+
+  // only accessed on the main thread
+  private static Single<OverviewStartData> prefetchedData;
+  private static long prefetchedGeneration;
+  private static long prefetchedTime;
+
   private final AppDatabase appDatabase;
 
   public OverviewStartRepository(Application application) {
@@ -78,32 +92,83 @@ public class OverviewStartRepository {
     }
   }
 
-  public void loadFromDatabase(DataListener listener) {
-    Single
+  /**
+   * Starts reading the data of the start page while the splash screen is displayed, so that the
+   * database is already open and the data is ready when the view model asks for it.
+   */
+  public static void prefetch(Application application) {
+    OverviewStartRepository repository = new OverviewStartRepository(application);
+    prefetchedGeneration = repository.appDatabase.getSyncGeneration();
+    prefetchedTime = SystemClock.elapsedRealtime();
+    prefetchedData = repository.readData().subscribeOn(Schedulers.io()).cache();
+    prefetchedData.subscribe(
+        data -> StartupHelper.mark("start page data"),
+        throwable -> LogUtil.e(TAG, "prefetch: " + throwable)
+    );
+  }
+
+  /**
+   * The prefetched data can only be taken once and only if no sync was committed since the
+   * prefetch started.
+   */
+  @Nullable
+  private Single<OverviewStartData> takePrefetchedData() {
+    Single<OverviewStartData> data = prefetchedData;
+    prefetchedData = null;
+    if (data == null
+        || prefetchedGeneration != appDatabase.getSyncGeneration()
+        || SystemClock.elapsedRealtime() - prefetchedTime > PREFETCH_MAX_AGE_MS) {
+      return null;
+    }
+    return data;
+  }
+
+  private Single<OverviewStartData> readData() {
+    return appDatabase.readSnapshot(Single
         .zip(
             appDatabase.stockItemDao().getStockItems(),
             appDatabase.shoppingListItemDao().getShoppingListItems(),
             appDatabase.shoppingListDao().getShoppingLists(),
             appDatabase.productDao().getProducts(),
             OverviewStartData::new
-        )
-        .subscribeOn(Schedulers.io())
-        .observeOn(AndroidSchedulers.mainThread())
+        ));
+  }
+
+  public void loadFromDatabase(DataListener listener) {
+    Single<OverviewStartData> data = takePrefetchedData();
+    if (data == null) {
+      data = readData().subscribeOn(Schedulers.io());
+    }
+    data.observeOn(AndroidSchedulers.mainThread())
         .doOnSuccess(listener::actionFinished)
         .subscribe();
   }
 
   public void updateDatabase(
       List<StockItem> stockItems,
+      List<MissingItem> missingItems,
       Runnable listener
   ) {
-    Single.concat(
-        appDatabase.stockItemDao().deleteStockItems(),
-        appDatabase.stockItemDao().insertStockItems(stockItems)
-    )
-        .subscribeOn(Schedulers.io())
-        .observeOn(AndroidSchedulers.mainThread())
-        .doFinally(listener::run)
-        .subscribe();
+    SyncGeneration syncGeneration = new SyncGeneration(appDatabase, null);
+    stageDatabaseUpdate(syncGeneration, stockItems, missingItems);
+    syncGeneration.commit(listener);
+  }
+
+  public void stageDatabaseUpdate(
+      SyncGeneration syncGeneration,
+      List<StockItem> stockItems,
+      List<MissingItem> missingItems
+  ) {
+    syncGeneration
+        .stage(SyncGeneration.replace(
+            appDatabase.stockItemDao().deleteStockItems(),
+            appDatabase.stockItemDao()::insertStockItems,
+            stockItems
+        ))
+        .stage(SyncGeneration.replace(
+            appDatabase.missingItemDao().deleteMissingItems(),
+            appDatabase.missingItemDao()::insertMissingItems,
+            missingItems
+        ));
   }
 }
@@ -79,7 +79,7 @@ public class PendingPurchasesRepository {
           CreatePendingProductListener successListener,
           Runnable errorListener
   ) {
-    appDatabase.pendingProductDao().insertPendingProduct(pendingProduct)
+    appDatabase.trackCommit(appDatabase.pendingProductDao().insertPendingProduct(pendingProduct))
             .subscribeOn(Schedulers.io())
             .observeOn(AndroidSchedulers.mainThread())
             .doOnSuccess(successListener::onSuccess)
@@ -31,6 +31,7 @@ import xyz.zedler.patrick.grocy.model.PendingProductBarcode;
 import xyz.zedler.patrick.grocy.model.PendingPurchase;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
+import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
@@ -139,8 +140,21 @@ public class PurchaseRepository {
         .subscribe();
   }
 
+  public void loadScanBatch(ScanBatchListener listener) {
+    Single
+        .zip(
+            appDatabase.pendingPurchaseDao().getPendingPurchasesOfProducts(),
+            appDatabase.productLastPurchasedDao().getProductsLastPurchased(),
+            ScanBatchData::new
+        )
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doOnSuccess(listener::actionFinished)
+        .subscribe();
+  }
+
   public void insertPendingProduct(PendingProduct pendingProduct) {
-    appDatabase.pendingProductDao().insertPendingProduct(pendingProduct)
+    appDatabase.trackCommit(appDatabase.pendingProductDao().insertPendingProduct(pendingProduct))
         .subscribeOn(Schedulers.io()).subscribe();
   }
 
@@ -149,7 +163,7 @@ public class PurchaseRepository {
           SuccessIdListener onSuccess,
           Runnable onError
   ) {
-    appDatabase.pendingPurchaseDao().insertPendingPurchase(pendingPurchase)
+    appDatabase.trackCommit(appDatabase.pendingPurchaseDao().insertPendingPurchase(pendingPurchase))
         .subscribeOn(Schedulers.io())
         .observeOn(AndroidSchedulers.mainThread())
         .doOnSuccess(onSuccess::onSuccess)
@@ -162,7 +176,7 @@ public class PurchaseRepository {
       Runnable onSuccess,
       Runnable onError
   ) {
-    appDatabase.pendingPurchaseDao().deletePendingPurchase(id)
+    appDatabase.trackCommit(appDatabase.pendingPurchaseDao().deletePendingPurchase(id))
         .subscribeOn(Schedulers.io())
         .observeOn(AndroidSchedulers.mainThread())
         .doOnSuccess(i -> onSuccess.run())
@@ -171,14 +185,39 @@ public class PurchaseRepository {
   }
 
   public void insertPendingProductBarcode(PendingProductBarcode barcode, Runnable onFinished) {
-    appDatabase.pendingProductBarcodeDao()
-        .insertProductBarcode(barcode)
+    appDatabase.trackCommit(appDatabase.pendingProductBarcodeDao().insertProductBarcode(barcode))
         .subscribeOn(Schedulers.io())
         .observeOn(AndroidSchedulers.mainThread())
         .doFinally(onFinished::run)
         .subscribe();
   }
 
+  public interface ScanBatchListener {
+    void actionFinished(ScanBatchData data);
+  }
+
+  public static class ScanBatchData {
+
+    private final List<PendingPurchase> purchases;
+    private final List<ProductLastPurchased> productsLastPurchased;
+
+    public ScanBatchData(
+        List<PendingPurchase> purchases,
+        List<ProductLastPurchased> productsLastPurchased
+    ) {
+      this.purchases = purchases;
+      this.productsLastPurchased = productsLastPurchased;
+    }
+
+    public List<PendingPurchase> getPurchases() {
+      return purchases;
+    }
+
+    public List<ProductLastPurchased> getProductsLastPurchased() {
+      return productsLastPurchased;
+    }
+  }
+
   public interface SuccessIdListener {
     void onSuccess(Long id);
   }
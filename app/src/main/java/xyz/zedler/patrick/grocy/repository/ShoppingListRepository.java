@@ -22,10 +22,13 @@ package xyz.zedler.patrick.grocy.repository;
 import android.app.Application;
 import androidx.lifecycle.LiveData;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.database.SyncGeneration;
 import xyz.zedler.patrick.grocy.model.MissingItem;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
@@ -34,6 +37,7 @@ import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.Store;
 
 public class ShoppingListRepository {
@@ -140,17 +144,100 @@ public class ShoppingListRepository {
         .subscribe();
   }
 
+  public Flowable<List<ShoppingListItem>> getShoppingListItemsFlowable() {
+    return appDatabase.shoppingListItemDao().getShoppingListItemsFlowable();
+  }
+
+  public Flowable<List<ShoppingList>> getShoppingListsFlowable() {
+    return appDatabase.shoppingListDao().getShoppingListsFlowable();
+  }
+
+  public Flowable<List<ProductGroup>> getProductGroupsFlowable() {
+    return appDatabase.productGroupDao().getProductGroupsFlowable();
+  }
+
+  public Flowable<List<QuantityUnit>> getQuantityUnitsFlowable() {
+    return appDatabase.quantityUnitDao().getQuantityUnitsFlowable();
+  }
+
+  public Flowable<List<QuantityUnitConversion>> getConversionsFlowable() {
+    return appDatabase.quantityUnitConversionDao().getConversionsFlowable();
+  }
+
+  public Flowable<List<Product>> getProductsFlowable() {
+    return appDatabase.productDao().getProductsFlowable();
+  }
+
+  public Flowable<List<ProductLastPurchased>> getProductsLastPurchasedFlowable() {
+    return appDatabase.productLastPurchasedDao().getProductsLastPurchasedFlowable();
+  }
+
+  public Flowable<List<Store>> getStoresFlowable() {
+    return appDatabase.storeDao().getStoresFlowable();
+  }
+
+  public Flowable<List<MissingItem>> getMissingItemsFlowable() {
+    return appDatabase.missingItemDao().getMissingItemsFlowable();
+  }
+
+  public void stageStockStatus(
+      SyncGeneration syncGeneration,
+      List<StockItem> stockItems,
+      List<MissingItem> missingItems
+  ) {
+    syncGeneration
+        .stage(SyncGeneration.replace(
+            appDatabase.stockItemDao().deleteStockItems(),
+            appDatabase.stockItemDao()::insertStockItems,
+            stockItems
+        ))
+        .stage(SyncGeneration.replace(
+            appDatabase.missingItemDao().deleteMissingItems(),
+            appDatabase.missingItemDao()::insertMissingItems,
+            missingItems
+        ));
+  }
+
   public void insertShoppingListItems(
       Runnable onFinished,
       ShoppingListItem... shoppingListItems
   ) {
-    appDatabase.shoppingListItemDao().insertShoppingListItems(shoppingListItems)
+    appDatabase.trackCommit(
+        appDatabase.shoppingListItemDao().insertShoppingListItems(shoppingListItems)
+    )
         .subscribeOn(Schedulers.io())
         .observeOn(AndroidSchedulers.mainThread())
         .doFinally(onFinished::run)
         .subscribe();
   }
 
+  public void mergeShoppingListItems(
+      List<ShoppingListItem> changedItems,
+      List<Integer> removedIds,
+      Runnable onFinished
+  ) {
+    appDatabase.trackCommit(Completable.fromAction(() -> appDatabase.runInTransaction(() -> {
+      if (!changedItems.isEmpty()) {
+        appDatabase.shoppingListItemDao().insertShoppingListItems(changedItems).blockingGet();
+      }
+      if (!removedIds.isEmpty()) {
+        appDatabase.shoppingListItemDao().deleteShoppingListItems(removedIds).blockingGet();
+      }
+    })))
+        .subscribeOn(Schedulers.io())
+        .observeOn(AndroidSchedulers.mainThread())
+        .doFinally(onFinished::run)
+        .subscribe();
+  }
+
+  public void insertShoppingListItems(ShoppingListItem... shoppingListItems) {
+    appDatabase.trackCommit(
+        appDatabase.shoppingListItemDao().insertShoppingListItems(shoppingListItems)
+    )
+        .subscribeOn(Schedulers.io())
+        .subscribe();
+  }
+
   public interface ShoppingListsListener {
     void actionFinished(List<ShoppingList> shoppingLists);
   }
@@ -168,10 +255,10 @@ public class ShoppingListRepository {
   }
 
   public void updateShoppingLists(List<ShoppingList> shoppingLists) {
-    Single.concat(
-        appDatabase.shoppingListDao().deleteShoppingLists(),
-        appDatabase.shoppingListDao().insertShoppingLists(shoppingLists)
-    )
+    appDatabase.trackCommit(Completable.fromAction(() -> appDatabase.runInTransaction(() -> {
+      appDatabase.shoppingListDao().deleteShoppingLists().blockingGet();
+      appDatabase.shoppingListDao().insertShoppingLists(shoppingLists).blockingGet();
+    })))
         .subscribeOn(Schedulers.io())
         .observeOn(AndroidSchedulers.mainThread())
         .subscribe();
@@ -25,6 +25,8 @@ import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.util.List;
 import xyz.zedler.patrick.grocy.database.AppDatabase;
+import xyz.zedler.patrick.grocy.database.SyncGeneration;
+import xyz.zedler.patrick.grocy.model.MissingItem;
 import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductAveragePrice;
@@ -128,7 +130,7 @@ public class StockOverviewRepository {
   }
 
   public void loadFromDatabase(StockOverviewDataListener listener) {
-    RxJavaUtil
+    appDatabase.readSnapshot(RxJavaUtil
         .zip(
             appDatabase.quantityUnitDao().getQuantityUnits(),
             appDatabase.productGroupDao().getProductGroups(),
@@ -141,24 +143,59 @@ public class StockOverviewRepository {
             appDatabase.locationDao().getLocations(),
             appDatabase.stockLocationDao().getStockLocations(),
             StockOverviewData::new
-        )
+        ))
         .subscribeOn(Schedulers.io())
         .observeOn(AndroidSchedulers.mainThread())
         .doOnSuccess(listener::actionFinished)
         .subscribe();
   }
 
+  /**
+   * Loads one page of the stock items which are not hidden on the stock overview, sorted by
+   * product name or due date. Only the rows of the page are read from the database.
+   */
+  public Single<List<StockItem>> getStockItemsPage(
+      boolean sortByDueDate,
+      boolean ascending,
+      int offset,
+      int limit
+  ) {
+    if (sortByDueDate) {
+      return ascending
+          ? appDatabase.stockItemDao().getVisibleStockItemsByDueDateAsc(offset, limit)
+          : appDatabase.stockItemDao().getVisibleStockItemsByDueDateDesc(offset, limit);
+    } else {
+      return ascending
+          ? appDatabase.stockItemDao().getVisibleStockItemsByNameAsc(offset, limit)
+          : appDatabase.stockItemDao().getVisibleStockItemsByNameDesc(offset, limit);
+    }
+  }
+
   public void updateDatabase(
       List<StockItem> stockItems,
+      List<MissingItem> missingItems,
       Runnable listener
   ) {
-    Single.concat(
-        appDatabase.stockItemDao().deleteStockItems(),
-        appDatabase.stockItemDao().insertStockItems(stockItems)
-    )
-        .subscribeOn(Schedulers.io())
-        .observeOn(AndroidSchedulers.mainThread())
-        .doFinally(listener::run)
-        .subscribe();
+    SyncGeneration syncGeneration = new SyncGeneration(appDatabase, null);
+    stageDatabaseUpdate(syncGeneration, stockItems, missingItems);
+    syncGeneration.commit(listener);
+  }
+
+  public void stageDatabaseUpdate(
+      SyncGeneration syncGeneration,
+      List<StockItem> stockItems,
+      List<MissingItem> missingItems
+  ) {
+    syncGeneration
+        .stage(SyncGeneration.replace(
+            appDatabase.stockItemDao().deleteStockItems(),
+            appDatabase.stockItemDao()::insertStockItems,
+            stockItems
+        ))
+        .stage(SyncGeneration.replace(
+            appDatabase.missingItemDao().deleteMissingItems(),
+            appDatabase.missingItemDao()::insertMissingItems,
+            missingItems
+        ));
   }
 }
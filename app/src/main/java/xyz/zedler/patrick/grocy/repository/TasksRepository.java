@@ -21,6 +21,7 @@ package xyz.zedler.patrick.grocy.repository;
 
 import android.app.Application;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import java.util.List;
@@ -75,4 +76,12 @@ public class TasksRepository {
         .doOnSuccess(listener::actionFinished)
         .subscribe();
   }
+
+  public Flowable<List<TaskCategory>> getTaskCategoriesFlowable() {
+    return appDatabase.taskCategoryDao().getTaskCategoriesFlowable();
+  }
+
+  public Flowable<List<Task>> getTasksFlowable() {
+    return appDatabase.taskDao().getTasksFlowable();
+  }
 }
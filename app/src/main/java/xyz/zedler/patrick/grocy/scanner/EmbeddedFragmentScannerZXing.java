@@ -20,7 +20,6 @@
 package xyz.zedler.patrick.grocy.scanner;
 
 import android.content.SharedPreferences;
-import android.os.Handler;
 import android.preference.PreferenceManager;
 import android.view.Gravity;
 import android.view.ViewGroup;
@@ -33,6 +32,7 @@ import androidx.coordinatorlayout.widget.CoordinatorLayout.LayoutParams;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.LiveData;
+import com.google.zxing.BarcodeFormat;
 import com.google.zxing.integration.android.IntentIntegrator;
 import com.journeyapps.barcodescanner.BarcodeResult;
 import com.journeyapps.barcodescanner.DecoratedBarcodeView;
@@ -46,6 +46,8 @@ import xyz.zedler.patrick.grocy.scanner.ZXingScanCaptureManager.BarcodeListener;
 import xyz.zedler.patrick.grocy.util.Constants.BarcodeFormats;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.SCANNER;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.UnitUtil;
 
 public class EmbeddedFragmentScannerZXing extends EmbeddedFragmentScanner implements
@@ -135,10 +137,16 @@ public class EmbeddedFragmentScannerZXing extends EmbeddedFragmentScanner implem
     cameraSettings.setRequestedCameraId(useFrontCam ? 1 : 0);
     cameraSettings.setFocusMode(FocusMode.CONTINUOUS);
 
+    String[] enabledBarcodeFormats = getEnabledBarcodeFormats();
     IntentIntegrator integrator = new IntentIntegrator(fragment.requireActivity());
-    integrator.setDesiredBarcodeFormats(getEnabledBarcodeFormats());
+    integrator.setDesiredBarcodeFormats(enabledBarcodeFormats);
     barcodeView.initializeFromIntent(integrator.createScanIntent());
 
+    ArrayList<BarcodeFormat> decodeFormats = new ArrayList<>();
+    for (String format : enabledBarcodeFormats) {
+      decodeFormats.add(BarcodeFormat.valueOf(format));
+    }
+    barcodeView.getBarcodeView().setDecoderFactory(new ZXingDecoderFactory(decodeFormats));
     barcodeView.getBarcodeView().setCameraSettings(cameraSettings);
     capture = new ZXingScanCaptureManager(
         fragment.requireActivity(),
@@ -183,6 +191,9 @@ public class EmbeddedFragmentScannerZXing extends EmbeddedFragmentScanner implem
 
   public void onPause() {
     capture.onPause();
+    if (PrefsUtil.isDebuggingEnabled(fragment.requireContext())) {
+      LogUtil.i(TAG, "onPause: decoding " + ZXingDecoderFactory.getMetrics());
+    }
   }
 
   public void onDestroy() {
@@ -199,7 +210,7 @@ public class EmbeddedFragmentScannerZXing extends EmbeddedFragmentScanner implem
   public void startScannerIfVisible() {
     if (!isScannerVisible) return;
     capture.onResume();
-    new Handler().postDelayed(capture::decode, 500);
+    capture.decode();
   }
 
   public void toggleTorch() {
@@ -0,0 +1,162 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.scanner;
+
+import android.os.SystemClock;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.Reader;
+import com.google.zxing.Result;
+import com.journeyapps.barcodescanner.Decoder;
+import com.journeyapps.barcodescanner.DecoderFactory;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Creates decoders which only look for the enabled formats and record how long the decoding of
+ * each preview frame took, per format of the result.
+ */
+public class ZXingDecoderFactory implements DecoderFactory {
+
+  private static final Metrics metrics = new Metrics();
+
+  private final Collection<BarcodeFormat> formats;
+
+  public ZXingDecoderFactory(@NonNull Collection<BarcodeFormat> formats) {
+    this.formats = formats;
+    metrics.addFormats(formats);
+  }
+
+  @Override
+  public Decoder createDecoder(Map<DecodeHintType, ?> baseHints) {
+    Map<DecodeHintType, Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.putAll(baseHints);
+    if (!formats.isEmpty()) {
+      hints.put(DecodeHintType.POSSIBLE_FORMATS, formats);
+    }
+    MultiFormatReader reader = new MultiFormatReader();
+    reader.setHints(hints);
+    return new MeteredDecoder(reader);
+  }
+
+  public static Metrics getMetrics() {
+    return metrics;
+  }
+
+  private static class MeteredDecoder extends Decoder {
+
+    MeteredDecoder(Reader reader) {
+      super(reader);
+    }
+
+    @Override
+    public Result decode(LuminanceSource source) {
+      long start = SystemClock.elapsedRealtime();
+      Result result = super.decode(source);
+      metrics.onFrameDecoded(
+          result != null ? result.getBarcodeFormat() : null,
+          SystemClock.elapsedRealtime() - start
+      );
+      return result;
+    }
+  }
+
+  public static class Metrics {
+
+    private final EnumMap<BarcodeFormat, Stats> formatStats;
+    private final Stats noResultStats;
+
+    Metrics() {
+      formatStats = new EnumMap<>(BarcodeFormat.class);
+      noResultStats = new Stats();
+    }
+
+    synchronized void addFormats(Collection<BarcodeFormat> formats) {
+      for (BarcodeFormat format : formats) {
+        if (!formatStats.containsKey(format)) {
+          formatStats.put(format, new Stats());
+        }
+      }
+    }
+
+    synchronized void onFrameDecoded(@Nullable BarcodeFormat format, long durationMs) {
+      Stats stats;
+      if (format == null) {
+        stats = noResultStats;
+      } else {
+        stats = formatStats.get(format);
+        if (stats == null) {
+          stats = new Stats();
+          formatStats.put(format, stats);
+        }
+      }
+      stats.count++;
+      stats.totalMs += durationMs;
+      stats.maxMs = Math.max(stats.maxMs, durationMs);
+    }
+
+    public synchronized void reset() {
+      for (Stats stats : formatStats.values()) {
+        stats.reset();
+      }
+      noResultStats.reset();
+    }
+
+    @NonNull
+    @Override
+    public synchronized String toString() {
+      StringBuilder builder = new StringBuilder("Metrics(");
+      for (Map.Entry<BarcodeFormat, Stats> entry : formatStats.entrySet()) {
+        builder.append(entry.getKey()).append(": ").append(entry.getValue()).append(", ");
+      }
+      return builder.append("no result: ").append(noResultStats).append(')').toString();
+    }
+  }
+
+  private static class Stats {
+
+    private int count;
+    private long totalMs;
+    private long maxMs;
+
+    void reset() {
+      count = 0;
+      totalMs = 0;
+      maxMs = 0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+      if (count == 0) {
+        return "0";
+      }
+      return String.format(
+          Locale.ENGLISH, "%d, avg %.1f ms, max %d ms", count, (double) totalMs / count, maxMs
+      );
+    }
+  }
+}
@@ -27,7 +27,7 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Handler;
-import android.util.Log;
+import android.os.SystemClock;
 import android.view.WindowManager;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
@@ -39,12 +39,15 @@ import com.journeyapps.barcodescanner.CameraPreview;
 import com.journeyapps.barcodescanner.DecoratedBarcodeView;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.util.HapticUtil;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 
 public class ZXingScanCaptureManager {
 
   private static final String TAG = ZXingScanCaptureManager.class.getSimpleName();
 
   private static int cameraPermissionReqCode = 250;
+  // the same code is still in front of the camera right after it was handled
+  private static final long DUPLICATE_WINDOW_MS = 1500;
 
   private final Activity activity;
   private final DecoratedBarcodeView barcodeView;
@@ -62,11 +65,27 @@ public class ZXingScanCaptureManager {
 
   private final BarcodeListener barcodeListener;
 
+  private boolean isDecoding = false;
+  private String lastResultText;
+  private long lastResultTime;
+
   public final BarcodeCallback callback = new BarcodeCallback() {
     @Override
     public void barcodeResult(final BarcodeResult result) {
+      if (!isDecoding) {
+        return;
+      }
+      long now = SystemClock.elapsedRealtime();
+      if (result.getText() != null && result.getText().equals(lastResultText)
+          && now - lastResultTime < DUPLICATE_WINDOW_MS) {
+        lastResultTime = now;
+        return;
+      }
+      lastResultText = result.getText();
+      lastResultTime = now;
       new HapticUtil(activity).tick();
-      barcodeView.pause();
+      // the preview keeps running, so decoding can start again without reopening the camera
+      stopDecoding();
       inactivityTimer.cancel();
       barcodeListener.onBarcodeResult(result);
     }
@@ -109,7 +128,7 @@ public class ZXingScanCaptureManager {
           @Override
           public void cameraClosed() {
             if (finishWhenClosed) {
-              Log.d(TAG, "Camera closed; finishing activity");
+              LogUtil.d(TAG, "Camera closed; finishing activity");
               finish();
             }
           }
@@ -119,16 +138,26 @@ public class ZXingScanCaptureManager {
     handler = new Handler();
 
     inactivityTimer = new InactivityTimer(activity, () -> {
-      Log.d(TAG, "Finishing due to inactivity");
+      LogUtil.d(TAG, "Finishing due to inactivity");
       finish();
     });
   }
 
   /**
-   * Start decoding.
+   * Start decoding until the next result, the decoder thread only requests a new preview frame
+   * after the previous one was decoded.
    */
   public void decode() {
-    barcodeView.decodeSingle(callback);
+    if (isDecoding) {
+      return;
+    }
+    isDecoding = true;
+    barcodeView.decodeContinuous(callback);
+  }
+
+  private void stopDecoding() {
+    isDecoding = false;
+    barcodeView.getBarcodeView().stopDecoding();
   }
 
   /**
@@ -193,6 +222,7 @@ public class ZXingScanCaptureManager {
   public void onPause() {
     activity.getWindow().clearFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
     inactivityTimer.cancel();
+    stopDecoding();
     barcodeView.pause();
   }
 
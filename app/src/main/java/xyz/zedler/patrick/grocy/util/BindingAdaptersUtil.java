@@ -35,6 +35,7 @@ import com.google.android.material.textfield.MaterialAutoCompleteTextView;
 import com.google.android.material.textfield.TextInputLayout;
 import java.util.List;
 import xyz.zedler.patrick.grocy.adapter.MatchProductsArrayAdapter;
+import xyz.zedler.patrick.grocy.adapter.MatchProductsArrayAdapter.TopMatchListener;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.view.ActionButton;
 
@@ -76,14 +77,18 @@ public class BindingAdaptersUtil {
     view.getLayoutTransition().enableTransitionType(LayoutTransition.CHANGING);
   }
 
-  @BindingAdapter({"productList"})
-  public static void setProductList(MaterialAutoCompleteTextView view, List<Product> items) {
+  @BindingAdapter(value = {"productList", "onTopMatch"}, requireAll = false)
+  public static void setProductList(
+      MaterialAutoCompleteTextView view,
+      List<Product> items,
+      TopMatchListener topMatchListener
+  ) {
     if (items == null) {
       return;
     }
     view.setAdapter(
         new MatchProductsArrayAdapter(view.getContext(), android.R.layout.simple_list_item_1,
-            items));
+            items, topMatchListener));
   }
 
   @BindingAdapter("onSearchClickInSoftKeyboard")
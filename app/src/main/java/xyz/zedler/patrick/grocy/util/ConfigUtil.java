@@ -20,7 +20,13 @@
 package xyz.zedler.patrick.grocy.util;
 
 import android.content.SharedPreferences;
-import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
 import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
@@ -29,10 +35,18 @@ import xyz.zedler.patrick.grocy.util.Constants.PREF;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.STOCK;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
 
+/**
+ * Downloads system config, user settings and system info and stores them in the preferences.
+ * The hash of every response is stored as well, so unchanged responses are neither parsed nor
+ * written again.
+ */
 public class ConfigUtil {
 
   private final static String TAG = ConfigUtil.class.getSimpleName();
 
+  private final static long REVALIDATE_DELAY_MS = 5000;
+  private final static long REVALIDATE_INTERVAL_MS = 60 * 60 * 1000;
+
   public static void loadInfo(
       DownloadHelper dlHelper,
       GrocyApi api,
@@ -40,13 +54,51 @@ public class ConfigUtil {
       Runnable onSuccessAction,
       DownloadHelper.OnErrorListener onError
   ) {
+    loadInfo(dlHelper, api, prefs, changed -> {
+      if (onSuccessAction != null) {
+        onSuccessAction.run();
+      }
+    }, onError);
+  }
+
+  /**
+   * Revalidates the stored info in the background, a few seconds after the call so that the
+   * requests don't compete with the downloads of the start page, and at most once per hour.
+   * onChanged only runs if at least one of the responses differed from the stored one.
+   */
+  public static void revalidateInfo(
+      DownloadHelper dlHelper,
+      GrocyApi api,
+      SharedPreferences prefs,
+      Runnable onChanged
+  ) {
+    long lastCheck = prefs.getLong(PREF.CONFIG_LAST_CHECK_TIME, 0);
+    if (System.currentTimeMillis() - lastCheck < REVALIDATE_INTERVAL_MS) {
+      return;
+    }
+    new Handler(Looper.getMainLooper()).postDelayed(() -> loadInfo(
+        dlHelper, api, prefs, changed -> {
+          if (changed && onChanged != null) {
+            onChanged.run();
+          }
+        }, null
+    ), REVALIDATE_DELAY_MS);
+  }
+
+  private static void loadInfo(
+      DownloadHelper dlHelper,
+      GrocyApi api,
+      SharedPreferences prefs,
+      OnLoadedListener onLoaded,
+      DownloadHelper.OnErrorListener onError
+  ) {
 
     boolean debug = prefs.getBoolean(Constants.SETTINGS.DEBUGGING.ENABLE_DEBUGGING, Constants.SETTINGS_DEFAULT.DEBUGGING.ENABLE_DEBUGGING);
+    boolean[] changed = new boolean[1];
 
     DownloadHelper.Queue queue = dlHelper.newQueue(() -> {
-      if (onSuccessAction != null) {
-        onSuccessAction.run();
-      }
+      prefs.edit().putLong(PREF.CONFIG_LAST_CHECK_TIME, System.currentTimeMillis()).apply();
+      onLoaded.onLoaded(changed[0]);
     }, volleyError -> {
       if (onError != null) {
         onError.onError(volleyError);
@@ -56,23 +108,77 @@ public class ConfigUtil {
     queue.append(
         dlHelper.getStringData(
             api.getSystemConfig(),
-            response -> storeSystemConfig(response, prefs, debug)
+            response -> changed[0] |= storeIfChanged(
+                response, PREF.CONFIG_HASH_SYSTEM_CONFIG, prefs, debug,
+                ConfigUtil::storeSystemConfig
+            )
         ),
         dlHelper.getStringData(
             api.getUserSettings(),
-            response -> storeUserSettings(response, prefs, debug)
+            response -> changed[0] |= storeIfChanged(
+                response, PREF.CONFIG_HASH_USER_SETTINGS, prefs, debug,
+                ConfigUtil::storeUserSettings
+            )
         ),
         dlHelper.getStringData(
             api.getSystemInfo(),
-            response -> storeSystemInfo(response, prefs, debug)
+            response -> changed[0] |= storeIfChanged(
+                response, PREF.CONFIG_HASH_SYSTEM_INFO, prefs, debug,
+                ConfigUtil::storeSystemInfo
+            )
         )
     ).start();
   }
 
-  private static void storeSystemConfig(String response, SharedPreferences prefs, boolean debug) {
+  private static boolean storeIfChanged(
+      String response,
+      String hashKey,
+      SharedPreferences prefs,
+      boolean debug,
+      ResponseStorer storer
+  ) {
+    String hash = getHash(response);
+    if (hash != null && hash.equals(prefs.getString(hashKey, null))) {
+      if (debug) {
+        LogUtil.i(TAG, "storeIfChanged: " + hashKey + " unchanged");
+      }
+      return false;
+    }
+    boolean stored = storer.store(response, prefs, debug);
+    if (stored) {
+      prefs.edit().putString(hashKey, hash).apply();
+    }
+    return stored;
+  }
+
+  @Nullable
+  private static String getHash(String response) {
+    if (response == null) {
+      return null;
+    }
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(response.getBytes(StandardCharsets.UTF_8));
+      StringBuilder builder = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+        builder.append(Character.forDigit(b & 0xF, 16));
+      }
+      return builder.toString();
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    }
+  }
+
+  private static boolean storeSystemConfig(
+      String response,
+      SharedPreferences prefs,
+      boolean debug
+  ) {
+    boolean success = false;
     try {
       JSONObject jsonObject = new JSONObject(response);
-      prefs.edit()
+      ChangedValuesEditor editor = new ChangedValuesEditor(prefs)
           .putString(
               Constants.PREF.CURRENCY,
               jsonObject.getString("CURRENCY")
@@ -115,31 +221,39 @@ public class ConfigUtil {
                   "FEATURE_FLAG_STOCK_PRODUCT_OPENED_TRACKING"
               )
           ).putBoolean(
-          PREF.FEATURE_TASKS,
-          jsonObject.getBoolean(
-              "FEATURE_FLAG_TASKS"
-          )
-      ).apply();
+              PREF.FEATURE_TASKS,
+              jsonObject.getBoolean(
+                  "FEATURE_FLAG_TASKS"
+              )
+          );
       if (jsonObject.has("FEATURE_FLAG_STOCK_PRODUCT_FREEZING")) {
-        prefs.edit().putBoolean(
+        editor.putBoolean(
             Constants.PREF.FEATURE_STOCK_FREEZING_TRACKING,
             jsonObject.getBoolean("FEATURE_FLAG_STOCK_PRODUCT_FREEZING")
-        ).apply();
+        );
       }
+      editor.apply();
+      success = true;
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "downloadConfig: " + e);
+        LogUtil.e(TAG, "downloadConfig: " + e);
       }
     }
     if (debug) {
-      Log.i(TAG, "downloadConfig: config = " + response);
+      LogUtil.i(TAG, "downloadConfig: config = " + response);
     }
+    return success;
   }
 
-  private static void storeUserSettings(String response, SharedPreferences prefs, boolean debug) {
+  private static boolean storeUserSettings(
+      String response,
+      SharedPreferences prefs,
+      boolean debug
+  ) {
+    boolean success = false;
     try {
       JSONObject jsonObject = new JSONObject(response);
-      prefs.edit().putInt(
+      ChangedValuesEditor editor = new ChangedValuesEditor(prefs).putInt(
           STOCK.LOCATION,
           jsonObject.getInt(STOCK.LOCATION)
       ).putInt(
@@ -169,29 +283,32 @@ public class ConfigUtil {
           STOCK.USE_QUICK_CONSUME_AMOUNT,
           getBoolean(jsonObject, STOCK.USE_QUICK_CONSUME_AMOUNT,
               SETTINGS_DEFAULT.STOCK.USE_QUICK_CONSUME_AMOUNT, prefs)
-      ).apply();
+      );
       if (jsonObject.has(STOCK.DEFAULT_DUE_DAYS)) {
-        prefs.edit().putInt(
+        editor.putInt(
             STOCK.DEFAULT_DUE_DAYS,
             jsonObject.getInt(STOCK.DEFAULT_DUE_DAYS)
-        ).apply();
+        );
       }
       if (jsonObject.has(STOCK.TREAT_OPENED_OUT_OF_STOCK)) {
-        prefs.edit().putInt(
+        editor.putInt(
             STOCK.TREAT_OPENED_OUT_OF_STOCK,
             getBoolean(jsonObject, STOCK.TREAT_OPENED_OUT_OF_STOCK, true, prefs) ? 1 : 0
-        ).apply();
+        );
       } else {
-        prefs.edit().putInt(STOCK.TREAT_OPENED_OUT_OF_STOCK, -1).apply();
+        editor.putInt(STOCK.TREAT_OPENED_OUT_OF_STOCK, -1);
       }
+      editor.apply();
+      success = true;
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "downloadUserSettings: " + e);
+        LogUtil.e(TAG, "downloadUserSettings: " + e);
       }
     }
     if (debug) {
-      Log.i(TAG, "downloadUserSettings: settings = " + response);
+      LogUtil.i(TAG, "downloadUserSettings: settings = " + response);
     }
+    return success;
   }
 
   private static boolean getBoolean(
@@ -218,15 +335,19 @@ public class ConfigUtil {
         return prefs.getBoolean(settingKey, settingDefault);
       }
     } catch (JSONException e) {
-      Log.e(TAG, "downloadUserSettings: getBoolean: settingKey="
+      LogUtil.e(TAG, "downloadUserSettings: getBoolean: settingKey="
           + settingKey + " Exception:" + e);
       return prefs.getBoolean(settingKey, settingDefault);
     }
   }
 
-  private static void storeSystemInfo(String response, SharedPreferences prefs, boolean debug) {
+  private static boolean storeSystemInfo(
+      String response,
+      SharedPreferences prefs,
+      boolean debug
+  ) {
     try {
-      prefs.edit()
+      new ChangedValuesEditor(prefs)
           .putString(
               Constants.PREF.GROCY_VERSION,
               new JSONObject(response).getJSONObject(
@@ -234,11 +355,70 @@ public class ConfigUtil {
               ).getString("Version")
           ).apply();
       if (debug) {
-        Log.i(TAG, "downloadSystemInfo: " + response);
+        LogUtil.i(TAG, "downloadSystemInfo: " + response);
       }
+      return true;
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "downloadSystemInfo: " + e);
+        LogUtil.e(TAG, "downloadSystemInfo: " + e);
+      }
+      return false;
+    }
+  }
+
+  private interface OnLoadedListener {
+
+    void onLoaded(boolean changed);
+  }
+
+  private interface ResponseStorer {
+
+    boolean store(String response, SharedPreferences prefs, boolean debug);
+  }
+
+  /**
+   * Only writes values which differ from the stored ones and only applies if there were any.
+   */
+  private static class ChangedValuesEditor {
+
+    private final SharedPreferences prefs;
+    private SharedPreferences.Editor editor;
+
+    ChangedValuesEditor(SharedPreferences prefs) {
+      this.prefs = prefs;
+    }
+
+    private SharedPreferences.Editor edit() {
+      if (editor == null) {
+        editor = prefs.edit();
+      }
+      return editor;
+    }
+
+    ChangedValuesEditor putString(String key, String value) {
+      if (!prefs.contains(key) || !Objects.equals(prefs.getString(key, null), value)) {
+        edit().putString(key, value);
+      }
+      return this;
+    }
+
+    ChangedValuesEditor putBoolean(String key, boolean value) {
+      if (!prefs.contains(key) || prefs.getBoolean(key, value) != value) {
+        edit().putBoolean(key, value);
+      }
+      return this;
+    }
+
+    ChangedValuesEditor putInt(String key, int value) {
+      if (!prefs.contains(key) || prefs.getInt(key, value) != value) {
+        edit().putInt(key, value);
+      }
+      return this;
+    }
+
+    void apply() {
+      if (editor != null) {
+        editor.apply();
       }
     }
   }
@@ -72,10 +72,15 @@ public final class Constants {
     public final static String DB_LAST_TIME_PRODUCTS_AVERAGE_PRICE = "db_last_time_products_average_price";
     public final static String DB_LAST_TIME_PRODUCT_BARCODES = "db_last_time_product_barcodes";
     public final static String DB_LAST_TIME_VOLATILE = "db_last_time_volatile";
-    public final static String DB_LAST_TIME_VOLATILE_MISSING = "db_last_time_volatile_missing";
     public final static String DB_LAST_TIME_TASKS = "db_last_time_tasks";
     public final static String DB_LAST_TIME_TASK_CATEGORIES = "db_last_time_task_categories";
 
+    public final static String OVERVIEW_AGGREGATES = "overview_aggregates";
+    public final static String CONFIG_HASH_SYSTEM_CONFIG = "config_hash_system_config";
+    public final static String CONFIG_HASH_USER_SETTINGS = "config_hash_user_settings";
+    public final static String CONFIG_HASH_SYSTEM_INFO = "config_hash_system_info";
+    public final static String CONFIG_LAST_CHECK_TIME = "config_last_check_time";
+
     public final static String QUICK_MODE_ACTIVE_CONSUME = "quick_mode_active_consume";
     public final static String QUICK_MODE_ACTIVE_PURCHASE = "quick_mode_active_purchase";
     public final static String QUICK_MODE_ACTIVE_SHOPPING_ITEM = "quick_mode_active_shopping_item";
@@ -366,6 +371,7 @@ public final class Constants {
       public final static String TRANSFER = "transfer";
       public final static String INVENTORY = "inventory";
       public final static String SAVE = "save";
+      public final static String UPLOAD = "upload";
     }
   }
 }
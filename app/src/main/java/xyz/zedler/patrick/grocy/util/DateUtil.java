@@ -20,7 +20,7 @@
 package xyz.zedler.patrick.grocy.util;
 
 import android.content.Context;
-import android.util.Log;
+import android.util.SparseArray;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
@@ -37,16 +37,33 @@ public class DateUtil {
   public static final int FORMAT_MEDIUM = 1;
   public static final int FORMAT_SHORT = 0;
 
-  private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat(
-      "yyyy-MM-dd", Locale.ENGLISH
-  );
-  private static final SimpleDateFormat DATE_FORMAT_WITH_TIME = new SimpleDateFormat(
-      "yyyy-MM-dd HH:mm:ss", Locale.ENGLISH
-  );
+  public static final int NO_EPOCH_DAY = Integer.MIN_VALUE;
+  public static final int NEVER_OVERDUE_EPOCH_DAY = getEpochDay(Constants.DATE.NEVER_OVERDUE);
+
+  // SimpleDateFormat is not thread-safe, each thread gets its own instances
+  private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT
+      = new ThreadLocal<SimpleDateFormat>() {
+    @Override
+    protected SimpleDateFormat initialValue() {
+      return new SimpleDateFormat("yyyy-MM-dd", Locale.ENGLISH);
+    }
+  };
+  private static final ThreadLocal<SimpleDateFormat> DATE_FORMAT_WITH_TIME
+      = new ThreadLocal<SimpleDateFormat>() {
+    @Override
+    protected SimpleDateFormat initialValue() {
+      return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.ENGLISH);
+    }
+  };
+
+  private static volatile Today today;
+
   private final Context context;
+  private final SparseArray<String> humanFromTodayCache;
 
   public DateUtil(Context context) {
     this.context = context;
+    humanFromTodayCache = new SparseArray<>();
   }
 
   public static Date getDate(String dateString) {
@@ -55,38 +72,94 @@ public class DateUtil {
     }
     Date date = null;
     try {
-      date = DATE_FORMAT.parse(dateString);
+      date = DATE_FORMAT.get().parse(dateString);
     } catch (ParseException e) {
-      Log.e(TAG, "getDate: ");
+      LogUtil.e(TAG, "getDate: ");
     }
     return date;
   }
 
   public static String getDateStringToday() {
-    return DATE_FORMAT.format(getCurrentDate());
+    return DATE_FORMAT.get().format(getCurrentDate());
   }
 
   public static int getDaysFromNow(String dateString) {
     if (dateString == null) {
       return 0;
     }
-    Date date = null;
-    try {
-      date = DATE_FORMAT.parse(dateString);
-    } catch (ParseException e) {
-      Log.e(TAG, "getDaysFromNow: " + e);
-    }
-    if (date == null) {
+    int epochDay = getEpochDay(dateString);
+    if (epochDay == NO_EPOCH_DAY) {
+      LogUtil.e(TAG, "getDaysFromNow: invalid date: " + dateString);
       return 0;
     }
-    long diff = date.getTime() - getCurrentDate().getTime();
-    return (int) TimeUnit.DAYS.convert(diff, TimeUnit.MILLISECONDS);
+    return epochDay - getEpochDayToday();
+  }
+
+  public static int getDaysFromNow(int epochDay) {
+    return epochDay - getEpochDayToday();
+  }
+
+  /**
+   * Parses a date in the format yyyy-MM-dd (optionally followed by a time) to the number of days
+   * since 1970-01-01 without allocating anything.
+   *
+   * @return the epoch day or {@link #NO_EPOCH_DAY} if the string is not a valid date
+   */
+  public static int getEpochDay(String dateString) {
+    if (dateString == null || dateString.length() < 10
+        || dateString.charAt(4) != '-' || dateString.charAt(7) != '-') {
+      return NO_EPOCH_DAY;
+    }
+    int year = parseDigits(dateString, 0, 4);
+    int month = parseDigits(dateString, 5, 7);
+    int day = parseDigits(dateString, 8, 10);
+    if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+      return NO_EPOCH_DAY;
+    }
+    return getEpochDay(year, month, day);
+  }
+
+  /**
+   * Days since 1970-01-01 of the given date in the proleptic Gregorian calendar, after the
+   * algorithm days_from_civil by Howard Hinnant.
+   */
+  public static int getEpochDay(int year, int month, int day) {
+    year -= month <= 2 ? 1 : 0;
+    int era = (year >= 0 ? year : year - 399) / 400;
+    int yearOfEra = year - era * 400;
+    int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+
+  private static int parseDigits(String string, int start, int end) {
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      char c = string.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + c - '0';
+    }
+    return value;
+  }
+
+  /**
+   * The local date of today as epoch day, only recalculated after midnight.
+   */
+  public static int getEpochDayToday() {
+    Today today = DateUtil.today;
+    if (today == null || System.currentTimeMillis() >= today.nextMidnightMillis) {
+      today = new Today();
+      DateUtil.today = today;
+    }
+    return today.epochDay;
   }
 
   public static String getTodayWithDaysAdded(int daysToAdd) {
     Calendar calendar = Calendar.getInstance();
     calendar.add(Calendar.DAY_OF_MONTH, daysToAdd);
-    return DATE_FORMAT.format(calendar.getTime());
+    return DATE_FORMAT.get().format(calendar.getTime());
   }
 
   private static Date getCurrentDate() {
@@ -107,7 +180,20 @@ public class DateUtil {
   public String getCurrentDateWithTimeStr() {
     Calendar cal = Calendar.getInstance();
     cal.set(Calendar.MILLISECOND, 0);
-    return DATE_FORMAT_WITH_TIME.format(cal.getTime());
+    return DATE_FORMAT_WITH_TIME.get().format(cal.getTime());
+  }
+
+  public static long getMillisFromDateWithTimeStr(String dateWithTimeStr) {
+    if (dateWithTimeStr == null) {
+      return -1;
+    }
+    try {
+      Date date = DATE_FORMAT_WITH_TIME.get().parse(dateWithTimeStr);
+      return date != null ? date.getTime() : -1;
+    } catch (ParseException e) {
+      LogUtil.e(TAG, "getMillisFromDateWithTimeStr: " + e);
+      return -1;
+    }
   }
 
   public boolean isTimeLessThanOneMinuteAway(String dateWithTimeStr) {
@@ -117,9 +203,9 @@ public class DateUtil {
     Date currentDateWithTime = getCurrentDateWithTime();
     Date askedDateWithTime = null;
     try {
-      askedDateWithTime = DATE_FORMAT_WITH_TIME.parse(dateWithTimeStr);
+      askedDateWithTime = DATE_FORMAT_WITH_TIME.get().parse(dateWithTimeStr);
     } catch (ParseException e) {
-      Log.e(TAG, "isTimeMoreThanOneMinuteAway: " + e);
+      LogUtil.e(TAG, "isTimeMoreThanOneMinuteAway: " + e);
     }
     if (askedDateWithTime == null) {
       return true;
@@ -135,9 +221,9 @@ public class DateUtil {
     }
     Date date = null;
     try {
-      date = DATE_FORMAT.parse(dateString);
+      date = DATE_FORMAT.get().parse(dateString);
     } catch (ParseException e) {
-      Log.e(TAG, "getLocalizedDate: " + e);
+      LogUtil.e(TAG, "getLocalizedDate: " + e);
     }
     if (date == null) {
       return "";
@@ -167,7 +253,31 @@ public class DateUtil {
     }
   }
 
+  public String getHumanForDaysFromNow(int epochDay) {
+    if (epochDay == NO_EPOCH_DAY) {
+      return context.getString(R.string.date_unknown);
+    } else if (epochDay == NEVER_OVERDUE_EPOCH_DAY) {
+      return context.getString(R.string.date_never);
+    } else {
+      return getHumanFromToday(getDaysFromNow(epochDay));
+    }
+  }
+
+  /**
+   * The strings only depend on the number of days, so they are cached per instance.
+   */
   public String getHumanFromToday(int days) {
+    synchronized (humanFromTodayCache) {
+      String human = humanFromTodayCache.get(days);
+      if (human == null) {
+        human = getHumanFromTodayUncached(days);
+        humanFromTodayCache.put(days, human);
+      }
+      return human;
+    }
+  }
+
+  private String getHumanFromTodayUncached(int days) {
     if (days == 0) {
       return context.getString(R.string.date_today);
     } else if (days > 0) {
@@ -222,17 +332,7 @@ public class DateUtil {
         );
       } else {
         // Check if days are about the same as to the never expiring date
-        Calendar calendarNever = Calendar.getInstance();
-        try {
-          Date dateNever = DATE_FORMAT.parse(Constants.DATE.NEVER_OVERDUE);
-          if (dateNever != null) {
-            calendarNever.setTime(dateNever);
-          }
-        } catch (ParseException e) {
-          Log.i(TAG, "getHumanDuration: " + e);
-        }
-        long msDiff = calendarNever.getTime().getTime() - getCurrentDate().getTime();
-        long daysToNever = TimeUnit.DAYS.convert(msDiff, TimeUnit.MILLISECONDS);
+        int daysToNever = getDaysFromNow(NEVER_OVERDUE_EPOCH_DAY);
         if (days >= daysToNever - 100) {
           // deviation in server calculation possible
           return context.getString(R.string.date_unlimited);
@@ -247,4 +347,25 @@ public class DateUtil {
       return context.getString(R.string.date_unknown);
     }
   }
+
+  private static class Today {
+
+    private final int epochDay;
+    private final long nextMidnightMillis;
+
+    Today() {
+      Calendar calendar = Calendar.getInstance();
+      epochDay = getEpochDay(
+          calendar.get(Calendar.YEAR),
+          calendar.get(Calendar.MONTH) + 1,
+          calendar.get(Calendar.DAY_OF_MONTH)
+      );
+      calendar.add(Calendar.DAY_OF_MONTH, 1);
+      calendar.set(Calendar.HOUR_OF_DAY, 0);
+      calendar.set(Calendar.MINUTE, 0);
+      calendar.set(Calendar.SECOND, 0);
+      calendar.set(Calendar.MILLISECOND, 0);
+      nextMidnightMillis = calendar.getTimeInMillis();
+    }
+  }
 }
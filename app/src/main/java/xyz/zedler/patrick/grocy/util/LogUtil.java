@@ -0,0 +1,201 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.util;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the latest log entries of this process in a lock-free ring buffer, so they can be shown
+ * in the app without reading logcat. Messages are formatted from the format string and its
+ * arguments only when the entries are read. Only errors and warnings are also passed to logcat,
+ * info and debug entries only if logcat output is enabled.
+ * So calls with format arguments don't need to check the debug setting. The arguments are kept
+ * until the entry is overwritten, so they should be ids, counts or strings, no model objects.
+ */
+public class LogUtil {
+
+  private final static int CAPACITY = 1024;
+
+  private final static AtomicReferenceArray<Entry> entries = new AtomicReferenceArray<>(CAPACITY);
+  private final static AtomicLong nextSequence = new AtomicLong();
+  private static volatile boolean logcatEnabled = false;
+
+  public static void setLogcatEnabled(boolean enabled) {
+    logcatEnabled = enabled;
+  }
+
+  public static void d(String tag, String format, Object... args) {
+    log(Log.DEBUG, tag, format, args, null);
+  }
+
+  public static void i(String tag, String format, Object... args) {
+    log(Log.INFO, tag, format, args, null);
+  }
+
+  public static void w(String tag, String format, Object... args) {
+    log(Log.WARN, tag, format, args, null);
+  }
+
+  public static void e(String tag, String format, Object... args) {
+    log(Log.ERROR, tag, format, args, null);
+  }
+
+  public static void e(String tag, String message, Throwable throwable) {
+    log(Log.ERROR, tag, message, null, throwable);
+  }
+
+  private static void log(
+      int level,
+      String tag,
+      String format,
+      @Nullable Object[] args,
+      @Nullable Throwable throwable
+  ) {
+    long sequence = nextSequence.getAndIncrement();
+    Entry entry = new Entry(
+        sequence, System.currentTimeMillis(), level, tag, format, args, throwable
+    );
+    entries.set((int) (sequence % CAPACITY), entry);
+    if (level >= Log.WARN || logcatEnabled) {
+      Log.println(level, tag, entry.getMessage());
+    }
+  }
+
+  /**
+   * Returns the buffered entries with at least the given level, oldest first.
+   *
+   * @param tag only entries with this tag are returned, all if null
+   */
+  @NonNull
+  public static List<Entry> getEntries(int minLevel, @Nullable String tag) {
+    long end = nextSequence.get();
+    long start = Math.max(0, end - CAPACITY);
+    List<Entry> result = new ArrayList<>();
+    for (long sequence = start; sequence < end; sequence++) {
+      Entry entry = entries.get((int) (sequence % CAPACITY));
+      // the slot may already hold a newer entry or not be written yet
+      if (entry == null || entry.sequence != sequence || entry.level < minLevel) {
+        continue;
+      }
+      if (tag == null || tag.equals(entry.tag)) {
+        result.add(entry);
+      }
+    }
+    return result;
+  }
+
+  @NonNull
+  public static List<String> getTags() {
+    TreeSet<String> tags = new TreeSet<>();
+    for (int i = 0; i < CAPACITY; i++) {
+      Entry entry = entries.get(i);
+      if (entry != null && entry.tag != null) {
+        tags.add(entry.tag);
+      }
+    }
+    return new ArrayList<>(tags);
+  }
+
+  public static class Entry {
+
+    private final long sequence;
+    private final long time;
+    private final int level;
+    private final String tag;
+    private final String format;
+    private final Object[] args;
+    private final Throwable throwable;
+
+    Entry(
+        long sequence,
+        long time,
+        int level,
+        String tag,
+        String format,
+        Object[] args,
+        Throwable throwable
+    ) {
+      this.sequence = sequence;
+      this.time = time;
+      this.level = level;
+      this.tag = tag;
+      this.format = format;
+      this.args = args;
+      this.throwable = throwable;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+
+    public String getTag() {
+      return tag;
+    }
+
+    @NonNull
+    public String getMessage() {
+      String message = format;
+      if (args != null && args.length > 0) {
+        try {
+          message = String.format(Locale.ENGLISH, format, args);
+        } catch (RuntimeException e) {
+          message = format + " " + Arrays.toString(args);
+        }
+      }
+      if (throwable != null) {
+        message += "\n" + Log.getStackTraceString(throwable);
+      }
+      return message != null ? message : "null";
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+      return new SimpleDateFormat("MM-dd HH:mm:ss.SSS", Locale.ENGLISH).format(new Date(time))
+          + " " + getLevelChar() + "/" + tag + ": " + getMessage();
+    }
+
+    private char getLevelChar() {
+      switch (level) {
+        case Log.VERBOSE:
+          return 'V';
+        case Log.DEBUG:
+          return 'D';
+        case Log.INFO:
+          return 'I';
+        case Log.WARN:
+          return 'W';
+        default:
+          return 'E';
+      }
+    }
+  }
+}
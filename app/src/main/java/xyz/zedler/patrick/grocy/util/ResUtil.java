@@ -34,7 +34,6 @@ import android.text.SpannableString;
 import android.text.SpannableStringBuilder;
 import android.text.Spanned;
 import android.text.style.BulletSpan;
-import android.util.Log;
 import android.view.View;
 import android.widget.ImageView;
 import androidx.annotation.DrawableRes;
@@ -68,7 +67,7 @@ public class ResUtil {
       text.deleteCharAt(text.length() - 1);
       inputStream.close();
     } catch (Exception e) {
-      Log.e(TAG, "getRawText: ", e);
+      LogUtil.e(TAG, "getRawText: ", e);
     }
     return text.toString();
   }
@@ -75,18 +75,11 @@ public class SortUtil {
     }
     Collections.sort(
         stockItems,
-        (item1, item2) -> {
-          String bbd1 = (ascending ? item1 : item2).getBestBeforeDate();
-          String bbd2 = (ascending ? item2 : item1).getBestBeforeDate();
-          if (bbd1 == null && bbd2 == null) {
-            return 0;
-          } else if (bbd1 == null) {
-            return -1; // or 1 when items without BBD should be last
-          } else if (bbd2 == null) {
-            return 1; // or -1 when items without BBD should be last
-          }
-          return DateUtil.getDate(bbd1).compareTo(DateUtil.getDate(bbd2));
-        }
+        // items without BBD are first, because NO_EPOCH_DAY is the smallest int
+        (item1, item2) -> Integer.compare(
+            (ascending ? item1 : item2).getBestBeforeEpochDay(),
+            (ascending ? item2 : item1).getBestBeforeEpochDay()
+        )
     );
   }
 
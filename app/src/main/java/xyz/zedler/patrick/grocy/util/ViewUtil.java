@@ -5,7 +5,6 @@ import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.os.SystemClock;
-import android.util.Log;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewTreeObserver.OnGlobalLayoutListener;
@@ -130,7 +129,7 @@ public class ViewUtil {
     try {
       ((Animatable) drawable).start();
     } catch (ClassCastException e) {
-      Log.e(TAG, "icon animation requires AnimVectorDrawable");
+      LogUtil.e(TAG, "icon animation requires AnimVectorDrawable");
     }
   }
 
@@ -153,7 +152,7 @@ public class ViewUtil {
       imageView.setImageDrawable(null);
       imageView.setImageDrawable((Drawable) animatable);
     } catch (ClassCastException e) {
-      Log.e(TAG, "resetting animated icon requires AnimVectorDrawable");
+      LogUtil.e(TAG, "resetting animated icon requires AnimVectorDrawable");
     }
   }
 }
@@ -25,7 +25,6 @@ import android.content.res.TypedArray;
 import android.graphics.drawable.Animatable;
 import android.os.Build;
 import android.util.AttributeSet;
-import android.util.Log;
 import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
@@ -33,6 +32,7 @@ import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 
 public class ActionButton extends LinearLayout {
 
@@ -141,7 +141,7 @@ public class ActionButton extends LinearLayout {
     try {
       ((Animatable) imageViewIcon.getDrawable()).start();
     } catch (ClassCastException cla) {
-      Log.e(TAG, "startIconAnimation() requires AVD!");
+      LogUtil.e(TAG, "startIconAnimation() requires AVD!");
     }
   }
 }
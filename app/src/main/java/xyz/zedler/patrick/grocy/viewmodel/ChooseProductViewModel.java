@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -40,12 +39,16 @@ import me.xdrop.fuzzywuzzy.ToStringFunction;
 import me.xdrop.fuzzywuzzy.model.BoundExtractedResult;
 import me.xdrop.fuzzywuzzy.model.ExtractedResult;
 import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.helper.BarcodeLookupHelper;
+import xyz.zedler.patrick.grocy.helper.BarcodeLookupHelper.LookupListener;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.model.BarcodeLookup;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.PendingProduct;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.repository.ChooseProductRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
 
@@ -55,6 +58,7 @@ public class ChooseProductViewModel extends BaseViewModel {
 
   private final SharedPreferences sharedPrefs;
   private final DownloadHelper dlHelper;
+  private final BarcodeLookupHelper barcodeLookupHelper;
   private final ChooseProductRepository repository;
 
   private final MutableLiveData<Boolean> displayHelpLive;
@@ -95,6 +99,7 @@ public class ChooseProductViewModel extends BaseViewModel {
     displayHelpLive = new MutableLiveData<>(false);
     isLoadingLive = new MutableLiveData<>(false);
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue);
+    barcodeLookupHelper = new BarcodeLookupHelper(getApplication(), dlHelper, debug);
     repository = new ChooseProductRepository(application);
 
     offlineLive = new MutableLiveData<>(false);
@@ -196,50 +201,27 @@ public class ChooseProductViewModel extends BaseViewModel {
     boolean productNameFilled = productNameLive.getValue() != null
         && !productNameLive.getValue().isEmpty();
     if(isOpenFoodFactsEnabled() && !productNameFilled) {
-      dlHelper.getOpenFoodFactsProductName(
-          barcode,
-          productName -> {
-            if (productName != null && !productName.isEmpty()) {
-              productNameLive.setValue(productName);
-              nameFromOnlineSource = productName;
-              offHelpText.setValue(getString(R.string.msg_product_name_off));
-            } else {
-              dlHelper.getOpenBeautyFactsProductName(
-                  barcode,
-                  productName1 -> {
-                    if (productName1 != null && !productName1.isEmpty()) {
-                      productNameLive.setValue(productName1);
-                      nameFromOnlineSource = productName1;
-                      offHelpText.setValue(getString(R.string.msg_product_name_obf));
-                    } else {
-                      offHelpText.setValue(getString(R.string.msg_product_name_lookup_empty));
-                      sendEvent(Event.FOCUS_INVALID_VIEWS);
-                    }
-                  },
-                  error1 -> {
-                    offHelpText.setValue(getString(R.string.msg_product_name_lookup_error));
-                    sendEvent(Event.FOCUS_INVALID_VIEWS);
-                  }
-              );
-            }
-          },
-          error -> dlHelper.getOpenBeautyFactsProductName(
-              barcode,
-              productName -> {
-                if (productName != null && !productName.isEmpty()) {
-                  productNameLive.setValue(productName);
-                  offHelpText.setValue(getString(R.string.msg_product_name_obf));
-                } else {
-                  offHelpText.setValue(getString(R.string.msg_product_name_lookup_empty));
-                  sendEvent(Event.FOCUS_INVALID_VIEWS);
-                }
-              },
-              error1 -> {
-                offHelpText.setValue(getString(R.string.msg_product_name_lookup_error));
-                sendEvent(Event.FOCUS_INVALID_VIEWS);
-              }
-          )
-      );
+      barcodeLookupHelper.lookupProductName(barcode, new LookupListener() {
+        @Override
+        public void onResult(@Nullable String name, int source) {
+          if (name != null) {
+            productNameLive.setValue(name);
+            nameFromOnlineSource = name;
+            offHelpText.setValue(getString(source == BarcodeLookup.SOURCE_OPEN_BEAUTY_FACTS
+                ? R.string.msg_product_name_obf
+                : R.string.msg_product_name_off));
+          } else {
+            offHelpText.setValue(getString(R.string.msg_product_name_lookup_empty));
+            sendEvent(Event.FOCUS_INVALID_VIEWS);
+          }
+        }
+
+        @Override
+        public void onError() {
+          offHelpText.setValue(getString(R.string.msg_product_name_lookup_error));
+          sendEvent(Event.FOCUS_INVALID_VIEWS);
+        }
+      });
     } else if (!productNameFilled) {
       sendEvent(Event.FOCUS_INVALID_VIEWS);
     }
@@ -247,7 +229,7 @@ public class ChooseProductViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -393,6 +375,7 @@ public class ChooseProductViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    barcodeLookupHelper.cancel();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
@@ -44,7 +43,12 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuantityUnitsBottomSh
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuickModeConfirmBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.StockEntriesBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.StockLocationsBottomSheet;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndexHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper.Details;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper.DetailsListener;
+import xyz.zedler.patrick.grocy.helper.QuantityUnitConversionHelper;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.FormDataConsume;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
@@ -52,7 +56,6 @@ import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.ProductDetails;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.model.StockEntry;
 import xyz.zedler.patrick.grocy.model.StockLocation;
@@ -62,6 +65,7 @@ import xyz.zedler.patrick.grocy.util.Constants.ARGUMENT;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
@@ -78,8 +82,9 @@ public class ConsumeViewModel extends BaseViewModel {
 
   private List<Product> products;
   private List<QuantityUnit> quantityUnits;
-  private List<QuantityUnitConversion> unitConversions;
-  private List<ProductBarcode> barcodes;
+  private final QuantityUnitConversionHelper unitConversionHelper;
+  private final BarcodeIndexHelper barcodeIndex;
+  private final ProductDetailsCacheHelper productDetailsCache;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
@@ -98,6 +103,9 @@ public class ConsumeViewModel extends BaseViewModel {
     grocyApi = new GrocyApi(getApplication());
     repository = new ConsumeRepository(application);
     formData = new FormDataConsume(application, sharedPrefs, args);
+    barcodeIndex = new BarcodeIndexHelper();
+    unitConversionHelper = new QuantityUnitConversionHelper();
+    productDetailsCache = new ProductDetailsCacheHelper(application, dlHelper, debug);
 
     infoFullscreenLive = new MutableLiveData<>();
     boolean quickModeStart;
@@ -113,7 +121,6 @@ public class ConsumeViewModel extends BaseViewModel {
     }
     quickModeEnabled = new MutableLiveData<>(quickModeStart);
 
-    barcodes = new ArrayList<>();
   }
 
   public FormDataConsume getFormData() {
@@ -123,9 +130,11 @@ public class ConsumeViewModel extends BaseViewModel {
   public void loadFromDatabase(boolean downloadAfterLoading) {
     repository.loadFromDatabase(data -> {
       this.products = data.getProducts();
-      this.barcodes = data.getBarcodes();
+      barcodeIndex.setProducts(products);
+      barcodeIndex.setBarcodes(data.getBarcodes());
       this.quantityUnits = data.getQuantityUnits();
-      this.unitConversions = data.getQuantityUnitConversions();
+      unitConversionHelper.setQuantityUnits(quantityUnits);
+      unitConversionHelper.setConversions(data.getQuantityUnitConversions());
       formData.getProductsLive().setValue(Product.getActiveProductsOnly(products));
       if (downloadAfterLoading) {
         downloadData();
@@ -147,13 +156,17 @@ public class ConsumeViewModel extends BaseViewModel {
     queue.append(
         dlHelper.updateProducts(dbChangedTime, products -> {
           this.products = products;
+          barcodeIndex.setProducts(products);
           formData.getProductsLive().setValue(Product.getActiveProductsOnly(products));
         }), dlHelper.updateQuantityUnitConversions(
-            dbChangedTime, conversions -> this.unitConversions = conversions
+            dbChangedTime, unitConversionHelper::setConversions
         ), dlHelper.updateProductBarcodes(
-            dbChangedTime, barcodes -> this.barcodes = barcodes
+            dbChangedTime, barcodeIndex::setBarcodes
         ), dlHelper.updateQuantityUnits(
-            dbChangedTime, quantityUnits -> this.quantityUnits = quantityUnits
+            dbChangedTime, quantityUnits -> {
+              this.quantityUnits = quantityUnits;
+              unitConversionHelper.setQuantityUnits(quantityUnits);
+            }
         )
     );
     if (queue.isEmpty()) {
@@ -191,13 +204,13 @@ public class ConsumeViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
   }
 
   public void setProduct(int productId, ProductBarcode barcode, String stockEntryId) {
-    DownloadHelper.OnQueueEmptyListener onQueueEmptyListener = () -> {
+    Runnable onDetailsLoaded = () -> {
       ProductDetails productDetails = formData.getProductDetailsLive().getValue();
       assert productDetails != null;
       Product product = productDetails.getProduct();
@@ -290,21 +303,38 @@ public class ConsumeViewModel extends BaseViewModel {
       }
     };
 
-    dlHelper.newQueue(
-        onQueueEmptyListener,
-        error -> showMessageAndContinueScanning(getString(R.string.error_no_product_details))
-    ).append(
-        dlHelper.getProductDetails(
-            productId,
-            productDetails -> formData.getProductDetailsLive().setValue(productDetails)
-        ), dlHelper.getStockLocations(
-            productId,
-            formData::setStockLocations
-        ), dlHelper.getStockEntries(
-            productId,
-            formData::setStockEntries
-        )
-    ).start();
+    productDetailsCache.load(productId, true, new DetailsListener() {
+      @Override
+      public void onDetails(Details details, boolean isRevalidation) {
+        if (isRevalidation) {
+          onProductDetailsRevalidated(details);
+          return;
+        }
+        formData.getProductDetailsLive().setValue(details.getProductDetails());
+        formData.setStockLocations(details.getStockLocations());
+        formData.setStockEntries(details.getStockEntries());
+        onDetailsLoaded.run();
+      }
+
+      @Override
+      public void onError() {
+        showMessageAndContinueScanning(getString(R.string.error_no_product_details));
+      }
+    });
+  }
+
+  private void onProductDetailsRevalidated(Details details) {
+    ProductDetails current = formData.getProductDetailsLive().getValue();
+    ProductDetails productDetails = details.getProductDetails();
+    if (current == null
+        || current.getProduct().getId() != productDetails.getProduct().getId()) {
+      return;
+    }
+    // the inputs are kept, only the stock the validation depends on is replaced
+    formData.getProductDetailsLive().setValue(productDetails);
+    formData.setStockLocations(details.getStockLocations());
+    formData.setStockEntries(details.getStockEntries());
+    formData.isFormValid();
   }
 
   private void setProductQuantityUnitsAndFactors(
@@ -318,24 +348,7 @@ public class ConsumeViewModel extends BaseViewModel {
       throw new IllegalArgumentException(getString(R.string.error_loading_qus));
     }
 
-    HashMap<QuantityUnit, Double> unitFactors = new HashMap<>();
-    ArrayList<Integer> quIdsInHashMap = new ArrayList<>();
-    unitFactors.put(stock, (double) -1);
-    quIdsInHashMap.add(stock.getId());
-    if (!quIdsInHashMap.contains(purchase.getId())) {
-      unitFactors.put(purchase, product.getQuFactorPurchaseToStockDouble());
-    }
-    for (QuantityUnitConversion conversion : unitConversions) {
-      if (product.getId() != conversion.getProductId()) {
-        continue;
-      }
-      QuantityUnit unit = getQuantityUnit(conversion.getToQuId());
-      if (unit == null || quIdsInHashMap.contains(unit.getId())) {
-        continue;
-      }
-      unitFactors.put(unit, conversion.getFactor());
-      quIdsInHashMap.add(unit.getId());
-    }
+    HashMap<QuantityUnit, Double> unitFactors = unitConversionHelper.getUnitFactors(product);
     formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
 
     QuantityUnit barcodeUnit = null;
@@ -349,6 +362,21 @@ public class ConsumeViewModel extends BaseViewModel {
     }
   }
 
+  public void prefetchTopMatch(String input, @Nullable Product product) {
+    if (formData.getProductDetailsLive().getValue() != null || input.trim().length() < 2) {
+      return;
+    }
+    // a typed barcode is more certain than the best match of the name
+    ProductBarcode barcode = barcodeIndex.getBarcode(input);
+    Product barcodeProduct = barcodeIndex.getProduct(barcode);
+    if (barcodeProduct != null) {
+      product = barcodeProduct;
+    }
+    if (product != null) {
+      productDetailsCache.prefetch(product.getId(), true);
+    }
+  }
+
   public void onBarcodeRecognized(String barcode) {
     if (formData.getProductDetailsLive().getValue() != null) {
       formData.getBarcodeLive().setValue(barcode);
@@ -358,7 +386,7 @@ public class ConsumeViewModel extends BaseViewModel {
     String stockEntryId = null;
     Grocycode grocycode = GrocycodeUtil.getGrocycode(barcode);
     if (grocycode != null && grocycode.isProduct()) {
-      product = Product.getProductFromId(products, grocycode.getObjectId());
+      product = barcodeIndex.getProduct(grocycode.getObjectId());
       if (product == null) {
         showMessageAndContinueScanning(R.string.msg_not_found);
         return;
@@ -370,12 +398,8 @@ public class ConsumeViewModel extends BaseViewModel {
     }
     ProductBarcode productBarcode = null;
     if (product == null) {
-      for (ProductBarcode code : barcodes) {
-        if (code.getBarcode().equals(barcode)) {
-          productBarcode = code;
-          product = Product.getProductFromId(products, code.getProductIdInt());
-        }
-      }
+      productBarcode = barcodeIndex.getBarcode(barcode);
+      product = barcodeIndex.getProduct(productBarcode);
     }
     if (product != null) {
       setProduct(product.getId(), productBarcode, stockEntryId);
@@ -396,7 +420,7 @@ public class ConsumeViewModel extends BaseViewModel {
 
     Grocycode grocycode = GrocycodeUtil.getGrocycode(input.trim());
     if (grocycode != null && grocycode.isProduct()) {
-      product = Product.getProductFromId(products, grocycode.getObjectId());
+      product = barcodeIndex.getProduct(grocycode.getObjectId());
       if (product == null) {
         showMessageAndContinueScanning(R.string.msg_not_found);
         return;
@@ -407,12 +431,8 @@ public class ConsumeViewModel extends BaseViewModel {
     }
     if (product == null) {
       ProductBarcode productBarcode = null;
-      for (ProductBarcode code : barcodes) {
-        if (code.getBarcode().equals(input.trim())) {
-          productBarcode = code;
-          product = Product.getProductFromId(products, code.getProductIdInt());
-        }
-      }
+      productBarcode = barcodeIndex.getBarcode(input);
+      product = barcodeIndex.getProduct(productBarcode);
       if (product != null) {
         setProduct(product.getId(), productBarcode, null);
         return;
@@ -475,10 +495,11 @@ public class ConsumeViewModel extends BaseViewModel {
             }
           } catch (JSONException e) {
             if (debug)
-              Log.e(TAG, "consumeProduct: " + e);
+              LogUtil.e(TAG, "consumeProduct: " + e);
           }
           if (debug)
-            Log.i(TAG, "consumeProduct: transaction successful");
+            LogUtil.i(TAG, "consumeProduct: transaction successful");
+          ProductDetailsCacheHelper.invalidate(getApplication(), product.getId());
 
           SnackbarMessage snackbarMessage = new SnackbarMessage(
               formData.getTransactionSuccessMsg(isActionOpen, amountConsumed)
@@ -487,7 +508,7 @@ public class ConsumeViewModel extends BaseViewModel {
             String transId = transactionId;
             snackbarMessage.setAction(
                 getString(R.string.action_undo),
-                v -> undoTransaction(transId)
+                v -> undoTransaction(transId, product.getId())
             );
             snackbarMessage.setDurationSecs(sharedPrefs.getInt(
                     Constants.SETTINGS.BEHAVIOR.MESSAGE_DURATION,
@@ -499,19 +520,20 @@ public class ConsumeViewModel extends BaseViewModel {
         error -> {
           showErrorMessage(error);
           if (debug) {
-            Log.i(TAG, "consumeProduct: " + error);
+            LogUtil.i(TAG, "consumeProduct: " + error);
           }
         }
     );
   }
 
-  private void undoTransaction(String transactionId) {
+  private void undoTransaction(String transactionId, int productId) {
     dlHelper.post(
         grocyApi.undoStockTransaction(transactionId),
         success -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), productId);
           showMessage(getString(R.string.msg_undone_transaction));
           if (debug) {
-            Log.i(TAG, "undoTransaction: undone");
+            LogUtil.i(TAG, "undoTransaction: undone");
           }
         },
         this::showErrorMessage
@@ -523,7 +545,7 @@ public class ConsumeViewModel extends BaseViewModel {
     JSONObject body = productBarcode.getJsonFromProductBarcode(debug, TAG);
     dlHelper.addProductBarcode(body, () -> {
       formData.getBarcodeLive().setValue(null);
-      barcodes.add(productBarcode); // add to list so it will be found on next scan without reload
+      barcodeIndex.addBarcode(productBarcode); // will be found on next scan without reload
       if (onSuccess != null) {
         onSuccess.run();
       }
@@ -531,12 +553,7 @@ public class ConsumeViewModel extends BaseViewModel {
   }
 
   private QuantityUnit getQuantityUnit(int id) {
-    for (QuantityUnit quantityUnit : quantityUnits) {
-      if (quantityUnit.getId() == id) {
-        return quantityUnit;
-      }
-    }
-    return null;
+    return unitConversionHelper.getQuantityUnit(id);
   }
 
   private StockLocation getStockLocation(ArrayList<StockLocation> locations, int locationId) {
@@ -675,6 +692,7 @@ public class ConsumeViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    productDetailsCache.destroy();
     dlHelper.destroy();
     super.onCleared();
   }
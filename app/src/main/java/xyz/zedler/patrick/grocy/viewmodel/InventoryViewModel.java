@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
@@ -45,7 +44,12 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.LocationsBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuantityUnitsBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuickModeConfirmBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.StoresBottomSheet;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndexHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper.Details;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper.DetailsListener;
+import xyz.zedler.patrick.grocy.helper.QuantityUnitConversionHelper;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.FormDataInventory;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
@@ -54,7 +58,6 @@ import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.ProductDetails;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.repository.InventoryRepository;
@@ -64,6 +67,7 @@ import xyz.zedler.patrick.grocy.util.Constants.PREF;
 import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
@@ -80,8 +84,9 @@ public class InventoryViewModel extends BaseViewModel {
 
   private List<Product> products;
   private List<QuantityUnit> quantityUnits;
-  private List<QuantityUnitConversion> unitConversions;
-  private List<ProductBarcode> barcodes;
+  private final QuantityUnitConversionHelper unitConversionHelper;
+  private final BarcodeIndexHelper barcodeIndex;
+  private final ProductDetailsCacheHelper productDetailsCache;
   private List<Store> stores;
   private List<Location> locations;
 
@@ -102,6 +107,9 @@ public class InventoryViewModel extends BaseViewModel {
     grocyApi = new GrocyApi(getApplication());
     repository = new InventoryRepository(application);
     formData = new FormDataInventory(application, sharedPrefs, args);
+    barcodeIndex = new BarcodeIndexHelper();
+    unitConversionHelper = new QuantityUnitConversionHelper();
+    productDetailsCache = new ProductDetailsCacheHelper(application, dlHelper, debug);
 
     infoFullscreenLive = new MutableLiveData<>();
     boolean quickModeStart;
@@ -117,7 +125,6 @@ public class InventoryViewModel extends BaseViewModel {
     }
     quickModeEnabled = new MutableLiveData<>(quickModeStart);
 
-    barcodes = new ArrayList<>();
   }
 
   public FormDataInventory getFormData() {
@@ -127,9 +134,11 @@ public class InventoryViewModel extends BaseViewModel {
   public void loadFromDatabase(boolean downloadAfterLoading) {
     repository.loadFromDatabase(data -> {
       this.products = data.getProducts();
-      this.barcodes = data.getBarcodes();
+      barcodeIndex.setProducts(products);
+      barcodeIndex.setBarcodes(data.getBarcodes());
       this.quantityUnits = data.getQuantityUnits();
-      this.unitConversions = data.getQuantityUnitConversions();
+      unitConversionHelper.setQuantityUnits(quantityUnits);
+      unitConversionHelper.setConversions(data.getQuantityUnitConversions());
       this.stores = data.getStores();
       this.locations = data.getLocations();
       formData.getProductsLive().setValue(Product.getActiveProductsOnly(products));
@@ -153,13 +162,17 @@ public class InventoryViewModel extends BaseViewModel {
     queue.append(
         dlHelper.updateProducts(dbChangedTime, products -> {
           this.products = products;
+          barcodeIndex.setProducts(products);
           formData.getProductsLive().setValue(Product.getActiveProductsOnly(products));
         }), dlHelper.updateQuantityUnitConversions(
-            dbChangedTime, conversions -> this.unitConversions = conversions
+            dbChangedTime, unitConversionHelper::setConversions
         ), dlHelper.updateProductBarcodes(
-            dbChangedTime, barcodes -> this.barcodes = barcodes
+            dbChangedTime, barcodeIndex::setBarcodes
         ), dlHelper.updateQuantityUnits(
-            dbChangedTime, quantityUnits -> this.quantityUnits = quantityUnits
+            dbChangedTime, quantityUnits -> {
+              this.quantityUnits = quantityUnits;
+              unitConversionHelper.setQuantityUnits(quantityUnits);
+            }
         ), dlHelper.updateStores(
             dbChangedTime, stores -> this.stores = stores
         ), dlHelper.updateLocations(
@@ -203,7 +216,7 @@ public class InventoryViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
       if (debug) {
-          Log.e(TAG, "onError: VolleyError: " + error);
+          LogUtil.e(TAG, "onError: VolleyError: " + error);
       }
     showMessage(getString(R.string.msg_no_connection));
   }
@@ -272,11 +285,36 @@ public class InventoryViewModel extends BaseViewModel {
         }
     };
 
-    dlHelper.getProductDetails(
-        productId,
-        listener,
-        error -> showMessageAndContinueScanning(getString(R.string.error_no_product_details))
-    ).perform(dlHelper.getUuid());
+    productDetailsCache.load(productId, false, new DetailsListener() {
+      @Override
+      public void onDetails(Details details, boolean isRevalidation) {
+        if (isRevalidation) {
+          onProductDetailsRevalidated(details.getProductDetails());
+        } else {
+          listener.onResponse(details.getProductDetails());
+        }
+      }
+
+      @Override
+      public void onError() {
+        showMessageAndContinueScanning(getString(R.string.error_no_product_details));
+      }
+    });
+  }
+
+  private void onProductDetailsRevalidated(ProductDetails productDetails) {
+    ProductDetails current = formData.getProductDetailsLive().getValue();
+    if (current == null
+        || current.getProduct().getId() != productDetails.getProduct().getId()) {
+      return;
+    }
+    // the prefilled new amount follows the stock amount as long as it was not edited
+    String amount = formData.getAmountLive().getValue();
+    if (amount != null && amount.equals(NumUtil.trim(current.getStockAmount()))) {
+      formData.getAmountLive().setValue(NumUtil.trim(productDetails.getStockAmount()));
+    }
+    formData.getProductDetailsLive().setValue(productDetails);
+    formData.isFormValid();
   }
 
   private void setProductQuantityUnitsAndFactors(Product product) {
@@ -287,24 +325,7 @@ public class InventoryViewModel extends BaseViewModel {
       throw new IllegalArgumentException(getString(R.string.error_loading_qus));
     }
 
-    HashMap<QuantityUnit, Double> unitFactors = new HashMap<>();
-    ArrayList<Integer> quIdsInHashMap = new ArrayList<>();
-    unitFactors.put(stock, (double) -1);
-    quIdsInHashMap.add(stock.getId());
-    if (!quIdsInHashMap.contains(purchase.getId())) {
-      unitFactors.put(purchase, product.getQuFactorPurchaseToStockDouble());
-    }
-    for (QuantityUnitConversion conversion : unitConversions) {
-        if (product.getId() != conversion.getProductId()) {
-            continue;
-        }
-      QuantityUnit unit = getQuantityUnit(conversion.getToQuId());
-        if (unit == null || quIdsInHashMap.contains(unit.getId())) {
-            continue;
-        }
-      unitFactors.put(unit, conversion.getFactor());
-      quIdsInHashMap.add(unit.getId());
-    }
+    HashMap<QuantityUnit, Double> unitFactors = unitConversionHelper.getUnitFactors(product);
     formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
     formData.getQuantityUnitLive().setValue(stock);
   }
@@ -317,7 +338,7 @@ public class InventoryViewModel extends BaseViewModel {
     Product product = null;
     Grocycode grocycode = GrocycodeUtil.getGrocycode(barcode);
     if (grocycode != null && grocycode.isProduct()) {
-      product = Product.getProductFromId(products, grocycode.getObjectId());
+      product = barcodeIndex.getProduct(grocycode.getObjectId());
       if (product == null) {
         showMessageAndContinueScanning(R.string.msg_not_found);
         return;
@@ -327,11 +348,7 @@ public class InventoryViewModel extends BaseViewModel {
       return;
     }
     if (product == null) {
-      for (ProductBarcode code : barcodes) {
-        if (code.getBarcode().equals(barcode)) {
-          product = Product.getProductFromId(products, code.getProductIdInt());
-        }
-      }
+      product = barcodeIndex.getProductFromBarcode(barcode);
     }
     if (product != null) {
       setProduct(product.getId());
@@ -352,7 +369,7 @@ public class InventoryViewModel extends BaseViewModel {
 
     Grocycode grocycode = GrocycodeUtil.getGrocycode(input.trim());
     if (grocycode != null && grocycode.isProduct()) {
-      product = Product.getProductFromId(products, grocycode.getObjectId());
+      product = barcodeIndex.getProduct(grocycode.getObjectId());
       if (product == null) {
         showMessageAndContinueScanning(R.string.msg_not_found);
         return;
@@ -362,11 +379,7 @@ public class InventoryViewModel extends BaseViewModel {
       return;
     }
     if (product == null) {
-      for (ProductBarcode code : barcodes) {
-        if (code.getBarcode().equals(input.trim())) {
-          product = Product.getProductFromId(products, code.getProductIdInt());
-        }
-      }
+      product = barcodeIndex.getProductFromBarcode(input);
       if (product != null) {
         setProduct(product.getId());
         return;
@@ -419,10 +432,11 @@ public class InventoryViewModel extends BaseViewModel {
             }
           } catch (JSONException e) {
             if (debug)
-              Log.e(TAG, "inventoryProduct: " + e);
+              LogUtil.e(TAG, "inventoryProduct: " + e);
           }
           if (debug)
-            Log.i(TAG, "inventoryProduct: transaction successful");
+            LogUtil.i(TAG, "inventoryProduct: transaction successful");
+          ProductDetailsCacheHelper.invalidate(getApplication(), product.getId());
 
           SnackbarMessage snackbarMessage = new SnackbarMessage(
               formData.getTransactionSuccessMsg(amountDiff)
@@ -431,7 +445,7 @@ public class InventoryViewModel extends BaseViewModel {
             String transId = transactionId;
             snackbarMessage.setAction(
                 getString(R.string.action_undo),
-                v -> undoTransaction(transId)
+                v -> undoTransaction(transId, product.getId())
             );
             snackbarMessage.setDurationSecs(sharedPrefs.getInt(
                     Constants.SETTINGS.BEHAVIOR.MESSAGE_DURATION,
@@ -443,19 +457,20 @@ public class InventoryViewModel extends BaseViewModel {
         error -> {
           showErrorMessage(error);
             if (debug) {
-                Log.i(TAG, "inventoryProduct: " + error);
+                LogUtil.i(TAG, "inventoryProduct: " + error);
             }
         }
     );
   }
 
-  private void undoTransaction(String transactionId) {
+  private void undoTransaction(String transactionId, int productId) {
     dlHelper.post(
         grocyApi.undoStockTransaction(transactionId),
         success -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), productId);
           showMessage(getString(R.string.msg_undone_transaction));
             if (debug) {
-                Log.i(TAG, "undoTransaction: undone");
+                LogUtil.i(TAG, "undoTransaction: undone");
             }
         },
         this::showErrorMessage
@@ -467,7 +482,7 @@ public class InventoryViewModel extends BaseViewModel {
     JSONObject body = productBarcode.getJsonFromProductBarcode(debug, TAG);
     dlHelper.addProductBarcode(body, () -> {
       formData.getBarcodeLive().setValue(null);
-      barcodes.add(productBarcode); // add to list so it will be found on next scan without reload
+      barcodeIndex.addBarcode(productBarcode); // will be found on next scan without reload
         if (onSuccess != null) {
             onSuccess.run();
         }
@@ -475,12 +490,7 @@ public class InventoryViewModel extends BaseViewModel {
   }
 
   private QuantityUnit getQuantityUnit(int id) {
-    for (QuantityUnit quantityUnit : quantityUnits) {
-        if (quantityUnit.getId() == id) {
-            return quantityUnit;
-        }
-    }
-    return null;
+    return unitConversionHelper.getQuantityUnit(id);
   }
 
   private Store getStore(int id) {
@@ -636,6 +646,7 @@ public class InventoryViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    productDetailsCache.destroy();
     dlHelper.destroy();
     super.onCleared();
   }
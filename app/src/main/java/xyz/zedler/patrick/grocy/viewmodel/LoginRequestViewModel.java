@@ -23,7 +23,6 @@ import android.app.Application;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
@@ -46,6 +45,7 @@ import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.util.ConfigUtil;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class LoginRequestViewModel extends BaseViewModel {
@@ -130,11 +130,11 @@ public class LoginRequestViewModel extends BaseViewModel {
               return;
             }
           } catch (JSONException e) {
-            Log.e(TAG, "requestLogin: " + e);
+            LogUtil.e(TAG, "requestLogin: " + e);
           }
 
           if (debug) {
-            Log.i(TAG, "requestLogin: successfully logged in");
+            LogUtil.i(TAG, "requestLogin: successfully logged in");
           }
           sharedPrefs.edit()
               .putString(Constants.PREF.SERVER_URL, serverUrl)
@@ -160,7 +160,7 @@ public class LoginRequestViewModel extends BaseViewModel {
           loadInfoAndFinish();
         },
         error -> {
-          Log.e(TAG, "requestLogin: VolleyError: " + error);
+          LogUtil.e(TAG, "requestLogin: VolleyError: " + error);
           loginErrorOccurred.setValue(true);
           if (error instanceof AuthFailureError) {
             loginErrorExactMsg.setValue(error.toString());
@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -38,6 +37,7 @@ import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.model.TaskCategory;
 import xyz.zedler.patrick.grocy.repository.MasterDataOverviewRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class MasterDataOverviewViewModel extends BaseViewModel {
@@ -146,7 +146,7 @@ public class MasterDataOverviewViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     String exact = error == null ? null : error.getLocalizedMessage();
     infoFullscreenLive.setValue(
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -33,25 +32,38 @@ import com.android.volley.VolleyError;
 import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import org.json.JSONException;
+import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
+import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.LocationsBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.MasterDeleteBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.MasterProductBottomSheet;
+import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductGroupsBottomSheet;
+import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuantityUnitsBottomSheet;
+import xyz.zedler.patrick.grocy.helper.BulkEditHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper;
 import xyz.zedler.patrick.grocy.model.HorizontalFilterBarMulti;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Location;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
+import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
+import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.model.TaskCategory;
 import xyz.zedler.patrick.grocy.repository.MasterObjectListRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.Constants.ARGUMENT;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
 import xyz.zedler.patrick.grocy.util.LocaleUtil;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.ObjectUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
@@ -64,19 +76,23 @@ public class MasterObjectListViewModel extends BaseViewModel {
   private final DownloadHelper dlHelper;
   private final GrocyApi grocyApi;
   private final MasterObjectListRepository repository;
+  private final BulkEditHelper bulkEditHelper;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
   private final MutableLiveData<Boolean> offlineLive;
   private final MutableLiveData<ArrayList<Object>> displayedItemsLive;
+  private final MutableLiveData<Integer> selectedCountLive;
 
   private List objects;
   private List<ProductGroup> productGroups;
   private List<QuantityUnit> quantityUnits;
+  private List<QuantityUnitConversion> quantityUnitConversions;
   private List<Location> locations;
   private List<TaskCategory> taskCategories;
 
   private DownloadHelper.Queue currentQueueLoading;
+  private final HashSet<Integer> selectedIds;
   private final HorizontalFilterBarMulti horizontalFilterBarMulti;
   private boolean sortAscending;
   private String search;
@@ -94,12 +110,15 @@ public class MasterObjectListViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue);
     grocyApi = new GrocyApi(getApplication());
     repository = new MasterObjectListRepository(application);
+    bulkEditHelper = new BulkEditHelper(dlHelper, grocyApi, debug);
 
     infoFullscreenLive = new MutableLiveData<>();
     offlineLive = new MutableLiveData<>(false);
     displayedItemsLive = new MutableLiveData<>();
+    selectedCountLive = new MutableLiveData<>(0);
 
     objects = new ArrayList<>();
+    selectedIds = new HashSet<>();
 
     horizontalFilterBarMulti = new HorizontalFilterBarMulti(this::displayItems);
     sortAscending = true;
@@ -112,6 +131,7 @@ public class MasterObjectListViewModel extends BaseViewModel {
           this.objects = data.getProducts();
           this.productGroups = data.getProductGroups();
           this.quantityUnits = data.getQuantityUnits();
+          this.quantityUnitConversions = data.getQuantityUnitConversions();
           this.locations = data.getLocations();
           break;
         case ENTITY.PRODUCT_GROUPS:
@@ -192,6 +212,10 @@ public class MasterObjectListViewModel extends BaseViewModel {
       ));
     }
     if (entity.equals(GrocyApi.ENTITY.PRODUCTS)) {
+      queue.append(dlHelper.updateQuantityUnitConversions(
+          dbChangedTime,
+          conversions -> this.quantityUnitConversions = conversions
+      ));
       queue.append(dlHelper.updateProducts(
           dbChangedTime,
           products -> objects = products)
@@ -233,6 +257,7 @@ public class MasterObjectListViewModel extends BaseViewModel {
         editPrefs.putString(Constants.PREF.DB_LAST_TIME_LOCATIONS, null);
         editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCT_GROUPS, null);
         editPrefs.putString(Constants.PREF.DB_LAST_TIME_QUANTITY_UNITS, null);
+        editPrefs.putString(Constants.PREF.DB_LAST_TIME_QUANTITY_UNIT_CONVERSIONS, null);
         break;
     }
     editPrefs.apply();
@@ -248,7 +273,7 @@ public class MasterObjectListViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -353,11 +378,249 @@ public class MasterObjectListViewModel extends BaseViewModel {
   public void deleteObject(int objectId) {
     dlHelper.delete(
         grocyApi.getObject(entity, objectId),
-        response -> downloadData(),
+        response -> {
+          if (entity.equals(ENTITY.PRODUCTS)) {
+            ProductDetailsCacheHelper.invalidate(getApplication(), objectId);
+          }
+          downloadData();
+        },
         error -> showMessage(getString(R.string.error_undefined))
     );
   }
 
+  public void toggleSelected(Object object) {
+    int objectId = ObjectUtil.getObjectId(object, entity);
+    if (!selectedIds.remove(objectId)) {
+      selectedIds.add(objectId);
+    }
+    selectedCountLive.setValue(selectedIds.size());
+  }
+
+  public void selectAllDisplayed() {
+    ArrayList<Object> displayedItems = displayedItemsLive.getValue();
+    if (displayedItems == null) {
+      return;
+    }
+    for (Object object : displayedItems) {
+      selectedIds.add(ObjectUtil.getObjectId(object, entity));
+    }
+    selectedCountLive.setValue(selectedIds.size());
+  }
+
+  public void clearSelection() {
+    selectedIds.clear();
+    selectedCountLive.setValue(0);
+  }
+
+  public boolean isSelectionActive() {
+    return !selectedIds.isEmpty();
+  }
+
+  public HashSet<Integer> getSelectedIds() {
+    return selectedIds;
+  }
+
+  public void showBulkLocationsBottomSheet() {
+    if (locations == null || selectedIds.isEmpty()) {
+      return;
+    }
+    Bundle bundle = new Bundle();
+    bundle.putParcelableArrayList(ARGUMENT.LOCATIONS, new ArrayList<>(locations));
+    showBottomSheet(new LocationsBottomSheet(), bundle);
+  }
+
+  public void showBulkProductGroupsBottomSheet() {
+    if (productGroups == null || selectedIds.isEmpty()) {
+      return;
+    }
+    Bundle bundle = new Bundle();
+    bundle.putParcelableArrayList(ARGUMENT.PRODUCT_GROUPS, new ArrayList<>(productGroups));
+    bundle.putBoolean(ARGUMENT.DISPLAY_EMPTY_OPTION, true);
+    showBottomSheet(new ProductGroupsBottomSheet(), bundle);
+  }
+
+  public void showBulkQuantityUnitsBottomSheet() {
+    if (quantityUnits == null || selectedIds.isEmpty()) {
+      return;
+    }
+    Bundle bundle = new Bundle();
+    bundle.putParcelableArrayList(ARGUMENT.QUANTITY_UNITS, new ArrayList<>(quantityUnits));
+    showBottomSheet(new QuantityUnitsBottomSheet(), bundle);
+  }
+
+  public void setLocationOfSelected(Location location) {
+    JSONObject changes = new JSONObject();
+    try {
+      changes.put("location_id", location.getId());
+    } catch (JSONException e) {
+      if (debug) {
+        LogUtil.e(TAG, "setLocationOfSelected: " + e);
+      }
+      return;
+    }
+    String locationId = String.valueOf(location.getId());
+    bulkEditProducts(changes, product -> product.setLocationId(locationId));
+  }
+
+  public void setProductGroupOfSelected(ProductGroup productGroup) {
+    String productGroupId = productGroup.getId() != -1
+        ? String.valueOf(productGroup.getId()) : null;
+    JSONObject changes = new JSONObject();
+    try {
+      changes.put(
+          "product_group_id",
+          productGroupId != null ? productGroupId : JSONObject.NULL
+      );
+    } catch (JSONException e) {
+      if (debug) {
+        LogUtil.e(TAG, "setProductGroupOfSelected: " + e);
+      }
+      return;
+    }
+    bulkEditProducts(changes, product -> product.setProductGroupId(productGroupId));
+  }
+
+  /**
+   * Sets the purchase unit and the matching purchase to stock factor, which is taken from the
+   * quantity unit conversions of each product. The stock unit is kept, because changing it
+   * would change the meaning of amounts which are already in stock.
+   * Products without a conversion between the new purchase unit and their stock unit are
+   * skipped, as well as products for which the server rejects the change. Both stay selected.
+   */
+  public void setQuantityUnitOfSelected(QuantityUnit quantityUnit) {
+    HashMap<Integer, Double> factors = new HashMap<>();
+    bulkEditProducts(product -> {
+      Double factor = getPurchaseToStockFactor(product, quantityUnit.getId());
+      if (factor == null) {
+        return null;
+      }
+      factors.put(product.getId(), factor);
+      JSONObject changes = new JSONObject();
+      changes.put("qu_id_purchase", quantityUnit.getId());
+      changes.put("qu_factor_purchase_to_stock", factor);
+      return changes;
+    }, product -> {
+      product.setQuIdPurchase(quantityUnit.getId());
+      product.setQuFactorPurchaseToStock(String.valueOf(factors.get(product.getId())));
+    });
+  }
+
+  /**
+   * Returns how many stock units one unit with the given id is for this product, or null if
+   * there is no conversion. Product specific conversions win over default conversions.
+   */
+  @Nullable
+  private Double getPurchaseToStockFactor(Product product, int quIdPurchase) {
+    int quIdStock = product.getQuIdStockInt();
+    if (quIdPurchase == quIdStock) {
+      return 1d;
+    } else if (quIdPurchase == product.getQuIdPurchaseInt()) {
+      return product.getQuFactorPurchaseToStockDouble();
+    } else if (quantityUnitConversions == null) {
+      return null;
+    }
+    Double defaultFactor = null;
+    for (QuantityUnitConversion conversion : quantityUnitConversions) {
+      if (conversion.getProductId() != product.getId() && conversion.getProductId() != 0
+          || conversion.getFactor() <= 0) {
+        continue;
+      }
+      Double factor = null;
+      if (conversion.getFromQuId() == quIdPurchase && conversion.getToQuId() == quIdStock) {
+        factor = conversion.getFactor();
+      } else if (conversion.getFromQuId() == quIdStock && conversion.getToQuId() == quIdPurchase) {
+        factor = 1 / conversion.getFactor();
+      }
+      if (factor != null && conversion.getProductId() == product.getId()) {
+        return factor;
+      } else if (factor != null) {
+        defaultFactor = factor;
+      }
+    }
+    return defaultFactor;
+  }
+
+  private void bulkEditProducts(JSONObject changes, ProductEditor editor) {
+    bulkEditProducts(product -> changes, editor);
+  }
+
+  private void bulkEditProducts(ProductChanges productChanges, ProductEditor editor) {
+    if (selectedIds.isEmpty()) {
+      return;
+    }
+    if (bulkEditHelper.isRunning()) {
+      showMessage(R.string.msg_bulk_edit_running);
+      return;
+    }
+    int count = selectedIds.size();
+    HashMap<Integer, JSONObject> changesById = new HashMap<>();
+    for (Object object : objects) {
+      Product product = (Product) object;
+      if (!selectedIds.contains(product.getId())) {
+        continue;
+      }
+      try {
+        JSONObject changes = productChanges.get(product);
+        if (changes != null) {
+          changesById.put(product.getId(), changes);
+        }
+      } catch (JSONException e) {
+        if (debug) {
+          LogUtil.e(TAG, "bulkEditProducts: " + e);
+        }
+        return;
+      }
+    }
+    int skippedCount = count - changesById.size();
+    if (changesById.isEmpty()) {
+      showMessage(getResources().getQuantityString(
+          R.plurals.msg_products_skipped, skippedCount, skippedCount
+      ));
+      return;
+    }
+    bulkEditHelper.edit(
+        ENTITY.PRODUCTS,
+        changesById,
+        (editedIds, failedIds) -> {
+          // apply the changes locally in one go instead of downloading all products again
+          HashSet<Integer> editedIdSet = new HashSet<>(editedIds);
+          ArrayList<Product> editedProducts = new ArrayList<>();
+          for (Object object : objects) {
+            Product product = (Product) object;
+            if (editedIdSet.contains(product.getId())) {
+              editor.edit(product);
+              editedProducts.add(product);
+            }
+          }
+          if (!editedProducts.isEmpty()) {
+            repository.updateProducts(editedProducts, this::displayItems);
+            ProductDetailsCacheHelper.invalidate(getApplication(), editedIds);
+          }
+
+          // skipped products stay selected together with the failed ones
+          selectedIds.removeAll(editedIdSet);
+          selectedCountLive.setValue(selectedIds.size());
+
+          if (!failedIds.isEmpty()) {
+            showSnackbar(new SnackbarMessage(getResources().getString(
+                R.string.error_bulk_edit, failedIds.size(), count
+            )).setAction(
+                getString(R.string.action_retry),
+                v -> bulkEditProducts(productChanges, editor)
+            ));
+          } else if (skippedCount > 0) {
+            showMessage(getResources().getQuantityString(
+                R.plurals.msg_products_skipped, skippedCount, skippedCount
+            ));
+          } else {
+            showMessage(getResources().getQuantityString(
+                R.plurals.msg_products_edited, count, count
+            ));
+          }
+        }
+    );
+  }
+
   private void showMasterDeleteBottomSheet(String entity, String objectName, int objectId) {
     Bundle argsBundle = new Bundle();
     argsBundle.putString(Constants.ARGUMENT.ENTITY, entity);
@@ -454,6 +717,11 @@ public class MasterObjectListViewModel extends BaseViewModel {
     return displayedItemsLive;
   }
 
+  @NonNull
+  public MutableLiveData<Integer> getSelectedCountLive() {
+    return selectedCountLive;
+  }
+
   @NonNull
   public MutableLiveData<Boolean> getIsLoadingLive() {
     return isLoadingLive;
@@ -477,10 +745,22 @@ public class MasterObjectListViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    bulkEditHelper.cancel();
     dlHelper.destroy();
     super.onCleared();
   }
 
+  private interface ProductChanges {
+
+    @Nullable
+    JSONObject get(Product product) throws JSONException;
+  }
+
+  private interface ProductEditor {
+
+    void edit(Product product);
+  }
+
   public static class MasterObjectListViewModelFactory implements ViewModelProvider.Factory {
 
     private final Application application;
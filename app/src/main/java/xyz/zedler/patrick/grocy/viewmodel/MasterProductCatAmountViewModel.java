@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -39,6 +38,7 @@ import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.repository.MasterProductRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class MasterProductCatAmountViewModel extends BaseViewModel {
@@ -145,7 +145,7 @@ public class MasterProductCatAmountViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
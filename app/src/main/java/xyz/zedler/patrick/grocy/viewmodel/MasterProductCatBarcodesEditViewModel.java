@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -41,6 +40,7 @@ import xyz.zedler.patrick.grocy.fragment.MasterProductCatBarcodesEditFragmentArg
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuantityUnitsBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.StoresBottomSheet;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper;
 import xyz.zedler.patrick.grocy.model.FormDataMasterProductCatBarcodesEdit;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Product;
@@ -51,6 +51,7 @@ import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.repository.MasterProductRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.ARGUMENT;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
@@ -179,7 +180,7 @@ public class MasterProductCatBarcodesEditViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -199,11 +200,16 @@ public class MasterProductCatBarcodesEditViewModel extends BaseViewModel {
       dlHelper.put(
           grocyApi.getObject(ENTITY.PRODUCT_BARCODES, productBarcode.getId()),
           jsonObject,
-          response -> navigateUp(),
+          response -> {
+            ProductDetailsCacheHelper.invalidate(
+                getApplication(), productBarcode.getProductIdInt()
+            );
+            navigateUp();
+          },
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveItem: " + error);
+              LogUtil.e(TAG, "saveItem: " + error);
             }
           }
       );
@@ -211,11 +217,16 @@ public class MasterProductCatBarcodesEditViewModel extends BaseViewModel {
       dlHelper.post(
           grocyApi.getObjects(ENTITY.PRODUCT_BARCODES),
           jsonObject,
-          response -> navigateUp(),
+          response -> {
+            ProductDetailsCacheHelper.invalidate(
+                getApplication(), productBarcode.getProductIdInt()
+            );
+            navigateUp();
+          },
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveItem: " + error);
+              LogUtil.e(TAG, "saveItem: " + error);
             }
           }
       );
@@ -332,7 +343,10 @@ public class MasterProductCatBarcodesEditViewModel extends BaseViewModel {
             ENTITY.PRODUCT_BARCODES,
             productBarcode.getId()
         ),
-        response -> navigateUp(),
+        response -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), productBarcode.getProductIdInt());
+          navigateUp();
+        },
         this::showErrorMessage
     );
   }
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -39,6 +38,7 @@ import xyz.zedler.patrick.grocy.api.GrocyApi.ENTITY;
 import xyz.zedler.patrick.grocy.fragment.MasterProductCatConversionsEditFragmentArgs;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuantityUnitsBottomSheet;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper;
 import xyz.zedler.patrick.grocy.model.FormDataMasterProductCatConversionsEdit;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
@@ -46,6 +46,7 @@ import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.repository.MasterProductRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.ARGUMENT;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
@@ -166,7 +167,7 @@ public class MasterProductCatConversionsEditViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -186,11 +187,14 @@ public class MasterProductCatConversionsEditViewModel extends BaseViewModel {
       dlHelper.put(
           grocyApi.getObject(ENTITY.QUANTITY_UNIT_CONVERSIONS, conversion.getId()),
           jsonObject,
-          response -> navigateUp(),
+          response -> {
+            ProductDetailsCacheHelper.invalidate(getApplication(), conversion.getProductId());
+            navigateUp();
+          },
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveItem: " + error);
+              LogUtil.e(TAG, "saveItem: " + error);
             }
           }
       );
@@ -198,11 +202,14 @@ public class MasterProductCatConversionsEditViewModel extends BaseViewModel {
       dlHelper.post(
           grocyApi.getObjects(ENTITY.QUANTITY_UNIT_CONVERSIONS),
           jsonObject,
-          response -> navigateUp(),
+          response -> {
+            ProductDetailsCacheHelper.invalidate(getApplication(), conversion.getProductId());
+            navigateUp();
+          },
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveItem: " + error);
+              LogUtil.e(TAG, "saveItem: " + error);
             }
           }
       );
@@ -254,7 +261,10 @@ public class MasterProductCatConversionsEditViewModel extends BaseViewModel {
             ENTITY.QUANTITY_UNIT_CONVERSIONS,
             conversion.getId()
         ),
-        response -> navigateUp(),
+        response -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), conversion.getProductId());
+          navigateUp();
+        },
         this::showErrorMessage
     );
   }
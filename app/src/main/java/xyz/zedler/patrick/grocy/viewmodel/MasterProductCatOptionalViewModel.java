@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -31,16 +30,17 @@ import com.android.volley.VolleyError;
 import java.util.List;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.fragment.MasterProductFragmentArgs;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndexHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.model.FormDataMasterProductCatOptional;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Product;
-import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
 import xyz.zedler.patrick.grocy.repository.MasterProductRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 
 public class MasterProductCatOptionalViewModel extends BaseViewModel {
 
@@ -57,7 +57,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
 
   private List<Product> products;
   private List<ProductGroup> productGroups;
-  private List<ProductBarcode> barcodes;
+  private final BarcodeIndexHelper barcodeIndex;
 
   private DownloadHelper.Queue currentQueueLoading;
   private final boolean isActionEdit;
@@ -72,6 +72,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue);
     repository = new MasterProductRepository(application);
     formData = new FormDataMasterProductCatOptional(application, getBeginnerModeEnabled());
+    barcodeIndex = new BarcodeIndexHelper();
     args = startupArgs;
     isActionEdit = startupArgs.getAction().equals(Constants.ACTION.EDIT);
 
@@ -94,8 +95,9 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
   public void loadFromDatabase(boolean downloadAfterLoading) {
     repository.loadFromDatabase(data -> {
       this.products = data.getProducts();
+      barcodeIndex.setProducts(products);
       this.productGroups = data.getProductGroups();
-      this.barcodes = data.getBarcodes();
+      barcodeIndex.setBarcodes(data.getBarcodes());
       formData.getProductsLive().setValue(products);
       formData.getProductGroupsLive().setValue(productGroups);
       formData.fillWithProductIfNecessary(args.getProduct());
@@ -123,11 +125,12 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
     queue.append(
         dlHelper.updateProducts(dbChangedTime, products -> {
           this.products = products;
+          barcodeIndex.setProducts(products);
           formData.getProductsLive().setValue(products);
         }), dlHelper.updateProductGroups(dbChangedTime, productGroups -> {
           this.productGroups = productGroups;
           formData.getProductGroupsLive().setValue(productGroups);
-        }), dlHelper.updateProductBarcodes(dbChangedTime, barcodes -> this.barcodes = barcodes)
+        }), dlHelper.updateProductBarcodes(dbChangedTime, barcodeIndex::setBarcodes)
     );
     if (queue.isEmpty()) {
       return;
@@ -158,7 +161,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (isDebuggingEnabled()) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -170,7 +173,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
     Product product;
     Grocycode grocycode = GrocycodeUtil.getGrocycode(barcode);
     if (grocycode != null && grocycode.isProduct()) {
-      product = Product.getProductFromId(products, grocycode.getObjectId());
+      product = barcodeIndex.getProduct(grocycode.getObjectId());
       if (product == null) {
         showMessage(R.string.msg_not_found);
       } else {
@@ -179,7 +182,7 @@ public class MasterProductCatOptionalViewModel extends BaseViewModel {
     } else if (grocycode != null) {
       showMessage(R.string.error_wrong_grocycode_type);
     } else {
-      product = Product.getProductFromBarcode(products, barcodes, barcode);
+      product = barcodeIndex.getProductFromBarcode(barcode);
       if (product != null) {
         formData.getParentProductLive().setValue(product);
       } else {
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -40,6 +39,7 @@ import xyz.zedler.patrick.grocy.api.GrocyApi;
 import xyz.zedler.patrick.grocy.fragment.MasterProductFragmentArgs;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.MasterDeleteBottomSheet;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.FormDataMasterProduct;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
@@ -47,6 +47,7 @@ import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.repository.MasterProductRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.ACTION;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.web.ConnectivityLiveData;
 
@@ -204,7 +205,7 @@ public class MasterProductViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
   }
@@ -234,6 +235,7 @@ public class MasterProductViewModel extends BaseViewModel {
           grocyApi.getObject(GrocyApi.ENTITY.PRODUCTS, product.getId()),
           jsonObject,
           response -> {
+            ProductDetailsCacheHelper.invalidate(getApplication(), product.getId());
             Bundle bundle = new Bundle();
             bundle.putInt(Constants.ARGUMENT.PRODUCT_ID, product.getId());
             sendEvent(Event.SET_PRODUCT_ID, bundle);
@@ -242,7 +244,7 @@ public class MasterProductViewModel extends BaseViewModel {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveProduct: " + error);
+              LogUtil.e(TAG, "saveProduct: " + error);
             }
           }
       );
@@ -254,10 +256,10 @@ public class MasterProductViewModel extends BaseViewModel {
             int objectId = -1;
             try {
               objectId = response.getInt("created_object_id");
-              Log.i(TAG, "saveProduct: " + objectId);
+              LogUtil.i(TAG, "saveProduct: " + objectId);
             } catch (JSONException e) {
               if (debug) {
-                Log.e(TAG, "saveProduct: " + e);
+                LogUtil.e(TAG, "saveProduct: " + e);
               }
             }
             if (withClosing) {
@@ -276,7 +278,7 @@ public class MasterProductViewModel extends BaseViewModel {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveProduct: " + error);
+              LogUtil.e(TAG, "saveProduct: " + error);
             }
           }
       );
@@ -298,7 +300,10 @@ public class MasterProductViewModel extends BaseViewModel {
   public void deleteProduct(int productId) {
     dlHelper.delete(
         grocyApi.getObject(GrocyApi.ENTITY.PRODUCTS, productId),
-        response -> sendEvent(Event.NAVIGATE_UP),
+        response -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), productId);
+          sendEvent(Event.NAVIGATE_UP);
+        },
         error -> showMessage(getString(R.string.error_undefined))
     );
   }
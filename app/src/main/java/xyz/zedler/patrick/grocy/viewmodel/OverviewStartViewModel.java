@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.PluralsRes;
@@ -32,20 +31,21 @@ import androidx.preference.PreferenceManager;
 import com.android.volley.VolleyError;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.database.SyncGeneration;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.OverviewAggregateHelper;
+import xyz.zedler.patrick.grocy.helper.OverviewAggregateHelper.Aggregates;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper.StockStatus;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
-import xyz.zedler.patrick.grocy.model.MissingItem;
 import xyz.zedler.patrick.grocy.model.Product;
-import xyz.zedler.patrick.grocy.model.ShoppingList;
-import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.repository.OverviewStartRepository;
+import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
-import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.STOCK;
-import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
@@ -56,19 +56,14 @@ public class OverviewStartViewModel extends BaseViewModel {
   private final SharedPreferences sharedPrefs;
   private final DownloadHelper dlHelper;
   private final OverviewStartRepository repository;
+  private final StockStatusHelper stockStatusHelper;
+  private final OverviewAggregateHelper aggregateHelper;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
   private final MutableLiveData<Boolean> offlineLive;
 
-  private final MutableLiveData<List<StockItem>> stockItemsLive;
-  private final MutableLiveData<List<ShoppingListItem>> shoppingListItemsLive;
-  private final MutableLiveData<List<Product>> productsLive;
-  private final MutableLiveData<Integer> itemsDueNextCountLive;
-  private final MutableLiveData<Integer> itemsOverdueCountLive;
-  private final MutableLiveData<Integer> itemsExpiredCountLive;
-  private final MutableLiveData<Integer> itemsMissingCountLive;
-  private final MutableLiveData<Integer> itemsMissingShoppingListCountLive;
+  private final MutableLiveData<Aggregates> aggregatesLive;
   private final LiveData<String> stockDescriptionTextLive;
   private final LiveData<String> stockDescriptionDueNextTextLive;
   private final LiveData<String> stockDescriptionOverdueTextLive;
@@ -77,14 +72,11 @@ public class OverviewStartViewModel extends BaseViewModel {
   private final LiveData<String> stockDescriptionMissingShoppingListTextLive;
   private final LiveData<String> shoppingListDescriptionTextLive;
   private final LiveData<String> masterDataDescriptionTextLive;
-  private ArrayList<StockItem> stockItemsTemp;
-  private ArrayList<StockItem> dueItemsTemp;
-  private ArrayList<StockItem> overdueItemsTemp;
-  private ArrayList<StockItem> expiredItemsTemp;
-  private ArrayList<MissingItem> missingItemsTemp;
-  private List<ShoppingList> shoppingLists;
+  private ArrayList<StockItem> stockItems;
+  private HashMap<Integer, Product> productHashMap;
 
   private DownloadHelper.Queue currentQueueLoading;
+  private boolean stockStatusStaged;
   private final boolean debug;
 
   public OverviewStartViewModel(@NonNull Application application) {
@@ -96,38 +88,26 @@ public class OverviewStartViewModel extends BaseViewModel {
     isLoadingLive = new MutableLiveData<>(false);
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue);
     repository = new OverviewStartRepository(application);
+    stockStatusHelper = new StockStatusHelper(sharedPrefs);
+    stockStatusHelper.scheduleMidnightUpdates(this::onMidnight);
+    aggregateHelper = new OverviewAggregateHelper(sharedPrefs);
 
     infoFullscreenLive = new MutableLiveData<>();
     offlineLive = new MutableLiveData<>(false);
-    stockItemsLive = new MutableLiveData<>();
-    itemsDueNextCountLive = new MutableLiveData<>();
-    itemsOverdueCountLive = new MutableLiveData<>();
-    itemsExpiredCountLive = new MutableLiveData<>();
-    itemsMissingCountLive = new MutableLiveData<>();
-    itemsMissingShoppingListCountLive = new MutableLiveData<>();
-    shoppingListItemsLive = new MutableLiveData<>();
-    productsLive = new MutableLiveData<>();
+    aggregatesLive = new MutableLiveData<>(aggregateHelper.getAggregates());
 
     stockDescriptionTextLive = Transformations.map(
-        stockItemsLive,
-        stockItems -> {
-          if (stockItems == null) {
+        aggregatesLive,
+        aggregates -> {
+          Integer products = aggregates.getInStockCount();
+          if (products == null) {
             return null;
           }
-          int products = stockItems.size();
-          double value = 0;
-          for (StockItem stockItem : stockItems) {
-            if (stockItem.isItemMissing() && !stockItem.isItemMissingAndPartlyInStock()) {
-              products--;
-              continue;
-            }
-            value += stockItem.getValueDouble();
-          }
           if (isFeatureEnabled(Constants.PREF.FEATURE_STOCK_PRICE_TRACKING)) {
             return getResources().getQuantityString(
                 R.plurals.description_overview_stock_value,
                 products, products,
-                NumUtil.trim(value),
+                NumUtil.trim(aggregates.getStockValue()),
                 sharedPrefs.getString(Constants.PREF.CURRENCY, "")
             );
           } else {
@@ -139,31 +119,23 @@ public class OverviewStartViewModel extends BaseViewModel {
         }
     );
     stockDescriptionDueNextTextLive = Transformations.map(
-        itemsDueNextCountLive,
-        count -> {
-          if (count == null || count == 0) {
+        aggregatesLive,
+        aggregates -> {
+          int count = aggregates.getDueCount();
+          if (count == 0) {
             return null;
           }
-          String days = sharedPrefs.getString(
-              STOCK.DUE_SOON_DAYS,
-              SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS
-          );
-          int daysInt;
-          if (NumUtil.isStringInt(days)) {
-            daysInt = Integer.parseInt(days);
-          } else {
-            daysInt = Integer.parseInt(SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS);
-          }
           return getResources().getQuantityString(
               R.plurals.description_overview_stock_due_soon,
-              count, count, daysInt
+              count, count, aggregates.getDueSoonDays()
           );
         }
     );
     stockDescriptionOverdueTextLive = Transformations.map(
-        itemsOverdueCountLive,
-        count -> {
-          if (count == null || count == 0) {
+        aggregatesLive,
+        aggregates -> {
+          int count = aggregates.getOverdueCount();
+          if (count == 0) {
             return null;
           }
           return getResources().getQuantityString(
@@ -173,9 +145,10 @@ public class OverviewStartViewModel extends BaseViewModel {
         }
     );
     stockDescriptionExpiredTextLive = Transformations.map(
-        itemsExpiredCountLive,
-        count -> {
-          if (count == null || count == 0) {
+        aggregatesLive,
+        aggregates -> {
+          int count = aggregates.getExpiredCount();
+          if (count == 0) {
             return null;
           }
           return getResources().getQuantityString(
@@ -185,9 +158,10 @@ public class OverviewStartViewModel extends BaseViewModel {
         }
     );
     stockDescriptionMissingTextLive = Transformations.map(
-        itemsMissingCountLive,
-        count -> {
-          if (count == null || count == 0) {
+        aggregatesLive,
+        aggregates -> {
+          int count = aggregates.getMissingCount();
+          if (count == 0) {
             return null;
           }
           return getResources().getQuantityString(
@@ -197,13 +171,14 @@ public class OverviewStartViewModel extends BaseViewModel {
         }
     );
     stockDescriptionMissingShoppingListTextLive = Transformations.map(
-        itemsMissingShoppingListCountLive,
-        count -> {
+        aggregatesLive,
+        aggregates -> {
+          Integer count = aggregates.getMissingOnShoppingListCount();
           if (count == null || !isFeatureEnabled(PREF.FEATURE_SHOPPING_LIST)) {
             return null;
           }
           @PluralsRes int string;
-          if (shoppingLists == null || shoppingLists.size() > 1) {
+          if (aggregates.hasMultipleShoppingLists()) {
             string = R.plurals.description_overview_stock_missing_shopping_list_multi;
           } else {
             string = R.plurals.description_overview_stock_missing_shopping_list_single;
@@ -212,13 +187,13 @@ public class OverviewStartViewModel extends BaseViewModel {
         }
     );
     shoppingListDescriptionTextLive = Transformations.map(
-        shoppingListItemsLive,
-        shoppingListItems -> {
-          if (shoppingListItems == null) {
+        aggregatesLive,
+        aggregates -> {
+          Integer size = aggregates.getShoppingListItemCount();
+          if (size == null) {
             return null;
           }
-          int size = shoppingListItems.size();
-          if (shoppingLists == null || shoppingLists.size() > 1) {
+          if (aggregates.hasMultipleShoppingLists()) {
             return getResources().getQuantityString(
                 R.plurals.description_overview_shopping_list_multi, size, size
             );
@@ -230,12 +205,12 @@ public class OverviewStartViewModel extends BaseViewModel {
         }
     );
     masterDataDescriptionTextLive = Transformations.map(
-        productsLive,
-        products -> {
-          if (products == null) {
+        aggregatesLive,
+        aggregates -> {
+          Integer size = aggregates.getProductCount();
+          if (size == null) {
             return null;
           }
-          int size = products.size();
           return getResources().getQuantityString(
               R.plurals.description_overview_master_data, size, size
           );
@@ -245,46 +220,12 @@ public class OverviewStartViewModel extends BaseViewModel {
 
   public void loadFromDatabase(boolean downloadAfterLoading) {
     repository.loadFromDatabase(data -> {
-      this.shoppingLists = data.getShoppingLists();
-      this.stockItemsLive.setValue(data.getStockItems());
-      this.shoppingListItemsLive.setValue(data.getShoppingListItems());
-      this.productsLive.setValue(data.getProducts());
-
-      ArrayList<Integer> shoppingListItemsProductIds = new ArrayList<>();
-      for (ShoppingListItem item : data.getShoppingListItems()) {
-        if (!item.hasProduct()) {
-          continue;
-        }
-        shoppingListItemsProductIds.add(item.getProductIdInt());
-      }
-
-      int itemsDueCount = 0;
-      int itemsOverdueCount = 0;
-      int itemsExpiredCount = 0;
-      int itemsMissingCount = 0;
-      int missingItemsOnShoppingListCount = 0;
-      for (StockItem stockItem : data.getStockItems()) {
-        if (stockItem.isItemDue()) {
-          itemsDueCount++;
-        }
-        if (stockItem.isItemOverdue()) {
-          itemsOverdueCount++;
-        }
-        if (stockItem.isItemExpired()) {
-          itemsExpiredCount++;
-        }
-        if (stockItem.isItemMissing()) {
-          itemsMissingCount++;
-          if (shoppingListItemsProductIds.contains(stockItem.getProductId())) {
-            missingItemsOnShoppingListCount++;
-          }
-        }
-      }
-      itemsDueNextCountLive.setValue(itemsDueCount);
-      itemsOverdueCountLive.setValue(itemsOverdueCount);
-      itemsExpiredCountLive.setValue(itemsExpiredCount);
-      itemsMissingCountLive.setValue(itemsMissingCount);
-      itemsMissingShoppingListCountLive.setValue(missingItemsOnShoppingListCount);
+      aggregateHelper.onShoppingListsChanged(data.getShoppingLists());
+      aggregateHelper.onShoppingListItemsChanged(data.getShoppingListItems());
+      aggregateHelper.onProductsChanged(data.getProducts());
+      this.productHashMap = ArrayUtil.getProductsHashMap(data.getProducts());
+      this.stockItems = new ArrayList<>(data.getStockItems());
+      updateStockStatus();
 
       if (downloadAfterLoading) {
         downloadData();
@@ -306,98 +247,19 @@ public class OverviewStartViewModel extends BaseViewModel {
       return;
     }
 
-    DownloadHelper.OnQueueEmptyListener onQueueEmptyListener = () -> {
-      if (stockItemsTemp == null || dueItemsTemp == null || overdueItemsTemp == null
-          || expiredItemsTemp == null || missingItemsTemp == null) {
-        downloadDataForceUpdate();
-        return;
-      }
-
-      HashMap<Integer, StockItem> stockItemHashMap = new HashMap<>();
-      for (StockItem stockItem : stockItemsTemp) {
-        stockItemHashMap.put(stockItem.getProductId(), stockItem);
-      }
-
-      for (StockItem stockItemDue : dueItemsTemp) {
-        StockItem stockItem = stockItemHashMap.get(stockItemDue.getProductId());
-        if (stockItem == null) {
-          continue;
-        }
-        stockItem.setItemDue(true);
-      }
-      for (StockItem stockItemOverdue : overdueItemsTemp) {
-        StockItem stockItem = stockItemHashMap.get(stockItemOverdue.getProductId());
-        if (stockItem == null) {
-          continue;
-        }
-        stockItem.setItemOverdue(true);
-      }
-      for (StockItem stockItemExpired : expiredItemsTemp) {
-        StockItem stockItem = stockItemHashMap.get(stockItemExpired.getProductId());
-        if (stockItem == null) {
-          continue;
-        }
-        stockItem.setItemExpired(true);
-      }
-
-      ArrayList<Integer> shoppingListItemsProductIds = new ArrayList<>();
-      if (shoppingListItemsLive.getValue() != null) {
-        for (ShoppingListItem item : shoppingListItemsLive.getValue()) {
-          if (!item.hasProduct()) {
-            continue;
-          }
-          shoppingListItemsProductIds.add(item.getProductIdInt());
-        }
-      }
-
-      DownloadHelper.Queue queue = dlHelper.newQueue(this::onQueueEmpty, this::onDownloadError);
-
-      int missingItemsOnShoppingListCount = 0;
-
-      for (MissingItem missingItem : missingItemsTemp) {
-
-        if (shoppingListItemsProductIds.contains(missingItem.getId())) {
-          missingItemsOnShoppingListCount++;
-        }
-        StockItem missingStockItem = stockItemHashMap.get(missingItem.getId());
-        if (missingStockItem != null) {
-          missingStockItem.setItemMissing(true);
-          missingStockItem.setItemMissingAndPartlyInStock(true);
-          continue;
-        }
-        queue.append(dlHelper.getProductDetails(missingItem.getId(), productDetails -> {
-          StockItem stockItem = new StockItem(productDetails);
-          stockItem.setItemMissing(true);
-          stockItem.setItemMissingAndPartlyInStock(false);
-          stockItemsTemp.add(stockItem);
-        }));
-      }
-      itemsMissingShoppingListCountLive.setValue(missingItemsOnShoppingListCount);
-      if (queue.getSize() == 0) {
-        onQueueEmpty();
-        return;
-      }
-      queue.start();
-    };
-
-    DownloadHelper.Queue queue = dlHelper.newQueue(onQueueEmptyListener, this::onDownloadError);
+    DownloadHelper.Queue queue = dlHelper.newQueue(this::onQueueEmpty, this::onDownloadError)
+        .setOnQueueCommitListener(this::stageStockStatus);
     queue.append(
-        dlHelper.updateStockItems(dbChangedTime, stockItems -> stockItemsTemp = stockItems),
-        dlHelper.updateShoppingListItems(dbChangedTime, this.shoppingListItemsLive::setValue),
-        dlHelper.updateShoppingLists(dbChangedTime, shoppingLists -> {
-          this.shoppingLists = shoppingLists;
-          this.shoppingListItemsLive.setValue(this.shoppingListItemsLive.getValue());
-        }),
-        dlHelper.updateProducts(dbChangedTime, this.productsLive::setValue),
-        dlHelper.updateVolatile(dbChangedTime, (due, overdue, expired, missing) -> {
-          this.dueItemsTemp = due;
-          itemsDueNextCountLive.setValue(due.size());
-          this.overdueItemsTemp = overdue;
-          itemsOverdueCountLive.setValue(overdue.size());
-          this.expiredItemsTemp = expired;
-          itemsExpiredCountLive.setValue(expired.size());
-          this.missingItemsTemp = missing;
-          itemsMissingCountLive.setValue(missing.size());
+        dlHelper.updateStockItems(dbChangedTime, stockItems -> this.stockItems = stockItems),
+        dlHelper.updateShoppingListItems(dbChangedTime, items -> aggregatesLive.setValue(
+            aggregateHelper.onShoppingListItemsChanged(items)
+        )),
+        dlHelper.updateShoppingLists(dbChangedTime, shoppingLists -> aggregatesLive.setValue(
+            aggregateHelper.onShoppingListsChanged(shoppingLists)
+        )),
+        dlHelper.updateProducts(dbChangedTime, products -> {
+          this.productHashMap = ArrayUtil.getProductsHashMap(products);
+          aggregatesLive.setValue(aggregateHelper.onProductsChanged(products));
         }));
     if (queue.isEmpty()) {
       return;
@@ -417,23 +279,64 @@ public class OverviewStartViewModel extends BaseViewModel {
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCTS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LISTS, null);
-    editPrefs.putString(Constants.PREF.DB_LAST_TIME_VOLATILE, null);
     editPrefs.apply();
     downloadData();
   }
 
   private void onQueueEmpty() {
+    if (stockItems == null || productHashMap == null) {
+      downloadDataForceUpdate();
+      return;
+    }
     if (isOffline()) {
       setOfflineLive(false);
     }
-    repository.updateDatabase(stockItemsTemp, () -> {});
+    if (stockStatusStaged) {
+      stockStatusStaged = false;
+    } else {
+      StockStatus status = updateStockStatus();
+      repository.updateDatabase(stockItems, status.getMissingItems(), () -> {});
+    }
     infoFullscreenLive.setValue(null);
-    this.stockItemsLive.setValue(stockItemsTemp);
+  }
+
+  /**
+   * Stages the stock items with their evaluated status in the sync generation of the download,
+   * so that readers never see the new stock items without status flags.
+   */
+  private void stageStockStatus(SyncGeneration syncGeneration) {
+    if (stockItems == null || productHashMap == null) {
+      return;
+    }
+    StockStatus status = updateStockStatus();
+    repository.stageDatabaseUpdate(syncGeneration, stockItems, status.getMissingItems());
+    stockStatusStaged = true;
+  }
+
+  private StockStatus updateStockStatus() {
+    StockStatus status = stockStatusHelper.updateStatus(stockItems, productHashMap);
+    aggregatesLive.setValue(aggregateHelper.onStockStatusChanged(status));
+    return status;
+  }
+
+  /**
+   * The midnight update can be missed while the device is in doze.
+   */
+  public void checkDayChanged() {
+    stockStatusHelper.checkDayChanged();
+  }
+
+  private void onMidnight() {
+    if (stockItems == null) {
+      return;
+    }
+    StockStatus status = stockStatusHelper.updateDueStatus(stockItems);
+    aggregatesLive.setValue(aggregateHelper.onDueStatusChanged(status));
   }
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     String exact = error == null ? null : error.getLocalizedMessage();
     infoFullscreenLive.setValue(
@@ -528,6 +431,7 @@ public class OverviewStartViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    stockStatusHelper.cancelMidnightUpdates();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -32,10 +31,14 @@ import java.util.HashMap;
 import java.util.List;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.PendingUploadHelper;
+import xyz.zedler.patrick.grocy.helper.PendingUploadHelper.UploadListener;
 import xyz.zedler.patrick.grocy.model.PendingProduct;
+import xyz.zedler.patrick.grocy.model.PendingPurchase;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.repository.PendingPurchasesRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class PendingPurchasesViewModel extends BaseViewModel {
@@ -45,6 +48,7 @@ public class PendingPurchasesViewModel extends BaseViewModel {
   private final SharedPreferences sharedPrefs;
   private final DownloadHelper dlHelper;
   private final PendingPurchasesRepository repository;
+  private final PendingUploadHelper uploadHelper;
 
   private final MutableLiveData<Boolean> displayHelpLive;
   private final MutableLiveData<Boolean> isLoadingLive;
@@ -70,6 +74,7 @@ public class PendingPurchasesViewModel extends BaseViewModel {
     isLoadingLive = new MutableLiveData<>(false);
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue);
     repository = new PendingPurchasesRepository(application);
+    uploadHelper = new PendingUploadHelper(application, dlHelper, debug);
 
     offlineLive = new MutableLiveData<>(false);
     displayedItemsLive = new MutableLiveData<>();
@@ -154,7 +159,7 @@ public class PendingPurchasesViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -163,7 +168,35 @@ public class PendingPurchasesViewModel extends BaseViewModel {
   }
 
   public void displayItems() {
+    displayedItemsLive.setValue(
+        pendingProducts != null ? new ArrayList<>(pendingProducts) : new ArrayList<>()
+    );
+  }
+
+  public void uploadPendingData() {
+    if (isOffline()) {
+      showMessage(getString(R.string.error_offline));
+      return;
+    }
+    uploadHelper.uploadPendingData(new UploadListener() {
+      @Override
+      public void onUploaded(PendingPurchase purchase) {
+      }
+
+      @Override
+      public void onFinished(int uploadedCount, int failedCount) {
+        loadFromDatabase(false);
+        if (failedCount > 0) {
+          showMessage(getApplication().getString(R.string.error_pending_upload, failedCount));
+        } else {
+          showMessage(getApplication().getString(R.string.msg_pending_uploaded, uploadedCount));
+        }
+      }
+    });
+  }
 
+  public void onConnectivityChanged(boolean isOnline) {
+    uploadHelper.onConnectivityChanged(isOnline);
   }
 
   @NonNull
@@ -210,6 +243,7 @@ public class PendingPurchasesViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    uploadHelper.cancel();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
@@ -32,8 +31,12 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
 import com.android.volley.VolleyError;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.R;
@@ -44,9 +47,17 @@ import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.InputProductBottomShe
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.LocationsBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuantityUnitsBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.QuickModeConfirmBottomSheet;
+import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ScanBatchResendBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.StoresBottomSheet;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndexHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper.OnJSONArrayResponseListener;
+import xyz.zedler.patrick.grocy.helper.PendingUploadHelper;
+import xyz.zedler.patrick.grocy.helper.PendingUploadHelper.UploadListener;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper.Details;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper.DetailsListener;
+import xyz.zedler.patrick.grocy.helper.QuantityUnitConversionHelper;
 import xyz.zedler.patrick.grocy.model.Event;
 import xyz.zedler.patrick.grocy.model.FormDataPurchase;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
@@ -57,6 +68,7 @@ import xyz.zedler.patrick.grocy.model.PendingPurchase;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.ProductDetails;
+import xyz.zedler.patrick.grocy.model.ProductLastPurchased;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
@@ -71,6 +83,7 @@ import xyz.zedler.patrick.grocy.util.Constants.PREF;
 import xyz.zedler.patrick.grocy.util.DateUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
@@ -91,10 +104,12 @@ public class PurchaseViewModel extends BaseViewModel {
   private List<QuantityUnit> quantityUnits;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
   private List<QuantityUnitConversion> unitConversions;
+  private final QuantityUnitConversionHelper unitConversionHelper;
   private HashMap<Integer, ArrayList<QuantityUnitConversion>> unitConversionHashMap;
   private HashMap<Integer, Double> shoppingListItemAmountsHashMap;
-  private List<ProductBarcode> barcodes;
   private List<PendingProductBarcode> pendingProductBarcodes;
+  private final BarcodeIndexHelper barcodeIndex;
+  private final ProductDetailsCacheHelper productDetailsCache;
   private List<Store> stores;
   private List<Location> locations;
   private List<ShoppingListItem> shoppingListItems;
@@ -104,6 +119,22 @@ public class PurchaseViewModel extends BaseViewModel {
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
   private final MutableLiveData<Boolean> quickModeEnabled;
+  private final MutableLiveData<Boolean> scanBatchModeLive;
+  private final MutableLiveData<List<PendingPurchase>> scanBatchLive;
+  private final PendingUploadHelper uploadHelper;
+  private HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
+  // scan batch items with a database write in flight, the id of new items is only known after it
+  private final Set<PendingPurchase> writingPurchases
+      = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Set<PendingPurchase> changedPurchases
+      = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Set<PendingPurchase> removedPurchases
+      = Collections.newSetFromMap(new IdentityHashMap<>());
+  private boolean purchaseAfterWrites;
+  // ids are autoincremented, so deleted items can be filtered out of a reload which was too early
+  private final Set<Integer> removedPurchaseIds = new HashSet<>();
+  private int scanBatchChanges;
+  private boolean reloadScanBatchWhenIdle;
 
   private Runnable queueEmptyAction;
 
@@ -118,6 +149,9 @@ public class PurchaseViewModel extends BaseViewModel {
     grocyApi = new GrocyApi(getApplication());
     repository = new PurchaseRepository(application);
     formData = new FormDataPurchase(application, sharedPrefs, args);
+    barcodeIndex = new BarcodeIndexHelper();
+    unitConversionHelper = new QuantityUnitConversionHelper();
+    productDetailsCache = new ProductDetailsCacheHelper(application, dlHelper, debug);
 
     if (args.getShoppingListItems() != null) {
       batchShoppingListItemIds = new ArrayList<>(args.getShoppingListItems().length);
@@ -139,6 +173,9 @@ public class PurchaseViewModel extends BaseViewModel {
       quickModeStart = false;
     }
     quickModeEnabled = new MutableLiveData<>(quickModeStart);
+    scanBatchModeLive = new MutableLiveData<>(false);
+    scanBatchLive = new MutableLiveData<>(new ArrayList<>());
+    uploadHelper = new PendingUploadHelper(application, dlHelper, debug);
   }
 
   public FormDataPurchase getFormData() {
@@ -146,6 +183,7 @@ public class PurchaseViewModel extends BaseViewModel {
   }
 
   public void loadFromDatabase(boolean downloadAfterLoading) {
+    loadScanBatch();
     repository.loadFromDatabase(data -> {
       this.products = data.getProducts();
       this.pendingProducts = data.getPendingProducts();
@@ -153,11 +191,15 @@ public class PurchaseViewModel extends BaseViewModel {
               appendPendingProducts(Product.getActiveProductsOnly(products), pendingProducts)
       );
       productHashMap = ArrayUtil.getProductsHashMap(products);
+      barcodeIndex.setProducts(products);
+      barcodeIndex.setPendingProducts(pendingProducts);
       this.pendingProductBarcodes = data.getPendingProductBarcodes();
-      this.barcodes = appendPendingProductBarcodes(data.getBarcodes(), pendingProductBarcodes);
+      barcodeIndex.setBarcodes(data.getBarcodes(), pendingProductBarcodes);
       this.quantityUnits = data.getQuantityUnits();
+      unitConversionHelper.setQuantityUnits(quantityUnits);
       quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(quantityUnits);
       this.unitConversions = data.getQuantityUnitConversions();
+      unitConversionHelper.setConversions(unitConversions);
       unitConversionHashMap = ArrayUtil.getUnitConversionsHashMap(unitConversions);
       this.stores = data.getStores();
       this.locations = data.getLocations();
@@ -185,18 +227,19 @@ public class PurchaseViewModel extends BaseViewModel {
         dlHelper.updateProducts(dbChangedTime, products -> {
           this.products = products;
           productHashMap = ArrayUtil.getProductsHashMap(products);
+          barcodeIndex.setProducts(products);
           formData.getProductsLive().setValue(
                   appendPendingProducts(Product.getActiveProductsOnly(products), pendingProducts)
           );
         }), dlHelper.updateQuantityUnitConversions(dbChangedTime, conversions -> {
           this.unitConversions = conversions;
+          unitConversionHelper.setConversions(conversions);
           unitConversionHashMap = ArrayUtil.getUnitConversionsHashMap(unitConversions);
-        }), dlHelper.updateProductBarcodes(dbChangedTime,
-            barcodes -> this.barcodes = appendPendingProductBarcodes(
-                barcodes, pendingProductBarcodes
-            )
+        }), dlHelper.updateProductBarcodes(
+            dbChangedTime, barcodes -> barcodeIndex.setBarcodes(barcodes, pendingProductBarcodes)
         ), dlHelper.updateQuantityUnits(dbChangedTime, quantityUnits -> {
           this.quantityUnits = quantityUnits;
+          unitConversionHelper.setQuantityUnits(quantityUnits);
           quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(quantityUnits);
         }), dlHelper.updateStores(
             dbChangedTime, stores -> this.stores = stores
@@ -249,7 +292,7 @@ public class PurchaseViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
   }
@@ -384,15 +427,54 @@ public class PurchaseViewModel extends BaseViewModel {
       formData.getAmountLive().setValue(NumUtil.trim(shoppingListItem.getAmountDouble()));
       return;
     }
-    dlHelper.getProductDetails(
-        productId,
-        listener,
-        error -> showMessageAndContinueScanning(getString(R.string.error_no_product_details))
-    ).perform(dlHelper.getUuid());
+    productDetailsCache.load(productId, false, new DetailsListener() {
+      @Override
+      public void onDetails(Details details, boolean isRevalidation) {
+        if (isRevalidation) {
+          onProductDetailsRevalidated(details.getProductDetails());
+        } else {
+          listener.onResponse(details.getProductDetails());
+        }
+      }
+
+      @Override
+      public void onError() {
+        showMessageAndContinueScanning(getString(R.string.error_no_product_details));
+      }
+    });
+  }
+
+  private void onProductDetailsRevalidated(ProductDetails productDetails) {
+    ProductDetails current = formData.getProductDetailsLive().getValue();
+    if (current == null
+        || current.getProduct().getId() != productDetails.getProduct().getId()) {
+      return;
+    }
+    // the inputs are kept, only the shown details are replaced
+    formData.getProductDetailsLive().setValue(productDetails);
+    formData.isFormValid();
+  }
+
+  public void prefetchTopMatch(String input, @Nullable Product product) {
+    if (formData.getProductDetailsLive().getValue() != null || input.trim().length() < 2) {
+      return;
+    }
+    // a typed barcode is more certain than the best match of the name
+    ProductBarcode barcode = barcodeIndex.getBarcode(input);
+    if (barcode instanceof PendingProductBarcode) {
+      return;
+    }
+    Product barcodeProduct = barcodeIndex.getProduct(barcode);
+    if (barcodeProduct != null) {
+      product = barcodeProduct;
+    }
+    if (product != null) {
+      productDetailsCache.prefetch(product.getId(), false);
+    }
   }
 
   public void setPendingProduct(int pendingProductId, PendingProductBarcode barcode) {
-    PendingProduct pendingProduct = PendingProduct.getFromId(pendingProducts, pendingProductId);
+    PendingProduct pendingProduct = barcodeIndex.getPendingProduct(pendingProductId);
     if (pendingProduct == null) return;
     formData.getPendingProductLive().setValue(pendingProduct);
     formData.getProductNameLive().setValue(pendingProduct.getName());
@@ -446,24 +528,7 @@ public class PurchaseViewModel extends BaseViewModel {
       throw new IllegalArgumentException(getString(R.string.error_loading_qus));
     }
 
-    HashMap<QuantityUnit, Double> unitFactors = new HashMap<>();
-    ArrayList<Integer> quIdsInHashMap = new ArrayList<>();
-    unitFactors.put(stock, (double) -1);
-    quIdsInHashMap.add(stock.getId());
-    if (!quIdsInHashMap.contains(purchase.getId())) {
-      unitFactors.put(purchase, product.getQuFactorPurchaseToStockDouble());
-    }
-    for (QuantityUnitConversion conversion : unitConversions) {
-      if (product.getId() != conversion.getProductId()) {
-        continue;
-      }
-      QuantityUnit unit = quantityUnitHashMap.get(conversion.getToQuId());
-      if (unit == null || quIdsInHashMap.contains(unit.getId())) {
-        continue;
-      }
-      unitFactors.put(unit, conversion.getFactor());
-      quIdsInHashMap.add(unit.getId());
-    }
+    HashMap<QuantityUnit, Double> unitFactors = unitConversionHelper.getUnitFactors(product);
     formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
 
     QuantityUnit forcedUnit = null;
@@ -486,6 +551,9 @@ public class PurchaseViewModel extends BaseViewModel {
       formData.getBarcodeLive().setValue(barcode);
       return;
     }
+    if (isScanBatchModeEnabled() && addToScanBatch(barcode)) {
+      return;
+    }
     Product product = null;
     Grocycode grocycode = GrocycodeUtil.getGrocycode(barcode);
     if (grocycode != null && grocycode.isProduct()) {
@@ -500,17 +568,14 @@ public class PurchaseViewModel extends BaseViewModel {
     }
     ProductBarcode productBarcode = null;
     if (product == null) {
-      for (ProductBarcode code : barcodes) {
-        if (code.getBarcode().equals(barcode)) {
-          productBarcode = code;
-          if (code instanceof PendingProductBarcode) {
-            setPendingProduct(code.getProductIdInt(), (PendingProductBarcode) code);
-            return;
-          } else {
-            product = productHashMap.get(code.getProductIdInt());
-          }
-        }
+      productBarcode = barcodeIndex.getBarcode(barcode);
+      if (productBarcode instanceof PendingProductBarcode) {
+        setPendingProduct(
+            productBarcode.getProductIdInt(), (PendingProductBarcode) productBarcode
+        );
+        return;
       }
+      product = barcodeIndex.getProduct(productBarcode);
     }
     if (product != null) {
       setProduct(product.getId(), productBarcode, null);
@@ -541,17 +606,8 @@ public class PurchaseViewModel extends BaseViewModel {
       return;
     }
     if (product == null) {
-      ProductBarcode productBarcode = null;
-      for (ProductBarcode code : barcodes) {
-        if (code.getBarcode().equals(input.trim())) {
-          productBarcode = code;
-          if (code instanceof PendingProductBarcode) {
-            product = PendingProduct.getFromId(pendingProducts, code.getProductIdInt());
-          } else {
-            product = productHashMap.get(code.getProductIdInt());
-          }
-        }
-      }
+      ProductBarcode productBarcode = barcodeIndex.getBarcode(input);
+      product = barcodeIndex.getProduct(productBarcode);
       if (product != null) {
         setProduct(product.getId(), productBarcode, null);
         return;
@@ -646,11 +702,11 @@ public class PurchaseViewModel extends BaseViewModel {
         }
       } catch (JSONException e) {
         if (debug) {
-          Log.e(TAG, "purchaseProduct: " + e);
+          LogUtil.e(TAG, "purchaseProduct: " + e);
         }
       }
       if (debug) {
-        Log.i(TAG, "purchaseProduct: transaction successful");
+        LogUtil.i(TAG, "purchaseProduct: transaction successful");
       }
 
       SnackbarMessage snackbarMessage = new SnackbarMessage(
@@ -661,7 +717,7 @@ public class PurchaseViewModel extends BaseViewModel {
         ShoppingListItem shoppingListItem = formData.getShoppingListItemLive().getValue();
         snackbarMessage.setAction(
             getString(R.string.action_undo),
-            v -> undoTransaction(transId, shoppingListItem)
+            v -> undoTransaction(transId, product.getId(), shoppingListItem)
         );
         snackbarMessage.setDurationSecs(sharedPrefs.getInt(
                 Constants.SETTINGS.BEHAVIOR.MESSAGE_DURATION,
@@ -675,6 +731,7 @@ public class PurchaseViewModel extends BaseViewModel {
         grocyApi.purchaseProduct(product.getId()),
         body,
         response -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), product.getId());
           ShoppingListItem shoppingListItem = formData.getShoppingListItemLive().getValue();
           if (batchShoppingListItemIds != null && shoppingListItem != null) {
             deleteShoppingListItem(shoppingListItem.getId(), () -> onResponse.onResponse(response));
@@ -685,20 +742,25 @@ public class PurchaseViewModel extends BaseViewModel {
         error -> {
           showErrorMessage(error);
           if (debug) {
-            Log.i(TAG, "purchaseProduct: " + error);
+            LogUtil.i(TAG, "purchaseProduct: " + error);
           }
         }
     );
   }
 
-  private void undoTransaction(String transactionId, @Nullable ShoppingListItem shoppingListItem) {
+  private void undoTransaction(
+      String transactionId,
+      int productId,
+      @Nullable ShoppingListItem shoppingListItem
+  ) {
     dlHelper.post(
         grocyApi.undoStockTransaction(transactionId),
         success -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), productId);
           showMessage(getString(R.string.msg_undone_transaction));
           if (shoppingListItem != null) undoDeleteShoppingListItem(shoppingListItem);
           if (debug) {
-            Log.i(TAG, "undoTransaction: undone");
+            LogUtil.i(TAG, "undoTransaction: undone");
           }
         },
         this::showErrorMessage
@@ -714,7 +776,7 @@ public class PurchaseViewModel extends BaseViewModel {
     JSONObject body = productBarcode.getJsonFromProductBarcode(debug, TAG);
     dlHelper.addProductBarcode(body, () -> {
       formData.getBarcodeLive().setValue(null);
-      barcodes.add(productBarcode); // add to list so it will be found on next scan without reload
+      barcodeIndex.addBarcode(productBarcode); // will be found on next scan without reload
       if (onSuccess != null) {
         onSuccess.run();
       }
@@ -748,7 +810,7 @@ public class PurchaseViewModel extends BaseViewModel {
   private void storePendingProductBarcode(Runnable onSuccess) {
     PendingProductBarcode productBarcode = formData.fillPendingProductBarcode();
     formData.getBarcodeLive().setValue(null);
-    barcodes.add(productBarcode); // add to list so it will be found on next scan without reload
+    barcodeIndex.addBarcode(productBarcode); // will be found on next scan without reload
     pendingProductBarcodes.add(productBarcode);
     repository.insertPendingProductBarcode(productBarcode, onSuccess);
   }
@@ -759,7 +821,7 @@ public class PurchaseViewModel extends BaseViewModel {
         response -> onFinish.run(),
         error -> {
           if (debug) {
-            Log.e(TAG, "deleteShoppingListItem: " + error);
+            LogUtil.e(TAG, "deleteShoppingListItem: " + error);
           }
           onFinish.run();
         }
@@ -773,7 +835,7 @@ public class PurchaseViewModel extends BaseViewModel {
         response -> {},
         error -> {
           if (debug) {
-            Log.e(TAG, "undoDeleteShoppingListItem: " + error);
+            LogUtil.e(TAG, "undoDeleteShoppingListItem: " + error);
           }
         }
     );
@@ -943,17 +1005,6 @@ public class PurchaseViewModel extends BaseViewModel {
     return newList;
   }
 
-  private ArrayList<ProductBarcode> appendPendingProductBarcodes(
-      List<ProductBarcode> productBarcodes,
-      List<PendingProductBarcode> pendingProductBarcodes
-  ) {
-    ArrayList<ProductBarcode> newList = new ArrayList<>(productBarcodes);
-    if (pendingProductBarcodes != null) {
-      newList.addAll(pendingProductBarcodes);
-    }
-    return newList;
-  }
-
   public boolean isQuickModeEnabled() {
     if (quickModeEnabled.getValue() == null) {
       return false;
@@ -965,6 +1016,277 @@ public class PurchaseViewModel extends BaseViewModel {
     return quickModeEnabled;
   }
 
+  public boolean isScanBatchModeEnabled() {
+    return scanBatchModeLive.getValue() != null && scanBatchModeLive.getValue();
+  }
+
+  public MutableLiveData<Boolean> getScanBatchModeLive() {
+    return scanBatchModeLive;
+  }
+
+  public void toggleScanBatchMode() {
+    scanBatchModeLive.setValue(!isScanBatchModeEnabled());
+    showMessage(isScanBatchModeEnabled()
+        ? R.string.msg_scan_batch_enabled
+        : R.string.msg_scan_batch_disabled);
+  }
+
+  public MutableLiveData<List<PendingPurchase>> getScanBatchLive() {
+    return scanBatchLive;
+  }
+
+  private void loadScanBatch() {
+    int changes = scanBatchChanges;
+    repository.loadScanBatch(data -> {
+      productLastPurchasedHashMap = new HashMap<>();
+      for (ProductLastPurchased lastPurchased : data.getProductsLastPurchased()) {
+        productLastPurchasedHashMap.put(lastPurchased.getProductId(), lastPurchased);
+      }
+      if (uploadHelper.isUploading() || !writingPurchases.isEmpty()) {
+        // items in flight would be lost or duplicated, so read again when they are written
+        reloadScanBatchWhenIdle = true;
+        return;
+      } else if (changes != scanBatchChanges) {
+        loadScanBatch(); // the result may miss an item which was written during the read
+        return;
+      }
+      ArrayList<PendingPurchase> purchases = new ArrayList<>();
+      for (PendingPurchase purchase : data.getPurchases()) {
+        if (!removedPurchaseIds.contains(purchase.getId())) {
+          purchases.add(purchase);
+        }
+      }
+      scanBatchLive.setValue(purchases);
+    });
+  }
+
+  private void reloadScanBatchIfDeferred() {
+    if (reloadScanBatchWhenIdle && writingPurchases.isEmpty() && !uploadHelper.isUploading()) {
+      reloadScanBatchWhenIdle = false;
+      loadScanBatch();
+    }
+  }
+
+  /**
+   * Adds one package of the scanned product to the scan batch. Returns false if the code has
+   * to be handled with the form, e.g. unknown barcodes or products with tare weight handling.
+   */
+  private boolean addToScanBatch(String barcode) {
+    if (uploadHelper.isUploading()) {
+      // the amounts of the batch items are already sent, a scan would be lost
+      showMessageAndContinueScanning(R.string.msg_scan_batch_uploading);
+      return true;
+    }
+    Product product = null;
+    ProductBarcode productBarcode = null;
+    Grocycode grocycode = GrocycodeUtil.getGrocycode(barcode);
+    if (grocycode != null && grocycode.isProduct()) {
+      product = barcodeIndex.getProduct(grocycode.getObjectId());
+    } else if (grocycode == null) {
+      productBarcode = barcodeIndex.getBarcode(barcode);
+      if (!(productBarcode instanceof PendingProductBarcode)) {
+        product = barcodeIndex.getProduct(productBarcode);
+      }
+    }
+    if (product == null || product.getEnableTareWeightHandlingBoolean()) {
+      return false;
+    }
+
+    // amount is stored in the stock unit like in the purchase request
+    double factor = product.getQuFactorPurchaseToStockDouble();
+    if (productBarcode != null && productBarcode.hasQuId()) {
+      if (productBarcode.getQuIdInt() == product.getQuIdStockInt()) {
+        factor = 1;
+      } else if (productBarcode.getQuIdInt() != product.getQuIdPurchaseInt()) {
+        return false;
+      }
+    }
+    double amount = productBarcode != null && productBarcode.hasAmount()
+        ? productBarcode.getAmountDouble() * factor : factor;
+
+    List<PendingPurchase> batch = scanBatchLive.getValue();
+    assert batch != null;
+    PendingPurchase purchase = null;
+    for (PendingPurchase item : batch) {
+      if (item.isUploadStarted()) {
+        continue; // may be booked already, so the new amount gets its own item
+      }
+      if (item.getProductId() != null && item.getProductId() == product.getId()) {
+        purchase = item;
+        break;
+      }
+    }
+    if (purchase != null) {
+      purchase.setAmount(NumUtil.trim(NumUtil.toDouble(purchase.getAmount()) + amount));
+    } else {
+      purchase = newScanBatchPurchase(product, NumUtil.trim(amount));
+      batch.add(purchase);
+    }
+    writePendingPurchase(purchase);
+    scanBatchLive.setValue(batch);
+    showMessage(getApplication().getString(
+        R.string.msg_scan_batch_added, product.getName(), batch.size()
+    ));
+    sendEvent(Event.CONTINUE_SCANNING);
+    return true;
+  }
+
+  /**
+   * Writes of the same item are serialized, so that a new item is inserted only once and a
+   * later amount can't be overwritten by an earlier write.
+   */
+  private void writePendingPurchase(PendingPurchase purchase) {
+    scanBatchChanges++;
+    if (writingPurchases.contains(purchase)) {
+      changedPurchases.add(purchase); // written again when the id is known
+      return;
+    }
+    writingPurchases.add(purchase);
+    repository.insertPendingPurchase(
+        purchase,
+        id -> {
+          purchase.setId(id.intValue());
+          onPendingPurchaseWritten(purchase);
+        },
+        () -> {
+          changedPurchases.remove(purchase);
+          onPendingPurchaseWritten(purchase);
+          showErrorMessage();
+        }
+    );
+  }
+
+  private void onPendingPurchaseWritten(PendingPurchase purchase) {
+    writingPurchases.remove(purchase);
+    if (removedPurchases.remove(purchase)) {
+      changedPurchases.remove(purchase);
+      removedPurchaseIds.add(purchase.getId());
+      repository.deletePendingPurchase(purchase.getId(), () -> {}, this::showErrorMessage);
+    } else if (changedPurchases.remove(purchase)) {
+      writePendingPurchase(purchase);
+    }
+    if (writingPurchases.isEmpty() && purchaseAfterWrites) {
+      purchaseAfterWrites = false;
+      purchaseScanBatch();
+    }
+    reloadScanBatchIfDeferred();
+  }
+
+  private PendingPurchase newScanBatchPurchase(Product product, String amount) {
+    ProductLastPurchased lastPurchased = productLastPurchasedHashMap != null
+        ? productLastPurchasedHashMap.get(product.getId()) : null;
+    PendingPurchase purchase = new PendingPurchase();
+    purchase.setProductId(product.getId());
+    purchase.setAmount(amount);
+    if (formData.getPurchasedDateEnabled()) {
+      purchase.setPurchasedDate(DateUtil.getDateStringToday());
+    }
+    int dueDays = product.getDefaultDueDaysInt();
+    if (!isFeatureEnabled(PREF.FEATURE_STOCK_BBD_TRACKING) || dueDays == -1) {
+      purchase.setBestBeforeDate(Constants.DATE.NEVER_OVERDUE);
+    } else if (dueDays > 0) {
+      purchase.setBestBeforeDate(DateUtil.getTodayWithDaysAdded(dueDays));
+    } // else the server uses the default of the product
+    if (isFeatureEnabled(PREF.FEATURE_STOCK_PRICE_TRACKING)) {
+      if (lastPurchased != null) {
+        purchase.setPrice(lastPurchased.getPrice());
+        purchase.setStoreId(lastPurchased.getShoppingLocationId());
+      } else {
+        purchase.setStoreId(product.getStoreId());
+      }
+    }
+    if (isFeatureEnabled(PREF.FEATURE_STOCK_LOCATION_TRACKING)) {
+      purchase.setLocationId(product.getLocationId());
+    }
+    return purchase;
+  }
+
+  public void removeFromScanBatch(PendingPurchase purchase) {
+    if (uploadHelper.isUploading()) {
+      return;
+    }
+    List<PendingPurchase> batch = scanBatchLive.getValue();
+    assert batch != null;
+    batch.remove(purchase);
+    scanBatchLive.setValue(batch);
+    if (writingPurchases.contains(purchase)) {
+      removedPurchases.add(purchase); // deleted when the id is known
+      return;
+    }
+    removedPurchaseIds.add(purchase.getId());
+    repository.deletePendingPurchase(purchase.getId(), () -> {}, this::showErrorMessage);
+  }
+
+  public void purchaseScanBatch() {
+    List<PendingPurchase> batch = scanBatchLive.getValue();
+    if (batch == null || batch.isEmpty() || uploadHelper.isUploading()) {
+      return;
+    }
+    if (!writingPurchases.isEmpty()) {
+      // uploaded items are deleted by id, so all ids have to be known
+      purchaseAfterWrites = true;
+      return;
+    }
+    uploadScanBatch(new ArrayList<>(batch), false);
+  }
+
+  /**
+   * Sends the items again which were possibly booked by an interrupted upload. Must only be
+   * called after the user confirmed that they are not in stock yet.
+   */
+  public void resendUncertainScanBatchItems() {
+    List<PendingPurchase> uncertainItems = getUncertainScanBatchItems();
+    if (uncertainItems.isEmpty() || uploadHelper.isUploading()) {
+      return;
+    }
+    uploadScanBatch(uncertainItems, true);
+  }
+
+  public List<PendingPurchase> getUncertainScanBatchItems() {
+    List<PendingPurchase> uncertainItems = new ArrayList<>();
+    List<PendingPurchase> batch = scanBatchLive.getValue();
+    if (batch == null) {
+      return uncertainItems;
+    }
+    for (PendingPurchase purchase : batch) {
+      if (purchase.isUploadStarted()) {
+        uncertainItems.add(purchase);
+      }
+    }
+    return uncertainItems;
+  }
+
+  private void uploadScanBatch(List<PendingPurchase> purchases, boolean resendStarted) {
+    uploadHelper.uploadPurchases(purchases, resendStarted, new UploadListener() {
+      @Override
+      public void onUploaded(PendingPurchase purchase) {
+        List<PendingPurchase> batch = scanBatchLive.getValue();
+        assert batch != null;
+        batch.remove(purchase);
+        removedPurchaseIds.add(purchase.getId());
+        scanBatchLive.setValue(batch);
+      }
+
+      @Override
+      public void onFinished(int uploadedCount, int failedCount) {
+        if (!resendStarted && !getUncertainScanBatchItems().isEmpty()) {
+          showBottomSheet(new ScanBatchResendBottomSheet());
+        } else if (failedCount > 0) {
+          showMessage(getApplication().getString(R.string.error_scan_batch, failedCount));
+        } else {
+          showMessage(getApplication().getString(R.string.msg_scan_batch_purchased, uploadedCount));
+        }
+        // the marks of items which were sent now have to be displayed
+        scanBatchLive.setValue(scanBatchLive.getValue());
+        reloadScanBatchIfDeferred();
+      }
+    });
+  }
+
+  public void onConnectivityChanged(boolean isOnline) {
+    uploadHelper.onConnectivityChanged(isOnline);
+  }
+
   public boolean toggleQuickModeEnabled() {
     quickModeEnabled.setValue(!isQuickModeEnabled());
     sendEvent(isQuickModeEnabled() ? Event.QUICK_MODE_ENABLED : Event.QUICK_MODE_DISABLED);
@@ -976,6 +1298,8 @@ public class PurchaseViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    productDetailsCache.destroy();
+    uploadHelper.cancel();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
@@ -46,6 +45,7 @@ import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.SnackbarMessage;
 import xyz.zedler.patrick.grocy.repository.ShoppingListRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class ShoppingListEditViewModel extends AndroidViewModel {
@@ -165,7 +165,7 @@ public class ShoppingListEditViewModel extends AndroidViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -188,7 +188,7 @@ public class ShoppingListEditViewModel extends AndroidViewModel {
       jsonObject.put("name", name);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "saveShoppingList: " + e);
+        LogUtil.e(TAG, "saveShoppingList: " + e);
       }
     }
 
@@ -200,7 +200,7 @@ public class ShoppingListEditViewModel extends AndroidViewModel {
           error -> {
             showErrorMessage();
             if (debug) {
-              Log.e(TAG, "saveShoppingList: " + error);
+              LogUtil.e(TAG, "saveShoppingList: " + error);
             }
           }
       );
@@ -212,10 +212,10 @@ public class ShoppingListEditViewModel extends AndroidViewModel {
             int objectId;
             try {
               objectId = response.getInt("created_object_id");
-              Log.i(TAG, "saveShoppingList: " + objectId);
+              LogUtil.i(TAG, "saveShoppingList: " + objectId);
             } catch (JSONException e) {
               if (debug) {
-                Log.e(TAG, "saveShoppingList: " + e);
+                LogUtil.e(TAG, "saveShoppingList: " + e);
               }
               objectId = 1;
             }
@@ -225,7 +225,7 @@ public class ShoppingListEditViewModel extends AndroidViewModel {
           error -> {
             showErrorMessage();
             if (debug) {
-              Log.e(TAG, "saveShoppingList: " + error);
+              LogUtil.e(TAG, "saveShoppingList: " + error);
             }
           }
       );
@@ -256,7 +256,7 @@ public class ShoppingListEditViewModel extends AndroidViewModel {
         error -> {
           showErrorMessage();
           if (debug) {
-            Log.i(TAG, "deleteShoppingList: " + error);
+            LogUtil.i(TAG, "deleteShoppingList: " + error);
           }
           downloadData();
         }
@@ -272,7 +272,7 @@ public class ShoppingListEditViewModel extends AndroidViewModel {
       jsonObject.put("list_id", startupShoppingList.getId());
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "clearShoppingList: " + e);
+        LogUtil.e(TAG, "clearShoppingList: " + e);
       }
     }
     dlHelper.post(
@@ -286,7 +286,7 @@ public class ShoppingListEditViewModel extends AndroidViewModel {
         error -> {
           showMessage(getString(R.string.error_undefined));
           if (debug) {
-            Log.e(
+            LogUtil.e(
                 TAG, "clearShoppingList: "
                     + startupShoppingList.getName()
                     + ": " + error
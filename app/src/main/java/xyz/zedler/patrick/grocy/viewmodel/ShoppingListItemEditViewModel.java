@@ -22,7 +22,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 import android.app.Application;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -30,7 +29,6 @@ import androidx.lifecycle.ViewModel;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.preference.PreferenceManager;
 import com.android.volley.VolleyError;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import org.json.JSONObject;
@@ -40,19 +38,21 @@ import xyz.zedler.patrick.grocy.fragment.ShoppingListItemEditFragmentArgs;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.InputProductBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductOverviewBottomSheet;
 import xyz.zedler.patrick.grocy.fragment.bottomSheetDialog.ProductOverviewBottomSheetArgs;
+import xyz.zedler.patrick.grocy.helper.BarcodeIndexHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.QuantityUnitConversionHelper;
 import xyz.zedler.patrick.grocy.model.FormDataShoppingListItemEdit;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.QuantityUnit;
-import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
 import xyz.zedler.patrick.grocy.repository.ShoppingListItemEditRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil;
 import xyz.zedler.patrick.grocy.util.GrocycodeUtil.Grocycode;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
@@ -73,9 +73,9 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
 
   private List<ShoppingList> shoppingLists;
   private List<Product> products;
-  private List<ProductBarcode> barcodes;
+  private final BarcodeIndexHelper barcodeIndex;
   private List<QuantityUnit> quantityUnits;
-  private List<QuantityUnitConversion> unitConversions;
+  private final QuantityUnitConversionHelper unitConversionHelper;
 
   private DownloadHelper.Queue currentQueueLoading;
   private Runnable queueEmptyAction;
@@ -96,6 +96,8 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
     grocyApi = new GrocyApi(getApplication());
     repository = new ShoppingListItemEditRepository(application);
     formData = new FormDataShoppingListItemEdit(application);
+    barcodeIndex = new BarcodeIndexHelper();
+    unitConversionHelper = new QuantityUnitConversionHelper();
     args = startupArgs;
     isActionEdit = startupArgs.getAction().equals(Constants.ACTION.EDIT);
 
@@ -111,9 +113,11 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
     repository.loadFromDatabase(data -> {
       this.shoppingLists = data.getShoppingLists();
       this.products = data.getProducts();
-      this.barcodes = data.getBarcodes();
+      barcodeIndex.setProducts(products);
+      barcodeIndex.setBarcodes(data.getBarcodes());
       this.quantityUnits = data.getQuantityUnits();
-      this.unitConversions = data.getQuantityUnitConversions();
+      unitConversionHelper.setQuantityUnits(quantityUnits);
+      unitConversionHelper.setConversions(data.getQuantityUnitConversions());
       formData.getProductsLive().setValue(Product.getActiveProductsOnly(products));
       if (!isActionEdit) {
         formData.getShoppingListLive().setValue(getLastShoppingList());
@@ -148,13 +152,17 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
           }
         }), dlHelper.updateProducts(dbChangedTime, products -> {
           this.products = products;
+          barcodeIndex.setProducts(products);
           formData.getProductsLive().setValue(Product.getActiveProductsOnly(products));
         }), dlHelper.updateQuantityUnitConversions(
-            dbChangedTime, conversions -> this.unitConversions = conversions
+            dbChangedTime, unitConversionHelper::setConversions
         ), dlHelper.updateProductBarcodes(
-            dbChangedTime, barcodes -> this.barcodes = barcodes
+            dbChangedTime, barcodeIndex::setBarcodes
         ), dlHelper.updateQuantityUnits(
-            dbChangedTime, quantityUnits -> this.quantityUnits = quantityUnits
+            dbChangedTime, quantityUnits -> {
+              this.quantityUnits = quantityUnits;
+              unitConversionHelper.setQuantityUnits(quantityUnits);
+            }
         )
     );
     if (queue.isEmpty()) {
@@ -195,7 +203,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -225,7 +233,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveItem: " + error);
+              LogUtil.e(TAG, "saveItem: " + error);
             }
           }
       );
@@ -237,7 +245,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
           error -> {
             showErrorMessage(error);
             if (debug) {
-              Log.e(TAG, "saveItem: " + error);
+              LogUtil.e(TAG, "saveItem: " + error);
             }
           }
       );
@@ -304,23 +312,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
       return null;
     }
 
-    HashMap<QuantityUnit, Double> unitFactors = new HashMap<>();
-    ArrayList<Integer> quIdsInHashMap = new ArrayList<>();
-    unitFactors.put(stock, (double) -1);
-    quIdsInHashMap.add(stock.getId());
-    if (!quIdsInHashMap.contains(purchase.getId())) {
-      unitFactors.put(purchase, product.getQuFactorPurchaseToStockDouble());
-    }
-    for (QuantityUnitConversion conversion : unitConversions) {
-      if (product.getId() != conversion.getProductId()) {
-        continue;
-      }
-      QuantityUnit unit = getQuantityUnit(conversion.getToQuId());
-      if (unit == null || quIdsInHashMap.contains(unit.getId())) {
-        continue;
-      }
-      unitFactors.put(unit, conversion.getFactor());
-    }
+    HashMap<QuantityUnit, Double> unitFactors = unitConversionHelper.getUnitFactors(product);
     formData.getQuantityUnitsFactorsLive().setValue(unitFactors);
 
     if (!isActionEdit) {
@@ -354,7 +346,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
     Product product = null;
     Grocycode grocycode = GrocycodeUtil.getGrocycode(barcode);
     if (grocycode != null && grocycode.isProduct()) {
-      product = Product.getProductFromId(products, grocycode.getObjectId());
+      product = barcodeIndex.getProduct(grocycode.getObjectId());
       if (product == null) {
         formData.clearForm();
         showMessage(R.string.msg_not_found);
@@ -366,7 +358,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
       return;
     }
     if (product == null) {
-      product = Product.getProductFromBarcode(products, barcodes, barcode);
+      product = barcodeIndex.getProductFromBarcode(barcode);
     }
     if (product != null) {
       setProduct(product);
@@ -428,12 +420,7 @@ public class ShoppingListItemEditViewModel extends BaseViewModel {
   }
 
   private QuantityUnit getQuantityUnit(int id) {
-    for (QuantityUnit quantityUnit : quantityUnits) {
-      if (quantityUnit.getId() == id) {
-        return quantityUnit;
-      }
-    }
-    return null;
+    return unitConversionHelper.getQuantityUnit(id);
   }
 
   private ShoppingList getLastShoppingList() {
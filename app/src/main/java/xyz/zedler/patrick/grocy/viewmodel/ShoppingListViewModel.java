@@ -23,7 +23,6 @@ import android.app.Application;
 import android.content.SharedPreferences;
 import android.text.Html;
 import android.text.Spanned;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -36,7 +35,12 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.helper.DatabaseObserverHelper;
+import xyz.zedler.patrick.grocy.database.SyncGeneration;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ShoppingListDoneSyncHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper.StockStatus;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveData;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataShoppingListExtraField;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataShoppingListGrouping;
@@ -49,11 +53,13 @@ import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.repository.ShoppingListRepository;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class ShoppingListViewModel extends BaseViewModel {
@@ -65,6 +71,7 @@ public class ShoppingListViewModel extends BaseViewModel {
   private final DownloadHelper dlHelper;
   private final GrocyApi grocyApi;
   private final ShoppingListRepository repository;
+  private final StockStatusHelper stockStatusHelper;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
@@ -86,12 +93,16 @@ public class ShoppingListViewModel extends BaseViewModel {
   private HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
   private HashMap<Integer, Store> storeHashMap;
   private ArrayList<Integer> missingProductIds;
+  private ArrayList<StockItem> stockItemsTemp;
 
   private ArrayList<ShoppingListItem> itemsToSyncTemp;
   private HashMap<Integer, ShoppingListItem> serverItemHashMapTemp;
 
+  private final DatabaseObserverHelper dbObserver;
+  private final ShoppingListDoneSyncHelper doneSyncHelper;
   private DownloadHelper.Queue currentQueueLoading;
   private String searchInput;
+  private boolean downloadAfterLoading;
   private final boolean debug;
 
   public ShoppingListViewModel(@NonNull Application application) {
@@ -104,6 +115,20 @@ public class ShoppingListViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue);
     grocyApi = new GrocyApi(getApplication());
     repository = new ShoppingListRepository(application);
+    stockStatusHelper = new StockStatusHelper(sharedPrefs);
+    dbObserver = new DatabaseObserverHelper();
+    doneSyncHelper = new ShoppingListDoneSyncHelper(application, debug);
+    doneSyncHelper.setListener(new ShoppingListDoneSyncHelper.DoneSyncListener() {
+      @Override
+      public void onSynced(List<ShoppingListItem> syncedItems) {
+        // the database observer updates the list
+      }
+
+      @Override
+      public void onSyncFailed() {
+        showMessage(getString(R.string.msg_failed_to_sync));
+      }
+    });
 
     infoFullscreenLive = new MutableLiveData<>();
     offlineLive = new MutableLiveData<>(false);
@@ -134,21 +159,50 @@ public class ShoppingListViewModel extends BaseViewModel {
   }
 
   public void loadFromDatabase(boolean downloadAfterLoading) {
-    repository.loadFromDatabase(data -> {
-      this.shoppingListItems = data.getShoppingListItems();
-      this.shoppingLists = data.getShoppingLists();
-      productGroupHashMap = ArrayUtil.getProductGroupsHashMap(data.getProductGroups());
-      quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(data.getQuantityUnits());
-      unitConversionHashMap = ArrayUtil.getUnitConversionsHashMap(data.getUnitConversions());
-      storeHashMap = ArrayUtil.getStoresHashMap(data.getStores());
-      missingProductIds = ArrayUtil.getMissingProductsIds(data.getMissingItems());
-      productHashMap = ArrayUtil.getProductsHashMap(data.getProducts());
-      productNamesHashMap = ArrayUtil.getProductNamesHashMap(data.getProducts());
-      productLastPurchasedHashMap = ArrayUtil
-          .getProductLastPurchasedHashMap(data.getProductsLastPurchased());
+    if (dbObserver.isObserving()) {
+      if (downloadAfterLoading) {
+        downloadData();
+      }
+      return;
+    }
+    this.downloadAfterLoading = downloadAfterLoading;
+    // only the tables which were written are read again, e.g. after a done toggle
+    dbObserver.observe(
+        repository.getShoppingListItemsFlowable(),
+        shoppingListItems -> this.shoppingListItems = shoppingListItems
+    ).observe(
+        repository.getShoppingListsFlowable(),
+        shoppingLists -> this.shoppingLists = shoppingLists
+    ).observe(
+        repository.getProductGroupsFlowable(),
+        productGroups -> productGroupHashMap = ArrayUtil.getProductGroupsHashMap(productGroups)
+    ).observe(
+        repository.getQuantityUnitsFlowable(),
+        quantityUnits -> quantityUnitHashMap = ArrayUtil.getQuantityUnitsHashMap(quantityUnits)
+    ).observe(
+        repository.getConversionsFlowable(),
+        conversions -> unitConversionHashMap = ArrayUtil.getUnitConversionsHashMap(conversions)
+    ).observe(
+        repository.getProductsFlowable(),
+        products -> {
+          productHashMap = ArrayUtil.getProductsHashMap(products);
+          productNamesHashMap = ArrayUtil.getProductNamesHashMap(products);
+        }
+    ).observe(
+        repository.getProductsLastPurchasedFlowable(),
+        productsLastPurchased -> productLastPurchasedHashMap = ArrayUtil
+            .getProductLastPurchasedHashMap(productsLastPurchased)
+    ).observe(
+        repository.getStoresFlowable(),
+        stores -> storeHashMap = ArrayUtil.getStoresHashMap(stores)
+    ).observe(
+        repository.getMissingItemsFlowable(),
+        missingItems -> missingProductIds = ArrayUtil.getMissingProductsIds(missingItems)
+    ).setOnChangedListener(() -> {
       fillShoppingListItemAmountsHashMap();
       updateFilteredShoppingListItems();
-      if (downloadAfterLoading) {
+      if (this.downloadAfterLoading) {
+        this.downloadAfterLoading = false;
         downloadData();
       }
     });
@@ -266,7 +320,8 @@ public class ShoppingListViewModel extends BaseViewModel {
       return;
     }
 
-    DownloadHelper.Queue queue = dlHelper.newQueue(this::onQueueEmpty, this::onDownloadError);
+    DownloadHelper.Queue queue = dlHelper.newQueue(this::onQueueEmpty, this::onDownloadError)
+        .setOnQueueCommitListener(this::stageMissingItems);
     queue.append(
         dlHelper.updateShoppingListItems(
             dbChangedTime,
@@ -297,9 +352,9 @@ public class ShoppingListViewModel extends BaseViewModel {
         ), dlHelper.updateStores(
             dbChangedTime,
             stores -> storeHashMap = ArrayUtil.getStoresHashMap(stores)
-        ), dlHelper.updateMissingItems(
+        ), dlHelper.updateStockItems(
             dbChangedTime,
-            missing -> missingProductIds = ArrayUtil.getMissingProductsIds(missing)
+            stockItems -> this.stockItemsTemp = stockItems
         )
     );
 
@@ -323,7 +378,7 @@ public class ShoppingListViewModel extends BaseViewModel {
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCT_GROUPS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_QUANTITY_UNITS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_QUANTITY_UNIT_CONVERSIONS, null);
-    editPrefs.putString(Constants.PREF.DB_LAST_TIME_VOLATILE_MISSING, null);
+    editPrefs.putString(Constants.PREF.DB_LAST_TIME_STOCK_ITEMS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCTS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCTS_LAST_PURCHASED, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_STORES, null);
@@ -359,7 +414,7 @@ public class ShoppingListViewModel extends BaseViewModel {
             itemsToSyncTemp = null;
             serverItemHashMapTemp = null;
             showMessage(getString(R.string.msg_synced));
-            loadFromDatabase(true);
+            downloadData();
           },
           itemsToUpdate.toArray(new ShoppingListItem[0])
       );
@@ -375,7 +430,7 @@ public class ShoppingListViewModel extends BaseViewModel {
         body.put("done", itemToSync.getDoneInt());
       } catch (JSONException e) {
         if (debug) {
-          Log.e(TAG, "syncItems: " + e);
+          LogUtil.e(TAG, "syncItems: " + e);
         }
       }
       queue.append(dlHelper.editShoppingListItem(itemToSync.getId(), body));
@@ -384,9 +439,28 @@ public class ShoppingListViewModel extends BaseViewModel {
     queue.start();
   }
 
+  /**
+   * Missing products are computed from the stock items with the same rules as on the stock
+   * overview, so all screens share the same missing_item_table. They are staged in the sync
+   * generation of the download, so they are committed together with the stock items.
+   */
+  private void stageMissingItems(SyncGeneration syncGeneration) {
+    if (stockItemsTemp == null || productHashMap == null) {
+      return;
+    }
+    ArrayList<StockItem> stockItems = stockItemsTemp;
+    stockItemsTemp = null;
+    for (StockItem stockItem : stockItems) {
+      stockItem.setProduct(productHashMap.get(stockItem.getProductId()));
+    }
+    StockStatus status = stockStatusHelper.updateStatus(stockItems, productHashMap);
+    missingProductIds = ArrayUtil.getMissingProductsIds(status.getMissingItems());
+    repository.stageStockStatus(syncGeneration, stockItems, status.getMissingItems());
+  }
+
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -429,7 +503,7 @@ public class ShoppingListViewModel extends BaseViewModel {
         continue;
       }
       if (debug) {
-        Log.i(TAG, "tidyUpItems: " + listItem);
+        LogUtil.i(TAG, "tidyUpItems: " + listItem);
       }
       queue.append(dlHelper.deleteShoppingListItem(listItem.getId()));
     }
@@ -471,45 +545,7 @@ public class ShoppingListViewModel extends BaseViewModel {
       showErrorMessage(null);
       return;
     }
-    ShoppingListItem shoppingListItem = listItem.getClone();
-
-    if (shoppingListItem.getDoneSynced() == -1) {
-      shoppingListItem.setDoneSynced(shoppingListItem.getDoneInt());
-    }
-
-    shoppingListItem.setDone(shoppingListItem.getDoneInt() == 0 ? 1 : 0);  // toggle state
-
-    if (isOffline()) {
-      updateDoneStatus(shoppingListItem);
-      return;
-    }
-
-    JSONObject body = new JSONObject();
-    try {
-      body.put("done", shoppingListItem.getDoneInt());
-    } catch (JSONException e) {
-      if (debug) {
-        Log.e(TAG, "toggleDoneStatus: " + e);
-      }
-    }
-    dlHelper.editShoppingListItem(
-        shoppingListItem.getId(),
-        body,
-        response -> updateDoneStatus(shoppingListItem),
-        error -> {
-          showMessage(getString(R.string.error_undefined));
-          if (debug) {
-            Log.e(TAG, "toggleDoneStatus: " + error);
-          }
-        }
-    ).perform(dlHelper.getUuid());
-  }
-
-  private void updateDoneStatus(ShoppingListItem shoppingListItem) {
-    repository.insertShoppingListItems(
-        () -> loadFromDatabase(false),
-        shoppingListItem
-    );
+    doneSyncHelper.toggleDoneStatus(listItem);
   }
 
   public void addMissingItems() {
@@ -523,7 +559,7 @@ public class ShoppingListViewModel extends BaseViewModel {
       jsonObject.put("list_id", getSelectedShoppingListId());
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "setUpBottomMenu: add missing: " + e);
+        LogUtil.e(TAG, "setUpBottomMenu: add missing: " + e);
       }
     }
     dlHelper.post(
@@ -539,7 +575,7 @@ public class ShoppingListViewModel extends BaseViewModel {
         error -> {
           showMessage(getString(R.string.error_undefined));
           if (debug) {
-            Log.e(
+            LogUtil.e(
                 TAG, "setUpBottomMenu: add missing "
                     + shoppingList.getName()
                     + ": " + error
@@ -557,7 +593,7 @@ public class ShoppingListViewModel extends BaseViewModel {
       body.put("description", notesHtml);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "saveNotes: " + e);
+        LogUtil.e(TAG, "saveNotes: " + e);
       }
     }
     dlHelper.put(
@@ -574,7 +610,7 @@ public class ShoppingListViewModel extends BaseViewModel {
         error -> {
           showMessage(getString(R.string.error_undefined));
           if (debug) {
-            Log.e(TAG, "saveNotes: " + error);
+            LogUtil.e(TAG, "saveNotes: " + error);
           }
           downloadData();
         }
@@ -584,12 +620,12 @@ public class ShoppingListViewModel extends BaseViewModel {
   public void deleteItem(@NonNull ShoppingListItem shoppingListItem) {
     dlHelper.delete(
         grocyApi.getObject(GrocyApi.ENTITY.SHOPPING_LIST, shoppingListItem.getId()),
-        response -> loadFromDatabase(true),
+        response -> downloadData(),
         error -> {
           showMessage(getString(R.string.error_undefined));
-          loadFromDatabase(true);
+          downloadData();
           if (debug) {
-            Log.e(TAG, "deleteItem: " + error);
+            LogUtil.e(TAG, "deleteItem: " + error);
           }
         }
     );
@@ -614,7 +650,7 @@ public class ShoppingListViewModel extends BaseViewModel {
       jsonObject.put("list_id", getSelectedShoppingListId());
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "deleteShoppingList: delete list: " + e);
+        LogUtil.e(TAG, "deleteShoppingList: delete list: " + e);
       }
     }
     dlHelper.delete(
@@ -638,7 +674,7 @@ public class ShoppingListViewModel extends BaseViewModel {
         error -> {
           showMessage(getString(R.string.error_undefined));
           if (debug) {
-            Log.e(
+            LogUtil.e(
                 TAG, "deleteShoppingList: delete "
                     + shoppingList.getName() + ": " + error
             );
@@ -654,7 +690,7 @@ public class ShoppingListViewModel extends BaseViewModel {
       jsonObject.put("list_id", shoppingList.getId());
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "clearShoppingList: " + e);
+        LogUtil.e(TAG, "clearShoppingList: " + e);
       }
     }
     dlHelper.post(
@@ -674,7 +710,7 @@ public class ShoppingListViewModel extends BaseViewModel {
         error -> {
           showMessage(getString(R.string.error_undefined));
           if (debug) {
-            Log.e(
+            LogUtil.e(
                 TAG, "clearShoppingList: "
                     + shoppingList.getName()
                     + ": " + error
@@ -817,6 +853,7 @@ public class ShoppingListViewModel extends BaseViewModel {
 
   public void setOfflineLive(boolean isOffline) {
     offlineLive.setValue(isOffline);
+    doneSyncHelper.onConnectivityChanged(!isOffline);
   }
 
   @NonNull
@@ -835,6 +872,9 @@ public class ShoppingListViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    doneSyncHelper.setListener(null);
+    doneSyncHelper.flushNow();
+    dbObserver.dispose();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -23,20 +23,27 @@ import android.app.Application;
 import android.content.SharedPreferences;
 import android.text.Html;
 import android.text.Spanned;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
 import androidx.preference.PreferenceManager;
 import com.android.volley.VolleyError;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.database.SyncGeneration;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ShoppingListDoneSyncHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper.StockStatus;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataShoppingListGrouping;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Product;
@@ -45,12 +52,15 @@ import xyz.zedler.patrick.grocy.model.QuantityUnit;
 import xyz.zedler.patrick.grocy.model.QuantityUnitConversion;
 import xyz.zedler.patrick.grocy.model.ShoppingList;
 import xyz.zedler.patrick.grocy.model.ShoppingListItem;
+import xyz.zedler.patrick.grocy.model.StockItem;
 import xyz.zedler.patrick.grocy.model.Store;
 import xyz.zedler.patrick.grocy.repository.ShoppingListRepository;
 import xyz.zedler.patrick.grocy.util.AmountUtil;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 
 public class ShoppingModeViewModel extends BaseViewModel {
@@ -62,6 +72,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
   private final DownloadHelper dlHelper;
   private final GrocyApi grocyApi;
   private final ShoppingListRepository repository;
+  private final StockStatusHelper stockStatusHelper;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
@@ -79,9 +90,12 @@ public class ShoppingModeViewModel extends BaseViewModel {
   private HashMap<Integer, Product> productHashMap;
   private HashMap<Integer, String> productNamesHashMap;
   private ArrayList<Integer> missingProductIds;
+  private ArrayList<StockItem> stockItemsTemp;
 
   private ArrayList<ShoppingListItem> itemsToSyncTemp;
   private HashMap<Integer, ShoppingListItem> serverItemHashMapTemp;
+  private final ShoppingListDoneSyncHelper doneSyncHelper;
+  private boolean isRefreshing;
 
   private DownloadHelper.Queue currentQueueLoading;
   private final boolean debug;
@@ -96,11 +110,24 @@ public class ShoppingModeViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue);
     grocyApi = new GrocyApi(getApplication());
     repository = new ShoppingListRepository(application);
+    stockStatusHelper = new StockStatusHelper(sharedPrefs);
 
     infoFullscreenLive = new MutableLiveData<>();
     offlineLive = new MutableLiveData<>(false);
     selectedShoppingListIdLive = new MutableLiveData<>(1);
     filteredShoppingListItemsLive = new MutableLiveData<>();
+    doneSyncHelper = new ShoppingListDoneSyncHelper(application, debug);
+    doneSyncHelper.setListener(new ShoppingListDoneSyncHelper.DoneSyncListener() {
+      @Override
+      public void onSynced(List<ShoppingListItem> syncedItems) {
+        replaceShoppingListItems(syncedItems);
+      }
+
+      @Override
+      public void onSyncFailed() {
+        showMessage(getString(R.string.msg_failed_to_sync));
+      }
+    });
 
     int lastId = sharedPrefs.getInt(Constants.PREF.SHOPPING_LIST_LAST_ID, 1);
     if (lastId != DEFAULT_SHOPPING_LIST_ID
@@ -179,7 +206,8 @@ public class ShoppingModeViewModel extends BaseViewModel {
       return;
     }
 
-    DownloadHelper.Queue queue = dlHelper.newQueue(this::onQueueEmpty, this::onDownloadError);
+    DownloadHelper.Queue queue = dlHelper.newQueue(this::onQueueEmpty, this::onDownloadError)
+        .setOnQueueCommitListener(this::stageMissingItems);
     queue.append(
         dlHelper.updateShoppingListItems(
             dbChangedTime,
@@ -205,9 +233,9 @@ public class ShoppingModeViewModel extends BaseViewModel {
         }), dlHelper.updateStores(
             dbChangedTime,
             stores -> storeHashMap = ArrayUtil.getStoresHashMap(stores)
-        ), dlHelper.updateMissingItems(
+        ), dlHelper.updateStockItems(
             dbChangedTime,
-            missing -> missingProductIds = ArrayUtil.getMissingProductsIds(missing)
+            stockItems -> this.stockItemsTemp = stockItems
         )
     );
 
@@ -231,13 +259,132 @@ public class ShoppingModeViewModel extends BaseViewModel {
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCT_GROUPS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_QUANTITY_UNITS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_QUANTITY_UNIT_CONVERSIONS, null);
-    editPrefs.putString(Constants.PREF.DB_LAST_TIME_VOLATILE_MISSING, null);
+    editPrefs.putString(Constants.PREF.DB_LAST_TIME_STOCK_ITEMS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCTS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_STORES, null);
     editPrefs.apply();
     downloadData();
   }
 
+  /**
+   * Lightweight refresh for the periodic update: only the shopping list items are downloaded,
+   * only if the server database changed since the last sync, and only the rows which differ
+   * from the local state are written. Items with a done toggle in flight keep their local state.
+   */
+  public void refreshShoppingListItems(@NonNull OnRefreshedListener listener) {
+    if (isOffline() || isRefreshing || shoppingListItems == null) {
+      listener.onRefreshed(false);
+      return;
+    }
+    isRefreshing = true;
+    dlHelper.getTimeDbChanged(dbChangedTime -> {
+      String lastTime = sharedPrefs.getString(
+          Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, null
+      );
+      if (dbChangedTime.equals(lastTime)) {
+        isRefreshing = false;
+        listener.onRefreshed(false);
+        return;
+      }
+      dlHelper.get(
+          grocyApi.getObjects(GrocyApi.ENTITY.SHOPPING_LIST),
+          dlHelper.getUuid(),
+          response -> {
+            Type type = new TypeToken<List<ShoppingListItem>>() {
+            }.getType();
+            ArrayList<ShoppingListItem> serverItems = new Gson().fromJson(response, type);
+            mergeShoppingListItems(serverItems, dbChangedTime, listener);
+          },
+          error -> {
+            if (debug) {
+              LogUtil.e(TAG, "refreshShoppingListItems: " + error);
+            }
+            isRefreshing = false;
+            listener.onRefreshed(false);
+          },
+          true
+      );
+    }, () -> {
+      isRefreshing = false;
+      listener.onRefreshed(false);
+    });
+  }
+
+  private void mergeShoppingListItems(
+      List<ShoppingListItem> serverItems,
+      String dbChangedTime,
+      OnRefreshedListener listener
+  ) {
+    HashMap<Integer, ShoppingListItem> localItems = new HashMap<>();
+    for (ShoppingListItem item : shoppingListItems) {
+      localItems.put(item.getId(), item);
+    }
+    ArrayList<ShoppingListItem> mergedItems = new ArrayList<>();
+    ArrayList<ShoppingListItem> changedItems = new ArrayList<>();
+    boolean needsFullDownload = false;
+    for (ShoppingListItem serverItem : serverItems) {
+      ShoppingListItem localItem = localItems.remove(serverItem.getId());
+      if (localItem != null && doneSyncHelper.hasPendingToggle(localItem.getId())) {
+        mergedItems.add(localItem);
+        continue;
+      }
+      if (localItem != null && localItem.getDoneSynced() != -1
+          && localItem.getDoneInt() != localItem.getDoneSynced()
+          && localItem.getDoneInt() != serverItem.getDoneInt()) {
+        needsFullDownload = true;  // offline toggle which has to be uploaded first
+      }
+      if (serverItem.hasProduct() && !productHashMap.containsKey(serverItem.getProductIdInt())
+          || NumUtil.isStringInt(serverItem.getQuId())
+          && !quantityUnitHashMap.containsKey(Integer.parseInt(serverItem.getQuId()))) {
+        needsFullDownload = true;  // item references master data which is not synced yet
+      }
+      if (!serverItem.equals(localItem)) {
+        changedItems.add(serverItem);
+      }
+      mergedItems.add(serverItem);
+    }
+    ArrayList<Integer> removedIds = new ArrayList<>(localItems.keySet());
+
+    if (needsFullDownload) {
+      isRefreshing = false;
+      downloadData(dbChangedTime);
+      listener.onRefreshed(true);
+      return;
+    }
+    if (changedItems.isEmpty() && removedIds.isEmpty()) {
+      sharedPrefs.edit()
+          .putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, dbChangedTime).apply();
+      isRefreshing = false;
+      listener.onRefreshed(false);
+      return;
+    }
+    if (debug) {
+      LogUtil.i(TAG, "mergeShoppingListItems: changed=" + changedItems.size()
+          + ", removed=" + removedIds.size());
+    }
+    repository.mergeShoppingListItems(changedItems, removedIds, () -> {
+      sharedPrefs.edit()
+          .putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, dbChangedTime).apply();
+      shoppingListItems = mergedItems;
+      for (ShoppingListItem item : changedItems) {
+        Double amount = AmountUtil.getShoppingListItemAmount(
+            item, productHashMap, quantityUnitHashMap, unitConversionHashMap
+        );
+        if (amount != null) {
+          shoppingListItemAmountsHashMap.put(item.getId(), amount);
+        } else {
+          shoppingListItemAmountsHashMap.remove(item.getId());
+        }
+      }
+      for (Integer id : removedIds) {
+        shoppingListItemAmountsHashMap.remove(id);
+      }
+      updateFilteredShoppingListItems();
+      isRefreshing = false;
+      listener.onRefreshed(true);
+    });
+  }
+
   private void onQueueEmpty() {
     if (itemsToSyncTemp == null || itemsToSyncTemp.isEmpty() || serverItemHashMapTemp == null) {
       fillShoppingListItemAmountsHashMap();
@@ -276,7 +423,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
         body.put("done", itemToSync.getDoneInt());
       } catch (JSONException e) {
         if (debug) {
-          Log.e(TAG, "syncItems: " + e);
+          LogUtil.e(TAG, "syncItems: " + e);
         }
       }
       queue.append(dlHelper.editShoppingListItem(itemToSync.getId(), body));
@@ -285,9 +432,28 @@ public class ShoppingModeViewModel extends BaseViewModel {
     queue.start();
   }
 
+  /**
+   * Missing products are computed from the stock items with the same rules as on the stock
+   * overview, so all screens share the same missing_item_table. They are staged in the sync
+   * generation of the download, so they are committed together with the stock items.
+   */
+  private void stageMissingItems(SyncGeneration syncGeneration) {
+    if (stockItemsTemp == null || productHashMap == null) {
+      return;
+    }
+    ArrayList<StockItem> stockItems = stockItemsTemp;
+    stockItemsTemp = null;
+    for (StockItem stockItem : stockItems) {
+      stockItem.setProduct(productHashMap.get(stockItem.getProductId()));
+    }
+    StockStatus status = stockStatusHelper.updateStatus(stockItems, productHashMap);
+    missingProductIds = ArrayUtil.getMissingProductsIds(status.getMissingItems());
+    repository.stageStockStatus(syncGeneration, stockItems, status.getMissingItems());
+  }
+
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -317,49 +483,28 @@ public class ShoppingModeViewModel extends BaseViewModel {
       showErrorMessage();
       return;
     }
-    ShoppingListItem shoppingListItem = listItem.getClone();
-
-    if (shoppingListItem.getDoneSynced() == -1) {
-      shoppingListItem.setDoneSynced(shoppingListItem.getDoneInt());
-    }
-
-    shoppingListItem.setDone(shoppingListItem.getDoneInt() == 0 ? 1 : 0);  // toggle state
+    replaceShoppingListItems(Collections.singletonList(
+        doneSyncHelper.toggleDoneStatus(listItem)
+    ));
+  }
 
-    if (isOffline()) {
-      updateDoneStatus(shoppingListItem);
+  private void replaceShoppingListItems(List<ShoppingListItem> replacements) {
+    if (shoppingListItems == null) {
       return;
     }
-
-    JSONObject body = new JSONObject();
-    try {
-      body.put("done", shoppingListItem.getDoneInt());
-    } catch (JSONException e) {
-      if (debug) {
-        Log.e(TAG, "toggleDoneStatus: " + e);
+    HashMap<Integer, ShoppingListItem> replacementHashMap = new HashMap<>();
+    for (ShoppingListItem item : replacements) {
+      replacementHashMap.put(item.getId(), item);
+    }
+    ArrayList<ShoppingListItem> items = new ArrayList<>(shoppingListItems);
+    for (int i = 0; i < items.size(); i++) {
+      ShoppingListItem replacement = replacementHashMap.get(items.get(i).getId());
+      if (replacement != null) {
+        items.set(i, replacement);
       }
     }
-    dlHelper.editShoppingListItem(
-        shoppingListItem.getId(),
-        body,
-        response -> updateDoneStatus(shoppingListItem),
-        error -> {
-          showMessage(getString(R.string.error_undefined));
-          if (debug) {
-            Log.e(TAG, "toggleDoneStatus: " + error);
-          }
-        }
-    ).perform(dlHelper.getUuid());
-  }
-
-  private void updateDoneStatus(ShoppingListItem shoppingListItem) {
-    repository.insertShoppingListItems(
-        () -> {
-          sharedPrefs.edit()
-              .putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, null).apply();
-          loadFromDatabase(false);
-        },
-        shoppingListItem
-    );
+    shoppingListItems = items;
+    updateFilteredShoppingListItems();
   }
 
   public void saveNotes(Spanned notes) {
@@ -370,7 +515,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
       body.put("description", notesHtml);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "saveNotes: " + e);
+        LogUtil.e(TAG, "saveNotes: " + e);
       }
     }
     dlHelper.put(
@@ -387,7 +532,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
         error -> {
           showMessage(getString(R.string.error_undefined));
           if (debug) {
-            Log.e(TAG, "saveNotes: " + error);
+            LogUtil.e(TAG, "saveNotes: " + error);
           }
           downloadData();
         }
@@ -482,6 +627,7 @@ public class ShoppingModeViewModel extends BaseViewModel {
 
   public void setOfflineLive(boolean isOffline) {
     offlineLive.setValue(isOffline);
+    doneSyncHelper.onConnectivityChanged(!isOffline);
   }
 
   @NonNull
@@ -498,8 +644,15 @@ public class ShoppingModeViewModel extends BaseViewModel {
     currentQueueLoading = queueLoading;
   }
 
+  public interface OnRefreshedListener {
+
+    void onRefreshed(boolean changed);
+  }
+
   @Override
   protected void onCleared() {
+    doneSyncHelper.setListener(null);
+    doneSyncHelper.flushNow();
     dlHelper.destroy();
     super.onCleared();
   }
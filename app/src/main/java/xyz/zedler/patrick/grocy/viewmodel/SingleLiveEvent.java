@@ -19,7 +19,6 @@
 
 package xyz.zedler.patrick.grocy.viewmodel;
 
-import android.util.Log;
 import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -27,6 +26,7 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 import java.util.concurrent.atomic.AtomicBoolean;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 
 /**
  * A lifecycle-aware observable that sends only new updates after subscription, used for events like
@@ -48,7 +48,7 @@ public class SingleLiveEvent<T> extends MutableLiveData<T> {
   public void observe(@NonNull LifecycleOwner owner, @NonNull final Observer<? super T> observer) {
 
     if (hasActiveObservers()) {
-      Log.w(TAG, "Multiple observers registered but only one will be notified of changes.");
+      LogUtil.w(TAG, "Multiple observers registered but only one will be notified of changes.");
     }
 
     // Observe the internal MutableLiveData
@@ -21,23 +21,29 @@ package xyz.zedler.patrick.grocy.viewmodel;
 
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
 import androidx.preference.PreferenceManager;
 import com.android.volley.VolleyError;
 import com.google.android.material.snackbar.Snackbar;
+import io.reactivex.rxjava3.core.Single;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import me.xdrop.fuzzywuzzy.FuzzySearch;
 import me.xdrop.fuzzywuzzy.model.BoundExtractedResult;
 import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.database.SyncGeneration;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
+import xyz.zedler.patrick.grocy.helper.ProductDetailsCacheHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper;
+import xyz.zedler.patrick.grocy.helper.StockStatusHelper.StockStatus;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveData;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataLocation;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataProductGroup;
@@ -47,7 +53,6 @@ import xyz.zedler.patrick.grocy.model.FilterChipLiveDataStockSort;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataStockStatus;
 import xyz.zedler.patrick.grocy.model.InfoFullscreen;
 import xyz.zedler.patrick.grocy.model.Location;
-import xyz.zedler.patrick.grocy.model.MissingItem;
 import xyz.zedler.patrick.grocy.model.Product;
 import xyz.zedler.patrick.grocy.model.ProductBarcode;
 import xyz.zedler.patrick.grocy.model.ProductGroup;
@@ -61,8 +66,7 @@ import xyz.zedler.patrick.grocy.repository.StockOverviewRepository;
 import xyz.zedler.patrick.grocy.util.ArrayUtil;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
-import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.STOCK;
-import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.NumUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
@@ -76,11 +80,13 @@ public class StockOverviewViewModel extends BaseViewModel {
   private final GrocyApi grocyApi;
   private final StockOverviewRepository repository;
   private final PluralUtil pluralUtil;
+  private final StockStatusHelper stockStatusHelper;
 
   private final MutableLiveData<Boolean> isLoadingLive;
   private final MutableLiveData<InfoFullscreen> infoFullscreenLive;
   private final MutableLiveData<Boolean> offlineLive;
   private final MutableLiveData<ArrayList<StockItem>> filteredStockItemsLive;
+  private final MutableLiveData<Integer> pagedStockItemCountLive;
   private final MutableLiveData<Boolean> scannerVisibilityLive;
   private final FilterChipLiveDataStockStatus filterChipLiveDataStatus;
   private final FilterChipLiveDataProductGroup filterChipLiveDataProductGroup;
@@ -89,7 +95,10 @@ public class StockOverviewViewModel extends BaseViewModel {
   private final FilterChipLiveDataStockGrouping filterChipLiveDataGrouping;
   private final FilterChipLiveDataStockExtraField filterChipLiveDataExtraField;
 
-  private List<StockItem> stockItems;
+  // all stock items are kept also while the list is paged, because the status chip counts,
+  // the missing items and the filtered modes are computed from them; paging only bounds the
+  // rows and view states which the adapter materializes
+  private ArrayList<StockItem> stockItems;
   private List<Product> products;
   private HashMap<Integer, ProductGroup> productGroupHashMap;
   private HashMap<String, ProductBarcode> productBarcodeHashMap;
@@ -97,13 +106,9 @@ public class StockOverviewViewModel extends BaseViewModel {
   private HashMap<Integer, String> productAveragePriceHashMap;
   private HashMap<Integer, ProductLastPurchased> productLastPurchasedHashMap;
   private List<ShoppingListItem> shoppingListItems;
-  private ArrayList<String> shoppingListItemsProductIds;
+  private HashSet<Integer> shoppingListItemsProductIds;
   private List<Location> locations;
   private HashMap<Integer, QuantityUnit> quantityUnitHashMap;
-  private ArrayList<StockItem> dueItemsTemp;
-  private ArrayList<StockItem> overdueItemsTemp;
-  private ArrayList<StockItem> expiredItemsTemp;
-  private ArrayList<MissingItem> missingItemsTemp;
   private HashMap<Integer, StockItem> productIdsMissingStockItems;
   private HashMap<Integer, Location> locationHashMap;
   private List<StockLocation> stockCurrentLocationsTemp;
@@ -111,7 +116,8 @@ public class StockOverviewViewModel extends BaseViewModel {
 
   private DownloadHelper.Queue currentQueueLoading;
   private String searchInput;
-  private ArrayList<String> searchResultsFuzzy;
+  private HashSet<String> searchResultsFuzzy;
+  private boolean stockStatusStaged;
   private final boolean debug;
 
   public StockOverviewViewModel(@NonNull Application application) {
@@ -125,10 +131,13 @@ public class StockOverviewViewModel extends BaseViewModel {
     grocyApi = new GrocyApi(getApplication());
     repository = new StockOverviewRepository(application);
     pluralUtil = new PluralUtil(application);
+    stockStatusHelper = new StockStatusHelper(sharedPrefs);
+    stockStatusHelper.scheduleMidnightUpdates(this::onMidnight);
 
     infoFullscreenLive = new MutableLiveData<>();
     offlineLive = new MutableLiveData<>(false);
     filteredStockItemsLive = new MutableLiveData<>();
+    pagedStockItemCountLive = new MutableLiveData<>();
     scannerVisibilityLive = new MutableLiveData<>(false);
 
     filterChipLiveDataStatus = new FilterChipLiveDataStockStatus(
@@ -169,44 +178,14 @@ public class StockOverviewViewModel extends BaseViewModel {
       productLastPurchasedHashMap = ArrayUtil
           .getProductLastPurchasedHashMap(data.getProductsLastPurchased());
       productBarcodeHashMap = ArrayUtil.getProductBarcodesHashMap(data.getProductBarcodes());
-      int itemsDueCount = 0;
-      int itemsOverdueCount = 0;
-      int itemsExpiredCount = 0;
-      int itemsMissingCount = 0;
-      int itemsInStockCount = 0;
-      int itemsOpenedCount = 0;
-      productIdsMissingStockItems = new HashMap<>();
-      this.stockItems = data.getStockItems();
+      this.stockItems = new ArrayList<>(data.getStockItems());
       for (StockItem stockItem : stockItems) {
         stockItem.setProduct(productHashMap.get(stockItem.getProductId()));
-        if (stockItem.isItemDue()) {
-          itemsDueCount++;
-        }
-        if (stockItem.isItemOverdue()) {
-          itemsOverdueCount++;
-        }
-        if (stockItem.isItemExpired()) {
-          itemsExpiredCount++;
-        }
-        if (stockItem.isItemMissing()) {
-          itemsMissingCount++;
-          productIdsMissingStockItems.put(stockItem.getProductId(), stockItem);
-        }
-        if (!stockItem.isItemMissing() || stockItem.isItemMissingAndPartlyInStock()) {
-          itemsInStockCount++;
-        }
-        if (stockItem.getAmountOpenedDouble() > 0) {
-          itemsOpenedCount++;
-        }
       }
+      updateStockStatus();
 
       this.shoppingListItems = data.getShoppingListItems();
-      shoppingListItemsProductIds = new ArrayList<>();
-      for (ShoppingListItem item : shoppingListItems) {
-        if (item.getProductId() != null && !item.getProductId().isEmpty()) {
-          shoppingListItemsProductIds.add(item.getProductId());
-        }
-      }
+      shoppingListItemsProductIds = getProductIds(shoppingListItems);
       this.locations = data.getLocations();
       filterChipLiveDataLocation.setLocations(locations);
       locationHashMap = new HashMap<>();
@@ -226,14 +205,6 @@ public class StockOverviewViewModel extends BaseViewModel {
         locationsForProductId.put(stockLocation.getLocationId(), stockLocation);
       }
 
-      filterChipLiveDataStatus
-          .setDueSoonCount(itemsDueCount)
-          .setOverdueCount(itemsOverdueCount)
-          .setExpiredCount(itemsExpiredCount)
-          .setBelowStockCount(itemsMissingCount)
-          .setInStockCount(itemsInStockCount)
-          .setOpenedCount(itemsOpenedCount)
-          .emitCounts();
       updateFilteredStockItems();
       if (downloadAfterLoading) {
         downloadData();
@@ -256,74 +227,8 @@ public class StockOverviewViewModel extends BaseViewModel {
       return;
     }
 
-    DownloadHelper.OnQueueEmptyListener onQueueEmptyListener = () -> {
-      if (dueItemsTemp == null || overdueItemsTemp == null
-          || expiredItemsTemp == null || missingItemsTemp == null) {
-        downloadDataForceUpdate();
-        return;
-      }
-
-      HashMap<Integer, StockItem> stockItemHashMap = new HashMap<>();
-      for (StockItem stockItem : stockItems) {
-        stockItemHashMap.put(stockItem.getProductId(), stockItem);
-      }
-
-      for (StockItem stockItemDue : dueItemsTemp) {
-        StockItem stockItem = stockItemHashMap.get(stockItemDue.getProductId());
-        if (stockItem == null) {
-          continue;
-        }
-        stockItem.setItemDue(true);
-      }
-      for (StockItem stockItemOverdue : overdueItemsTemp) {
-        StockItem stockItem = stockItemHashMap.get(stockItemOverdue.getProductId());
-        if (stockItem == null) {
-          continue;
-        }
-        stockItem.setItemOverdue(true);
-      }
-      for (StockItem stockItemExpired : expiredItemsTemp) {
-        StockItem stockItem = stockItemHashMap.get(stockItemExpired.getProductId());
-        if (stockItem == null) {
-          continue;
-        }
-        stockItem.setItemExpired(true);
-      }
-
-      DownloadHelper.Queue queue = dlHelper.newQueue(this::onQueueEmpty, this::onDownloadError);
-
-      productIdsMissingStockItems = new HashMap<>();
-      for (MissingItem missingItem : missingItemsTemp) {
-
-        StockItem missingStockItem = stockItemHashMap.get(missingItem.getId());
-        if (missingStockItem != null) {
-          productIdsMissingStockItems.put(missingItem.getId(), missingStockItem);
-        }
-        if (missingStockItem != null && !missingStockItem.isItemMissing()) {
-          missingStockItem.setItemMissing(true);
-          missingStockItem.setItemMissingAndPartlyInStock(true);
-          continue;
-        } else if (missingStockItem != null) {
-          continue;
-        }
-        queue.append(dlHelper.getProductDetails(missingItem.getId(), productDetails -> {
-          StockItem stockItem = new StockItem(productDetails);
-          stockItem.setItemMissing(true);
-          stockItem.setItemMissingAndPartlyInStock(false);
-          productIdsMissingStockItems.put(missingItem.getId(), stockItem);
-          stockItems.add(stockItem);
-        }));
-      }
-      if (queue.getSize() == 0) {
-        onQueueEmpty();
-        return;
-      }
-      queue.start();
-    };
-
-    sharedPrefs.edit().putString(Constants.PREF.DB_LAST_TIME_VOLATILE, null).apply();
-
-    DownloadHelper.Queue queue = dlHelper.newQueue(onQueueEmptyListener, this::onDownloadError);
+    DownloadHelper.Queue queue = dlHelper.newQueue(this::onQueueEmpty, this::onDownloadError)
+        .setOnQueueCommitListener(this::stageStockStatus);
     queue.append(
         dlHelper.updateQuantityUnits(
             dbChangedTime,
@@ -332,21 +237,8 @@ public class StockOverviewViewModel extends BaseViewModel {
           productGroupHashMap = ArrayUtil.getProductGroupsHashMap(groups);
           filterChipLiveDataProductGroup.setProductGroups(groups);
         }),
-        dlHelper.updateStockItems(dbChangedTime, stockItems -> {
-          this.stockItems = stockItems;
-          int itemsOpenedCount = 0;
-          if (isFeatureEnabled(PREF.FEATURE_STOCK_OPENED_TRACKING)) {
-            for (StockItem stockItem : stockItems) {
-              if (stockItem.getAmountOpenedDouble() > 0) {
-                itemsOpenedCount++;
-              }
-            }
-          }
-          filterChipLiveDataStatus
-              .setInStockCount(stockItems.size())
-              .setOpenedCount(itemsOpenedCount)
-              .emitCounts();
-        }), dlHelper.updateProducts(dbChangedTime, products -> {
+        dlHelper.updateStockItems(dbChangedTime, stockItems -> this.stockItems = stockItems),
+        dlHelper.updateProducts(dbChangedTime, products -> {
           this.products = products;
           productHashMap = new HashMap<>();
           for (Product product : products) {
@@ -356,25 +248,9 @@ public class StockOverviewViewModel extends BaseViewModel {
             dbChangedTime,
             productBarcodes -> productBarcodeHashMap = ArrayUtil
                 .getProductBarcodesHashMap(productBarcodes)
-        ), dlHelper.updateVolatile(dbChangedTime, (due, overdue, expired, missing) -> {
-          this.dueItemsTemp = due;
-          this.overdueItemsTemp = overdue;
-          this.expiredItemsTemp = expired;
-          this.missingItemsTemp = missing;
-          filterChipLiveDataStatus
-              .setDueSoonCount(due.size())
-              .setOverdueCount(overdue.size())
-              .setExpiredCount(expired.size())
-              .setBelowStockCount(missing.size())
-              .emitCounts();
-        }), dlHelper.updateShoppingListItems(dbChangedTime, shoppingListItems -> {
+        ), dlHelper.updateShoppingListItems(dbChangedTime, shoppingListItems -> {
           this.shoppingListItems = shoppingListItems;
-          shoppingListItemsProductIds = new ArrayList<>();
-          for (ShoppingListItem item : shoppingListItems) {
-            if (item.getProductId() != null && !item.getProductId().isEmpty()) {
-              shoppingListItemsProductIds.add(item.getProductId());
-            }
-          }
+          shoppingListItemsProductIds = getProductIds(shoppingListItems);
         }), dlHelper.updateLocations(dbChangedTime, locations -> {
           this.locations = locations;
           filterChipLiveDataLocation.setLocations(locations);
@@ -430,7 +306,6 @@ public class StockOverviewViewModel extends BaseViewModel {
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCTS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCTS_AVERAGE_PRICE, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_PRODUCT_BARCODES, null);
-    editPrefs.putString(Constants.PREF.DB_LAST_TIME_VOLATILE, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_SHOPPING_LIST_ITEMS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_LOCATIONS, null);
     editPrefs.putString(Constants.PREF.DB_LAST_TIME_STOCK_LOCATIONS, null);
@@ -438,16 +313,87 @@ public class StockOverviewViewModel extends BaseViewModel {
     downloadData();
   }
 
+  /**
+   * Stages the stock items with their evaluated status in the sync generation of the download,
+   * so that readers never see the new stock items without status flags.
+   */
+  private void stageStockStatus(SyncGeneration syncGeneration) {
+    for (StockItem stockItem : stockItems) {
+      stockItem.setProduct(productHashMap.get(stockItem.getProductId()));
+    }
+    StockStatus status = updateStockStatus();
+    repository.stageDatabaseUpdate(syncGeneration, stockItems, status.getMissingItems());
+    stockStatusStaged = true;
+  }
+
   private void onQueueEmpty() {
+    if (stockStatusStaged) {
+      stockStatusStaged = false;
+      updateFilteredStockItems();
+      return;
+    }
+    // nothing was downloaded, the status is evaluated again e.g. for a changed date
+    for (StockItem stockItem : stockItems) {
+      stockItem.setProduct(productHashMap.get(stockItem.getProductId()));
+    }
+    StockStatus status = updateStockStatus();
     repository.updateDatabase(
         this.stockItems,
+        status.getMissingItems(),
         this::updateFilteredStockItems
     );
   }
 
+  private StockStatus updateStockStatus() {
+    StockStatus status = stockStatusHelper.updateStatus(stockItems, productHashMap);
+    productIdsMissingStockItems = new HashMap<>();
+    int itemsInStockCount = 0;
+    int itemsOpenedCount = 0;
+    for (StockItem stockItem : stockItems) {
+      if (stockItem.isItemMissing()) {
+        productIdsMissingStockItems.put(stockItem.getProductId(), stockItem);
+      }
+      if (!stockItem.isItemMissing() || stockItem.isItemMissingAndPartlyInStock()) {
+        itemsInStockCount++;
+      }
+      if (stockItem.getAmountOpenedDouble() > 0) {
+        itemsOpenedCount++;
+      }
+    }
+    filterChipLiveDataStatus
+        .setDueSoonCount(status.getDueCount())
+        .setOverdueCount(status.getOverdueCount())
+        .setExpiredCount(status.getExpiredCount())
+        .setBelowStockCount(status.getMissingCount())
+        .setInStockCount(itemsInStockCount)
+        .setOpenedCount(itemsOpenedCount)
+        .emitCounts();
+    return status;
+  }
+
+  /**
+   * The midnight update can be missed while the device is in doze.
+   */
+  public void checkDayChanged() {
+    stockStatusHelper.checkDayChanged();
+  }
+
+  private void onMidnight() {
+    if (stockItems == null) {
+      return;
+    }
+    StockStatus status = stockStatusHelper.updateDueStatus(stockItems);
+    filterChipLiveDataStatus
+        .setDueSoonCount(status.getDueCount())
+        .setOverdueCount(status.getOverdueCount())
+        .setExpiredCount(status.getExpiredCount())
+        .emitCounts();
+    updateFilteredStockItems();
+  }
+
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -457,6 +403,14 @@ public class StockOverviewViewModel extends BaseViewModel {
 
   public void updateFilteredStockItems() {
     ArrayList<StockItem> filteredStockItems = new ArrayList<>();
+    // the unfiltered list is loaded page by page from the database by the adapter
+    boolean isPaged = (searchInput == null || searchInput.isEmpty())
+        && filterChipLiveDataStatus.getStatus() == FilterChipLiveDataStockStatus.STATUS_ALL
+        && filterChipLiveDataProductGroup.getSelectedId()
+        == FilterChipLiveDataProductGroup.NO_FILTER
+        && filterChipLiveDataLocation.getSelectedId() == FilterChipLiveDataLocation.NO_FILTER
+        && getGroupingMode().equals(FilterChipLiveDataStockGrouping.GROUPING_NONE);
+    int pagedItemCount = 0;
 
     ProductBarcode productBarcodeSearch = null;
     if (searchInput != null && !searchInput.isEmpty()) {
@@ -476,6 +430,10 @@ public class StockOverviewViewModel extends BaseViewModel {
       if (item.getProduct().getHideOnStockOverviewInt() == 1) {
         continue;
       }
+      if (isPaged) {
+        pagedItemCount++;
+        continue;
+      }
 
       boolean searchContainsItem = true;
       if (searchInput != null && !searchInput.isEmpty()) {
@@ -529,7 +487,7 @@ public class StockOverviewViewModel extends BaseViewModel {
       }
     }
 
-    if (filteredStockItems.isEmpty()) {
+    if (isPaged ? pagedItemCount == 0 : filteredStockItems.isEmpty()) {
       InfoFullscreen info;
       if (searchInput != null && !searchInput.isEmpty()) {
         info = new InfoFullscreen(InfoFullscreen.INFO_NO_SEARCH_RESULTS);
@@ -549,7 +507,35 @@ public class StockOverviewViewModel extends BaseViewModel {
       infoFullscreenLive.setValue(null);
     }
 
-    filteredStockItemsLive.setValue(filteredStockItems);
+    // the inactive mode is cleared, so that a new observer only receives the current one
+    if (isPaged) {
+      filteredStockItemsLive.setValue(null);
+      pagedStockItemCountLive.setValue(pagedItemCount);
+    } else {
+      pagedStockItemCountLive.setValue(null);
+      filteredStockItemsLive.setValue(filteredStockItems);
+    }
+  }
+
+  /**
+   * The due flags of the stored rows are from the last evaluation, which can be before
+   * midnight, so they are evaluated again for every page.
+   */
+  public Single<List<StockItem>> getStockItemsPage(int offset, int limit) {
+    HashMap<Integer, Product> productsById = productHashMap;
+    int dueSoonDays = stockStatusHelper.getDueSoonDays();
+    return repository.getStockItemsPage(
+        getSortMode().equals(FilterChipLiveDataStockSort.SORT_DUE_DATE),
+        isSortAscending(),
+        offset,
+        limit
+    ).map(items -> {
+      for (StockItem item : items) {
+        item.setProduct(productsById.get(item.getProductId()));
+      }
+      StockStatusHelper.updateDueFlags(items, dueSoonDays);
+      return items;
+    });
   }
 
   public void performAction(String action, StockItem stockItem) {
@@ -583,13 +569,14 @@ public class StockOverviewViewModel extends BaseViewModel {
       body.put("spoiled", spoiled);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "consumeProduct: " + e);
+        LogUtil.e(TAG, "consumeProduct: " + e);
       }
     }
     dlHelper.postWithArray(
         grocyApi.consumeProduct(stockItem.getProductId()),
         body,
         response -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), stockItem.getProductId());
           String transactionId = null;
           double amountConsumed = 0;
           try {
@@ -600,7 +587,7 @@ public class StockOverviewViewModel extends BaseViewModel {
             }
           } catch (JSONException e) {
             if (debug) {
-              Log.e(TAG, "consumeProduct: " + e);
+              LogUtil.e(TAG, "consumeProduct: " + e);
             }
           }
 
@@ -621,13 +608,14 @@ public class StockOverviewViewModel extends BaseViewModel {
             snackbarMsg.setAction(getString(R.string.action_undo), v -> dlHelper.post(
                 grocyApi.undoStockTransaction(finalTransactionId),
                 response1 -> {
+                  ProductDetailsCacheHelper.invalidate(getApplication(), stockItem.getProductId());
                   downloadData();
                   showSnackbar(new SnackbarMessage(
                       getString(R.string.msg_undone_transaction),
                       Snackbar.LENGTH_SHORT
                   ));
                   if (debug) {
-                    Log.i(TAG, "consumeProduct: undone");
+                    LogUtil.i(TAG, "consumeProduct: undone");
                   }
                 },
                 this::showErrorMessage
@@ -636,7 +624,7 @@ public class StockOverviewViewModel extends BaseViewModel {
           downloadData();
           showSnackbar(snackbarMsg);
           if (debug) {
-            Log.i(
+            LogUtil.i(
                 TAG, "consumeProduct: consumed " + amountConsumed
             );
           }
@@ -644,7 +632,7 @@ public class StockOverviewViewModel extends BaseViewModel {
         error -> {
           showErrorMessage(error);
           if (debug) {
-            Log.i(TAG, "consumeProduct: " + error);
+            LogUtil.i(TAG, "consumeProduct: " + error);
           }
         }
     );
@@ -657,13 +645,14 @@ public class StockOverviewViewModel extends BaseViewModel {
       body.put("allow_subproduct_substitution", true);
     } catch (JSONException e) {
       if (debug) {
-        Log.e(TAG, "openProduct: " + e);
+        LogUtil.e(TAG, "openProduct: " + e);
       }
     }
     dlHelper.postWithArray(
         grocyApi.openProduct(stockItem.getProductId()),
         body,
         response -> {
+          ProductDetailsCacheHelper.invalidate(getApplication(), stockItem.getProductId());
           String transactionId = null;
           double amountOpened = 0;
           try {
@@ -674,7 +663,7 @@ public class StockOverviewViewModel extends BaseViewModel {
             }
           } catch (JSONException e) {
             if (debug) {
-              Log.e(TAG, "openProduct: " + e);
+              LogUtil.e(TAG, "openProduct: " + e);
             }
           }
 
@@ -695,13 +684,14 @@ public class StockOverviewViewModel extends BaseViewModel {
             snackbarMsg.setAction(getString(R.string.action_undo), v -> dlHelper.post(
                 grocyApi.undoStockTransaction(finalTransactionId),
                 response1 -> {
+                  ProductDetailsCacheHelper.invalidate(getApplication(), stockItem.getProductId());
                   downloadData();
                   showSnackbar(new SnackbarMessage(
                       getString(R.string.msg_undone_transaction),
                       Snackbar.LENGTH_SHORT
                   ));
                   if (debug) {
-                    Log.i(TAG, "openProduct: undone");
+                    LogUtil.i(TAG, "openProduct: undone");
                   }
                 },
                 this::showErrorMessage
@@ -710,7 +700,7 @@ public class StockOverviewViewModel extends BaseViewModel {
           downloadData();
           showSnackbar(snackbarMsg);
           if (debug) {
-            Log.i(
+            LogUtil.i(
                 TAG, "openProduct: opened " + amountOpened
             );
           }
@@ -718,7 +708,7 @@ public class StockOverviewViewModel extends BaseViewModel {
         error -> {
           showErrorMessage(error);
           if (debug) {
-            Log.i(TAG, "openProduct: " + error);
+            LogUtil.i(TAG, "openProduct: " + error);
           }
         }
     );
@@ -733,11 +723,15 @@ public class StockOverviewViewModel extends BaseViewModel {
     return filteredStockItemsLive;
   }
 
+  public MutableLiveData<Integer> getPagedStockItemCountLive() {
+    return pagedStockItemCountLive;
+  }
+
   public void updateSearchInput(String input) {
     this.searchInput = input.toLowerCase();
 
     // Initialize suggestion list with max. capacity; growing is expensive.
-    searchResultsFuzzy = new ArrayList<>(products.size());
+    searchResultsFuzzy = new HashSet<>();
     List<BoundExtractedResult<Product>> results = FuzzySearch.extractSorted(
         this.searchInput,
         products,
@@ -751,8 +745,8 @@ public class StockOverviewViewModel extends BaseViewModel {
     updateFilteredStockItems();
   }
 
-  public ArrayList<Integer> getProductIdsMissingStockItems() {
-    return new ArrayList<>(productIdsMissingStockItems.keySet());
+  public Set<Integer> getProductIdsMissingStockItems() {
+    return productIdsMissingStockItems.keySet();
   }
 
   public HashMap<Integer, ProductGroup> getProductGroupHashMap() {
@@ -771,10 +765,20 @@ public class StockOverviewViewModel extends BaseViewModel {
     return productLastPurchasedHashMap;
   }
 
-  public ArrayList<String> getShoppingListItemsProductIds() {
+  public Set<Integer> getShoppingListItemsProductIds() {
     return shoppingListItemsProductIds;
   }
 
+  private static HashSet<Integer> getProductIds(List<ShoppingListItem> shoppingListItems) {
+    HashSet<Integer> productIds = new HashSet<>();
+    for (ShoppingListItem item : shoppingListItems) {
+      if (item.hasProduct()) {
+        productIds.add(item.getProductIdInt());
+      }
+    }
+    return productIds;
+  }
+
   public HashMap<Integer, Location> getLocationHashMap() {
     return locationHashMap;
   }
@@ -879,11 +883,7 @@ public class StockOverviewViewModel extends BaseViewModel {
   }
 
   public int getDaysExpriringSoon() {
-    String days = sharedPrefs.getString(
-        STOCK.DUE_SOON_DAYS,
-        SETTINGS_DEFAULT.STOCK.DUE_SOON_DAYS
-    );
-    return NumUtil.isStringInt(days) ? Integer.parseInt(days) : 5;
+    return stockStatusHelper.getDueSoonDays();
   }
 
   public String getCurrency() {
@@ -895,6 +895,7 @@ public class StockOverviewViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    stockStatusHelper.cancelMidnightUpdates();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -21,7 +21,6 @@ package xyz.zedler.patrick.grocy.viewmodel;
 
 import android.app.Application;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
@@ -35,6 +34,7 @@ import org.json.JSONException;
 import org.json.JSONObject;
 import xyz.zedler.patrick.grocy.R;
 import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.helper.DatabaseObserverHelper;
 import xyz.zedler.patrick.grocy.helper.DownloadHelper;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveData;
 import xyz.zedler.patrick.grocy.model.FilterChipLiveDataTasksSort;
@@ -46,6 +46,7 @@ import xyz.zedler.patrick.grocy.model.TaskCategory;
 import xyz.zedler.patrick.grocy.repository.TasksRepository;
 import xyz.zedler.patrick.grocy.util.Constants;
 import xyz.zedler.patrick.grocy.util.Constants.PREF;
+import xyz.zedler.patrick.grocy.util.LogUtil;
 import xyz.zedler.patrick.grocy.util.PluralUtil;
 import xyz.zedler.patrick.grocy.util.PrefsUtil;
 import xyz.zedler.patrick.grocy.util.SortUtil;
@@ -72,8 +73,10 @@ public class TasksViewModel extends BaseViewModel {
   private List<TaskCategory> taskCategories;
   private HashMap<Integer, Task> taskHashMap;
 
+  private final DatabaseObserverHelper dbObserver;
   private DownloadHelper.Queue currentQueueLoading;
   private String searchInput;
+  private boolean downloadAfterLoading;
   private String sortMode;
   private int tasksNotDoneCount;
   private int tasksDoneCount;
@@ -90,6 +93,7 @@ public class TasksViewModel extends BaseViewModel {
     dlHelper = new DownloadHelper(getApplication(), TAG, isLoadingLive::setValue);
     grocyApi = new GrocyApi(getApplication());
     repository = new TasksRepository(application);
+    dbObserver = new DatabaseObserverHelper();
     pluralUtil = new PluralUtil(application);
 
     infoFullscreenLive = new MutableLiveData<>();
@@ -111,35 +115,49 @@ public class TasksViewModel extends BaseViewModel {
   }
 
   public void loadFromDatabase(boolean downloadAfterLoading) {
-    repository.loadFromDatabase(data -> {
-          this.taskCategories = data.getTaskGroups();
-          this.tasks = data.getTasks();
-          taskHashMap = new HashMap<>();
-          for (Task task : tasks) {
-            taskHashMap.put(task.getId(), task);
-          }
+    if (dbObserver.isObserving()) {
+      if (downloadAfterLoading) {
+        downloadData();
+      }
+      return;
+    }
+    this.downloadAfterLoading = downloadAfterLoading;
+    dbObserver.observe(
+        repository.getTaskCategoriesFlowable(),
+        taskCategories -> this.taskCategories = taskCategories
+    ).observe(
+        repository.getTasksFlowable(),
+        this::setTasks
+    ).setOnChangedListener(() -> {
+      updateFilteredTasks();
+      if (this.downloadAfterLoading) {
+        this.downloadAfterLoading = false;
+        downloadData();
+      }
+    });
+  }
 
-          tasksDoneCount = 0;
-          tasksNotDoneCount = 0;
-          for (Task task : tasks) {
-            if (task.isDone()) {
-              tasksDoneCount++;
-            } else {
-              tasksNotDoneCount++;
-            }
-          }
+  private void setTasks(List<Task> tasks) {
+    this.tasks = tasks;
+    taskHashMap = new HashMap<>();
+    for (Task task : tasks) {
+      taskHashMap.put(task.getId(), task);
+    }
 
-          filterChipLiveDataStatus
-              .setDueSoonCount(0)
-              .setOverdueCount(0)
-              .emitCounts();
+    tasksDoneCount = 0;
+    tasksNotDoneCount = 0;
+    for (Task task : tasks) {
+      if (task.isDone()) {
+        tasksDoneCount++;
+      } else {
+        tasksNotDoneCount++;
+      }
+    }
 
-          updateFilteredTasks();
-          if (downloadAfterLoading) {
-            downloadData();
-          }
-        }
-    );
+    filterChipLiveDataStatus
+        .setDueSoonCount(0)
+        .setOverdueCount(0)
+        .emitCounts();
   }
 
   public void downloadData(@Nullable String dbChangedTime) {
@@ -162,13 +180,7 @@ public class TasksViewModel extends BaseViewModel {
         dlHelper.updateTaskCategories(
             dbChangedTime,
             taskCategories -> this.taskCategories = taskCategories
-        ), dlHelper.updateTasks(dbChangedTime, tasks -> {
-          this.tasks = tasks;
-          taskHashMap = new HashMap<>();
-          for (Task task : tasks) {
-            taskHashMap.put(task.getId(), task);
-          }
-        })
+        ), dlHelper.updateTasks(dbChangedTime, this::setTasks)
     );
 
     if (queue.isEmpty()) {
@@ -194,7 +206,7 @@ public class TasksViewModel extends BaseViewModel {
 
   private void onDownloadError(@Nullable VolleyError error) {
     if (debug) {
-      Log.e(TAG, "onError: VolleyError: " + error);
+      LogUtil.e(TAG, "onError: VolleyError: " + error);
     }
     showMessage(getString(R.string.msg_no_connection));
     if (!isOffline()) {
@@ -249,9 +261,9 @@ public class TasksViewModel extends BaseViewModel {
     } catch (JSONException e) {
       if (debug) {
         if (completed) {
-          Log.e(TAG, "completeTask: " + e);
+          LogUtil.e(TAG, "completeTask: " + e);
         } else {
-          Log.e(TAG, "undoTask: " + e);
+          LogUtil.e(TAG, "undoTask: " + e);
         }
       }
     }
@@ -265,9 +277,9 @@ public class TasksViewModel extends BaseViewModel {
                 .getString("transaction_id");
           } catch (JSONException e) {
             if (completed) {
-              Log.e(TAG, "completeTask: " + e);
+              LogUtil.e(TAG, "completeTask: " + e);
             } else {
-              Log.e(TAG, "undoTask: " + e);
+              LogUtil.e(TAG, "undoTask: " + e);
             }
           }
 
@@ -279,20 +291,20 @@ public class TasksViewModel extends BaseViewModel {
           downloadData();
           showSnackbar(snackbarMsg);
           if (completed) {
-            Log.i(
+            LogUtil.i(
                 TAG, "completeTask: completed " + task.getName()
             );
           } else {
-            Log.i(TAG, "undoTask: undone" + task.getName());
+            LogUtil.i(TAG, "undoTask: undone" + task.getName());
           }
         },
         error -> {
           showErrorMessage(error);
           if (debug) {
             if (completed) {
-              Log.i(TAG, "completeTask: " + error);
+              LogUtil.i(TAG, "completeTask: " + error);
             } else {
-              Log.i(TAG, "undoTask: " + error);
+              LogUtil.i(TAG, "undoTask: " + error);
             }
           }
         }
@@ -403,6 +415,7 @@ public class TasksViewModel extends BaseViewModel {
 
   @Override
   protected void onCleared() {
+    dbObserver.dispose();
     dlHelper.destroy();
     super.onCleared();
   }
@@ -0,0 +1,90 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.web;
+
+import com.android.volley.DefaultRetryPolicy;
+import com.android.volley.Request;
+import com.android.volley.RetryPolicy;
+import com.android.volley.TimeoutError;
+import com.android.volley.VolleyError;
+
+/**
+ * Timeout and retries of GET requests follow the latency estimate of their endpoint.
+ * Other requests keep the user timeout and are never re-sent, because a POST which timed out
+ * may still have been executed on the server, e.g. a purchase would be booked twice.
+ * The timeout is used by the socket for the connect and for every single read, it does not
+ * limit the whole download. So the estimate is fed with the time to the first byte of the
+ * response, measured by {@link FirstByteTimingStack}, and not with the total time, which grows
+ * with the size of the response.
+ */
+public class AdaptiveRetryPolicy implements RetryPolicy {
+
+  private final LatencyTracker latencyTracker;
+  private final String endpointKey;
+  private final int maxRetries;
+  private int currentTimeoutMs;
+  private int currentRetryCount;
+
+  public AdaptiveRetryPolicy(int method, String url, int timeoutSeconds) {
+    latencyTracker = LatencyTracker.getInstance();
+    endpointKey = LatencyTracker.getEndpointKey(method, url);
+    int userTimeoutMs = timeoutSeconds * 1000;
+    if (method == Request.Method.GET) {
+      currentTimeoutMs = latencyTracker.getTimeoutMs(endpointKey, userTimeoutMs);
+      maxRetries = latencyTracker.getMaxRetries(
+          endpointKey, userTimeoutMs, DefaultRetryPolicy.DEFAULT_MAX_RETRIES
+      );
+    } else {
+      currentTimeoutMs = userTimeoutMs;
+      maxRetries = 0;
+    }
+    currentRetryCount = 0;
+    latencyTracker.onRequestStarted();
+  }
+
+  public static void onFirstByte(RetryPolicy policy, long timeToFirstByteMs) {
+    if (policy instanceof AdaptiveRetryPolicy) {
+      AdaptiveRetryPolicy adaptivePolicy = (AdaptiveRetryPolicy) policy;
+      adaptivePolicy.latencyTracker.onResponse(adaptivePolicy.endpointKey, timeToFirstByteMs);
+    }
+  }
+
+  @Override
+  public int getCurrentTimeout() {
+    return currentTimeoutMs;
+  }
+
+  @Override
+  public int getCurrentRetryCount() {
+    return currentRetryCount;
+  }
+
+  @Override
+  public void retry(VolleyError error) throws VolleyError {
+    if (error instanceof TimeoutError) {
+      latencyTracker.onTimeout(endpointKey, currentTimeoutMs);
+    }
+    if (currentRetryCount >= maxRetries || !latencyTracker.tryAcquireRetry()) {
+      throw error;
+    }
+    currentRetryCount++;
+    currentTimeoutMs += (int) (currentTimeoutMs * DefaultRetryPolicy.DEFAULT_BACKOFF_MULT);
+  }
+}
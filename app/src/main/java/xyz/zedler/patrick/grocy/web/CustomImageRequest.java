@@ -0,0 +1,115 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.web;
+
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.util.Base64;
+import android.widget.ImageView.ScaleType;
+import androidx.annotation.Nullable;
+import com.android.volley.Cache;
+import com.android.volley.NetworkResponse;
+import com.android.volley.Response;
+import com.android.volley.toolbox.HttpHeaderParser;
+import com.android.volley.toolbox.ImageRequest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import xyz.zedler.patrick.grocy.util.Constants;
+
+public class CustomImageRequest extends ImageRequest {
+
+  // pictures get a new file name on the server when they are replaced
+  private final static long CACHE_TTL_MS = 30L * 24 * 60 * 60 * 1000;
+
+  private final String url;
+  private final String cacheKey;
+  private final SharedPreferences sharedPrefs;
+
+  public CustomImageRequest(
+      String url,
+      String cacheKey,
+      SharedPreferences sharedPrefs,
+      Response.Listener<Bitmap> listener,
+      int maxWidth,
+      int maxHeight,
+      ScaleType scaleType,
+      @Nullable Response.ErrorListener errorListener
+  ) {
+    // RGB_565 halves the memory of pictures, they have no transparency anyway
+    super(url, listener, maxWidth, maxHeight, scaleType, Bitmap.Config.RGB_565, errorListener);
+    this.url = url;
+    this.cacheKey = cacheKey;
+    this.sharedPrefs = sharedPrefs;
+    setShouldCache(true);
+  }
+
+  @Override
+  public String getCacheKey() {
+    return cacheKey;
+  }
+
+  @Override
+  protected Response<Bitmap> parseNetworkResponse(NetworkResponse response) {
+    Response<Bitmap> parsed = super.parseNetworkResponse(response);
+    if (!parsed.isSuccess()) {
+      return parsed;
+    }
+    Cache.Entry entry = HttpHeaderParser.parseCacheHeaders(response);
+    if (entry == null) { // server forbids caching, but the file name changes with the content
+      entry = new Cache.Entry();
+      entry.data = response.data;
+      entry.responseHeaders = response.headers;
+      entry.allResponseHeaders = response.allHeaders;
+    }
+    long now = System.currentTimeMillis();
+    entry.softTtl = now + CACHE_TTL_MS;
+    entry.ttl = now + CACHE_TTL_MS;
+    return Response.success(parsed.result, entry);
+  }
+
+  @Override
+  public Map<String, String> getHeaders() {
+    Map<String, String> params = new HashMap<>();
+
+    Matcher matcher = Pattern.compile("(http|https)://(\\S+):(\\S+)@(\\S+)").matcher(url);
+    if (matcher.matches()) {
+      String user = matcher.group(2);
+      String password = matcher.group(3);
+      byte[] combination = (user + ":" + password).getBytes();
+      String encoded = Base64.encodeToString(combination, Base64.DEFAULT);
+      params.put("Authorization", "Basic " + encoded);
+    }
+    String apiKey = sharedPrefs.getString(Constants.PREF.API_KEY, null);
+    if (apiKey != null && !apiKey.isEmpty()) {
+      params.put("GROCY-API-KEY", apiKey);
+    }
+    String sessionKey = sharedPrefs.getString(
+        Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY, null
+    );
+    if (sharedPrefs.getString(Constants.PREF.HOME_ASSISTANT_SERVER_URL, null) != null
+        && sessionKey != null) {
+      params.put("Cookie", "ingress_session=" + sessionKey);
+    }
+    return params.isEmpty() ? Collections.emptyMap() : params;
+  }
+}
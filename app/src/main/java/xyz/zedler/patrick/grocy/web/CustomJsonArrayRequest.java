@@ -21,11 +21,9 @@ package xyz.zedler.patrick.grocy.web;
 
 import android.util.Base64;
 import androidx.annotation.Nullable;
-import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.NetworkResponse;
 import com.android.volley.ParseError;
 import com.android.volley.Response;
-import com.android.volley.RetryPolicy;
 import com.android.volley.toolbox.HttpHeaderParser;
 import com.android.volley.toolbox.JsonRequest;
 import java.io.UnsupportedEncodingException;
@@ -78,12 +76,7 @@ public class CustomJsonArrayRequest extends JsonRequest<JSONArray> {
       setTag(tag);
     }
     setShouldCache(false);
-    RetryPolicy policy = new DefaultRetryPolicy(
-        timeoutSeconds * 1000,
-        DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-        DefaultRetryPolicy.DEFAULT_BACKOFF_MULT
-    );
-    setRetryPolicy(policy);
+    setRetryPolicy(new AdaptiveRetryPolicy(method, url, timeoutSeconds));
   }
 
   @Override
@@ -21,11 +21,9 @@ package xyz.zedler.patrick.grocy.web;
 
 import android.util.Base64;
 import androidx.annotation.Nullable;
-import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.NetworkResponse;
 import com.android.volley.ParseError;
 import com.android.volley.Response;
-import com.android.volley.RetryPolicy;
 import com.android.volley.toolbox.HttpHeaderParser;
 import com.android.volley.toolbox.JsonObjectRequest;
 import java.io.UnsupportedEncodingException;
@@ -79,12 +77,7 @@ public class CustomJsonObjectRequest extends JsonObjectRequest {
       setTag(tag);
     }
     setShouldCache(false);
-    RetryPolicy policy = new DefaultRetryPolicy(
-        timeoutSeconds * 1000,
-        DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-        DefaultRetryPolicy.DEFAULT_BACKOFF_MULT
-    );
-    setRetryPolicy(policy);
+    setRetryPolicy(new AdaptiveRetryPolicy(method, url, timeoutSeconds));
   }
 
   public CustomJsonObjectRequest( // for Home Assistant
@@ -119,12 +112,7 @@ public class CustomJsonObjectRequest extends JsonObjectRequest {
       setTag(tag);
     }
     setShouldCache(false);
-    RetryPolicy policy = new DefaultRetryPolicy(
-        timeoutSeconds * 1000,
-        DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-        DefaultRetryPolicy.DEFAULT_BACKOFF_MULT
-    );
-    setRetryPolicy(policy);
+    setRetryPolicy(new AdaptiveRetryPolicy(Method.POST, url, timeoutSeconds));
   }
 
   @Override
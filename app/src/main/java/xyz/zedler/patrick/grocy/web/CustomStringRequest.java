@@ -21,9 +21,7 @@ package xyz.zedler.patrick.grocy.web;
 
 import android.util.Base64;
 import androidx.annotation.Nullable;
-import com.android.volley.DefaultRetryPolicy;
 import com.android.volley.Response;
-import com.android.volley.RetryPolicy;
 import com.android.volley.toolbox.StringRequest;
 import java.util.Collections;
 import java.util.HashMap;
@@ -89,12 +87,7 @@ public class CustomStringRequest extends StringRequest {
       setTag(tag);
     }
     setShouldCache(false);
-    RetryPolicy policy = new DefaultRetryPolicy(
-        timeoutSeconds * 1000,
-        DefaultRetryPolicy.DEFAULT_MAX_RETRIES,
-        DefaultRetryPolicy.DEFAULT_BACKOFF_MULT
-    );
-    setRetryPolicy(policy);
+    setRetryPolicy(new AdaptiveRetryPolicy(method, url, timeoutSeconds));
   }
 
   public CustomStringRequest(
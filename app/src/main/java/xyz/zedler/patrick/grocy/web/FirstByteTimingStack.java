@@ -0,0 +1,55 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.web;
+
+import android.os.SystemClock;
+import com.android.volley.AuthFailureError;
+import com.android.volley.Request;
+import com.android.volley.toolbox.BaseHttpStack;
+import com.android.volley.toolbox.HttpResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Measures the time until the response headers of a request arrive and passes it to the retry
+ * policy of the request. The body is read later by the network, so a large response does not
+ * make the measured time longer.
+ */
+public class FirstByteTimingStack extends BaseHttpStack {
+
+  private final BaseHttpStack stack;
+
+  public FirstByteTimingStack(BaseHttpStack stack) {
+    this.stack = stack;
+  }
+
+  @Override
+  public HttpResponse executeRequest(
+      Request<?> request,
+      Map<String, String> additionalHeaders
+  ) throws IOException, AuthFailureError {
+    long start = SystemClock.elapsedRealtime();
+    HttpResponse response = stack.executeRequest(request, additionalHeaders);
+    AdaptiveRetryPolicy.onFirstByte(
+        request.getRetryPolicy(), SystemClock.elapsedRealtime() - start
+    );
+    return response;
+  }
+}
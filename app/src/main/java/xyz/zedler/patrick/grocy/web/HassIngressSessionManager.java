@@ -0,0 +1,277 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.web;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceManager;
+import com.android.volley.AuthFailureError;
+import java.util.ArrayList;
+import java.util.Objects;
+import org.json.JSONException;
+import org.json.JSONObject;
+import xyz.zedler.patrick.grocy.util.Constants;
+import xyz.zedler.patrick.grocy.util.DateUtil;
+import xyz.zedler.patrick.grocy.util.LogUtil;
+
+/**
+ * Keeps the Home Assistant ingress session alive in the background, so that requests can use the
+ * stored session key right away instead of waiting for a validation round trip.
+ */
+public class HassIngressSessionManager {
+
+  private final static String TAG = HassIngressSessionManager.class.getSimpleName();
+
+  // Home Assistant drops ingress sessions which were not validated for 15 minutes
+  private final static long SESSION_USABLE_MS = 10 * 60 * 1000;
+  private final static long SESSION_FRESH_MS = 60 * 1000;
+  private final static long KEEP_ALIVE_INTERVAL_MS = 4 * 60 * 1000;
+  private final static long IDLE_TIMEOUT_MS = 15 * 60 * 1000;
+
+  private static HassIngressSessionManager instance;
+
+  private final Context context;
+  private final SharedPreferences sharedPrefs;
+  private final DateUtil dateUtil;
+  private final Handler handler;
+  private final ArrayList<OnSessionListener> successListeners;
+  private final ArrayList<OnSessionListener> errorListeners;
+  private final Runnable keepAliveRunnable;
+  private String hassServerUrl;
+  private String hassLongLivedAccessToken;
+  private int timeoutSeconds;
+  private boolean isValidating;
+  private long lastUseTime;
+  private int generation;
+
+  private HassIngressSessionManager(Context context) {
+    this.context = context.getApplicationContext();
+    sharedPrefs = PreferenceManager.getDefaultSharedPreferences(this.context);
+    dateUtil = new DateUtil(this.context);
+    handler = new Handler(Looper.getMainLooper());
+    successListeners = new ArrayList<>();
+    errorListeners = new ArrayList<>();
+    keepAliveRunnable = this::keepAlive;
+    isValidating = false;
+  }
+
+  public static synchronized HassIngressSessionManager getInstance(Context context) {
+    if (instance == null) {
+      instance = new HassIngressSessionManager(context);
+    }
+    return instance;
+  }
+
+  public synchronized void getSessionKey(
+      String hassServerUrl,
+      String hassLongLivedAccessToken,
+      int timeoutSeconds,
+      OnSessionListener onSuccessListener,
+      OnSessionListener onErrorListener
+  ) {
+    if (!Objects.equals(hassServerUrl, this.hassServerUrl)
+        || !Objects.equals(hassLongLivedAccessToken, this.hassLongLivedAccessToken)) {
+      handler.removeCallbacks(keepAliveRunnable);
+    }
+    this.hassServerUrl = hassServerUrl;
+    this.hassLongLivedAccessToken = hassLongLivedAccessToken;
+    this.timeoutSeconds = timeoutSeconds;
+    lastUseTime = System.currentTimeMillis();
+
+    String sessionKey = getStoredSessionKey();
+    long sessionAge = getStoredSessionAge();
+    if (sessionKey != null && sessionAge < SESSION_USABLE_MS) {
+      onSuccessListener.onSession(sessionKey);
+      if (sessionAge >= SESSION_FRESH_MS) {
+        validate(null, null); // refresh in background, the key is still accepted meanwhile
+      }
+      return;
+    }
+    validate(onSuccessListener, onErrorListener);
+  }
+
+  /**
+   * Stops the keep-alive and drops responses of a running validation, must be called when the
+   * stored session is cleared on logout, so that the old server is not contacted anymore.
+   */
+  public synchronized void reset() {
+    handler.removeCallbacks(keepAliveRunnable);
+    hassServerUrl = null;
+    hassLongLivedAccessToken = null;
+    generation++;
+    isValidating = false;
+    successListeners.clear();
+    errorListeners.clear();
+  }
+
+  /**
+   * Drops the stored session after Home Assistant rejected a request with it, so that the next
+   * call of {@link #getSessionKey} creates a new session instead of handing out the stored key
+   * until it is too old. A rejected older key does not drop a session which was renewed meanwhile.
+   */
+  public synchronized void invalidateSession(String sessionKey) {
+    if (!sessionKey.equals(getStoredSessionKey())) {
+      return;
+    }
+    handler.removeCallbacks(keepAliveRunnable);
+    sharedPrefs.edit()
+        .remove(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY)
+        .remove(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY_TIME)
+        .apply();
+  }
+
+  private void validate(
+      @Nullable OnSessionListener onSuccessListener,
+      @Nullable OnSessionListener onErrorListener
+  ) {
+    if (onSuccessListener != null) {
+      successListeners.add(onSuccessListener);
+    }
+    if (onErrorListener != null) {
+      errorListeners.add(onErrorListener);
+    }
+    if (isValidating) {
+      return; // all callers share the validation which is already running
+    }
+    isValidating = true;
+    sessionAuth(getStoredSessionKey(), generation);
+  }
+
+  private synchronized void keepAlive() {
+    if (hassServerUrl == null
+        || System.currentTimeMillis() - lastUseTime > IDLE_TIMEOUT_MS) {
+      return; // app is not in use, session will be renewed on next request
+    }
+    validate(null, null);
+  }
+
+  private void sessionAuth(@Nullable String sessionOld, int requestGeneration) {
+    String hassUrlExtension;
+    JSONObject jsonObject = null;
+    if (sessionOld != null) {
+      hassUrlExtension = "/api/hassio/ingress/validate_session";
+      try {
+        jsonObject = new JSONObject();
+        jsonObject.put("session", sessionOld);
+      } catch (JSONException e) {
+        LogUtil.e(TAG, "sessionAuth: JSONException1", e);
+      }
+    } else {
+      hassUrlExtension = "/api/hassio/ingress/session";
+    }
+
+    CustomJsonObjectRequest request = new CustomJsonObjectRequest(
+        hassServerUrl + hassUrlExtension,
+        hassLongLivedAccessToken,
+        jsonObject,
+        response -> {
+          if (isOutdated(requestGeneration)) {
+            return;
+          }
+          try {
+            boolean isOk = response.get("result").equals("ok");
+            JSONObject data = isOk && response.has("data") ? response.getJSONObject("data") : null;
+            String session = data != null && data.has("session") ? data.getString("session") : null;
+            if (session != null) {
+              storeSession(session);
+              onFinished(session, true);
+            } else if (isOk && sessionOld != null) {
+              storeSession(sessionOld);
+              onFinished(sessionOld, true);
+            } else {
+              LogUtil.e(TAG, "sessionAuth: " + hassUrlExtension + ": bad response: " + response);
+              onFinished(null, false);
+            }
+          } catch (JSONException e) {
+            LogUtil.e(TAG, "sessionAuth: " + hassUrlExtension + ": JSONException2", e);
+            onFinished(null, false);
+          }
+        },
+        error -> {
+          if (isOutdated(requestGeneration)) {
+            return;
+          }
+          LogUtil.e(TAG, "sessionAuth: " + hassUrlExtension + ": error: " + error);
+          if (sessionOld != null && error instanceof AuthFailureError) {
+            sessionAuth(null, requestGeneration);
+            return;
+          }
+          onFinished(null, false);
+        },
+        null,
+        timeoutSeconds,
+        TAG
+    );
+    RequestQueueSingleton.getInstance(context).getRequestQueue().add(request);
+  }
+
+  private synchronized boolean isOutdated(int requestGeneration) {
+    return requestGeneration != generation;
+  }
+
+  private synchronized void onFinished(@Nullable String session, boolean success) {
+    isValidating = false;
+    ArrayList<OnSessionListener> listeners = new ArrayList<>(
+        success ? successListeners : errorListeners
+    );
+    successListeners.clear();
+    errorListeners.clear();
+    for (OnSessionListener listener : listeners) {
+      listener.onSession(session);
+    }
+    handler.removeCallbacks(keepAliveRunnable);
+    if (success) {
+      handler.postDelayed(keepAliveRunnable, KEEP_ALIVE_INTERVAL_MS);
+    }
+  }
+
+  private void storeSession(String session) {
+    sharedPrefs.edit().putString(
+        Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY,
+        session
+    ).putString(
+        Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY_TIME,
+        dateUtil.getCurrentDateWithTimeStr()
+    ).apply();
+  }
+
+  @Nullable
+  private String getStoredSessionKey() {
+    return sharedPrefs.getString(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY, null);
+  }
+
+  private long getStoredSessionAge() {
+    long sessionTime = DateUtil.getMillisFromDateWithTimeStr(
+        sharedPrefs.getString(Constants.PREF.HOME_ASSISTANT_INGRESS_SESSION_KEY_TIME, null)
+    );
+    if (sessionTime < 0) {
+      return Long.MAX_VALUE;
+    }
+    return Math.abs(System.currentTimeMillis() - sessionTime);
+  }
+
+  public interface OnSessionListener {
+
+    void onSession(@Nullable String sessionKey);
+  }
+}
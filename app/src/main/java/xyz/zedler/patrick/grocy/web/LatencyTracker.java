@@ -0,0 +1,173 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.web;
+
+import android.net.Uri;
+import androidx.annotation.NonNull;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps smoothed estimates of the time to the first response byte per endpoint (the same way TCP
+ * estimates its RTO) and a global retry budget, so that timeouts and retries follow what the
+ * connection really does.
+ */
+public class LatencyTracker {
+
+  private final static int MIN_TIMEOUT_MS = 3000;
+  private final static int MAX_TIMEOUT_FACTOR = 4; // max timeout = user timeout * factor
+  private final static double ALPHA = 0.125;
+  private final static double BETA = 0.25;
+  private final static int MAX_ENDPOINTS = 100;
+
+  // every request earns 0.1 retry tokens, every retry costs one token
+  private final static double RETRY_BUDGET_MAX = 10;
+  private final static double RETRY_BUDGET_RATIO = 0.1;
+
+  private static LatencyTracker instance;
+
+  private final ConcurrentHashMap<String, Estimate> estimates;
+  private double retryTokens;
+
+  private LatencyTracker() {
+    estimates = new ConcurrentHashMap<>();
+    retryTokens = RETRY_BUDGET_MAX;
+  }
+
+  public static synchronized LatencyTracker getInstance() {
+    if (instance == null) {
+      instance = new LatencyTracker();
+    }
+    return instance;
+  }
+
+  public static String getEndpointKey(int method, String url) {
+    Uri uri = Uri.parse(url);
+    StringBuilder key = new StringBuilder().append(method).append(' ');
+    if (uri.getPath() == null) {
+      return key.append(url).toString();
+    }
+    // ids and barcodes in the path would split one endpoint into many estimates
+    String previous = null;
+    for (String segment : uri.getPathSegments()) {
+      key.append('/');
+      if ("by-barcode".equals(previous)) {
+        key.append("{barcode}");
+      } else if (segment.matches("\\d+")) {
+        key.append("{id}");
+      } else if (segment.matches("\\d+\\.\\w+")) { // e.g. Open Food Facts /product/<barcode>.json
+        key.append("{id}").append(segment.substring(segment.indexOf('.')));
+      } else {
+        key.append(segment);
+      }
+      previous = segment;
+    }
+    return key.toString();
+  }
+
+  public void onResponse(String endpointKey, long durationMs) {
+    getEstimate(endpointKey).addSample(durationMs);
+  }
+
+  public void onTimeout(String endpointKey, int timeoutMs) {
+    // we only know that it took at least as long as the timeout
+    getEstimate(endpointKey).addSample(timeoutMs);
+  }
+
+  public int getTimeoutMs(String endpointKey, int userTimeoutMs) {
+    Estimate estimate = estimates.get(endpointKey);
+    if (estimate == null || !estimate.hasSamples()) {
+      return userTimeoutMs;
+    }
+    int timeout = (int) estimate.getRetransmissionTimeout();
+    return Math.max(MIN_TIMEOUT_MS, Math.min(timeout, userTimeoutMs * MAX_TIMEOUT_FACTOR));
+  }
+
+  public int getMaxRetries(String endpointKey, int userTimeoutMs, int defaultRetries) {
+    Estimate estimate = estimates.get(endpointKey);
+    if (estimate != null && estimate.hasSamples()
+        && estimate.getSmoothed() > userTimeoutMs / 4.0) {
+      // a slow server is not faster for a second copy of the request, a longer timeout is cheaper
+      return 0;
+    }
+    return defaultRetries;
+  }
+
+  public synchronized void onRequestStarted() {
+    retryTokens = Math.min(RETRY_BUDGET_MAX, retryTokens + RETRY_BUDGET_RATIO);
+  }
+
+  public synchronized boolean tryAcquireRetry() {
+    if (retryTokens < 1) {
+      return false;
+    }
+    retryTokens -= 1;
+    return true;
+  }
+
+  public synchronized void reset() {
+    estimates.clear();
+    retryTokens = RETRY_BUDGET_MAX;
+  }
+
+  @NonNull
+  private Estimate getEstimate(String endpointKey) {
+    Estimate estimate = estimates.get(endpointKey);
+    if (estimate == null && estimates.size() >= MAX_ENDPOINTS) {
+      // unknown endpoints beyond the limit are not tracked, so the map can't grow without bound
+      return new Estimate();
+    }
+    if (estimate == null) {
+      estimate = new Estimate();
+      Estimate existing = estimates.putIfAbsent(endpointKey, estimate);
+      if (existing != null) {
+        estimate = existing;
+      }
+    }
+    return estimate;
+  }
+
+  private static class Estimate {
+
+    private double smoothed = -1;
+    private double variation;
+
+    synchronized void addSample(long durationMs) {
+      if (smoothed < 0) {
+        smoothed = durationMs;
+        variation = durationMs / 2.0;
+        return;
+      }
+      variation = (1 - BETA) * variation + BETA * Math.abs(smoothed - durationMs);
+      smoothed = (1 - ALPHA) * smoothed + ALPHA * durationMs;
+    }
+
+    synchronized boolean hasSamples() {
+      return smoothed >= 0;
+    }
+
+    synchronized double getSmoothed() {
+      return smoothed;
+    }
+
+    synchronized double getRetransmissionTimeout() {
+      return smoothed + 4 * variation;
+    }
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * This file is part of Grocy Android.
+ *
+ * Grocy Android is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Grocy Android is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Grocy Android. If not, see http://www.gnu.org/licenses/.
+ *
+ * Copyright (c) 2020-2022 by Patrick Zedler and Dominic Zedler
+ */
+
+package xyz.zedler.patrick.grocy.web;
+
+import android.app.Application;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.util.LruCache;
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.ImageView.ScaleType;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.android.volley.Request;
+import com.android.volley.RequestQueue;
+import com.android.volley.VolleyError;
+import com.android.volley.toolbox.ImageLoader;
+import com.android.volley.toolbox.ImageLoader.ImageContainer;
+import com.android.volley.toolbox.ImageLoader.ImageListener;
+import xyz.zedler.patrick.grocy.R;
+import xyz.zedler.patrick.grocy.api.GrocyApi;
+import xyz.zedler.patrick.grocy.util.UnitUtil;
+
+/**
+ * Loads product pictures which the server resized to the requested size. The bitmaps are
+ * downsampled on the network threads and kept in a memory cache of bounded size, the responses
+ * are kept in the disk cache of the image request queue.
+ */
+public class ProductPictureLoader {
+
+  private final static int THUMBNAIL_SIZE_DP = 40;
+  private final static int PREFETCH_COUNT = 6;
+
+  private static ProductPictureLoader instance;
+
+  private final Application application;
+  private final SharedPreferences sharedPrefs;
+  private final LruCache<String, Bitmap> memoryCache;
+  private final int thumbnailSize;
+  private ImageLoader imageLoader;
+  private RequestQueue imageLoaderQueue;
+
+  private ProductPictureLoader(Context context) {
+    application = (Application) context.getApplicationContext();
+    sharedPrefs = PreferenceManager.getDefaultSharedPreferences(application);
+    thumbnailSize = UnitUtil.dpToPx(application, THUMBNAIL_SIZE_DP);
+
+    int maxSize = (int) Math.min(Runtime.getRuntime().maxMemory() / 8, 16 * 1024 * 1024);
+    memoryCache = new LruCache<String, Bitmap>(maxSize) {
+      @Override
+      protected int sizeOf(String key, Bitmap bitmap) {
+        return bitmap.getByteCount();
+      }
+    };
+  }
+
+  public static synchronized ProductPictureLoader getInstance(Context context) {
+    if (instance == null) {
+      instance = new ProductPictureLoader(context);
+    }
+    return instance;
+  }
+
+  /**
+   * Cancels the request of the previous container and shows the thumbnail of the given picture,
+   * the view is hidden if the product has no picture.
+   */
+  @Nullable
+  public ImageContainer loadThumbnail(
+      @NonNull ImageView imageView,
+      @Nullable String pictureFileName,
+      @Nullable ImageContainer previous
+  ) {
+    return load(
+        imageView, pictureFileName, thumbnailSize, thumbnailSize, ScaleType.CENTER_CROP, previous
+    );
+  }
+
+  @Nullable
+  public ImageContainer load(
+      @NonNull ImageView imageView,
+      @Nullable String pictureFileName,
+      int maxWidth,
+      int maxHeight,
+      ScaleType scaleType,
+      @Nullable ImageContainer previous
+  ) {
+    String url = getUrl(pictureFileName, maxWidth, maxHeight);
+    if (previous != null) {
+      if (url != null && url.equals(previous.getRequestUrl()) && previous.getBitmap() != null) {
+        return previous; // view was bound to the same product again
+      }
+      previous.cancelRequest();
+    }
+    if (url == null) {
+      imageView.setImageDrawable(null);
+      imageView.setVisibility(View.GONE);
+      return null;
+    }
+    imageView.setVisibility(View.VISIBLE);
+    return getImageLoader().get(url, new ImageListener() {
+      @Override
+      public void onResponse(ImageContainer response, boolean isImmediate) {
+        if (response.getBitmap() != null) {
+          imageView.setImageBitmap(response.getBitmap());
+        } else if (isImmediate) {
+          imageView.setImageResource(R.drawable.ic_round_image);
+        }
+      }
+
+      @Override
+      public void onErrorResponse(VolleyError error) {
+        imageView.setImageResource(R.drawable.ic_round_image);
+      }
+    }, maxWidth, maxHeight, scaleType);
+  }
+
+  public void prefetchThumbnail(@Nullable String pictureFileName) {
+    String url = getUrl(pictureFileName, thumbnailSize, thumbnailSize);
+    if (url == null) {
+      return;
+    }
+    ImageLoader imageLoader = getImageLoader();
+    if (imageLoader.isCached(url, thumbnailSize, thumbnailSize, ScaleType.CENTER_CROP)) {
+      return;
+    }
+    imageLoader.get(url, new ImageListener() {
+      @Override
+      public void onResponse(ImageContainer response, boolean isImmediate) {
+      }
+
+      @Override
+      public void onErrorResponse(VolleyError error) {
+      }
+    }, thumbnailSize, thumbnailSize, ScaleType.CENTER_CROP);
+  }
+
+  @Nullable
+  private String getUrl(@Nullable String pictureFileName, int maxWidth, int maxHeight) {
+    if (pictureFileName == null || pictureFileName.isEmpty()) {
+      return null;
+    }
+    return new GrocyApi(application).getProductPicture(pictureFileName, maxWidth, maxHeight);
+  }
+
+  private ImageLoader getImageLoader() {
+    RequestQueue queue = RequestQueueSingleton.getInstance(application).getImageRequestQueue();
+    if (imageLoader == null || imageLoaderQueue != queue) {
+      imageLoaderQueue = queue;
+      imageLoader = new ImageLoader(queue, new ImageLoader.ImageCache() {
+        @Override
+        public Bitmap getBitmap(String url) {
+          return memoryCache.get(url);
+        }
+
+        @Override
+        public void putBitmap(String url, Bitmap bitmap) {
+          memoryCache.put(url, bitmap);
+        }
+      }) {
+        @Override
+        protected Request<Bitmap> makeImageRequest(
+            String requestUrl,
+            int maxWidth,
+            int maxHeight,
+            ScaleType scaleType,
+            String cacheKey
+        ) {
+          return new CustomImageRequest(
+              requestUrl,
+              cacheKey,
+              sharedPrefs,
+              response -> onGetImageSuccess(cacheKey, response),
+              maxWidth,
+              maxHeight,
+              scaleType,
+              error -> onGetImageError(cacheKey, error)
+          );
+        }
+      };
+      imageLoader.setBatchedResponseDelay(50); // one layout pass for pictures of a fling
+    }
+    return imageLoader;
+  }
+
+  public interface PictureFileNameProvider {
+
+    @Nullable
+    String getPictureFileName(int position);
+  }
+
+  /**
+   * Prefetches the thumbnails of the rows which will be scrolled into view next.
+   */
+  public static class PrefetchScrollListener extends RecyclerView.OnScrollListener {
+
+    private final ProductPictureLoader loader;
+    private final PictureFileNameProvider provider;
+    private int lastPrefetchedPosition = RecyclerView.NO_POSITION;
+
+    public PrefetchScrollListener(Context context, PictureFileNameProvider provider) {
+      this.loader = ProductPictureLoader.getInstance(context);
+      this.provider = provider;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+      if (dy == 0 || !(recyclerView.getLayoutManager() instanceof LinearLayoutManager)
+          || recyclerView.getAdapter() == null) {
+        return;
+      }
+      LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+      int direction = dy > 0 ? 1 : -1;
+      int edge = dy > 0
+          ? layoutManager.findLastVisibleItemPosition()
+          : layoutManager.findFirstVisibleItemPosition();
+      if (edge == RecyclerView.NO_POSITION || edge == lastPrefetchedPosition) {
+        return;
+      }
+      lastPrefetchedPosition = edge;
+      int itemCount = recyclerView.getAdapter().getItemCount();
+      for (int i = 1; i <= PREFETCH_COUNT; i++) {
+        int position = edge + direction * i;
+        if (position < 0 || position >= itemCount) {
+          break;
+        }
+        loader.prefetchThumbnail(provider.getPictureFileName(position));
+      }
+    }
+  }
+}
@@ -28,6 +28,7 @@ import com.android.volley.RequestQueue;
 import com.android.volley.toolbox.BasicNetwork;
 import com.android.volley.toolbox.DiskBasedCache;
 import com.android.volley.toolbox.HurlStack;
+import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.Socket;
@@ -36,13 +37,17 @@ import java.security.NoSuchAlgorithmException;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
+import xyz.zedler.patrick.grocy.helper.StartupHelper;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS.NETWORK;
 import xyz.zedler.patrick.grocy.util.Constants.SETTINGS_DEFAULT;
 
 public class RequestQueueSingleton {
 
+  private final static int IMAGE_CACHE_SIZE = 20 * 1024 * 1024;
+
   private static RequestQueueSingleton instance;
   private RequestQueue requestQueue;
+  private RequestQueue imageRequestQueue;
   private static Context ctx;
 
   private RequestQueueSingleton(Context context) {
@@ -69,6 +74,37 @@ public class RequestQueueSingleton {
 
     Cache cache = new DiskBasedCache(ctx.getCacheDir(), 1024 * 1024);
 
+    // estimates of the old connection (e.g. without Tor) are meaningless for the new one
+    LatencyTracker.getInstance().reset();
+
+    Network network = new BasicNetwork(new FirstByteTimingStack(newStack()));
+    requestQueue = new RequestQueue(cache, network, 6);
+    requestQueue.start();
+
+    if (imageRequestQueue != null) {
+      imageRequestQueue.stop();
+      imageRequestQueue = null;
+    }
+  }
+
+  /**
+   * Separate queue for pictures, so that they never delay data requests and don't evict the
+   * responses in the small cache of the main queue.
+   */
+  public RequestQueue getImageRequestQueue() {
+    if (imageRequestQueue == null) {
+      Cache cache = new DiskBasedCache(
+          new File(ctx.getCacheDir(), "product_pictures"), IMAGE_CACHE_SIZE
+      );
+      imageRequestQueue = new RequestQueue(cache, new BasicNetwork(newStack()), 2);
+      imageRequestQueue.start();
+    }
+    return imageRequestQueue;
+  }
+
+  private HurlStack newStack() {
+    // the TLS socket factories take the provider which is installed at the time of creation
+    StartupHelper.awaitSecurityProvider();
     SharedPreferences sharedPrefs = PreferenceManager.getDefaultSharedPreferences(ctx);
     boolean useTor = sharedPrefs.getBoolean(NETWORK.TOR, SETTINGS_DEFAULT.NETWORK.TOR);
     boolean useProxy = sharedPrefs.getBoolean(NETWORK.PROXY, SETTINGS_DEFAULT.NETWORK.PROXY);
@@ -83,9 +119,7 @@ public class RequestQueueSingleton {
         stack = new HurlStack();
       }
     }
-    Network network = new BasicNetwork(stack);
-    requestQueue = new RequestQueue(cache, network, 6);
-    requestQueue.start();
+    return stack;
   }
 
   private static class TLSSocketFactory extends SSLSocketFactory {